@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import com.instancesobp.batchingAlgorithm.constructiveHeuristic.BasicConstructive;
+import com.instancesobp.batchingAlgorithm.sortOrderList.SortByWeight;
+import com.instancesobp.instancesReader.legacy.GeneralInstancesLoader;
+import com.instancesobp.instancesReader.legacy.InstancesLoaderFromConsoleInfo;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm.ExecutionMode;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.RoutingAlgorithmType;
+import com.instancesobp.routingAlgorithm.RoutingCostCache;
+
+import static com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.selectAlgorithm;
+
+/**
+ * This class is used to stress test the thread-safety contract of the routing algorithms.
+ * For each legacy Albareda instance and each routing algorithm, a single instance of the
+ * algorithm is shared by several threads that route the same batches at the same time,
+ * each one starting at a different batch, through {@code run(Batch)}, {@code run(PickProfile)},
+ * {@code costIfAdded}, {@code costIfRemoved} and {@code runAll}. Every cost must be bit-for-bit
+ * equal to the cost calculated by a fresh instance of the algorithm in a single thread,
+ * otherwise an exception is thrown.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class TestConcurrentRouting {
+
+    /**
+     * Number of threads sharing each routing algorithm.
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * Number of times each thread routes all the batches.
+     */
+    private static final int ROUNDS = 3;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TestConcurrentRouting() {
+        throw new UnsupportedOperationException("This is a main class and cannot be instantiated");
+    }
+
+    /**
+     * Main method to stress test the routing algorithms from several threads.
+     * For each routing algorithm it prints the number of compared costs and the running time.
+     *
+     * @param args for command line arguments (not used).
+     * @throws Exception for any exception that may occur, including a cost that differs
+     *                   from the single-threaded one.
+     */
+    public static void main(String[] args) throws Exception {
+        List<InstancesLoaderFromConsoleInfo> instances = new GeneralInstancesLoader().getAllInstancesAlbareda();
+        // The last position is the combined plus algorithm decorated with a small routing cost cache.
+        RoutingAlgorithmType[] types = RoutingAlgorithmType.values();
+        long[] compared = new long[types.length + 1];
+        long[] times = new long[types.length + 1];
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (InstancesLoaderFromConsoleInfo instance : instances) {
+                Warehouse warehouse = instance.getWarehouse();
+                List<Batch> batchList = new BasicConstructive(warehouse, new SortByWeight(), false).run(warehouse.getOrders());
+                for (int t = 0; t <= types.length; t++) {
+                    RoutingAlgorithmType type = t < types.length ? types[t] : RoutingAlgorithmType.COMBINED_PLUS;
+                    double[] expected = routeAll(selectAlgorithm(type, warehouse), batchList, 0);
+                    RoutingAlgorithm shared = t == types.length
+                            ? new RoutingCostCache(selectAlgorithm(type, warehouse), 1 << 10)
+                            : selectAlgorithm(type, warehouse);
+
+                    long time = System.currentTimeMillis();
+                    List<Callable<double[]>> tasks = new ArrayList<>(THREADS);
+                    for (int thread = 0; thread < THREADS; thread++) {
+                        int start = thread * batchList.size() / THREADS;
+                        tasks.add(() -> routeAll(shared, batchList, start));
+                    }
+                    for (Future<double[]> future : executor.invokeAll(tasks)) {
+                        double[] actual;
+                        try {
+                            actual = future.get();
+                        } catch (ExecutionException e) {
+                            throw e.getCause() instanceof Exception cause ? cause : e;
+                        }
+                        compare(expected, actual, instance.getName() + " " + name(type, t == types.length));
+                        compared[t] += actual.length;
+                    }
+                    times[t] += System.currentTimeMillis() - time;
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        System.out.println("Algorithm;Threads;Compared costs;Running time (ms)");
+        for (int t = 0; t <= types.length; t++) {
+            RoutingAlgorithmType type = t < types.length ? types[t] : RoutingAlgorithmType.COMBINED_PLUS;
+            System.out.println(name(type, t == types.length) + ";" + THREADS + ";" + compared[t] + ";" + times[t]);
+        }
+        System.out.println("All the costs are equal to the single-threaded ones.");
+    }
+
+    /**
+     * Routes all the batches of a list with every entry point of a routing algorithm.
+     * The batches are visited cyclically from a given position, so threads starting at
+     * different positions route different batches at the same time. Each order is added
+     * to the following batch of the list, and removed from its own batch.
+     * The costs are returned in the order of the list, so the result does not depend on
+     * the starting position.
+     *
+     * @param routingAlgorithm The routing algorithm to use.
+     * @param batchList        The batches to route.
+     * @param start            The position of the first batch to route.
+     * @return The costs of every call, grouped by batch in the order of the list.
+     */
+    private static double[] routeAll(RoutingAlgorithm routingAlgorithm, List<Batch> batchList, int start) {
+        int size = batchList.size();
+        int[] offset = new int[size + 1];
+        for (int i = 0; i < size; i++) {
+            offset[i + 1] = offset[i] + 2 + 2 * batchList.get(i).getOrders().size();
+        }
+        double[] costs = new double[offset[size] + size * (ExecutionMode.values().length + 1)];
+
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int k = 0; k < size; k++) {
+                int i = (start + k) % size;
+                Batch batch = batchList.get(i);
+                Batch next = batchList.get((i + 1) % size);
+                int position = offset[i];
+                costs[position++] = routingAlgorithm.run(batch);
+                costs[position++] = routingAlgorithm.run(batch.getPickProfile());
+                for (Order order : batch.getOrders()) {
+                    costs[position++] = routingAlgorithm.costIfRemoved(batch, order);
+                    costs[position++] = routingAlgorithm.costIfAdded(next, order);
+                }
+            }
+        }
+
+        int position = offset[size];
+        System.arraycopy(routingAlgorithm.runAll(batchList), 0, costs, position, size);
+        position += size;
+        for (ExecutionMode mode : ExecutionMode.values()) {
+            System.arraycopy(routingAlgorithm.runAll(batchList, mode), 0, costs, position, size);
+            position += size;
+        }
+        return costs;
+    }
+
+    /**
+     * Checks that two arrays of costs are bit-for-bit equal.
+     *
+     * @param expected The costs calculated in a single thread.
+     * @param actual   The costs calculated concurrently.
+     * @param name     The instance and algorithm, for the error message.
+     */
+    private static void compare(double[] expected, double[] actual, String name) {
+        for (int i = 0; i < expected.length; i++) {
+            if (Double.doubleToRawLongBits(expected[i]) != Double.doubleToRawLongBits(actual[i])) {
+                throw new IllegalStateException("Concurrent cost " + actual[i] + " differs from the single-threaded cost "
+                        + expected[i] + " at position " + i + " of " + name + ". [TestConcurrentRouting.compare]");
+            }
+        }
+    }
+
+    /**
+     * Returns the name of a routing algorithm in the report.
+     *
+     * @param type   The type of the routing algorithm.
+     * @param cached {@code true} if the algorithm is decorated with a routing cost cache.
+     * @return The name of the algorithm.
+     */
+    private static String name(RoutingAlgorithmType type, boolean cached) {
+        return cached ? "CACHED_" + type : type.toString();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp;
+
+import java.util.List;
+
+import com.instancesobp.batchingAlgorithm.constructiveHeuristic.BasicConstructive;
+import com.instancesobp.batchingAlgorithm.improvement.IteratedLocalSearch;
+import com.instancesobp.batchingAlgorithm.sortOrderList.SortByWeight;
+import com.instancesobp.instancesReader.legacy.GeneralInstancesLoader;
+import com.instancesobp.instancesReader.legacy.InstancesLoaderFromConsoleInfo;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.RoutingAlgorithmType;
+
+import static com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.selectAlgorithm;
+import static com.instancesobp.utils.BatchOperations.validateSolution;
+
+/**
+ * This class is used to benchmark the multi-threaded iterated local search.
+ * It solves the legacy Albareda instances with the same iteration budget and a growing
+ * number of threads, and reports the speedup with respect to one thread.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class TestIteratedLocalSearch {
+
+    /**
+     * Iterations of all the threads for each instance.
+     */
+    private static final int ITERATIONS = 20;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TestIteratedLocalSearch() {
+        throw new UnsupportedOperationException("This is a main class and cannot be instantiated");
+    }
+
+    /**
+     * Main method to benchmark the multi-threaded iterated local search.
+     * For each number of threads it prints the total picking time of all the instances,
+     * the running time, the speedup and the evaluated moves per second.
+     *
+     * @param args for command line arguments (not used).
+     * @throws Exception for any exception that may occur
+     */
+    public static void main(String[] args) throws Exception {
+        List<InstancesLoaderFromConsoleInfo> instances = new GeneralInstancesLoader().getAllInstancesAlbareda();
+        System.out.println("Available processors: " + Runtime.getRuntime().availableProcessors());
+        System.out.println("Threads;Total picking time;Running time (ms);Speedup;Evaluated moves per second");
+
+        double sequentialTime = 0;
+        for (int threads = 1; threads <= 8; threads *= 2) {
+            double total = 0;
+            long evaluatedMoves = 0;
+            long time = System.currentTimeMillis();
+            for (InstancesLoaderFromConsoleInfo instance : instances) {
+                Warehouse warehouse = instance.getWarehouse();
+                IteratedLocalSearch iteratedLocalSearch = new IteratedLocalSearch(warehouse,
+                        new BasicConstructive(warehouse, new SortByWeight(), true), selectAlgorithm(RoutingAlgorithmType.COMBINED, warehouse));
+                iteratedLocalSearch.setThreads(threads);
+                iteratedLocalSearch.setMaxIterations(ITERATIONS);
+
+                List<Batch> batchList = iteratedLocalSearch.run(warehouse.getOrders());
+                validateSolution(warehouse, batchList);
+                for (Batch batch : batchList) {
+                    total += batch.getServiceTime();
+                }
+                evaluatedMoves += iteratedLocalSearch.getMoveCounters().getEvaluatedMoves();
+            }
+            time = System.currentTimeMillis() - time;
+            if (threads == 1) {
+                sequentialTime = time;
+            }
+            System.out.println(threads + ";" + total + ";" + time + ";" + (sequentialTime / time) + ";" + (evaluatedMoves * 1000 / Math.max(time, 1)));
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp;
+
+import java.util.List;
+
+import com.instancesobp.batchingAlgorithm.constructiveHeuristic.BasicConstructive;
+import com.instancesobp.batchingAlgorithm.sortOrderList.SortByWeight;
+import com.instancesobp.instancesGenerator.InstanceGenerator;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.RoutingAlgorithmType;
+
+import static com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.selectAlgorithm;
+
+/**
+ * This class is used to benchmark the multi-block routing algorithms.
+ * It generates large warehouses, splits them into a growing number of blocks
+ * and compares the multi-block S-shape and largest gap heuristics with the
+ * exact multi-block routing on the same batches.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class TestMultiBlockRouting {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TestMultiBlockRouting() {
+        throw new UnsupportedOperationException("This is a main class and cannot be instantiated");
+    }
+
+    /**
+     * Main method to benchmark the multi-block routing algorithms.
+     * For each depot placement and number of blocks it prints the total time of the
+     * routes of all batches and the running time of each algorithm.
+     *
+     * @param args for command line arguments (not used).
+     * @throws Exception for any exception that may occur
+     */
+    public static void main(String[] args) throws Exception {
+        InstanceGenerator instanceGenerator = new InstanceGenerator();
+        RoutingAlgorithmType[] types = {RoutingAlgorithmType.MULTI_BLOCK_EXACT, RoutingAlgorithmType.S_SHAPE_MULTI_BLOCK, RoutingAlgorithmType.LARGEST_GAP_MULTI_BLOCK};
+
+        System.out.println("Depot;Blocks;Algorithm;Total time;Gap to exact (%);Running time (ms)");
+        for (boolean isDepotCenter : new boolean[]{false, true}) {
+            Warehouse warehouse = instanceGenerator.generateWarehouse(1, 200, 30, isDepotCenter, 0, 150, 3.5, 3.5, 12, 0, 0, 0, 1800, false, 5, 1, false);
+            List<Batch> batchList = new BasicConstructive(warehouse, new SortByWeight(), false).run(warehouse.getOrders());
+
+            for (int numberOfBlocks = 1; numberOfBlocks <= 4; numberOfBlocks++) {
+                warehouse.setNumberOfBlocks(numberOfBlocks);
+                double exact = 0;
+                for (RoutingAlgorithmType type : types) {
+                    RoutingAlgorithm routingAlgorithm = selectAlgorithm(type, warehouse);
+                    long time = System.currentTimeMillis();
+                    double total = 0;
+                    for (Batch batch : batchList) {
+                        total += routingAlgorithm.run(batch);
+                    }
+                    time = System.currentTimeMillis() - time;
+                    if (type == RoutingAlgorithmType.MULTI_BLOCK_EXACT) {
+                        exact = total;
+                    }
+                    System.out.println((isDepotCenter ? "Center" : "Corner") + ";" + numberOfBlocks + ";" + type + ";" + total + ";"
+                            + (((total - exact) / exact) * 100) + ";" + time);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.instancesobp.batchingAlgorithm.constructiveHeuristic.BasicConstructive;
+import com.instancesobp.batchingAlgorithm.sortOrderList.SortByWeight;
+import com.instancesobp.instancesReader.legacy.GeneralInstancesLoader;
+import com.instancesobp.instancesReader.legacy.InstancesLoaderFromConsoleInfo;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RatliffRosenthal;
+import com.instancesobp.routingAlgorithm.RoodbergenDeKoster;
+import com.instancesobp.routingAlgorithm.RoutingBound;
+import com.instancesobp.routingAlgorithm.TravelLowerBound;
+
+/**
+ * This class is used to validate the routing lower bound against the exact routing algorithms.
+ * For every legacy Albareda instance it checks that the bound of each order, of each batch of
+ * a constructive solution and of a number of random batches without capacity limit never
+ * exceeds the cost given by {@link RatliffRosenthal} nor by {@link RoodbergenDeKoster}.
+ * An exception is thrown at the first violation.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class TestRoutingBound {
+
+    /**
+     * Number of random batches checked for each instance.
+     */
+    private static final int RANDOM_BATCHES = 200;
+
+    /**
+     * Maximum number of orders of a random batch.
+     */
+    private static final int MAX_RANDOM_ORDERS = 8;
+
+    /**
+     * Tolerance for rounding errors in the comparisons.
+     */
+    private static final double EPSILON = 1e-9;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TestRoutingBound() {
+        throw new UnsupportedOperationException("This is a main class and cannot be instantiated");
+    }
+
+    /**
+     * Main method to validate the routing lower bound.
+     * For each instance it prints the number of checked pick profiles and the average ratio
+     * between the bound and the exact cost.
+     *
+     * @param args for command line arguments (not used).
+     * @throws Exception for any exception that may occur, including a bound greater than an exact cost.
+     */
+    public static void main(String[] args) throws Exception {
+        List<InstancesLoaderFromConsoleInfo> instances = new GeneralInstancesLoader().getAllInstancesAlbareda();
+        Random random = new Random(Configuration.SEED);
+        long totalChecked = 0;
+
+        System.out.println("Instance;Depot;Aisles;Checked profiles;Average bound / exact");
+        for (InstancesLoaderFromConsoleInfo instance : instances) {
+            Warehouse warehouse = instance.getWarehouse();
+            RoutingBound bound = new TravelLowerBound(warehouse);
+            RatliffRosenthal ratliffRosenthal = new RatliffRosenthal(warehouse);
+            RoodbergenDeKoster roodbergenDeKoster = new RoodbergenDeKoster(warehouse);
+
+            List<PickProfile> profiles = new ArrayList<>();
+            List<Order> orders = warehouse.getOrders();
+            for (Order order : orders) {
+                profiles.add(order.getPickProfile());
+            }
+            for (Batch batch : new BasicConstructive(warehouse, new SortByWeight(), false).run(orders)) {
+                profiles.add(batch.getPickProfile());
+            }
+            for (int i = 0; i < RANDOM_BATCHES; i++) {
+                int size = 2 + random.nextInt(MAX_RANDOM_ORDERS - 1);
+                PickProfile profile = PickProfile.EMPTY;
+                for (int k = 0; k < size; k++) {
+                    profile = profile.merge(orders.get(random.nextInt(orders.size())).getPickProfile());
+                }
+                profiles.add(profile);
+            }
+
+            double ratio = 0;
+            for (PickProfile profile : profiles) {
+                double lowerBound = bound.lowerBound(profile);
+                double exact = Math.min(ratliffRosenthal.run(profile), roodbergenDeKoster.run(profile));
+                if (lowerBound > exact + EPSILON) {
+                    throw new IllegalStateException("The bound " + lowerBound + " exceeds the exact cost " + exact
+                            + " in instance " + instance.getName() + " for the profile:\n" + profile + "[TestRoutingBound.main]");
+                }
+                ratio += lowerBound / exact;
+            }
+            totalChecked += profiles.size();
+            System.out.println(instance.getName() + ";" + warehouse.getDepotPlacement() + ";" + warehouse.getNumberOfAisles()
+                    + ";" + profiles.size() + ";" + (ratio / profiles.size()));
+        }
+        System.out.println("The bound never exceeds the exact cost in " + totalChecked + " pick profiles.");
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.instancesobp.batchingAlgorithm.constructiveHeuristic.CWSavingConstructive;
+import com.instancesobp.instancesReader.legacy.GeneralInstancesLoader;
+import com.instancesobp.instancesReader.legacy.InstancesLoaderFromConsoleInfo;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.objectiveFunction.ObjectiveFunction;
+import com.instancesobp.objectiveFunction.PickingTime;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.RoutingAlgorithmType;
+
+import static com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.selectAlgorithm;
+
+/**
+ * This class is used to validate the incremental versions of the Clarke and Wright savings algorithm.
+ * For every legacy Albareda instance it checks that {@link CWSavingConstructive#run(List)} gives the
+ * same batches as calling {@link CWSavingConstructive#combineBestBatches(ArrayList)} until it returns
+ * null, sequentially and in parallel, and that the candidate lists with as many partners as orders
+ * give the same batches as the largest saving rule. An exception is thrown at the first difference.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class TestSavingsConstructive {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TestSavingsConstructive() {
+        throw new UnsupportedOperationException("This is a main class and cannot be instantiated");
+    }
+
+    /**
+     * Main method to validate the savings algorithm.
+     * For each instance it prints the number of batches and the time of the legacy and incremental versions.
+     *
+     * @param args for command line arguments (not used).
+     * @throws Exception for any exception that may occur, including different batches in two versions.
+     */
+    public static void main(String[] args) throws Exception {
+        List<InstancesLoaderFromConsoleInfo> instances = new GeneralInstancesLoader().getAllInstancesAlbareda();
+
+        System.out.println("Instance;Batches;Legacy time (ms);Incremental time (ms)");
+        for (InstancesLoaderFromConsoleInfo instance : instances) {
+            Warehouse warehouse = instance.getWarehouse();
+            List<Order> orders = warehouse.getOrders();
+            ObjectiveFunction objectiveFunction = new PickingTime(warehouse, selectAlgorithm(RoutingAlgorithmType.COMBINED, warehouse));
+
+            long time = System.currentTimeMillis();
+            CWSavingConstructive legacy = new CWSavingConstructive(warehouse, objectiveFunction);
+            List<Batch> expected;
+            if (orders.size() <= 2) {
+                expected = legacy.run(orders);
+            } else {
+                ArrayList<Batch> batchList = legacy.initializeBatchList(orders);
+                for (ArrayList<Batch> next = batchList; next != null; next = legacy.combineBestBatches(batchList)) {
+                    batchList = next;
+                }
+                expected = batchList;
+            }
+            long legacyTime = System.currentTimeMillis() - time;
+
+            time = System.currentTimeMillis();
+            List<Batch> sequential = new CWSavingConstructive(warehouse, objectiveFunction).run(orders);
+            long incrementalTime = System.currentTimeMillis() - time;
+            compare(instance.getName(), "sequential", expected, sequential);
+            compare(instance.getName(), "parallel", expected, new CWSavingConstructive(warehouse, objectiveFunction, true).run(orders));
+
+            CWSavingConstructive largestSaving = new CWSavingConstructive(warehouse, objectiveFunction);
+            largestSaving.setLargestSaving(true);
+            CWSavingConstructive candidates = new CWSavingConstructive(warehouse, objectiveFunction);
+            candidates.setCandidateListSize(orders.size());
+            compare(instance.getName(), "candidate lists", largestSaving.run(orders), candidates.run(orders));
+
+            System.out.println(instance.getName() + ";" + expected.size() + ";" + legacyTime + ";" + incrementalTime);
+        }
+        System.out.println("The incremental versions give the same batches in " + instances.size() + " instances.");
+    }
+
+    /**
+     * Checks that two lists of batches have the same orders, by identifier, in the same order.
+     *
+     * @param instanceName The name of the instance.
+     * @param version      The name of the version being checked.
+     * @param expected     The expected batches.
+     * @param actual       The batches given by the version.
+     */
+    private static void compare(String instanceName, String version, List<Batch> expected, List<Batch> actual) {
+        boolean same = expected.size() == actual.size();
+        for (int i = 0; same && i < expected.size(); i++) {
+            List<Order> expectedOrders = expected.get(i).getOrders();
+            List<Order> actualOrders = actual.get(i).getOrders();
+            same = expectedOrders.size() == actualOrders.size();
+            for (int j = 0; same && j < expectedOrders.size(); j++) {
+                same = expectedOrders.get(j).getId() == actualOrders.get(j).getId();
+            }
+        }
+        if (!same) {
+            throw new IllegalStateException("The " + version + " version gives different batches in instance "
+                    + instanceName + ":\n" + expected + "\n" + actual + "[TestSavingsConstructive.compare]");
+        }
+    }
+}
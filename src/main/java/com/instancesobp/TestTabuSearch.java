@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp;
+
+import java.util.List;
+
+import com.instancesobp.batchingAlgorithm.constructiveHeuristic.BasicConstructive;
+import com.instancesobp.batchingAlgorithm.constructiveHeuristic.CWSavingConstructive;
+import com.instancesobp.batchingAlgorithm.improvement.TabuSearch;
+import com.instancesobp.batchingAlgorithm.sortOrderList.SortByWeight;
+import com.instancesobp.instancesReader.legacy.GeneralInstancesLoader;
+import com.instancesobp.instancesReader.legacy.InstancesLoaderFromConsoleInfo;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.objectiveFunction.PickingTime;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.RoutingAlgorithmType;
+
+import static com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.selectAlgorithm;
+import static com.instancesobp.utils.BatchOperations.validateSolution;
+
+/**
+ * This class is used to benchmark the tabu search against the Clarke and Wright savings algorithm.
+ * It solves the legacy Albareda instances with both algorithms, giving the tabu search the time
+ * that the savings algorithm took on each instance.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class TestTabuSearch {
+
+    /**
+     * Minimum time limit of the tabu search in milliseconds, for the instances solved almost instantly.
+     */
+    private static final long MIN_TIME_LIMIT = 10;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private TestTabuSearch() {
+        throw new UnsupportedOperationException("This is a main class and cannot be instantiated");
+    }
+
+    /**
+     * Main method to benchmark the tabu search against the savings algorithm at equal wall-clock time.
+     * For each instance it prints the picking time and running time of both algorithms, and then the totals.
+     *
+     * @param args for command line arguments (not used).
+     * @throws Exception for any exception that may occur
+     */
+    public static void main(String[] args) throws Exception {
+        List<InstancesLoaderFromConsoleInfo> instances = new GeneralInstancesLoader().getAllInstancesAlbareda();
+        System.out.println("Instance;Savings picking time;Savings time (ms);Tabu picking time;Tabu time (ms);Tabu iterations");
+
+        double totalSavings = 0;
+        double totalTabu = 0;
+        long timeSavings = 0;
+        long timeTabu = 0;
+        int wins = 0;
+        for (InstancesLoaderFromConsoleInfo instance : instances) {
+            Warehouse warehouse = instance.getWarehouse();
+
+            long time = System.currentTimeMillis();
+            CWSavingConstructive savings = new CWSavingConstructive(warehouse,
+                    new PickingTime(warehouse, selectAlgorithm(RoutingAlgorithmType.COMBINED, warehouse)));
+            List<Batch> savingsBatches = savings.run(warehouse.getOrders());
+            long savingsTime = System.currentTimeMillis() - time;
+            double savingsCost = new PickingTime(warehouse, selectAlgorithm(RoutingAlgorithmType.COMBINED, warehouse)).run(savingsBatches);
+            validateSolution(warehouse, savingsBatches);
+
+            time = System.currentTimeMillis();
+            TabuSearch tabuSearch = new TabuSearch(warehouse, new BasicConstructive(warehouse, new SortByWeight(), true),
+                    selectAlgorithm(RoutingAlgorithmType.COMBINED, warehouse));
+            tabuSearch.setMaxIterations(0);
+            tabuSearch.setMaxIterationsWithoutImprovement(0);
+            tabuSearch.setTimeLimit(Math.max(savingsTime, MIN_TIME_LIMIT));
+            List<Batch> tabuBatches = tabuSearch.run(warehouse.getOrders());
+            long tabuTime = System.currentTimeMillis() - time;
+            validateSolution(warehouse, tabuBatches);
+            double tabuCost = 0;
+            for (Batch batch : tabuBatches) {
+                tabuCost += batch.getServiceTime();
+            }
+
+            totalSavings += savingsCost;
+            totalTabu += tabuCost;
+            timeSavings += savingsTime;
+            timeTabu += tabuTime;
+            if (tabuCost < savingsCost) {
+                wins++;
+            }
+            System.out.println(warehouse.getInstanceName() + ";" + savingsCost + ";" + savingsTime + ";" + tabuCost + ";" + tabuTime + ";" + tabuSearch.getIterations());
+        }
+        System.out.println("Total;" + totalSavings + ";" + timeSavings + ";" + totalTabu + ";" + timeTabu);
+        System.out.println("Instances where the tabu search is better: " + wins + " of " + instances.size());
+    }
+}
@@ -0,0 +1,420 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.clustering;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.Product;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+
+/**
+ * Batching of large order pools by spatial decomposition.
+ * <p>
+ * Each order is represented by the centroid of its products: the mean of their aisles, scaled by the
+ * distance between aisles, and the mean of their height positions. The orders are clustered with
+ * {@link KMedoids} into as many clusters as needed for the given cluster size, and the clusters larger
+ * than twice that size are cut into slices along the aisles. Each cluster is then batched independently
+ * by a new instance of a batching algorithm, in parallel over the common ForkJoin pool when the parallel
+ * mode is enabled, so the time of the batching algorithm is bounded by the cluster size.
+ * <p>
+ * The last batches of the clusters are often under-filled. In the repair step, the pair of batches with
+ * a weight below a fraction of the worker capacity that fit together and have the largest saving of
+ * routing cost are merged, until no such pair has a positive saving. The savings are calculated with
+ * the routing algorithm of the repair step, not with the service time of the batches, which may have
+ * been set by the objective function of the batching algorithm of the clusters with another routing
+ * algorithm. The merged batches have their service time set to their routing cost.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class ClusterDecomposition extends BatchingAlgorithm {
+
+    /**
+     * Tolerance of the comparisons of costs.
+     */
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Creates the batching algorithm of each cluster.
+     */
+    private final Supplier<BatchingAlgorithm> algorithmFactory;
+
+    /**
+     * The routing algorithm used to evaluate the merges of the repair step.
+     */
+    private final RoutingAlgorithm routingAlgorithm;
+
+    /**
+     * Whether the clustering and the batching of the clusters run in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Target number of orders of a cluster.
+     */
+    private int clusterSize = 200;
+
+    /**
+     * Fraction of the worker capacity below which a batch is under-filled.
+     */
+    private double fillThreshold = 0.5;
+
+    /**
+     * Maximum number of iterations of the k-medoids algorithm.
+     */
+    private int maxIterations = 20;
+
+    /**
+     * Number of orders from which CLARA is used.
+     */
+    private int claraThreshold = 5000;
+
+    /**
+     * Number of samples of CLARA.
+     */
+    private int claraSamples = 5;
+
+    /**
+     * Number of orders of each sample of CLARA per cluster.
+     */
+    private int samplePointsPerCluster = 10;
+
+    /**
+     * Number of clusters of the last run.
+     */
+    private int numberOfClusters;
+
+    /**
+     * Number of merges of the repair step of the last run.
+     */
+    private int merges;
+
+    /**
+     * Constructor for the ClusterDecomposition class, running all the steps sequentially.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param algorithmFactory Creates the batching algorithm of each cluster.
+     * @param routingAlgorithm The routing algorithm used to evaluate the merges of the repair step.
+     */
+    public ClusterDecomposition(Warehouse warehouse, Supplier<BatchingAlgorithm> algorithmFactory, RoutingAlgorithm routingAlgorithm) {
+        this(warehouse, algorithmFactory, routingAlgorithm, false);
+    }
+
+    /**
+     * Constructor for the ClusterDecomposition class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param algorithmFactory Creates the batching algorithm of each cluster. In parallel mode it is called
+     *                         from several threads, and each algorithm runs in its own thread.
+     * @param routingAlgorithm The routing algorithm used to evaluate the merges of the repair step.
+     * @param parallel         Whether the clustering and the batching of the clusters run in parallel.
+     */
+    public ClusterDecomposition(Warehouse warehouse, Supplier<BatchingAlgorithm> algorithmFactory, RoutingAlgorithm routingAlgorithm, boolean parallel) {
+        super(warehouse);
+        this.algorithmFactory = algorithmFactory;
+        this.routingAlgorithm = routingAlgorithm;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the target number of orders of a cluster.
+     *
+     * @param clusterSize The target cluster size.
+     * @throws IllegalArgumentException If the size is not positive.
+     */
+    public void setClusterSize(int clusterSize) {
+        if (clusterSize < 1) {
+            throw new IllegalArgumentException("The cluster size must be positive [ClusterDecomposition.setClusterSize]");
+        }
+        this.clusterSize = clusterSize;
+    }
+
+    /**
+     * Sets the fraction of the worker capacity below which a batch can be merged in the repair step.
+     *
+     * @param fillThreshold The fraction, between 0 (no repair) and 1.
+     * @throws IllegalArgumentException If the fraction is not between 0 and 1.
+     */
+    public void setFillThreshold(double fillThreshold) {
+        if (fillThreshold < 0 || fillThreshold > 1) {
+            throw new IllegalArgumentException("The fill threshold must be between 0 and 1 [ClusterDecomposition.setFillThreshold]");
+        }
+        this.fillThreshold = fillThreshold;
+    }
+
+    /**
+     * Sets the maximum number of iterations of the k-medoids algorithm.
+     *
+     * @param maxIterations The maximum number of iterations.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Sets when and how CLARA is used by the k-medoids algorithm.
+     *
+     * @param claraThreshold         The number of orders from which CLARA is used.
+     * @param claraSamples           The number of samples.
+     * @param samplePointsPerCluster The number of orders of each sample per cluster.
+     * @see KMedoids#setClara(int, int, int)
+     */
+    public void setClara(int claraThreshold, int claraSamples, int samplePointsPerCluster) {
+        this.claraThreshold = claraThreshold;
+        this.claraSamples = claraSamples;
+        this.samplePointsPerCluster = samplePointsPerCluster;
+    }
+
+    /**
+     * Gets the number of clusters of the last run, after cutting the largest ones.
+     *
+     * @return The number of clusters.
+     */
+    public int getNumberOfClusters() {
+        return numberOfClusters;
+    }
+
+    /**
+     * Gets the number of merges of under-filled batches of the last run.
+     *
+     * @return The number of merges.
+     */
+    public int getMerges() {
+        return merges;
+    }
+
+    /**
+     * Clusters the orders, batches each cluster and merges the under-filled batches.
+     *
+     * @param orderList The list of orders to be batched.
+     * @return The list of batches.
+     * @throws Exception If an error occurs while batching the clusters.
+     */
+    @Override
+    public List<Batch> run(List<Order> orderList) throws Exception {
+        int n = orderList.size();
+        numberOfClusters = 0;
+        merges = 0;
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+
+        double aisleDistance = warehouse.getShelfWidth() + warehouse.getAisleWidth();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            List<Product> products = orderList.get(i).getProducts();
+            for (Product product : products) {
+                x[i] += product.getAisle() * aisleDistance;
+                y[i] += product.getHeightPosition();
+            }
+            if (!products.isEmpty()) {
+                x[i] /= products.size();
+                y[i] /= products.size();
+            }
+        }
+
+        int k = (n + clusterSize - 1) / clusterSize;
+        int[] clusters = new int[n];
+        if (k > 1) {
+            KMedoids kMedoids = new KMedoids(x, y, parallel);
+            kMedoids.setMaxIterations(maxIterations);
+            kMedoids.setClara(claraThreshold, claraSamples, samplePointsPerCluster);
+            clusters = kMedoids.cluster(k);
+        }
+        List<List<Order>> orderClusters = split(orderList, clusters, k, x, y);
+        numberOfClusters = orderClusters.size();
+
+        List<Callable<List<Batch>>> tasks = new ArrayList<>(orderClusters.size());
+        for (List<Order> cluster : orderClusters) {
+            tasks.add(() -> algorithmFactory.get().run(cluster));
+        }
+        List<Batch> batches = new ArrayList<>();
+        if (parallel) {
+            try {
+                for (Future<List<Batch>> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                    batches.addAll(future.get());
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        } else {
+            for (Callable<List<Batch>> task : tasks) {
+                batches.addAll(task.call());
+            }
+        }
+
+        repair(batches);
+        return batches;
+    }
+
+    /**
+     * Groups the orders by cluster, and cuts the clusters larger than twice the cluster size
+     * into slices of the cluster size along the aisles.
+     *
+     * @param orderList The list of orders.
+     * @param clusters  The cluster of each order.
+     * @param k         The number of clusters.
+     * @param x         The aisle coordinate of each order.
+     * @param y         The height coordinate of each order.
+     * @return The orders of each non-empty cluster.
+     */
+    private List<List<Order>> split(List<Order> orderList, int[] clusters, int k, double[] x, double[] y) {
+        List<List<Integer>> members = new ArrayList<>(k);
+        for (int cluster = 0; cluster < k; cluster++) {
+            members.add(new ArrayList<>());
+        }
+        for (int i = 0; i < clusters.length; i++) {
+            members.get(clusters[i]).add(i);
+        }
+
+        List<List<Order>> orderClusters = new ArrayList<>();
+        for (List<Integer> cluster : members) {
+            if (cluster.size() > 2 * clusterSize) {
+                cluster.sort(Comparator.comparingDouble((Integer i) -> x[i]).thenComparingDouble(i -> y[i]));
+            }
+            int slices = cluster.size() > 2 * clusterSize ? (cluster.size() + clusterSize - 1) / clusterSize : 1;
+            for (int slice = 0; slice < slices; slice++) {
+                List<Order> orders = new ArrayList<>();
+                for (int i = slice * cluster.size() / slices; i < (slice + 1) * cluster.size() / slices; i++) {
+                    orders.add(orderList.get(cluster.get(i)));
+                }
+                if (!orders.isEmpty()) {
+                    orderClusters.add(orders);
+                }
+            }
+        }
+        return orderClusters;
+    }
+
+    /**
+     * Merges the pairs of under-filled batches with the largest saving of routing cost that fit together,
+     * until no such pair has a positive saving. A merged batch remains a candidate while it is under-filled.
+     *
+     * @param batches The list of batches, which is modified.
+     * @throws Exception If an error occurs while building the merged batches.
+     */
+    private void repair(List<Batch> batches) throws Exception {
+        double capacity = warehouse.getWorkerCapacity();
+        List<Batch> candidates = new ArrayList<>();
+        List<Batch> filled = new ArrayList<>(batches.size());
+        for (Batch batch : batches) {
+            (batch.getWeight() < fillThreshold * capacity ? candidates : filled).add(batch);
+        }
+        int size = candidates.size();
+        if (size < 2) {
+            return;
+        }
+        batches.clear();
+        batches.addAll(filled);
+
+        double[] costs = new double[size];
+        for (int i = 0; i < size; i++) {
+            costs[i] = routingAlgorithm.run(candidates.get(i));
+        }
+        double[][] savings = new double[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = i + 1; j < size; j++) {
+                savings[i][j] = saving(candidates, costs, i, j);
+            }
+        }
+
+        boolean[] active = new boolean[size];
+        Arrays.fill(active, true);
+        while (true) {
+            int bestI = -1;
+            int bestJ = -1;
+            double bestSaving = EPSILON;
+            for (int i = 0; i < size; i++) {
+                if (!active[i]) {
+                    continue;
+                }
+                for (int j = i + 1; j < size; j++) {
+                    if (active[j] && savings[i][j] > bestSaving) {
+                        bestI = i;
+                        bestJ = j;
+                        bestSaving = savings[i][j];
+                    }
+                }
+            }
+            if (bestI < 0) {
+                break;
+            }
+
+            Batch merged = new Batch(capacity);
+            for (Order order : candidates.get(bestI).getOrders()) {
+                merged.addOrder(order);
+            }
+            for (Order order : candidates.get(bestJ).getOrders()) {
+                merged.addOrder(order);
+            }
+            merged.setServiceTime(costs[bestI] + costs[bestJ] - bestSaving);
+            merges++;
+            candidates.set(bestI, merged);
+            costs[bestI] = merged.getServiceTime();
+            active[bestJ] = false;
+            if (merged.getWeight() >= fillThreshold * capacity) {
+                active[bestI] = false;
+                batches.add(merged);
+                continue;
+            }
+            for (int j = 0; j < size; j++) {
+                if (active[j] && j != bestI) {
+                    double saving = saving(candidates, costs, Math.min(bestI, j), Math.max(bestI, j));
+                    savings[Math.min(bestI, j)][Math.max(bestI, j)] = saving;
+                }
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (active[i]) {
+                batches.add(candidates.get(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the saving of routing cost of merging two batches.
+     *
+     * @param candidates The under-filled batches.
+     * @param costs      The routing cost of each batch.
+     * @param i          The index of the first batch.
+     * @param j          The index of the second batch.
+     * @return The saving, or negative infinity if the batches do not fit together.
+     */
+    private double saving(List<Batch> candidates, double[] costs, int i, int j) {
+        Batch batch1 = candidates.get(i);
+        Batch batch2 = candidates.get(j);
+        if (batch1.getWeight() + batch2.getWeight() > warehouse.getWorkerCapacity()) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return costs[i] + costs[j] - routingAlgorithm.run(batch1.getPickProfile().merge(batch2.getPickProfile()));
+    }
+}
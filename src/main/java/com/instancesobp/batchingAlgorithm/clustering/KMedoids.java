@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.clustering;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+import com.instancesobp.Configuration;
+
+/**
+ * K-medoids clustering of points of the plane with the rectilinear distance.
+ * <p>
+ * The medoids are seeded with the k-means++ rule and improved with the alternate algorithm: each point
+ * is assigned to its closest medoid, and the medoid of each cluster is replaced by the member with the
+ * minimum sum of distances to the other members, until no medoid changes or the iteration limit is
+ * reached. With more points than the CLARA threshold, the algorithm is run on several random samples
+ * (CLARA) and the medoids of the sample with the minimum total distance over all the points are kept,
+ * so the time grows linearly with the number of points.
+ * <p>
+ * In parallel mode the assignment of the points and the update of the medoids run on the common ForkJoin
+ * pool. Each point and each cluster is computed independently, and the random numbers are seeded with
+ * {@link Configuration#SEED}, so the clusters are the same in both modes.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class KMedoids {
+
+    /**
+     * Number of points or clusters computed by each parallel task.
+     */
+    private static final int ITEMS_PER_TASK = 256;
+
+    /**
+     * The first coordinate of each point.
+     */
+    private final double[] x;
+
+    /**
+     * The second coordinate of each point.
+     */
+    private final double[] y;
+
+    /**
+     * Whether the steps run in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Maximum number of iterations of the alternate algorithm.
+     */
+    private int maxIterations = 20;
+
+    /**
+     * Number of points from which CLARA is used.
+     */
+    private int claraThreshold = 5000;
+
+    /**
+     * Number of samples of CLARA.
+     */
+    private int claraSamples = 5;
+
+    /**
+     * Number of points of each sample of CLARA per cluster.
+     */
+    private int samplePointsPerCluster = 10;
+
+    /**
+     * Random number generator of the last run.
+     */
+    private Random random;
+
+    /**
+     * Constructor for the KMedoids class.
+     *
+     * @param x        The first coordinate of each point.
+     * @param y        The second coordinate of each point.
+     * @param parallel Whether the steps run in parallel.
+     * @throws IllegalArgumentException If the coordinates have different lengths.
+     */
+    public KMedoids(double[] x, double[] y, boolean parallel) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("The coordinates have different lengths [KMedoids]");
+        }
+        this.x = x;
+        this.y = y;
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the maximum number of iterations of the alternate algorithm.
+     *
+     * @param maxIterations The maximum number of iterations.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Sets when and how CLARA is used.
+     *
+     * @param claraThreshold         The number of points from which CLARA is used.
+     * @param claraSamples           The number of samples.
+     * @param samplePointsPerCluster The number of points of each sample per cluster (at least 40 + 2k in total).
+     * @throws IllegalArgumentException If the number of samples or of points per cluster is not positive.
+     */
+    public void setClara(int claraThreshold, int claraSamples, int samplePointsPerCluster) {
+        if (claraSamples < 1 || samplePointsPerCluster < 1) {
+            throw new IllegalArgumentException("Invalid CLARA parameters [KMedoids.setClara]");
+        }
+        this.claraThreshold = claraThreshold;
+        this.claraSamples = claraSamples;
+        this.samplePointsPerCluster = samplePointsPerCluster;
+    }
+
+    /**
+     * Clusters the points.
+     *
+     * @param k The number of clusters.
+     * @return The cluster of each point, from 0 to k - 1. Some clusters may be empty if there are duplicate points.
+     * @throws IllegalArgumentException If k is not positive or is greater than the number of points.
+     */
+    public int[] cluster(int k) {
+        int n = x.length;
+        if (k < 1 || k > n) {
+            throw new IllegalArgumentException("The number of clusters must be between 1 and the number of points [KMedoids.cluster]");
+        }
+        random = new Random(Configuration.SEED);
+        int[] all = new int[n];
+        Arrays.setAll(all, i -> i);
+
+        int[] medoids;
+        if (n < claraThreshold) {
+            medoids = alternate(all, k);
+        } else {
+            int sampleSize = Math.min(n, Math.max(40 + 2 * k, samplePointsPerCluster * k));
+            medoids = null;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int sample = 0; sample < claraSamples; sample++) {
+                int[] candidate = alternate(sample(n, sampleSize), k);
+                double cost = 0;
+                for (double distance : assign(all, candidate, new int[n])) {
+                    cost += distance;
+                }
+                if (cost < bestCost) {
+                    bestCost = cost;
+                    medoids = candidate;
+                }
+            }
+        }
+
+        int[] clusters = new int[n];
+        assign(all, medoids, clusters);
+        return clusters;
+    }
+
+    /**
+     * Runs the alternate algorithm on some points.
+     *
+     * @param points The points.
+     * @param k      The number of clusters.
+     * @return The medoids, as points.
+     */
+    private int[] alternate(int[] points, int k) {
+        int[] medoids = seed(points, k);
+        int[] clusters = new int[points.length];
+        for (int iteration = 0; iteration < maxIterations; iteration++) {
+            assign(points, medoids, clusters);
+            int[][] members = members(points, clusters, k);
+            int[] current = medoids;
+            int[] updated = medoids.clone();
+            forEach(k, cluster -> updated[cluster] = medoid(members[cluster], current[cluster]));
+            if (Arrays.equals(updated, medoids)) {
+                break;
+            }
+            medoids = updated;
+        }
+        return medoids;
+    }
+
+    /**
+     * Chooses the initial medoids with the k-means++ rule: each next medoid is a point chosen
+     * with probability proportional to its distance to the closest medoid chosen so far.
+     *
+     * @param points The points.
+     * @param k      The number of medoids.
+     * @return The initial medoids, as points.
+     */
+    private int[] seed(int[] points, int k) {
+        int[] medoids = new int[k];
+        double[] distances = new double[points.length];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        medoids[0] = points[random.nextInt(points.length)];
+        for (int m = 1; m < k; m++) {
+            double total = 0;
+            for (int i = 0; i < points.length; i++) {
+                distances[i] = Math.min(distances[i], distance(points[i], medoids[m - 1]));
+                total += distances[i];
+            }
+            int chosen = points.length - 1;
+            double value = random.nextDouble() * total;
+            for (int i = 0; i < points.length; i++) {
+                value -= distances[i];
+                if (value < 0) {
+                    chosen = i;
+                    break;
+                }
+            }
+            medoids[m] = points[chosen];
+        }
+        return medoids;
+    }
+
+    /**
+     * Assigns each point to its closest medoid, the first one in case of ties.
+     *
+     * @param points   The points.
+     * @param medoids  The medoids, as points.
+     * @param clusters The array that receives the cluster of each point.
+     * @return The distance of each point to its medoid.
+     */
+    private double[] assign(int[] points, int[] medoids, int[] clusters) {
+        double[] distances = new double[points.length];
+        forEach(points.length, i -> {
+            int best = 0;
+            double bestDistance = Double.POSITIVE_INFINITY;
+            for (int m = 0; m < medoids.length; m++) {
+                double distance = distance(points[i], medoids[m]);
+                if (distance < bestDistance) {
+                    best = m;
+                    bestDistance = distance;
+                }
+            }
+            clusters[i] = best;
+            distances[i] = bestDistance;
+        });
+        return distances;
+    }
+
+    /**
+     * Groups the points by cluster.
+     *
+     * @param points   The points.
+     * @param clusters The cluster of each point.
+     * @param k        The number of clusters.
+     * @return The points of each cluster.
+     */
+    private static int[][] members(int[] points, int[] clusters, int k) {
+        int[] sizes = new int[k];
+        for (int cluster : clusters) {
+            sizes[cluster]++;
+        }
+        int[][] members = new int[k][];
+        for (int cluster = 0; cluster < k; cluster++) {
+            members[cluster] = new int[sizes[cluster]];
+            sizes[cluster] = 0;
+        }
+        for (int i = 0; i < points.length; i++) {
+            members[clusters[i]][sizes[clusters[i]]++] = points[i];
+        }
+        return members;
+    }
+
+    /**
+     * Finds the member of a cluster with the minimum sum of distances to the other members.
+     *
+     * @param members The members of the cluster.
+     * @param current The current medoid, kept in case of ties or if the cluster is empty.
+     * @return The new medoid.
+     */
+    private int medoid(int[] members, int current) {
+        int best = current;
+        double bestSum = Double.POSITIVE_INFINITY;
+        for (int candidate : members) {
+            double sum = 0;
+            for (int member : members) {
+                sum += distance(candidate, member);
+                if (sum >= bestSum) {
+                    break;
+                }
+            }
+            if (sum < bestSum || (sum == bestSum && candidate == current)) {
+                best = candidate;
+                bestSum = sum;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Draws a random sample of the points without replacement.
+     *
+     * @param n    The number of points.
+     * @param size The size of the sample.
+     * @return The points of the sample.
+     */
+    private int[] sample(int n, int size) {
+        int[] points = new int[n];
+        Arrays.setAll(points, i -> i);
+        for (int i = 0; i < size; i++) {
+            int j = i + random.nextInt(n - i);
+            int swap = points[i];
+            points[i] = points[j];
+            points[j] = swap;
+        }
+        return Arrays.copyOf(points, size);
+    }
+
+    /**
+     * Returns the rectilinear distance between two points.
+     *
+     * @param point1 The first point.
+     * @param point2 The second point.
+     * @return The distance.
+     */
+    private double distance(int point1, int point2) {
+        return Math.abs(x[point1] - x[point2]) + Math.abs(y[point1] - y[point2]);
+    }
+
+    /**
+     * Runs an action for each index, in parallel if the parallel mode is enabled.
+     *
+     * @param size   The number of indices.
+     * @param action The action, which must only write the data of its index.
+     */
+    private void forEach(int size, IntConsumer action) {
+        if (parallel && size > ITEMS_PER_TASK) {
+            ForkJoinPool.commonPool().invoke(new RangeTask(action, 0, size));
+        } else {
+            for (int i = 0; i < size; i++) {
+                action.accept(i);
+            }
+        }
+    }
+
+    /**
+     * Task that runs an action for a range of indices,
+     * splitting the range until it holds at most {@link #ITEMS_PER_TASK} indices.
+     */
+    private static final class RangeTask extends RecursiveAction {
+
+        /** The action. */
+        private final IntConsumer action;
+
+        /** The first index of the range, inclusive. */
+        private final int from;
+
+        /** The last index of the range, exclusive. */
+        private final int to;
+
+        /**
+         * Constructs a task for a range of indices.
+         *
+         * @param action The action.
+         * @param from   The first index of the range, inclusive.
+         * @param to     The last index of the range, exclusive.
+         */
+        private RangeTask(IntConsumer action, int from, int to) {
+            this.action = action;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Runs the action for the range, or splits it in two halves.
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= ITEMS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    action.accept(i);
+                }
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new RangeTask(action, from, middle), new RangeTask(action, middle, to));
+            }
+        }
+    }
+}
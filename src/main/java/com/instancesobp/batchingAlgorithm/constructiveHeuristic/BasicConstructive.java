@@ -25,6 +25,9 @@ import com.instancesobp.models.Warehouse;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * Implements a basic constructive batching algorithm for grouping orders into batches.
@@ -32,6 +35,11 @@ import java.util.List;
  * It supports both compact and non-compact batching strategies.
  * Compact batching attempts to fill existing batches before creating new ones, while
  * non-compact batching creates a new batch for each unassigned order.
+ * <p>
+ * The way an order is assigned to a batch is given by a {@link PackingMode}. Compact batching
+ * is first-fit, backed by a segment tree over the available capacities, and non-compact
+ * batching is next-fit. Best-fit and worst-fit keep the batches in a balanced tree keyed by
+ * their available capacity. All the modes take at most O(log b) time per order for b batches.
  *
  * @author Sergio Gil Borrás
  * @version 1.0
@@ -43,6 +51,11 @@ public class BasicConstructive extends ConstructiveAlgorithm {
      */
     protected boolean compact = true;
 
+    /**
+     * Strategy used to choose the batch of each order.
+     */
+    protected PackingMode packingMode = PackingMode.FIRST_FIT;
+
     /**
      * Sorting strategy for the order list.
      */
@@ -69,6 +82,21 @@ public class BasicConstructive extends ConstructiveAlgorithm {
     public BasicConstructive(Warehouse warehouse, SortBy sortBy, boolean compact) {
         super(warehouse);
         this.compact = compact;
+        this.packingMode = compact ? PackingMode.FIRST_FIT : PackingMode.NEXT_FIT;
+        this.sortBy = sortBy;
+    }
+
+    /**
+     * Constructor for the BasicConstructive class with a packing mode.
+     *
+     * @param warehouse   The warehouse object containing layout and configuration details.
+     * @param sortBy      The sorting strategy to apply to the order list.
+     * @param packingMode The strategy used to choose the batch of each order.
+     */
+    public BasicConstructive(Warehouse warehouse, SortBy sortBy, PackingMode packingMode) {
+        super(warehouse);
+        this.compact = packingMode != PackingMode.NEXT_FIT;
+        this.packingMode = packingMode;
         this.sortBy = sortBy;
     }
 
@@ -93,8 +121,8 @@ public class BasicConstructive extends ConstructiveAlgorithm {
     /**
      * Builds batches from the given list of orders.
      * This method iterates through the list of orders and assigns them to batches based
-     * on the worker's capacity. If compact batching is enabled, it attempts to fill
-     * existing batches before creating new ones.
+     * on the worker's capacity and the packing mode. A new batch is created when no
+     * batch can hold the order.
      *
      * @param initialOrders The list of orders to be batched.
      * @return A list of batches created from the given orders.
@@ -103,39 +131,143 @@ public class BasicConstructive extends ConstructiveAlgorithm {
     private List<Batch> buildBatches(List<Order> initialOrders) throws Exception {
         List<Batch> createdBatches = new ArrayList<>();
         if (!initialOrders.isEmpty()) {
-            Batch currentBatch = new Batch(warehouse.getWorkerCapacity());
-            createdBatches.add(currentBatch);
-
-            for (Order order : initialOrders) {
-                boolean assigned = false;
-
-                if (this.compact) {
-                    for (Batch batch : createdBatches) {
-                        if (batch.getAvailableWeight() >= order.getWeight()) {
-                            batch.addOrder(order);
-                            assigned = true;
-                            break;
-                        }
-                    }
-                } else {
-                    currentBatch = createdBatches.get(createdBatches.size() - 1);
-                    if (currentBatch.getAvailableWeight() >= order.getWeight()) {
-                        currentBatch.addOrder(order);
-                        assigned = true;
-                    }
+            createdBatches.add(new Batch(warehouse.getWorkerCapacity()));
+            switch (packingMode) {
+                case NEXT_FIT -> buildNextFit(initialOrders, createdBatches);
+                case FIRST_FIT -> buildFirstFit(initialOrders, createdBatches);
+                case BEST_FIT, WORST_FIT -> buildBestOrWorstFit(initialOrders, createdBatches);
+            }
+        }
+        return createdBatches;
+    }
+
+    /**
+     * Assigns each order to the last created batch if it fits, or to a new batch otherwise.
+     *
+     * @param initialOrders  The list of orders to be batched.
+     * @param createdBatches The list of batches, with an initial empty batch.
+     * @throws Exception If an order exceeds the maximum batch weight.
+     */
+    private void buildNextFit(List<Order> initialOrders, List<Batch> createdBatches) throws Exception {
+        for (Order order : initialOrders) {
+            Batch currentBatch = createdBatches.get(createdBatches.size() - 1);
+            if (currentBatch.getAvailableWeight() >= order.getWeight()) {
+                currentBatch.addOrder(order);
+            } else {
+                createdBatches.add(newBatch(order));
+            }
+        }
+    }
+
+    /**
+     * Assigns each order to the first created batch where it fits, or to a new batch otherwise.
+     *
+     * @param initialOrders  The list of orders to be batched.
+     * @param createdBatches The list of batches, with an initial empty batch.
+     * @throws Exception If an order exceeds the maximum batch weight.
+     */
+    private void buildFirstFit(List<Order> initialOrders, List<Batch> createdBatches) throws Exception {
+        CapacitySegmentTree availableWeights = new CapacitySegmentTree();
+        availableWeights.add(createdBatches.get(0).getAvailableWeight());
+        for (Order order : initialOrders) {
+            int index = availableWeights.firstAtLeast(order.getWeight());
+            if (index >= 0) {
+                Batch batch = createdBatches.get(index);
+                batch.addOrder(order);
+                availableWeights.update(index, batch.getAvailableWeight());
+            } else {
+                Batch batch = newBatch(order);
+                createdBatches.add(batch);
+                availableWeights.add(batch.getAvailableWeight());
+            }
+        }
+    }
+
+    /**
+     * Assigns each order to the batch with the least (best-fit) or the most (worst-fit)
+     * available weight where it fits, or to a new batch otherwise. Ties are broken in
+     * favour of the first created batch.
+     *
+     * @param initialOrders  The list of orders to be batched.
+     * @param createdBatches The list of batches, with an initial empty batch.
+     * @throws Exception If an order exceeds the maximum batch weight.
+     */
+    private void buildBestOrWorstFit(List<Order> initialOrders, List<Batch> createdBatches) throws Exception {
+        // Indexes of the batches by available weight.
+        TreeMap<Double, TreeSet<Integer>> batchesByAvailableWeight = new TreeMap<>();
+        addByAvailableWeight(batchesByAvailableWeight, createdBatches, 0);
+        for (Order order : initialOrders) {
+            Map.Entry<Double, TreeSet<Integer>> entry;
+            if (packingMode == PackingMode.BEST_FIT) {
+                entry = batchesByAvailableWeight.ceilingEntry(order.getWeight());
+            } else {
+                entry = batchesByAvailableWeight.lastEntry();
+                if (entry != null && entry.getKey() < order.getWeight()) {
+                    entry = null;
                 }
+            }
 
-                if (!assigned) {
-                    Batch newBatch = new Batch(warehouse.getWorkerCapacity());
-                    try {
-                        newBatch.addOrder(order);
-                    } catch (Exception e) {
-                        throw new Exception("Data error: A single order exceeds the maximum batch weight.");
-                    }
-                    createdBatches.add(newBatch);
+            if (entry != null) {
+                int index = entry.getValue().pollFirst();
+                if (entry.getValue().isEmpty()) {
+                    batchesByAvailableWeight.remove(entry.getKey());
                 }
+                createdBatches.get(index).addOrder(order);
+                addByAvailableWeight(batchesByAvailableWeight, createdBatches, index);
+            } else {
+                createdBatches.add(newBatch(order));
+                addByAvailableWeight(batchesByAvailableWeight, createdBatches, createdBatches.size() - 1);
             }
         }
-        return createdBatches;
     }
-}
\ No newline at end of file
+
+    /**
+     * Adds a batch to the index of batches by available weight.
+     *
+     * @param batchesByAvailableWeight The indexes of the batches by available weight.
+     * @param createdBatches           The list of batches.
+     * @param index                    The index of the batch to add.
+     */
+    private static void addByAvailableWeight(TreeMap<Double, TreeSet<Integer>> batchesByAvailableWeight, List<Batch> createdBatches, int index) {
+        batchesByAvailableWeight.computeIfAbsent(createdBatches.get(index).getAvailableWeight(), k -> new TreeSet<>()).add(index);
+    }
+
+    /**
+     * Creates a new batch with an order.
+     *
+     * @param order The first order of the batch.
+     * @return The new batch.
+     * @throws Exception If the order exceeds the maximum batch weight.
+     */
+    private Batch newBatch(Order order) throws Exception {
+        Batch newBatch = new Batch(warehouse.getWorkerCapacity());
+        try {
+            newBatch.addOrder(order);
+        } catch (Exception e) {
+            throw new Exception("Data error: A single order exceeds the maximum batch weight.");
+        }
+        return newBatch;
+    }
+
+    /**
+     * Strategies used to choose the batch of each order.
+     */
+    public enum PackingMode {
+        /**
+         * The last created batch, if the order fits (non-compact batching).
+         */
+        NEXT_FIT,
+        /**
+         * The first created batch where the order fits (compact batching).
+         */
+        FIRST_FIT,
+        /**
+         * The batch with the least available weight where the order fits.
+         */
+        BEST_FIT,
+        /**
+         * The batch with the most available weight, if the order fits.
+         */
+        WORST_FIT
+    }
+}
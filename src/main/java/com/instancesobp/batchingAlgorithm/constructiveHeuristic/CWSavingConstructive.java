@@ -20,11 +20,17 @@ package com.instancesobp.batchingAlgorithm.constructiveHeuristic;
 
 import com.instancesobp.models.Batch;
 import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
 import com.instancesobp.models.Warehouse;
 import com.instancesobp.objectiveFunction.ObjectiveFunction;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.IntStream;
 
 import static com.instancesobp.utils.BatchOperations.canAddOrdersInABatch;
 import static com.instancesobp.utils.BatchOperations.unionBatch;
@@ -33,6 +39,39 @@ import static com.instancesobp.utils.BatchOperations.unionBatch;
  * Implements the Clarke and Wright Savings constructive heuristic algorithm for batching orders.
  * This algorithm groups orders into batches while minimizing the total cost or distance.
  * It uses an objective function to evaluate the quality of the batches.
+ * <p>
+ * Starting from one batch per order, two batches that fit together in the worker capacity are
+ * merged, and the merged batch is appended at the end of the list, until no pair fits. By default
+ * the pair is chosen with the rule of {@link #combineBestBatches(ArrayList)}: the pairs are scanned
+ * in list order, and a pair is chosen when its saving (the value of both batches minus the value
+ * of their union) is lower than the value of the union of the last chosen pair. The value of the
+ * union of each pair of batches is computed once and kept in a triangular matrix, so the batches
+ * are the same as with {@link #combineBestBatches(ArrayList)} but the objective function is
+ * evaluated O(n<sup>2</sup>) times instead of O(n<sup>3</sup>) times for n orders.
+ * <p>
+ * With {@link #setLargestSaving(boolean)} the two batches with the largest saving are merged
+ * instead, breaking ties in favour of the oldest batches. The savings of all pairs are computed
+ * once and kept in a priority queue; after each merge only the savings of the new batch are
+ * computed, and the entries of the merged batches are discarded when they reach the head of
+ * the queue.
+ * <p>
+ * In parallel mode the initial values of the unions are computed with the common ForkJoin pool
+ * over blocks of rows of a triangular matrix. Each value is computed independently, so the
+ * batches are the same as in sequential mode for any number of cores. The objective
+ * function must allow concurrent calls on different batches, as the ones of this project do.
+ * <p>
+ * For very large instances the savings of all pairs do not fit in memory. In candidate list
+ * mode ({@link #setCandidateListSize(int)}) each batch only keeps its k most promising partners
+ * that fit with it in the worker capacity: the ones with the highest Jaccard similarity between
+ * their sets of visited aisles, and then the ones with the closest mean aisle. Only the savings
+ * of these pairs are evaluated, so the memory is O(n&middot;k). The partners of a merged batch are
+ * chosen among the partners of the two merged batches, or among all the batches if the lists
+ * are refreshed after each merge ({@link #setRefreshCandidates(boolean)}). When no candidate pair
+ * is left, the lists of all the remaining batches are rebuilt, so the merges only stop when no
+ * pair of batches fits in the worker capacity. The candidate lists always merge the pair with the
+ * largest saving, since the default rule depends on the order of all the pairs. With k at least
+ * the number of orders the result is the same as with {@link #setLargestSaving(boolean)} and
+ * without candidate lists.
  *
  * @author Sergio Gil Borrás
  * @version 1.0
@@ -44,6 +83,27 @@ public class CWSavingConstructive extends ConstructiveAlgorithm {
      */
     private final ObjectiveFunction objectiveFunction;
 
+    /**
+     * Indicates whether the initial savings are computed in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Number of candidate partners of each batch, or 0 to evaluate all the pairs.
+     */
+    private int candidateListSize = 0;
+
+    /**
+     * Indicates whether the candidate partners of a merged batch are chosen among all the batches.
+     */
+    private boolean refreshCandidates = false;
+
+    /**
+     * Indicates whether the pair of batches with the largest saving is merged instead of the one
+     * chosen by the rule of {@link #combineBestBatches(ArrayList)}.
+     */
+    private boolean largestSaving = false;
+
     /**
      * Constructor for the CWSavingConstructive class.
      *
@@ -51,8 +111,20 @@ public class CWSavingConstructive extends ConstructiveAlgorithm {
      * @param objectiveFunction The objective function used to evaluate batches.
      */
     public CWSavingConstructive(Warehouse warehouse, ObjectiveFunction objectiveFunction) {
+        this(warehouse, objectiveFunction, false);
+    }
+
+    /**
+     * Constructor for the CWSavingConstructive class with an option to compute the initial savings in parallel.
+     *
+     * @param warehouse         The warehouse containing the orders and configuration details.
+     * @param objectiveFunction The objective function used to evaluate batches.
+     * @param parallel          Indicates whether the initial savings are computed in parallel.
+     */
+    public CWSavingConstructive(Warehouse warehouse, ObjectiveFunction objectiveFunction, boolean parallel) {
         super(warehouse);
         this.objectiveFunction = objectiveFunction;
+        this.parallel = parallel;
     }
 
     /**
@@ -93,20 +165,512 @@ public class CWSavingConstructive extends ConstructiveAlgorithm {
             batchList.add(batch1);
             batchList.add(batch2);
         } else {
-            batchList = initializeBatchList(initialOrders);
+            if (candidateListSize > 0) {
+                batchList = mergeByCandidates(initializeBatchList(initialOrders));
+            } else if (largestSaving) {
+                batchList = mergeBySavings(initializeBatchList(initialOrders));
+            } else {
+                batchList = mergeByListOrder(initializeBatchList(initialOrders));
+            }
+        }
+        return batchList;
+    }
+
+    /**
+     * Merges the batches of a list with the rule of {@link #combineBestBatches(ArrayList)} until
+     * no pair fits in the worker capacity. It gives the same result as calling that method until
+     * it returns null, but the union of each pair of batches is evaluated only once.
+     *
+     * @param initialBatches The initial list of batches.
+     * @return A list of batches after all the merges, in the same order as {@link #combineBestBatches(ArrayList)}.
+     * @throws Exception If an error occurs during the evaluation of the batches.
+     */
+    private ArrayList<Batch> mergeByListOrder(ArrayList<Batch> initialBatches) throws Exception {
+        // Batches by slot: a merged batch takes the slot of the first batch, and the slot of the second one is set to null.
+        int size = initialBatches.size();
+        Batch[] batches = initialBatches.toArray(new Batch[0]);
+        double[] values = new double[size];
+        for (int slot = 0; slot < size; slot++) {
+            values[slot] = objectiveFunction.run(batches[slot]);
+        }
+        double[] combinedValues = computeCombinedValues(initialBatches);
+        // Slots of the batches in list order.
+        int[] order = IntStream.range(0, size).toArray();
+        int count = size;
+
+        while (true) {
+            int best1 = -1, best2 = -1;
+            double bestSaving = Double.MAX_VALUE;
+            for (int i = 0; i < count; i++) {
+                for (int j = i + 1; j < count; j++) {
+                    double combinedValue = combinedValues[pairIndex(Math.min(order[i], order[j]), Math.max(order[i], order[j]), size)];
+                    if (!Double.isNaN(combinedValue)) {
+                        double saving = values[order[i]] + values[order[j]] - combinedValue;
+                        if (saving < bestSaving) {
+                            bestSaving = combinedValue;
+                            best1 = i;
+                            best2 = j;
+                        }
+                    }
+                }
+            }
+            if (best1 < 0) {
+                break;
+            }
+
+            int slot = order[best1];
+            int removedSlot = order[best2];
+            batches[slot] = unionBatch(batches[slot], batches[removedSlot]);
+            batches[removedSlot] = null;
+            values[slot] = objectiveFunction.run(batches[slot]);
+            System.arraycopy(order, best2 + 1, order, best2, count - best2 - 1);
+            System.arraycopy(order, best1 + 1, order, best1, count - best1 - 2);
+            order[count - 2] = slot;
+            count--;
+            updateCombinedValues(batches, combinedValues, slot);
+        }
+
+        ArrayList<Batch> batchList = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batchList.add(batches[order[i]]);
+        }
+        return batchList;
+    }
+
+    /**
+     * Evaluates the unions of a merged batch with the other batches of the list, sequentially or in parallel.
+     *
+     * @param batches        The batches by slot, with null in the empty slots.
+     * @param combinedValues The triangular matrix of values of the unions.
+     * @param slot           The slot of the merged batch.
+     * @throws Exception If an error occurs during the evaluation of the batches.
+     */
+    private void updateCombinedValues(Batch[] batches, double[] combinedValues, int slot) throws Exception {
+        IntStream slots = IntStream.range(0, batches.length);
+        if (parallel) {
+            slots = slots.parallel();
+        }
+        slots.forEach(other -> {
+            if (other != slot && batches[other] != null) {
+                try {
+                    combinedValues[pairIndex(Math.min(slot, other), Math.max(slot, other), batches.length)] =
+                            combinedValue(batches[Math.min(slot, other)], batches[Math.max(slot, other)]);
+                } catch (Exception e) {
+                    throw new IllegalStateException("The values of the unions cannot be computed. [CWSavingConstructive.updateCombinedValues]", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Merges the batches of a list by decreasing saving until no pair fits in the worker capacity.
+     * Each pair of batches is evaluated only once.
+     *
+     * @param initialBatches The initial list of batches.
+     * @return A list of batches after all the merges, in the order in which they were created.
+     * @throws Exception If an error occurs during the evaluation of the batches.
+     */
+    private ArrayList<Batch> mergeBySavings(ArrayList<Batch> initialBatches) throws Exception {
+        // Batches by identifier: the initial batches first, then the merged ones. Merged batches are set to null.
+        ArrayList<Batch> batches = new ArrayList<>(initialBatches);
+        PriorityQueue<Saving> savings = new PriorityQueue<>();
+        double[] values = new double[batches.size()];
+        for (int i = 0; i < batches.size(); i++) {
+            values[i] = objectiveFunction.run(batches.get(i));
+        }
+        double[] combinedValues = computeCombinedValues(batches);
+        int index = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            for (int j = i + 1; j < batches.size(); j++) {
+                if (!Double.isNaN(combinedValues[index])) {
+                    double saving = values[i] + values[j] - combinedValues[index];
+                    savings.add(new Saving(saving, i, j));
+                }
+                index++;
+            }
+        }
+
+        while (!savings.isEmpty()) {
+            Saving best = savings.poll();
+            if (batches.get(best.first) == null || batches.get(best.second) == null) {
+                continue; // Stale entry: one of the batches has already been merged.
+            }
+            Batch mergedBatch = unionBatch(batches.get(best.first), batches.get(best.second));
+            objectiveFunction.run(mergedBatch);
+            batches.set(best.first, null);
+            batches.set(best.second, null);
+            batches.add(mergedBatch);
+
+            int mergedId = batches.size() - 1;
+            for (int k = 0; k < mergedId; k++) {
+                if (batches.get(k) != null) {
+                    addSaving(savings, batches, k, mergedId);
+                }
+            }
+        }
+
+        ArrayList<Batch> batchList = new ArrayList<>();
+        for (Batch batch : batches) {
+            if (batch != null) {
+                batchList.add(batch);
+            }
+        }
+        return batchList;
+    }
+
+    /**
+     * Merges the batches of a list by decreasing saving, evaluating only the pairs of candidate
+     * partners, until no pair of batches fits in the worker capacity.
+     *
+     * @param initialBatches The initial list of batches.
+     * @return A list of batches after all the merges, in the order in which they were created.
+     * @throws Exception If an error occurs during the evaluation of the batches.
+     */
+    private ArrayList<Batch> mergeByCandidates(ArrayList<Batch> initialBatches) throws Exception {
+        // Batches, sets of aisles and candidate partners by identifier. Merged batches are set to null.
+        ArrayList<Batch> batches = new ArrayList<>(initialBatches);
+        ArrayList<AisleSet> aisleSets = new ArrayList<>();
+        ArrayList<int[]> candidates = new ArrayList<>();
+        for (Batch batch : batches) {
+            aisleSets.add(new AisleSet(batch.getPickProfile(), warehouse.getNumberOfAisles()));
+            candidates.add(null);
+        }
+        // Identifier of the batch where each batch was merged, or -1 if it is still in the list.
+        int[] mergedInto = new int[(2 * batches.size()) - 1];
+        Arrays.fill(mergedInto, -1);
+
+        PriorityQueue<Saving> savings = new PriorityQueue<>();
+        while (addAllCandidateSavings(savings, batches, aisleSets, candidates)) {
+            while (!savings.isEmpty()) {
+                Saving best = savings.poll();
+                if (batches.get(best.first) == null || batches.get(best.second) == null) {
+                    continue; // Stale entry: one of the batches has already been merged.
+                }
+                Batch mergedBatch = unionBatch(batches.get(best.first), batches.get(best.second));
+                objectiveFunction.run(mergedBatch);
+                int mergedId = batches.size();
+                batches.add(mergedBatch);
+                aisleSets.add(aisleSets.get(best.first).union(aisleSets.get(best.second)));
+                batches.set(best.first, null);
+                batches.set(best.second, null);
+                mergedInto[best.first] = mergedId;
+                mergedInto[best.second] = mergedId;
 
-            do {
-                ArrayList<Batch> newBatchList = combineBestBatches(batchList);
-                if (newBatchList != null) {
-                    batchList = newBatchList;
+                int[] pool;
+                if (refreshCandidates) {
+                    pool = null;
                 } else {
-                    break;
+                    pool = resolve(mergedInto, candidates.get(best.first), candidates.get(best.second));
+                }
+                candidates.set(best.first, null);
+                candidates.set(best.second, null);
+                int[] partners = nearestPartners(mergedId, pool, batches, aisleSets);
+                candidates.add(partners);
+                for (int partner : partners) {
+                    addSaving(savings, batches, partner, mergedId);
                 }
-            } while (true);
+            }
+        }
+
+        ArrayList<Batch> batchList = new ArrayList<>();
+        for (Batch batch : batches) {
+            if (batch != null) {
+                batchList.add(batch);
+            }
         }
         return batchList;
     }
 
+    /**
+     * Rebuilds the candidate partners of all the batches of the list and adds the savings of
+     * the candidate pairs to the queue. Each pair is evaluated once, even if both batches
+     * are candidates of each other.
+     *
+     * @param savings    The queue of savings.
+     * @param batches    The batches by identifier.
+     * @param aisleSets  The sets of aisles by identifier.
+     * @param candidates The candidate partners by identifier.
+     * @return {@code true} if some pair was added to the queue.
+     * @throws Exception If an error occurs during the evaluation of the batches.
+     */
+    private boolean addAllCandidateSavings(PriorityQueue<Saving> savings, List<Batch> batches, List<AisleSet> aisleSets,
+                                           List<int[]> candidates) throws Exception {
+        IntStream ids = IntStream.range(0, batches.size());
+        if (parallel) {
+            ids = ids.parallel();
+        }
+        int[][] partners = new int[batches.size()][];
+        ids.forEach(id -> {
+            if (batches.get(id) != null) {
+                partners[id] = nearestPartners(id, null, batches, aisleSets);
+            }
+        });
+
+        List<int[]> pairs = new ArrayList<>();
+        for (int id = 0; id < batches.size(); id++) {
+            candidates.set(id, partners[id]);
+            if (partners[id] == null) {
+                continue;
+            }
+            for (int partner : partners[id]) {
+                // The pair is added by the lower identifier, or by this batch if it is not a candidate of its partner.
+                if (id < partner || !contains(partners[partner], id)) {
+                    pairs.add(new int[]{Math.min(id, partner), Math.max(id, partner)});
+                }
+            }
+        }
+
+        IntStream indexes = IntStream.range(0, pairs.size());
+        if (parallel) {
+            indexes = indexes.parallel();
+        }
+        double[] values = new double[pairs.size()];
+        indexes.forEach(i -> {
+            try {
+                values[i] = saving(batches.get(pairs.get(i)[0]), batches.get(pairs.get(i)[1]));
+            } catch (Exception e) {
+                throw new IllegalStateException("The savings cannot be computed. [CWSavingConstructive.addAllCandidateSavings]", e);
+            }
+        });
+        for (int i = 0; i < values.length; i++) {
+            savings.add(new Saving(values[i], pairs.get(i)[0], pairs.get(i)[1]));
+        }
+        return !pairs.isEmpty();
+    }
+
+    /**
+     * Chooses the candidate partners of a batch: the batches that fit with it in the worker
+     * capacity with the highest Jaccard similarity of their sets of aisles, then with the
+     * closest mean aisle.
+     *
+     * @param id        The identifier of the batch.
+     * @param pool      The identifiers of the batches to choose from, or null to choose among all the batches.
+     * @param batches   The batches by identifier.
+     * @param aisleSets The sets of aisles by identifier.
+     * @return The identifiers of at most {@code candidateListSize} partners.
+     */
+    private int[] nearestPartners(int id, int[] pool, List<Batch> batches, List<AisleSet> aisleSets) {
+        Batch batch = batches.get(id);
+        AisleSet aisleSet = aisleSets.get(id);
+        int[] bestIds = new int[candidateListSize];
+        double[] bestSimilarity = new double[candidateListSize];
+        double[] bestDistance = new double[candidateListSize];
+        int count = 0;
+
+        int poolSize = pool == null ? batches.size() : pool.length;
+        for (int p = 0; p < poolSize; p++) {
+            int other = pool == null ? p : pool[p];
+            Batch otherBatch = batches.get(other);
+            if (other == id || otherBatch == null || batch.getWeight() + otherBatch.getWeight() > warehouse.getWorkerCapacity()) {
+                continue;
+            }
+            double similarity = aisleSet.similarity(aisleSets.get(other));
+            double distance = Math.abs(aisleSet.meanAisle - aisleSets.get(other).meanAisle);
+
+            // Insertion into the sorted list of the best partners.
+            int position = count;
+            while (position > 0 && isCloser(similarity, distance, tieBreak(id, other), bestSimilarity[position - 1], bestDistance[position - 1], tieBreak(id, bestIds[position - 1]))) {
+                position--;
+            }
+            if (position >= candidateListSize) {
+                continue;
+            }
+            int last = Math.min(count, candidateListSize - 1);
+            for (int k = last; k > position; k--) {
+                bestIds[k] = bestIds[k - 1];
+                bestSimilarity[k] = bestSimilarity[k - 1];
+                bestDistance[k] = bestDistance[k - 1];
+            }
+            bestIds[position] = other;
+            bestSimilarity[position] = similarity;
+            bestDistance[position] = distance;
+            count = Math.min(count + 1, candidateListSize);
+        }
+        return Arrays.copyOf(bestIds, count);
+    }
+
+    /**
+     * Compares two candidate partners.
+     *
+     * @param similarity      The similarity of the first partner.
+     * @param distance        The distance between mean aisles of the first partner.
+     * @param tieBreak        The tie-break key of the first partner.
+     * @param otherSimilarity The similarity of the second partner.
+     * @param otherDistance   The distance between mean aisles of the second partner.
+     * @param otherTieBreak   The tie-break key of the second partner.
+     * @return {@code true} if the first partner is more promising than the second one.
+     */
+    private static boolean isCloser(double similarity, double distance, long tieBreak, double otherSimilarity, double otherDistance, long otherTieBreak) {
+        if (similarity != otherSimilarity) {
+            return similarity > otherSimilarity;
+        }
+        if (distance != otherDistance) {
+            return distance < otherDistance;
+        }
+        return tieBreak < otherTieBreak;
+    }
+
+    /**
+     * Returns a deterministic pseudo-random key of a pair of batches, used to break the ties
+     * between equally promising partners. Breaking them by identifier would make many batches
+     * choose the same few partners, and most of their pairs would become stale after a few merges.
+     *
+     * @param id      The identifier of the batch.
+     * @param partner The identifier of the partner.
+     * @return The key of the pair; the partner identifier is in the lowest bits, so keys never repeat.
+     */
+    private static long tieBreak(int id, int partner) {
+        long h = (((long) id) << 32) ^ partner;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return ((h ^ (h >>> 33)) & 0xFFFFFFFF00000000L) | partner;
+    }
+
+    /**
+     * Maps the candidate partners of two merged batches to the batches where they are now,
+     * removing duplicates.
+     *
+     * @param mergedInto  The identifier of the batch where each batch was merged, or -1.
+     * @param candidates1 The candidate partners of the first batch.
+     * @param candidates2 The candidate partners of the second batch.
+     * @return The identifiers of the current batches of the partners.
+     */
+    private static int[] resolve(int[] mergedInto, int[] candidates1, int[] candidates2) {
+        int[] pool = new int[candidates1.length + candidates2.length];
+        int count = 0;
+        for (int[] candidates : new int[][]{candidates1, candidates2}) {
+            for (int candidate : candidates) {
+                int current = candidate;
+                while (mergedInto[current] >= 0) {
+                    current = mergedInto[current];
+                }
+                boolean repeated = false;
+                for (int k = 0; k < count && !repeated; k++) {
+                    repeated = pool[k] == current;
+                }
+                if (!repeated) {
+                    pool[count++] = current;
+                }
+            }
+        }
+        return Arrays.copyOf(pool, count);
+    }
+
+    /**
+     * Checks if an array contains a value.
+     *
+     * @param values The array, or null.
+     * @param value  The value.
+     * @return {@code true} if the array contains the value.
+     */
+    private static boolean contains(int[] values, int value) {
+        if (values != null) {
+            for (int v : values) {
+                if (v == value) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Computes the values of the unions of all the pairs of a list of batches, sequentially or in parallel.
+     *
+     * @param batches The batches.
+     * @return The values of the unions of the pairs (i, j) with i &lt; j, row by row, or NaN for
+     * the pairs that do not fit in the worker capacity.
+     * @throws Exception If an error occurs during the evaluation of the batches.
+     */
+    private double[] computeCombinedValues(List<Batch> batches) throws Exception {
+        int size = batches.size();
+        double[] combinedValues = new double[(int) (((long) size * (size - 1)) / 2)];
+        if (parallel) {
+            ForkJoinPool.commonPool().invoke(new CombinedValuesTask(batches, combinedValues, 0, size));
+        } else {
+            computeCombinedRows(batches, combinedValues, 0, size);
+        }
+        return combinedValues;
+    }
+
+    /**
+     * Computes the rows {@code [fromRow, toRow)} of the triangular matrix of values of the unions.
+     *
+     * @param batches        The batches.
+     * @param combinedValues The triangular matrix of values of the unions.
+     * @param fromRow        The first row (inclusive).
+     * @param toRow          The last row (exclusive).
+     * @throws Exception If an error occurs during the evaluation of the batches.
+     */
+    private void computeCombinedRows(List<Batch> batches, double[] combinedValues, int fromRow, int toRow) throws Exception {
+        int size = batches.size();
+        for (int i = fromRow; i < toRow; i++) {
+            int index = pairIndex(i, i + 1, size);
+            for (int j = i + 1; j < size; j++) {
+                combinedValues[index++] = combinedValue(batches.get(i), batches.get(j));
+            }
+        }
+    }
+
+    /**
+     * Returns the position of a pair in a triangular matrix stored row by row.
+     *
+     * @param i    The row, lower than the column.
+     * @param j    The column.
+     * @param size The number of rows of the matrix.
+     * @return The position of the pair (i, j).
+     */
+    private static int pairIndex(int i, int j, int size) {
+        return (int) ((((long) i * ((2L * size) - i - 1)) / 2) + j - i - 1);
+    }
+
+    /**
+     * Evaluates the saving of merging two batches and adds it to the queue if they fit together.
+     *
+     * @param savings The queue of savings.
+     * @param batches The batches by identifier.
+     * @param first   The identifier of the first batch.
+     * @param second  The identifier of the second batch, greater than the first one.
+     * @throws Exception If an error occurs during the evaluation of the batches.
+     */
+    private void addSaving(PriorityQueue<Saving> savings, List<Batch> batches, int first, int second) throws Exception {
+        double saving = saving(batches.get(first), batches.get(second));
+        if (!Double.isNaN(saving)) {
+            savings.add(new Saving(saving, first, second));
+        }
+    }
+
+    /**
+     * Evaluates the saving of merging two batches.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return The value of both batches minus the value of their union, or NaN if they do not fit together.
+     * @throws Exception If an error occurs during the evaluation of the batches.
+     */
+    private double saving(Batch batch1, Batch batch2) throws Exception {
+        double combinedValue = combinedValue(batch1, batch2);
+        if (Double.isNaN(combinedValue)) {
+            return Double.NaN;
+        }
+        return objectiveFunction.run(batch1) + objectiveFunction.run(batch2) - combinedValue;
+    }
+
+    /**
+     * Evaluates the union of two batches.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return The value of the union of both batches, or NaN if they do not fit together.
+     * @throws Exception If an error occurs during the evaluation of the batch.
+     */
+    private double combinedValue(Batch batch1, Batch batch2) throws Exception {
+        if (batch1.getWeight() + batch2.getWeight() > warehouse.getWorkerCapacity()) {
+            return Double.NaN;
+        }
+        return objectiveFunction.run(unionBatch(batch1, batch2));
+    }
+
     /**
      * Initializes a list of batches, each containing a single order.
      *
@@ -127,7 +691,72 @@ public class CWSavingConstructive extends ConstructiveAlgorithm {
     }
 
     /**
-     * Combines the two best batches based on the savings calculated by the objective function.
+     * Gets the number of candidate partners of each batch.
+     *
+     * @return The number of candidate partners, or 0 if all the pairs are evaluated.
+     */
+    public int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Sets the number of candidate partners of each batch. With 0 (the default)
+     * the savings of all the pairs are evaluated.
+     *
+     * @param candidateListSize The number of candidate partners (0 or more).
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        if (candidateListSize < 0) {
+            throw new IllegalArgumentException("The candidate list size cannot be negative. [CWSavingConstructive.setCandidateListSize]");
+        }
+        this.candidateListSize = candidateListSize;
+    }
+
+    /**
+     * Checks if the candidate partners of a merged batch are chosen among all the batches.
+     *
+     * @return {@code true} if the candidate lists are refreshed after each merge.
+     */
+    public boolean isRefreshCandidates() {
+        return refreshCandidates;
+    }
+
+    /**
+     * Sets whether the candidate partners of a merged batch are chosen among all the batches
+     * ({@code true}) or among the partners of the two merged batches ({@code false}, the default).
+     *
+     * @param refreshCandidates Whether the candidate lists are refreshed after each merge.
+     */
+    public void setRefreshCandidates(boolean refreshCandidates) {
+        this.refreshCandidates = refreshCandidates;
+    }
+
+    /**
+     * Checks if the pair of batches with the largest saving is merged.
+     *
+     * @return {@code true} if the pair with the largest saving is merged, {@code false} if the
+     * pair is chosen with the rule of {@link #combineBestBatches(ArrayList)}.
+     */
+    public boolean isLargestSaving() {
+        return largestSaving;
+    }
+
+    /**
+     * Sets whether the pair of batches with the largest saving is merged ({@code true}) or the
+     * pair chosen with the rule of {@link #combineBestBatches(ArrayList)} ({@code false}, the default).
+     * The candidate lists always merge the pair with the largest saving.
+     *
+     * @param largestSaving Whether the pair with the largest saving is merged.
+     */
+    public void setLargestSaving(boolean largestSaving) {
+        this.largestSaving = largestSaving;
+    }
+
+    /**
+     * Combines two batches of the list, scanning the pairs in list order: a pair is chosen when
+     * its saving calculated by the objective function is lower than the value of the union of
+     * the last chosen pair. The merged batch is appended at the end of the list. This method
+     * evaluates all the pairs of the list; {@link #run(List)} uses an incremental version of it.
      *
      * @param batchList The current list of batches.
      * @return A new list of batches after combining the best two batches, or null if no combination is possible.
@@ -164,4 +793,172 @@ public class CWSavingConstructive extends ConstructiveAlgorithm {
         batchList.add(unionBatch(bestBatch1, bestBatch2));
         return batchList;
     }
-}
\ No newline at end of file
+
+    /**
+     * Saving of merging two batches, ordered by decreasing saving and then by increasing
+     * identifiers of the batches (the order in which the list of batches is scanned).
+     */
+    private static final class Saving implements Comparable<Saving> {
+
+        /** Value of both batches minus the value of their union. */
+        private final double value;
+
+        /** Identifier of the first batch. */
+        private final int first;
+
+        /** Identifier of the second batch, greater than the first one. */
+        private final int second;
+
+        /**
+         * Constructs a saving.
+         *
+         * @param value  The saving of merging both batches.
+         * @param first  The identifier of the first batch.
+         * @param second The identifier of the second batch.
+         */
+        private Saving(double value, int first, int second) {
+            this.value = value;
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public int compareTo(Saving other) {
+            int comparison = Double.compare(other.value, value);
+            if (comparison != 0) {
+                return comparison;
+            }
+            if (first != other.first) {
+                return Integer.compare(first, other.first);
+            }
+            return Integer.compare(second, other.second);
+        }
+    }
+
+    /**
+     * Task that computes a block of rows of the triangular matrix of values of the unions,
+     * splitting it in halves until it has at most {@value #ROWS_PER_TASK} rows.
+     */
+    private final class CombinedValuesTask extends RecursiveAction {
+
+        /** Maximum number of rows computed by a task without splitting it. */
+        private static final int ROWS_PER_TASK = 8;
+
+        /** The batches. */
+        private final List<Batch> batches;
+
+        /** The triangular matrix of values of the unions. */
+        private final double[] combinedValues;
+
+        /** The first row (inclusive). */
+        private final int fromRow;
+
+        /** The last row (exclusive). */
+        private final int toRow;
+
+        /**
+         * Constructs a task for a block of rows.
+         *
+         * @param batches        The batches.
+         * @param combinedValues The triangular matrix of values of the unions.
+         * @param fromRow        The first row (inclusive).
+         * @param toRow          The last row (exclusive).
+         */
+        private CombinedValuesTask(List<Batch> batches, double[] combinedValues, int fromRow, int toRow) {
+            this.batches = batches;
+            this.combinedValues = combinedValues;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+        }
+
+        @Override
+        protected void compute() {
+            if (toRow - fromRow <= ROWS_PER_TASK) {
+                try {
+                    computeCombinedRows(batches, combinedValues, fromRow, toRow);
+                } catch (Exception e) {
+                    throw new IllegalStateException("The values of the unions cannot be computed. [CWSavingConstructive.CombinedValuesTask]", e);
+                }
+                return;
+            }
+            int middleRow = (fromRow + toRow) >>> 1;
+            invokeAll(new CombinedValuesTask(batches, combinedValues, fromRow, middleRow), new CombinedValuesTask(batches, combinedValues, middleRow, toRow));
+        }
+    }
+
+    /**
+     * Set of the aisles visited by a batch, as a bitset, with its mean aisle.
+     */
+    private static final class AisleSet {
+
+        /** Bits of the visited aisles. */
+        private final long[] bits;
+
+        /** Number of visited aisles. */
+        private final int size;
+
+        /** Mean of the visited aisles. */
+        private final double meanAisle;
+
+        /**
+         * Constructs the set of aisles of a pick profile.
+         *
+         * @param profile        The pick profile.
+         * @param numberOfAisles The number of aisles of the warehouse.
+         */
+        private AisleSet(PickProfile profile, int numberOfAisles) {
+            this(new long[(numberOfAisles + 63) >>> 6]);
+            for (int i = 0; i < profile.getNumberOfOccupiedAisles(); i++) {
+                bits[profile.getAisle(i) >>> 6] |= 1L << profile.getAisle(i);
+            }
+        }
+
+        /**
+         * Constructs a set of aisles from its bits.
+         *
+         * @param bits The bits of the visited aisles.
+         */
+        private AisleSet(long[] bits) {
+            this.bits = bits;
+            int count = 0;
+            double sum = 0;
+            for (int word = 0; word < bits.length; word++) {
+                count += Long.bitCount(bits[word]);
+                for (long w = bits[word]; w != 0; w &= w - 1) {
+                    sum += (word << 6) + Long.numberOfTrailingZeros(w);
+                }
+            }
+            this.size = count;
+            this.meanAisle = count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * Returns the union of this set and another one.
+         *
+         * @param other The other set.
+         * @return The union of both sets.
+         */
+        private AisleSet union(AisleSet other) {
+            long[] union = new long[bits.length];
+            for (int word = 0; word < bits.length; word++) {
+                union[word] = bits[word] | other.bits[word];
+            }
+            return new AisleSet(union);
+        }
+
+        /**
+         * Returns the Jaccard similarity of this set and another one.
+         *
+         * @param other The other set.
+         * @return The number of common aisles divided by the number of aisles of the union.
+         */
+        private double similarity(AisleSet other) {
+            int common = 0;
+            for (int word = 0; word < bits.length; word++) {
+                common += Long.bitCount(bits[word] & other.bits[word]);
+            }
+            int union = size + other.size - common;
+            return union == 0 ? 0 : (double) common / union;
+        }
+    }
+}
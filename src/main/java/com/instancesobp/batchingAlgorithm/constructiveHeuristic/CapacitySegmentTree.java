@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.constructiveHeuristic;
+
+import java.util.Arrays;
+
+/**
+ * Max segment tree over the available capacity of a growing list of batches.
+ * It finds the first batch with enough available capacity for an order in
+ * O(log b) time for b batches, which makes first-fit packing O(n log b).
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+final class CapacitySegmentTree {
+
+    /**
+     * Nodes of the tree: node 1 is the root and the children of node i are 2i and 2i + 1.
+     * The leaves start at {@code leaves}; unused leaves hold negative infinity.
+     */
+    private double[] tree;
+
+    /**
+     * Number of leaves (power of two).
+     */
+    private int leaves;
+
+    /**
+     * Number of batches in the tree.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty tree.
+     */
+    CapacitySegmentTree() {
+        leaves = 16;
+        tree = new double[2 * leaves];
+        Arrays.fill(tree, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Adds a batch at the end of the list.
+     *
+     * @param capacity The available capacity of the batch.
+     * @return The index of the batch.
+     */
+    int add(double capacity) {
+        if (size == leaves) {
+            grow();
+        }
+        update(size, capacity);
+        return size++;
+    }
+
+    /**
+     * Updates the available capacity of a batch.
+     *
+     * @param index    The index of the batch.
+     * @param capacity The new available capacity.
+     */
+    void update(int index, double capacity) {
+        int node = leaves + index;
+        tree[node] = capacity;
+        for (node >>>= 1; node > 0; node >>>= 1) {
+            tree[node] = Math.max(tree[2 * node], tree[(2 * node) + 1]);
+        }
+    }
+
+    /**
+     * Finds the first batch with at least the given available capacity.
+     *
+     * @param capacity The required capacity.
+     * @return The lowest index of a batch with enough available capacity, or -1 if there is none.
+     */
+    int firstAtLeast(double capacity) {
+        if (tree[1] < capacity) {
+            return -1;
+        }
+        int node = 1;
+        while (node < leaves) {
+            node = tree[2 * node] >= capacity ? 2 * node : (2 * node) + 1;
+        }
+        return node - leaves;
+    }
+
+    /**
+     * Doubles the number of leaves of the tree.
+     */
+    private void grow() {
+        double[] old = tree;
+        int oldLeaves = leaves;
+        leaves *= 2;
+        tree = new double[2 * leaves];
+        Arrays.fill(tree, Double.NEGATIVE_INFINITY);
+        System.arraycopy(old, oldLeaves, tree, leaves, oldLeaves);
+        for (int node = leaves - 1; node > 0; node--) {
+            tree[node] = Math.max(tree[2 * node], tree[(2 * node) + 1]);
+        }
+    }
+}
@@ -0,0 +1,424 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.constructiveHeuristic;
+
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.utils.AisleIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.instancesobp.utils.Constants.DEPOT_CENTER;
+
+/**
+ * Implements the seed batching algorithms of Gibson and Sharp and of de Koster et al.
+ * <p>
+ * Batches are built one at a time. A batch starts with a seed order chosen among the unassigned orders
+ * by a {@link SeedRule}, and unassigned orders are added to it by an {@link AdditionRule} until none fits
+ * in the worker capacity. Ties are broken in favour of the first order of the list.
+ * <p>
+ * The rule of the smallest number of added aisles is backed by an {@link AisleIndex}: when a batch visits
+ * a new aisle, the count of covered aisles of every order of that aisle is increased, so the orders that
+ * share aisles with the batch, and how many aisles each one would add, are known without scanning all the
+ * remaining orders. The orders that share no aisle with the batch are kept sorted by their number of aisles
+ * and are only visited while they could add fewer aisles than the best overlapping order. The rule of the
+ * minimum centroid distance keeps the orders sorted by the centroid of their aisles and searches outwards
+ * from the centroid of the batch.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class SeedConstructive extends ConstructiveAlgorithm {
+
+    /**
+     * Rules used to choose the seed order of a new batch.
+     */
+    public enum SeedRule {
+        /**
+         * The order with the aisle farthest from the depot.
+         */
+        FARTHEST_AISLE,
+        /**
+         * The order with the most items.
+         */
+        LARGEST_ORDER,
+        /**
+         * The order with the earliest due date.
+         */
+        EARLIEST_DUE_DATE
+    }
+
+    /**
+     * Rules used to choose the next order added to a batch.
+     */
+    public enum AdditionRule {
+        /**
+         * The order that adds the fewest aisles to the batch.
+         */
+        SMALLEST_ADDED_AISLES,
+        /**
+         * The order whose centroid of aisles is closest to the centroid of the batch.
+         */
+        MINIMUM_CENTROID_DISTANCE
+    }
+
+    /**
+     * Rule used to choose the seed orders.
+     */
+    private final SeedRule seedRule;
+
+    /**
+     * Rule used to choose the orders added to a batch.
+     */
+    private final AdditionRule additionRule;
+
+    /**
+     * Constructor for the SeedConstructive class.
+     *
+     * @param warehouse    The warehouse object containing layout and configuration details.
+     * @param seedRule     The rule used to choose the seed orders.
+     * @param additionRule The rule used to choose the orders added to a batch.
+     */
+    public SeedConstructive(Warehouse warehouse, SeedRule seedRule, AdditionRule additionRule) {
+        super(warehouse);
+        this.seedRule = seedRule;
+        this.additionRule = additionRule;
+    }
+
+    /**
+     * Executes the seed batching algorithm.
+     *
+     * @param orderList The list of orders to be batched.
+     * @return A list of batches created from the given orders.
+     * @throws Exception If an order exceeds the maximum batch weight.
+     */
+    @Override
+    public List<Batch> run(List<Order> orderList) throws Exception {
+        int n = orderList.size();
+        AisleIndex aisleIndex = new AisleIndex(orderList);
+        double[] weights = new double[n];
+        double[] items = new double[n];
+        double[] aisleSums = new double[n];
+        for (int order = 0; order < n; order++) {
+            weights[order] = orderList.get(order).getWeight();
+            PickProfile profile = orderList.get(order).getPickProfile();
+            for (int i = 0; i < profile.getNumberOfOccupiedAisles(); i++) {
+                items[order] += profile.getAisleItemCount(i);
+                aisleSums[order] += (double) profile.getAisle(i) * profile.getAisleItemCount(i);
+            }
+        }
+
+        SortedOrders seeds = new SortedOrders(n, seedComparator(orderList, aisleIndex));
+        SortedOrders byWeight = new SortedOrders(n, Comparator.comparingDouble(order -> weights[order]));
+        SortedOrders byAisles = new SortedOrders(n, Comparator.comparingInt(order -> aisleIndex.getAisles(order).length));
+        double[] centroids = new double[n];
+        for (int order = 0; order < n; order++) {
+            centroids[order] = items[order] == 0 ? 0 : aisleSums[order] / items[order];
+        }
+        SortedOrders byCentroid = new SortedOrders(n, Comparator.comparingDouble(order -> centroids[order]));
+        double[] sortedCentroids = new double[n];
+        for (int i = 0; i < n; i++) {
+            sortedCentroids[i] = centroids[byCentroid.orders[i]];
+        }
+
+        double capacity = warehouse.getWorkerCapacity();
+        boolean[] covered = new boolean[aisleIndex.getNumberOfAisles()];
+        int[] coveredAisles = new int[n];
+        int[] overlapping = new int[n];
+        List<Batch> batches = new ArrayList<>();
+        for (int remaining = n; remaining > 0; ) {
+            Batch batch = new Batch(capacity);
+            List<Integer> batchAisles = new ArrayList<>();
+            int numberOfOverlapping = 0;
+            double weight = 0;
+            double batchItems = 0;
+            double batchAisleSum = 0;
+
+            for (int order = seeds.orders[seeds.next(0)]; order >= 0; ) {
+                batch.addOrder(orderList.get(order));
+                seeds.remove(order);
+                byWeight.remove(order);
+                byAisles.remove(order);
+                byCentroid.remove(order);
+                remaining--;
+                weight += weights[order];
+                batchItems += items[order];
+                batchAisleSum += aisleSums[order];
+                if (additionRule == AdditionRule.SMALLEST_ADDED_AISLES) {
+                    for (int aisle : aisleIndex.getAisles(order)) {
+                        if (!covered[aisle]) {
+                            covered[aisle] = true;
+                            batchAisles.add(aisle);
+                            for (int other : aisleIndex.getOrders(aisle)) {
+                                if (coveredAisles[other]++ == 0) {
+                                    overlapping[numberOfOverlapping++] = other;
+                                }
+                            }
+                        }
+                    }
+                }
+
+                int lightest = byWeight.next(0);
+                if (lightest == n || weights[byWeight.orders[lightest]] > capacity - weight) {
+                    order = -1;
+                } else if (additionRule == AdditionRule.SMALLEST_ADDED_AISLES) {
+                    order = fewestAddedAisles(aisleIndex, weights, capacity - weight, seeds, coveredAisles,
+                            overlapping, numberOfOverlapping, byAisles);
+                } else {
+                    double centroid = batchItems == 0 ? 0 : batchAisleSum / batchItems;
+                    order = closestCentroid(weights, capacity - weight, byCentroid, sortedCentroids, centroid);
+                }
+            }
+
+            for (int aisle : batchAisles) {
+                covered[aisle] = false;
+            }
+            for (int i = 0; i < numberOfOverlapping; i++) {
+                coveredAisles[overlapping[i]] = 0;
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * Returns the comparator of the seed rule, which sorts the best seeds first.
+     *
+     * @param orderList  The list of orders.
+     * @param aisleIndex The aisles of the orders.
+     * @return The comparator of the positions of the orders.
+     */
+    private Comparator<Integer> seedComparator(List<Order> orderList, AisleIndex aisleIndex) {
+        return switch (seedRule) {
+            case FARTHEST_AISLE -> {
+                double depot = warehouse.getDepotPlacement() == DEPOT_CENTER ? (warehouse.getNumberOfAisles() - 1) / 2.0 : 0;
+                yield Comparator.comparingDouble(order -> {
+                    int[] aisles = aisleIndex.getAisles(order);
+                    return aisles.length == 0 ? 0 : -Math.max(depot - aisles[0], aisles[aisles.length - 1] - depot);
+                });
+            }
+            case LARGEST_ORDER -> Comparator.comparingInt(order -> -orderList.get(order).getPickProfile().getNumberOfItems());
+            case EARLIEST_DUE_DATE -> Comparator.comparingLong(order -> orderList.get(order).getDueDate());
+        };
+    }
+
+    /**
+     * Finds the unassigned order that fits in a batch and adds the fewest aisles to it.
+     * The orders that share aisles with the batch are visited first, and then the other orders
+     * by increasing number of aisles while they could add fewer aisles than the best one.
+     *
+     * @param aisleIndex          The aisles of the orders.
+     * @param weights             The weight of each order.
+     * @param available           The available weight of the batch.
+     * @param unassigned          The unassigned orders, in any order.
+     * @param coveredAisles       The number of aisles of each order visited by the batch.
+     * @param overlapping         The orders that share aisles with the batch.
+     * @param numberOfOverlapping The number of orders that share aisles with the batch.
+     * @param byAisles            The unassigned orders sorted by their number of aisles.
+     * @return The position of the order, or -1 if no order fits.
+     */
+    private static int fewestAddedAisles(AisleIndex aisleIndex, double[] weights, double available, SortedOrders unassigned,
+                                         int[] coveredAisles, int[] overlapping, int numberOfOverlapping, SortedOrders byAisles) {
+        int best = -1;
+        int bestAdded = Integer.MAX_VALUE;
+        for (int i = 0; i < numberOfOverlapping; i++) {
+            int order = overlapping[i];
+            if (!unassigned.contains(order) || weights[order] > available) {
+                continue;
+            }
+            int added = aisleIndex.getAisles(order).length - coveredAisles[order];
+            if (added < bestAdded || (added == bestAdded && order < best)) {
+                best = order;
+                bestAdded = added;
+            }
+        }
+        for (int position = byAisles.next(0); position < byAisles.orders.length; position = byAisles.next(position + 1)) {
+            int order = byAisles.orders[position];
+            int added = aisleIndex.getAisles(order).length;
+            if (added > bestAdded) {
+                break;
+            }
+            if (coveredAisles[order] > 0 || weights[order] > available) {
+                continue;
+            }
+            if (added < bestAdded || order < best) {
+                best = order;
+                bestAdded = added;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Finds the unassigned order that fits in a batch and whose centroid is closest to the centroid of the batch,
+     * searching outwards from the centroid of the batch in the orders sorted by centroid.
+     *
+     * @param weights         The weight of each order.
+     * @param available       The available weight of the batch.
+     * @param byCentroid      The unassigned orders sorted by centroid.
+     * @param sortedCentroids The centroids of the sorted orders.
+     * @param centroid        The centroid of the batch.
+     * @return The position of the order, or -1 if no order fits.
+     */
+    private static int closestCentroid(double[] weights, double available, SortedOrders byCentroid,
+                                       double[] sortedCentroids, double centroid) {
+        int n = sortedCentroids.length;
+        int right = Arrays.binarySearch(sortedCentroids, centroid);
+        if (right < 0) {
+            right = -right - 1;
+        }
+        while (right > 0 && sortedCentroids[right - 1] == centroid) {
+            right--;
+        }
+        int left = byCentroid.previous(right - 1);
+        right = byCentroid.next(right);
+        int best = -1;
+        double bestDistance = Double.POSITIVE_INFINITY;
+        while (left >= 0 || right < n) {
+            double leftDistance = left >= 0 ? centroid - sortedCentroids[left] : Double.POSITIVE_INFINITY;
+            double rightDistance = right < n ? sortedCentroids[right] - centroid : Double.POSITIVE_INFINITY;
+            double distance = Math.min(leftDistance, rightDistance);
+            if (distance > bestDistance) {
+                break;
+            }
+            int order;
+            if (leftDistance <= rightDistance) {
+                order = byCentroid.orders[left];
+                left = byCentroid.previous(left - 1);
+            } else {
+                order = byCentroid.orders[right];
+                right = byCentroid.next(right + 1);
+            }
+            if (weights[order] <= available && (distance < bestDistance || order < best)) {
+                best = order;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Orders sorted by a criterion, from which the assigned orders are removed.
+     * The next and previous unassigned positions are found with path-compressed links,
+     * so the assigned orders are skipped in almost constant amortized time.
+     */
+    private static final class SortedOrders {
+
+        /** The positions of the orders, sorted. */
+        private final int[] orders;
+
+        /** The position of each order in the sorted array. */
+        private final int[] positions;
+
+        /** Link to a position at or after each position that may be unassigned, or itself if it is unassigned. */
+        private final int[] nextLinks;
+
+        /** Link to a position at or before each position that may be unassigned, or itself if it is unassigned. */
+        private final int[] previousLinks;
+
+        /**
+         * Sorts the orders with a comparator. The sort is stable.
+         *
+         * @param n          The number of orders.
+         * @param comparator The comparator of the positions of the orders.
+         */
+        private SortedOrders(int n, Comparator<Integer> comparator) {
+            Integer[] sorted = new Integer[n];
+            for (int order = 0; order < n; order++) {
+                sorted[order] = order;
+            }
+            Arrays.sort(sorted, comparator);
+            orders = new int[n];
+            positions = new int[n];
+            nextLinks = new int[n + 1];
+            previousLinks = new int[n];
+            for (int i = 0; i < n; i++) {
+                orders[i] = sorted[i];
+                positions[sorted[i]] = i;
+                nextLinks[i] = i;
+                previousLinks[i] = i;
+            }
+            nextLinks[n] = n;
+        }
+
+        /**
+         * Checks if an order has not been removed.
+         *
+         * @param order The position of the order in the list of orders.
+         * @return {@code true} if the order is unassigned.
+         */
+        private boolean contains(int order) {
+            return nextLinks[positions[order]] == positions[order];
+        }
+
+        /**
+         * Removes an assigned order.
+         *
+         * @param order The position of the order in the list of orders.
+         */
+        private void remove(int order) {
+            int position = positions[order];
+            nextLinks[position] = position + 1;
+            previousLinks[position] = position - 1;
+        }
+
+        /**
+         * Finds the first unassigned position at or after a position.
+         *
+         * @param position The position.
+         * @return The unassigned position, or the number of orders if there is none.
+         */
+        private int next(int position) {
+            int root = position;
+            while (nextLinks[root] != root) {
+                root = nextLinks[root];
+            }
+            while (nextLinks[position] != root) {
+                int link = nextLinks[position];
+                nextLinks[position] = root;
+                position = link;
+            }
+            return root;
+        }
+
+        /**
+         * Finds the last unassigned position at or before a position.
+         *
+         * @param position The position.
+         * @return The unassigned position, or -1 if there is none.
+         */
+        private int previous(int position) {
+            int root = position;
+            while (root >= 0 && previousLinks[root] != root) {
+                root = previousLinks[root];
+            }
+            while (position >= 0 && position != root) {
+                int link = previousLinks[position];
+                previousLinks[position] = root;
+                position = link;
+            }
+            return root;
+        }
+    }
+}
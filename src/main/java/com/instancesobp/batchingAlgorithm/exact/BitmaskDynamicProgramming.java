@@ -0,0 +1,616 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.exact;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.batchingAlgorithm.constructiveHeuristic.BasicConstructive;
+import com.instancesobp.batchingAlgorithm.improvement.LocalSearch;
+import com.instancesobp.batchingAlgorithm.sortOrderList.SortByWeight;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RatliffRosenthal;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+import com.instancesobp.utils.LongDoubleHashMap;
+
+/**
+ * Exact batching algorithm for small instances, based on dynamic programming over bitmasks.
+ * <p>
+ * Every set of orders is a bitmask of their positions in the list of orders. The algorithm
+ * enumerates all the sets that fit in the worker capacity and routes each of them once with the
+ * routing algorithm (the optimal {@link RatliffRosenthal} by default). The minimum picking time
+ * of a set of orders then follows the set partitioning recurrence: the batch of its first order
+ * is one of the feasible sets that contain that order, and the remaining orders are batched
+ * optimally. The recurrence is solved depth first with memoisation and branch and bound:
+ * <ul>
+ *     <li>A lower bound of a set of orders is the sum, over its orders, of the minimum routing cost
+ *     per order of the feasible sets that contain each order.</li>
+ *     <li>The initial upper bound is the cost of a constructive solution improved with a local search.</li>
+ *     <li>When a set cannot improve the bound, the lower bound found for it is memoised instead of its
+ *     value, so it is only explored again with a larger budget.</li>
+ * </ul>
+ * The memoised values and bounds are kept in primitive {@link LongDoubleHashMap}s keyed by the bitmask.
+ * The batches of the first order (the first split) are explored in parallel: each thread takes the next
+ * one, keeps its own memoisation maps and shares the best solution found through an {@link AtomicReference}.
+ * <p>
+ * The number of feasible sets grows quickly with the number of orders that fit in a batch,
+ * so the algorithm is meant for instances of about 20 orders or fewer.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class BitmaskDynamicProgramming extends BatchingAlgorithm {
+
+    /**
+     * Maximum number of orders, the bits of a bitmask.
+     */
+    public static final int MAX_ORDERS = 63;
+
+    /**
+     * Tolerance of the comparisons of costs.
+     */
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * The feasible sets whose first order is the same, sorted by routing cost.
+     */
+    private static final class Subsets {
+
+        /** Bitmasks of the sets. */
+        private long[] masks = new long[16];
+
+        /** Routing costs of the sets. */
+        private double[] costs = new double[16];
+
+        /** Number of sets. */
+        private int size;
+
+        /**
+         * Adds a set.
+         *
+         * @param mask The bitmask of the set.
+         * @param cost The routing cost of the set.
+         */
+        private void add(long mask, double cost) {
+            if (size == masks.length) {
+                masks = Arrays.copyOf(masks, size * 2);
+                costs = Arrays.copyOf(costs, size * 2);
+            }
+            masks[size] = mask;
+            costs[size] = cost;
+            size++;
+        }
+
+        /**
+         * Sorts the sets by increasing routing cost, and by bitmask for equal costs.
+         */
+        private void sort() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> costs[a] != costs[b] ? Double.compare(costs[a], costs[b]) : Long.compare(masks[a], masks[b]));
+            long[] sortedMasks = new long[size];
+            double[] sortedCosts = new double[size];
+            for (int i = 0; i < size; i++) {
+                sortedMasks[i] = masks[order[i]];
+                sortedCosts[i] = costs[order[i]];
+            }
+            masks = sortedMasks;
+            costs = sortedCosts;
+        }
+    }
+
+    /**
+     * The best solution found: the batch of the first order and the search that holds the
+     * optimal values of the remaining orders.
+     *
+     * @param cost   The picking time of the solution.
+     * @param first  The bitmask of the batch of the first order, or 0 if none has been found.
+     * @param search The search that found the solution.
+     */
+    private record Incumbent(double cost, long first, Search search) {
+    }
+
+    /**
+     * The routing algorithm used to evaluate the sets of orders.
+     */
+    private final RoutingAlgorithm routingAlgorithm;
+
+    /**
+     * Number of threads that explore the first split.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum number of feasible sets.
+     */
+    private long maxSubsets = 50_000_000;
+
+    /**
+     * The feasible sets of the last run, by their first order.
+     */
+    private Subsets[] subsets;
+
+    /**
+     * Minimum routing cost per order of the feasible sets that contain each order.
+     */
+    private double[] shares;
+
+    /**
+     * Number of feasible sets of the last run.
+     */
+    private long numberOfSubsets;
+
+    /**
+     * Cost of the initial solution of the last run.
+     */
+    private double upperBound;
+
+    /**
+     * Number of memoised values and bounds of the last run.
+     */
+    private long memoEntries;
+
+    /**
+     * Memory used by the feasible sets and the memoisation maps in the last run, in bytes.
+     */
+    private long memoryFootprint;
+
+    /**
+     * Constructor for the BitmaskDynamicProgramming class, routing the batches with {@link RatliffRosenthal}.
+     *
+     * @param warehouse The warehouse object containing layout and configuration details.
+     */
+    public BitmaskDynamicProgramming(Warehouse warehouse) {
+        this(warehouse, new RatliffRosenthal(warehouse));
+    }
+
+    /**
+     * Constructor for the BitmaskDynamicProgramming class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches. The solution is optimal for
+     *                         the costs of this algorithm, and it is called from several threads.
+     */
+    public BitmaskDynamicProgramming(Warehouse warehouse, RoutingAlgorithm routingAlgorithm) {
+        super(warehouse);
+        this.routingAlgorithm = routingAlgorithm;
+    }
+
+    /**
+     * Sets the number of threads that explore the first split.
+     *
+     * @param threads The number of threads.
+     * @throws IllegalArgumentException If the number of threads is not positive.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive [BitmaskDynamicProgramming.setThreads]");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the maximum number of feasible sets, which bounds the memory and time of the enumeration.
+     *
+     * @param maxSubsets The maximum number of feasible sets.
+     */
+    public void setMaxSubsets(long maxSubsets) {
+        this.maxSubsets = maxSubsets;
+    }
+
+    /**
+     * Gets the number of feasible sets of orders of the last run.
+     *
+     * @return The number of feasible sets.
+     */
+    public long getNumberOfSubsets() {
+        return numberOfSubsets;
+    }
+
+    /**
+     * Gets the cost of the initial solution of the last run, the initial upper bound.
+     *
+     * @return The cost of the initial solution.
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Gets the number of values and bounds memoised in the last run.
+     *
+     * @return The number of memoised entries of all the threads.
+     */
+    public long getMemoEntries() {
+        return memoEntries;
+    }
+
+    /**
+     * Gets the memory used by the feasible sets and the memoisation maps in the last run.
+     *
+     * @return The memory footprint in bytes.
+     */
+    public long getMemoryFootprint() {
+        return memoryFootprint;
+    }
+
+    /**
+     * Finds the batches with the minimum picking time for a list of orders.
+     * The service time of each batch is set to its routing cost.
+     *
+     * @param orderList The list of orders to be batched.
+     * @return The optimal list of batches.
+     * @throws Exception If there are too many orders or feasible sets, or an order exceeds the worker capacity.
+     */
+    @Override
+    public List<Batch> run(List<Order> orderList) throws Exception {
+        int n = orderList.size();
+        if (n == 0) {
+            return new ArrayList<>();
+        }
+        if (n > MAX_ORDERS) {
+            throw new Exception("The exact algorithm supports up to " + MAX_ORDERS + " orders [BitmaskDynamicProgramming.run]");
+        }
+        for (Order order : orderList) {
+            if (order.getWeight() > warehouse.getWorkerCapacity()) {
+                throw new Exception("The order " + order.getId() + " exceeds the worker capacity [BitmaskDynamicProgramming.run]");
+            }
+        }
+
+        enumerateSubsets(orderList);
+        List<Batch> initial = initialSolution(orderList);
+        upperBound = 0;
+        for (Batch batch : initial) {
+            upperBound += batch.getServiceTime();
+        }
+
+        AtomicReference<Incumbent> best = new AtomicReference<>(new Incumbent(upperBound + EPSILON, 0, null));
+        AtomicInteger nextBranch = new AtomicInteger();
+        long full = n == 64 ? -1L : (1L << n) - 1;
+        List<Search> searches = new ArrayList<>(threads);
+        List<Callable<Void>> tasks = new ArrayList<>(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            Search search = new Search();
+            searches.add(search);
+            tasks.add(() -> {
+                search.exploreFirstSplit(full, nextBranch, best);
+                return null;
+            });
+        }
+        if (threads == 1) {
+            tasks.get(0).call();
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        memoEntries = 0;
+        memoryFootprint = 16L * numberOfSubsets;
+        for (Search search : searches) {
+            memoEntries += search.exact.size() + search.bounds.size();
+            memoryFootprint += search.exact.getMemoryFootprint() + search.bounds.getMemoryFootprint();
+        }
+
+        Incumbent incumbent = best.get();
+        if (incumbent.first() == 0) {
+            return initial;
+        }
+        return incumbent.search().batches(orderList, full, incumbent.first());
+    }
+
+    /**
+     * Enumerates the sets of orders that fit in the worker capacity and routes them,
+     * in parallel over their first order, and calculates the cost share of each order.
+     *
+     * @param orderList The list of orders.
+     * @throws Exception If there are more feasible sets than the maximum.
+     */
+    private void enumerateSubsets(List<Order> orderList) throws Exception {
+        int n = orderList.size();
+        double[] weights = new double[n];
+        PickProfile[] profiles = new PickProfile[n];
+        for (int i = 0; i < n; i++) {
+            weights[i] = orderList.get(i).getWeight();
+            profiles[i] = orderList.get(i).getPickProfile();
+        }
+
+        subsets = new Subsets[n];
+        AtomicLong count = new AtomicLong();
+        List<Callable<Void>> tasks = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int first = i;
+            subsets[i] = new Subsets();
+            tasks.add(() -> {
+                enumerate(subsets[first], first + 1, 1L << first, weights[first], profiles[first], weights, profiles, count);
+                subsets[first].sort();
+                return null;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            executor.shutdownNow();
+        }
+        numberOfSubsets = count.get();
+
+        shares = new double[n];
+        Arrays.fill(shares, Double.POSITIVE_INFINITY);
+        for (Subsets list : subsets) {
+            for (int k = 0; k < list.size; k++) {
+                long mask = list.masks[k];
+                double share = list.costs[k] / Long.bitCount(mask);
+                for (long bits = mask; bits != 0; bits &= bits - 1) {
+                    int order = Long.numberOfTrailingZeros(bits);
+                    shares[order] = Math.min(shares[order], share);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a feasible set and all its feasible extensions with orders from a given position.
+     *
+     * @param list     The list of sets of the first order.
+     * @param next     The first order that can be added.
+     * @param mask     The bitmask of the set.
+     * @param weight   The weight of the set.
+     * @param profile  The pick profile of the set.
+     * @param weights  The weight of each order.
+     * @param profiles The pick profile of each order.
+     * @param count    The number of sets of all the lists.
+     * @throws IllegalStateException If there are more feasible sets than the maximum.
+     */
+    private void enumerate(Subsets list, int next, long mask, double weight, PickProfile profile,
+                           double[] weights, PickProfile[] profiles, AtomicLong count) {
+        if (count.incrementAndGet() > maxSubsets) {
+            throw new IllegalStateException("There are more than " + maxSubsets + " feasible sets of orders [BitmaskDynamicProgramming.enumerate]");
+        }
+        list.add(mask, routingAlgorithm.run(profile));
+        for (int order = next; order < weights.length; order++) {
+            if (weight + weights[order] <= warehouse.getWorkerCapacity()) {
+                enumerate(list, order + 1, mask | (1L << order), weight + weights[order], profile.merge(profiles[order]),
+                        weights, profiles, count);
+            }
+        }
+    }
+
+    /**
+     * Builds the initial solution, whose cost is the initial upper bound.
+     *
+     * @param orderList The list of orders.
+     * @return The batches of the initial solution, with their service time set to their routing cost.
+     * @throws Exception If an error occurs while building the batches.
+     */
+    private List<Batch> initialSolution(List<Order> orderList) throws Exception {
+        BasicConstructive constructive = new BasicConstructive(warehouse, new SortByWeight(), BasicConstructive.PackingMode.BEST_FIT);
+        return new LocalSearch(warehouse, constructive, routingAlgorithm).improve(constructive.run(orderList));
+    }
+
+    /**
+     * Returns the lower bound of the picking time of a set of orders.
+     *
+     * @param mask The bitmask of the set.
+     * @return The sum of the cost shares of the orders.
+     */
+    private double lowerBound(long mask) {
+        double bound = 0;
+        for (long bits = mask; bits != 0; bits &= bits - 1) {
+            bound += shares[Long.numberOfTrailingZeros(bits)];
+        }
+        return bound;
+    }
+
+    /**
+     * Depth first search of the recurrence, with its own memoisation maps.
+     */
+    private final class Search {
+
+        /** Optimal picking time of the sets of orders solved. */
+        private final LongDoubleHashMap exact = new LongDoubleHashMap();
+
+        /** Lower bounds of the sets of orders that could not improve their budget. */
+        private final LongDoubleHashMap bounds = new LongDoubleHashMap();
+
+        /**
+         * Explores the batches of the first order, taking the next unexplored one until all are taken.
+         *
+         * @param full       The bitmask of all the orders.
+         * @param nextBranch The index of the next unexplored batch of the first order.
+         * @param best       The best solution found by all the threads.
+         */
+        private void exploreFirstSplit(long full, AtomicInteger nextBranch, AtomicReference<Incumbent> best) {
+            Subsets list = subsets[0];
+            for (int k = nextBranch.getAndIncrement(); k < list.size; k = nextBranch.getAndIncrement()) {
+                double cost = list.costs[k];
+                long rest = full & ~list.masks[k];
+                double limit = best.get().cost();
+                if (cost > limit) {
+                    return;
+                }
+                if (cost + lowerBound(rest) > limit) {
+                    continue;
+                }
+                double restValue = solve(rest, limit - cost);
+                if (restValue > limit - cost) {
+                    continue;
+                }
+                double value = cost + restValue;
+                Incumbent candidate = new Incumbent(value, list.masks[k], this);
+                Incumbent current = best.get();
+                while (value < current.cost() && !best.compareAndSet(current, candidate)) {
+                    current = best.get();
+                }
+            }
+        }
+
+        /**
+         * Returns the minimum picking time of a set of orders if it does not exceed a budget,
+         * or a lower bound greater than the budget otherwise. A value within the budget is always memoised.
+         *
+         * @param mask   The bitmask of the set.
+         * @param budget The budget.
+         * @return The minimum picking time, or a lower bound greater than the budget.
+         */
+        private double solve(long mask, double budget) {
+            if (mask == 0) {
+                return 0;
+            }
+            double value = exact.get(mask, Double.NaN);
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+            double bound = Math.max(lowerBound(mask), bounds.get(mask, 0));
+            if (bound > budget) {
+                return bound;
+            }
+
+            Subsets list = subsets[Long.numberOfTrailingZeros(mask)];
+            double best = Double.POSITIVE_INFINITY;
+            double minimumBound = Double.POSITIVE_INFINITY;
+            for (int k = 0; k < list.size; k++) {
+                long subset = list.masks[k];
+                if ((subset & ~mask) != 0) {
+                    continue;
+                }
+                double cost = list.costs[k];
+                double limit = Math.min(best, budget);
+                if (cost > limit) {
+                    minimumBound = Math.min(minimumBound, cost);
+                    break;
+                }
+                long rest = mask & ~subset;
+                double restBound = cost + lowerBound(rest);
+                if (restBound > limit) {
+                    minimumBound = Math.min(minimumBound, restBound);
+                    continue;
+                }
+                double restValue = solve(rest, limit - cost);
+                if (restValue <= limit - cost) {
+                    best = cost + restValue;
+                } else {
+                    minimumBound = Math.min(minimumBound, cost + restValue);
+                }
+            }
+
+            if (best < Double.POSITIVE_INFINITY) {
+                exact.put(mask, best);
+                return best;
+            }
+            // Kept strictly above the budget despite rounding, so that only memoised values fit their budget
+            minimumBound = Math.max(minimumBound, Math.nextUp(budget));
+            bounds.put(mask, minimumBound);
+            return minimumBound;
+        }
+
+        /**
+         * Rebuilds the batches of the optimal solution from the memoised values.
+         *
+         * @param orderList The list of orders.
+         * @param full      The bitmask of all the orders.
+         * @param first     The bitmask of the batch of the first order.
+         * @return The optimal batches, with their service time set to their routing cost.
+         * @throws Exception If an error occurs while building the batches.
+         */
+        private List<Batch> batches(List<Order> orderList, long full, long first) throws Exception {
+            List<Batch> batchList = new ArrayList<>();
+            batchList.add(batch(orderList, first, cost(first)));
+            long mask = full & ~first;
+            while (mask != 0) {
+                double value = exact.get(mask, Double.NaN);
+                Subsets list = subsets[Long.numberOfTrailingZeros(mask)];
+                long chosen = 0;
+                for (int k = 0; k < list.size && chosen == 0; k++) {
+                    long subset = list.masks[k];
+                    long rest = mask & ~subset;
+                    if ((subset & ~mask) == 0 && Math.abs(list.costs[k] + (rest == 0 ? 0 : exact.get(rest, Double.NaN)) - value) <= EPSILON) {
+                        chosen = subset;
+                        batchList.add(batch(orderList, subset, list.costs[k]));
+                    }
+                }
+                if (chosen == 0) {
+                    throw new IllegalStateException("The optimal solution cannot be rebuilt [BitmaskDynamicProgramming.batches]");
+                }
+                mask &= ~chosen;
+            }
+            return batchList;
+        }
+
+        /**
+         * Returns the routing cost of a feasible set.
+         *
+         * @param mask The bitmask of the set.
+         * @return The routing cost of the set.
+         */
+        private double cost(long mask) {
+            Subsets list = subsets[Long.numberOfTrailingZeros(mask)];
+            for (int k = 0; k < list.size; k++) {
+                if (list.masks[k] == mask) {
+                    return list.costs[k];
+                }
+            }
+            throw new IllegalStateException("The set is not feasible [BitmaskDynamicProgramming.cost]");
+        }
+
+        /**
+         * Builds the batch of a set of orders.
+         *
+         * @param orderList The list of orders.
+         * @param mask      The bitmask of the set.
+         * @param cost      The routing cost of the set.
+         * @return The batch, with its service time set to its routing cost.
+         * @throws Exception If the orders exceed the worker capacity.
+         */
+        private Batch batch(List<Order> orderList, long mask, double cost) throws Exception {
+            Batch batch = new Batch(warehouse.getWorkerCapacity());
+            for (long bits = mask; bits != 0; bits &= bits - 1) {
+                batch.addOrder(orderList.get(Long.numberOfTrailingZeros(bits)));
+            }
+            batch.setServiceTime(cost);
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,749 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.instancesobp.Configuration;
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+
+/**
+ * Adaptive large neighbourhood search.
+ * <p>
+ * The search starts from the initial batches improved with a {@link LocalSearch}. Each iteration
+ * removes a number of orders from a copy of the current solution with a destroy operator and
+ * inserts them again with a repair operator. The new solution is accepted with the simulated
+ * annealing criterion, and the best solution found is improved again with the local search.
+ * <p>
+ * The destroy operators remove random orders, the orders of the batches with the highest routing
+ * cost per order, orders that visit similar aisles or orders with close arrival times and due dates.
+ * The repair operators insert the orders one by one into the batch where they increase the routing
+ * cost the least, either the cheapest order first (greedy) or the order with the largest difference
+ * between its best and second best insertion first (regret). An order can also open a new batch.
+ * <p>
+ * The operators are chosen with a roulette wheel. Their weights are updated at the end of each
+ * segment of iterations with the scores they obtained: a new best solution, a better solution or an
+ * accepted one. The insertion costs of a removed order into all the batches are evaluated with
+ * routing deltas, in parallel over the common ForkJoin pool when the parallel mode is enabled.
+ * The random numbers are seeded with {@link Configuration#SEED}, so the results are reproducible
+ * in both modes.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class AdaptiveLargeNeighbourhoodSearch extends ImprovementAlgorithm {
+
+    /**
+     * Operators that remove orders from a solution.
+     */
+    public enum DestroyOperator {
+        /**
+         * Remove random orders.
+         */
+        RANDOM,
+        /**
+         * Remove the orders of the batches with the highest routing cost per order.
+         */
+        WORST_BATCH,
+        /**
+         * Remove orders that visit similar aisles.
+         */
+        RELATED_AISLES,
+        /**
+         * Remove orders with close arrival times and due dates.
+         */
+        RELATED_TIME
+    }
+
+    /**
+     * Operators that insert the removed orders into a solution.
+     */
+    public enum RepairOperator {
+        /**
+         * Insert first the order with the cheapest insertion.
+         */
+        GREEDY,
+        /**
+         * Insert first the order with the largest difference between its two best insertions.
+         */
+        REGRET
+    }
+
+    /**
+     * Score of an operator that finds a new best solution.
+     */
+    private static final double SCORE_BEST = 33;
+
+    /**
+     * Score of an operator that finds a solution better than the current one.
+     */
+    private static final double SCORE_BETTER = 9;
+
+    /**
+     * Score of an operator that finds a worse solution that is accepted.
+     */
+    private static final double SCORE_ACCEPTED = 13;
+
+    /**
+     * Exponent of the random choice of the related removals; the higher, the more related the removed orders.
+     */
+    private static final double RELATEDNESS_DETERMINISM = 6;
+
+    /**
+     * Number of batches evaluated by each parallel insertion task.
+     */
+    private static final int BATCHES_PER_TASK = 16;
+
+    /**
+     * Maximum number of iterations, or 0 for no iteration limit.
+     */
+    private int maxIterations = 2000;
+
+    /**
+     * Maximum running time in milliseconds, or 0 for no time limit.
+     */
+    private long timeLimit = 0;
+
+    /**
+     * Number of iterations between the updates of the operator weights.
+     */
+    private int segmentLength = 100;
+
+    /**
+     * Weight of the scores of the last segment in the update of the operator weights.
+     */
+    private double reactionFactor = 0.1;
+
+    /**
+     * Maximum fraction of the orders removed in an iteration.
+     */
+    private double maxRemovalFraction = 0.3;
+
+    /**
+     * Maximum number of orders removed in an iteration.
+     */
+    private int maxRemovedOrders = 60;
+
+    /**
+     * Relative worsening of the initial solution accepted with probability 0.5 at the start.
+     */
+    private double startTemperatureControl = 0.05;
+
+    /**
+     * Factor applied to the temperature after each iteration.
+     */
+    private double coolingRate = 0.998;
+
+    /**
+     * Whether the insertion costs are evaluated in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Weights of the destroy operators.
+     */
+    private final double[] destroyWeights = new double[DestroyOperator.values().length];
+
+    /**
+     * Weights of the repair operators.
+     */
+    private final double[] repairWeights = new double[RepairOperator.values().length];
+
+    /**
+     * Random number generator of the search.
+     */
+    private Random random;
+
+    /**
+     * Constructor for the AdaptiveLargeNeighbourhoodSearch class, evaluating the insertions sequentially.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param initialAlgorithm The algorithm that builds the initial batches.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches.
+     */
+    public AdaptiveLargeNeighbourhoodSearch(Warehouse warehouse, BatchingAlgorithm initialAlgorithm, RoutingAlgorithm routingAlgorithm) {
+        this(warehouse, initialAlgorithm, routingAlgorithm, false);
+    }
+
+    /**
+     * Constructor for the AdaptiveLargeNeighbourhoodSearch class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param initialAlgorithm The algorithm that builds the initial batches.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches. In parallel mode it is
+     *                         called from several threads.
+     * @param parallel         Whether the insertion costs are evaluated in parallel.
+     */
+    public AdaptiveLargeNeighbourhoodSearch(Warehouse warehouse, BatchingAlgorithm initialAlgorithm, RoutingAlgorithm routingAlgorithm, boolean parallel) {
+        super(warehouse, initialAlgorithm, routingAlgorithm);
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the maximum number of iterations.
+     *
+     * @param maxIterations The maximum number of iterations, or 0 for no iteration limit.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Sets the maximum running time.
+     *
+     * @param timeLimit The maximum running time in milliseconds, or 0 for no time limit.
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Sets the number of iterations between the updates of the operator weights.
+     *
+     * @param segmentLength The length of a segment.
+     * @throws IllegalArgumentException If the length is not positive.
+     */
+    public void setSegmentLength(int segmentLength) {
+        if (segmentLength < 1) {
+            throw new IllegalArgumentException("The segment length must be positive [AdaptiveLargeNeighbourhoodSearch.setSegmentLength]");
+        }
+        this.segmentLength = segmentLength;
+    }
+
+    /**
+     * Sets the weight of the scores of the last segment in the update of the operator weights.
+     *
+     * @param reactionFactor The reaction factor, between 0 and 1.
+     * @throws IllegalArgumentException If the factor is not between 0 and 1.
+     */
+    public void setReactionFactor(double reactionFactor) {
+        if (reactionFactor < 0 || reactionFactor > 1) {
+            throw new IllegalArgumentException("The reaction factor must be between 0 and 1 [AdaptiveLargeNeighbourhoodSearch.setReactionFactor]");
+        }
+        this.reactionFactor = reactionFactor;
+    }
+
+    /**
+     * Sets how many orders can be removed in an iteration.
+     *
+     * @param maxRemovalFraction The maximum fraction of the orders, between 0 and 1.
+     * @param maxRemovedOrders   The maximum number of orders.
+     * @throws IllegalArgumentException If the fraction is not between 0 and 1 or the number is not positive.
+     */
+    public void setRemovalLimits(double maxRemovalFraction, int maxRemovedOrders) {
+        if (maxRemovalFraction <= 0 || maxRemovalFraction > 1 || maxRemovedOrders < 1) {
+            throw new IllegalArgumentException("Invalid removal limits [AdaptiveLargeNeighbourhoodSearch.setRemovalLimits]");
+        }
+        this.maxRemovalFraction = maxRemovalFraction;
+        this.maxRemovedOrders = maxRemovedOrders;
+    }
+
+    /**
+     * Sets the simulated annealing schedule.
+     *
+     * @param startTemperatureControl Relative worsening of the initial solution accepted with probability 0.5 at the start.
+     * @param coolingRate             Factor applied to the temperature after each iteration.
+     */
+    public void setAnnealing(double startTemperatureControl, double coolingRate) {
+        this.startTemperatureControl = startTemperatureControl;
+        this.coolingRate = coolingRate;
+    }
+
+    /**
+     * Gets the current weight of a destroy operator.
+     *
+     * @param operator The destroy operator.
+     * @return The weight of the operator.
+     */
+    public double getWeight(DestroyOperator operator) {
+        return destroyWeights[operator.ordinal()];
+    }
+
+    /**
+     * Gets the current weight of a repair operator.
+     *
+     * @param operator The repair operator.
+     * @return The weight of the operator.
+     */
+    public double getWeight(RepairOperator operator) {
+        return repairWeights[operator.ordinal()];
+    }
+
+    /**
+     * Improves a list of batches until the time limit or the iteration limit is reached.
+     *
+     * @param batchList The list of batches to improve. They are not modified.
+     * @return The best list of batches found.
+     * @throws Exception If an error occurs while moving the orders.
+     * @throws IllegalStateException If neither a time limit nor an iteration limit is set.
+     */
+    @Override
+    public List<Batch> improve(List<Batch> batchList) throws Exception {
+        List<Batch> batches = copy(batchList);
+        removeEmptyBatches(batches);
+        CompactSolution solution = new CompactSolution(batches, warehouse.getWorkerCapacity(), routingAlgorithm);
+        improve(solution);
+        return solution.toBatches();
+    }
+
+    /**
+     * Improves a compact solution in place until the time limit or the iteration limit is reached.
+     * The destroy and repair iterations work on the compact representation, so the current, candidate
+     * and best solutions are copied with array copies.
+     *
+     * @param solution The solution to improve.
+     * @throws Exception If an error occurs while moving the orders.
+     * @throws IllegalStateException If neither a time limit nor an iteration limit is set.
+     */
+    @Override
+    public void improve(CompactSolution solution) throws Exception {
+        if (timeLimit <= 0 && maxIterations <= 0) {
+            throw new IllegalStateException("A time limit or an iteration limit is required [AdaptiveLargeNeighbourhoodSearch.improve]");
+        }
+        long start = System.nanoTime();
+        long deadline = timeLimit > 0 ? start + timeLimit * 1_000_000 : Long.MAX_VALUE;
+        random = new Random(Configuration.SEED);
+        Arrays.fill(destroyWeights, 1);
+        Arrays.fill(repairWeights, 1);
+        double[] destroyScores = new double[destroyWeights.length];
+        double[] repairScores = new double[repairWeights.length];
+        int[] destroyUses = new int[destroyWeights.length];
+        int[] repairUses = new int[repairWeights.length];
+
+        LocalSearch localSearch = new LocalSearch(warehouse, initialAlgorithm, routingAlgorithm);
+        localSearch.improve(solution);
+        CompactSolution current = new CompactSolution(solution);
+        CompactSolution candidate = new CompactSolution(solution);
+        double currentCost = current.getCost();
+        double bestCost = currentCost;
+        double temperature = -startTemperatureControl * currentCost / Math.log(0.5);
+        int maxRemoved = Math.max(1, Math.min(maxRemovedOrders, (int) (maxRemovalFraction * solution.getNumberOfOrders())));
+
+        for (int iteration = 1; System.nanoTime() < deadline && (maxIterations <= 0 || iteration <= maxIterations); iteration++) {
+            int destroy = roulette(destroyWeights);
+            int repair = roulette(repairWeights);
+            int removed = 1 + random.nextInt(maxRemoved);
+
+            candidate.copyFrom(current);
+            int[] orders = destroy(DestroyOperator.values()[destroy], candidate, removed);
+            repair(RepairOperator.values()[repair], candidate, orders);
+            double cost = candidate.getCost();
+
+            double score = 0;
+            if (cost < bestCost - EPSILON) {
+                solution.copyFrom(candidate);
+                bestCost = cost;
+                score = SCORE_BEST;
+            } else if (cost < currentCost - EPSILON) {
+                score = SCORE_BETTER;
+            } else if (cost > currentCost + EPSILON && random.nextDouble() < Math.exp((currentCost - cost) / temperature)) {
+                score = SCORE_ACCEPTED;
+            }
+            if (score > 0 || Math.abs(cost - currentCost) <= EPSILON) {
+                current.copyFrom(candidate);
+                currentCost = cost;
+            }
+            temperature *= coolingRate;
+
+            destroyScores[destroy] += score;
+            repairScores[repair] += score;
+            destroyUses[destroy]++;
+            repairUses[repair]++;
+            if (iteration % segmentLength == 0) {
+                updateWeights(destroyWeights, destroyScores, destroyUses);
+                updateWeights(repairWeights, repairScores, repairUses);
+            }
+        }
+
+        localSearch.improve(solution);
+        moveCounters.addMoves(localSearch.getMoveCounters());
+        moveCounters.addElapsedSince(start);
+    }
+
+    /**
+     * Chooses an operator with probability proportional to its weight.
+     *
+     * @param weights The weights of the operators.
+     * @return The index of the chosen operator.
+     */
+    private int roulette(double[] weights) {
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+        double value = random.nextDouble() * total;
+        for (int i = 0; i < weights.length - 1; i++) {
+            value -= weights[i];
+            if (value < 0) {
+                return i;
+            }
+        }
+        return weights.length - 1;
+    }
+
+    /**
+     * Updates the weights of the operators with their scores in the last segment and resets the scores.
+     *
+     * @param weights The weights of the operators.
+     * @param scores  The scores of the operators in the last segment.
+     * @param uses    The number of uses of the operators in the last segment.
+     */
+    private void updateWeights(double[] weights, double[] scores, int[] uses) {
+        for (int i = 0; i < weights.length; i++) {
+            if (uses[i] > 0) {
+                weights[i] = Math.max(weights[i] * (1 - reactionFactor) + reactionFactor * scores[i] / uses[i], 0.01);
+            }
+        }
+        Arrays.fill(scores, 0);
+        Arrays.fill(uses, 0);
+    }
+
+    /**
+     * Removes orders from a solution with a destroy operator, leaving them unassigned.
+     *
+     * @param operator The destroy operator.
+     * @param solution The solution, with all its orders assigned.
+     * @param count    The number of orders to remove.
+     * @return The indices of the removed orders.
+     */
+    private int[] destroy(DestroyOperator operator, CompactSolution solution, int count) {
+        count = Math.min(count, solution.getNumberOfOrders());
+        int[] removed = switch (operator) {
+            case RANDOM -> randomRemoval(solution.getNumberOfOrders(), count);
+            case WORST_BATCH -> worstBatchRemoval(solution, count);
+            case RELATED_AISLES, RELATED_TIME -> relatedRemoval(operator, solution, count);
+        };
+        for (int order : removed) {
+            solution.move(order, CompactSolution.NONE);
+        }
+        return removed;
+    }
+
+    /**
+     * Chooses random orders.
+     *
+     * @param size  The number of orders.
+     * @param count The number of orders to choose.
+     * @return The indices of the chosen orders.
+     */
+    private int[] randomRemoval(int size, int count) {
+        int[] indices = new int[size];
+        Arrays.setAll(indices, i -> i);
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(size - i);
+            int swap = indices[i];
+            indices[i] = indices[j];
+            indices[j] = swap;
+        }
+        return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * Chooses the orders of the batches with the highest routing cost per order.
+     * The batches are visited from the worst one, skipping each with probability 0.2 to diversify the removals.
+     *
+     * @param solution The solution.
+     * @param count    The number of orders to choose.
+     * @return The indices of the chosen orders.
+     */
+    private int[] worstBatchRemoval(CompactSolution solution, int count) {
+        List<Integer> batches = new ArrayList<>(solution.getNumberOfBatches());
+        for (int batch = 0; batch < solution.getNumberOfOrders(); batch++) {
+            if (solution.getBatchSize(batch) > 0) {
+                batches.add(batch);
+            }
+        }
+        batches.sort(Comparator.comparingDouble(batch -> -solution.getCost(batch) / solution.getBatchSize(batch)));
+
+        int[] chosen = new int[count];
+        int size = 0;
+        boolean[] taken = new boolean[solution.getNumberOfOrders()];
+        while (size < count) {
+            for (int batch : batches) {
+                if (size == count) {
+                    break;
+                }
+                if (taken[batch] || random.nextDouble() < 0.2) {
+                    continue;
+                }
+                taken[batch] = true;
+                for (int order = solution.getFirstOrder(batch); order != CompactSolution.NONE && size < count; order = solution.getNextOrder(order)) {
+                    chosen[size++] = order;
+                }
+            }
+        }
+        return chosen;
+    }
+
+    /**
+     * Chooses related orders. The first order is random, and each next order is chosen among the
+     * orders most related to a random chosen one, with a bias towards the most related.
+     *
+     * @param operator The destroy operator, which defines the relatedness.
+     * @param solution The solution.
+     * @param count    The number of orders to choose.
+     * @return The indices of the chosen orders.
+     */
+    private int[] relatedRemoval(DestroyOperator operator, CompactSolution solution, int count) {
+        int[] chosen = new int[count];
+        List<Integer> remaining = new ArrayList<>(solution.getNumberOfOrders());
+        for (int i = 0; i < solution.getNumberOfOrders(); i++) {
+            remaining.add(i);
+        }
+        chosen[0] = remaining.remove(random.nextInt(remaining.size()));
+
+        double[] distance = new double[solution.getNumberOfOrders()];
+        for (int size = 1; size < count; size++) {
+            Order reference = solution.getOrder(chosen[random.nextInt(size)]);
+            for (int index : remaining) {
+                Order order = solution.getOrder(index);
+                distance[index] = operator == DestroyOperator.RELATED_AISLES
+                        ? aisleDistance(reference.getPickProfile(), order.getPickProfile())
+                        : Math.abs(reference.getArrivalTime() - order.getArrivalTime())
+                        + Math.abs(reference.getDueDate() - order.getDueDate());
+            }
+            remaining.sort(Comparator.comparingDouble(index -> distance[index]));
+            int position = (int) (Math.pow(random.nextDouble(), RELATEDNESS_DETERMINISM) * remaining.size());
+            chosen[size] = remaining.remove(position);
+        }
+        return chosen;
+    }
+
+    /**
+     * Returns the Jaccard distance between the sets of aisles visited by two pick profiles.
+     *
+     * @param profile1 The first pick profile.
+     * @param profile2 The second pick profile.
+     * @return 1 minus the number of common aisles divided by the number of aisles visited by any of them.
+     */
+    private static double aisleDistance(PickProfile profile1, PickProfile profile2) {
+        int size1 = profile1.getNumberOfOccupiedAisles();
+        int size2 = profile2.getNumberOfOccupiedAisles();
+        int common = 0;
+        for (int i = 0, j = 0; i < size1 && j < size2; ) {
+            int aisle1 = profile1.getAisle(i);
+            int aisle2 = profile2.getAisle(j);
+            if (aisle1 == aisle2) {
+                common++;
+                i++;
+                j++;
+            } else if (aisle1 < aisle2) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = size1 + size2 - common;
+        return union == 0 ? 0 : 1 - (double) common / union;
+    }
+
+    /**
+     * Inserts the removed orders into a solution with a repair operator.
+     * The insertion costs of each order are kept for all the batches, and only the costs
+     * of the batch that receives an order are evaluated again.
+     *
+     * @param operator The repair operator.
+     * @param solution The solution. Empty batches are used if needed.
+     * @param orders   The indices of the unassigned orders to insert.
+     */
+    private void repair(RepairOperator operator, CompactSolution solution, int[] orders) {
+        int size = orders.length;
+        int[] batches = new int[solution.getNumberOfBatches() + size];
+        int numberOfBatches = 0;
+        for (int batch = 0; batch < solution.getNumberOfOrders(); batch++) {
+            if (solution.getBatchSize(batch) > 0) {
+                batches[numberOfBatches++] = batch;
+            }
+        }
+        solution.refresh();
+
+        double[][] costs = new double[size][];
+        double[] newBatchCosts = new double[size];
+        for (int i = 0; i < size; i++) {
+            costs[i] = new double[batches.length];
+            insertionCosts(solution, orders[i], batches, numberOfBatches, costs[i]);
+            newBatchCosts[i] = routingAlgorithm.run(solution.getOrder(orders[i]).getPickProfile());
+        }
+
+        boolean[] inserted = new boolean[size];
+        for (int step = 0; step < size; step++) {
+            int chosen = -1;
+            int chosenBatch = -1;
+            double chosenValue = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < size; i++) {
+                if (inserted[i]) {
+                    continue;
+                }
+                int bestBatch = -1;
+                double bestCost = newBatchCosts[i];
+                double secondCost = Double.POSITIVE_INFINITY;
+                for (int b = 0; b < numberOfBatches; b++) {
+                    double cost = costs[i][b];
+                    if (cost < bestCost) {
+                        secondCost = bestCost;
+                        bestCost = cost;
+                        bestBatch = b;
+                    } else if (cost < secondCost) {
+                        secondCost = cost;
+                    }
+                }
+                double value = operator == RepairOperator.GREEDY ? bestCost : bestCost - secondCost;
+                if (value < chosenValue) {
+                    chosen = i;
+                    chosenBatch = bestBatch;
+                    chosenValue = value;
+                }
+            }
+
+            inserted[chosen] = true;
+            if (chosenBatch < 0) {
+                chosenBatch = numberOfBatches;
+                batches[numberOfBatches++] = solution.getEmptyBatch();
+            }
+            solution.move(orders[chosen], batches[chosenBatch]);
+            moveCounters.addApplied();
+            for (int i = 0; i < size; i++) {
+                if (!inserted[i]) {
+                    costs[i][chosenBatch] = insertionCost(solution, orders[i], batches[chosenBatch]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Evaluates the insertion costs of an order into the given batches of a solution,
+     * in parallel if the parallel mode is enabled. The solution must be refreshed.
+     *
+     * @param solution        The solution.
+     * @param order           The index of the order to insert.
+     * @param batches         The slots of the batches.
+     * @param numberOfBatches The number of batches to evaluate.
+     * @param costs           The array that receives the insertion cost into each batch.
+     */
+    private void insertionCosts(CompactSolution solution, int order, int[] batches, int numberOfBatches, double[] costs) {
+        Arrays.fill(costs, Double.POSITIVE_INFINITY);
+        if (parallel && numberOfBatches > BATCHES_PER_TASK) {
+            ForkJoinPool.commonPool().invoke(new InsertionTask(solution, order, batches, costs, 0, numberOfBatches));
+        } else {
+            insertionCosts(solution, order, batches, costs, 0, numberOfBatches);
+        }
+    }
+
+    /**
+     * Evaluates the insertion costs of an order into a range of the given batches.
+     *
+     * @param solution The solution.
+     * @param order    The index of the order to insert.
+     * @param batches  The slots of the batches.
+     * @param costs    The array that receives the insertion cost into each batch.
+     * @param from     The first position of the range, inclusive.
+     * @param to       The last position of the range, exclusive.
+     */
+    private void insertionCosts(CompactSolution solution, int order, int[] batches, double[] costs, int from, int to) {
+        for (int b = from; b < to; b++) {
+            costs[b] = insertionCost(solution, order, batches[b]);
+        }
+    }
+
+    /**
+     * Returns the increase of the routing cost of a batch if an order is inserted into it.
+     *
+     * @param solution The solution.
+     * @param order    The index of the order to insert.
+     * @param batch    The slot of the batch.
+     * @return The increase of the routing cost, or positive infinity if the order does not fit.
+     */
+    private double insertionCost(CompactSolution solution, int order, int batch) {
+        if (!solution.canMove(order, batch)) {
+            moveCounters.addInfeasible();
+            return Double.POSITIVE_INFINITY;
+        }
+        moveCounters.addEvaluated();
+        return solution.costIfAdded(order, batch) - solution.getCost(batch);
+    }
+
+    /**
+     * Task that evaluates the insertion costs of an order into a range of batches,
+     * splitting the range until it holds at most {@link #BATCHES_PER_TASK} batches.
+     */
+    private final class InsertionTask extends RecursiveAction {
+
+        /** The solution. */
+        private final CompactSolution solution;
+
+        /** The index of the order to insert. */
+        private final int order;
+
+        /** The slots of the batches. */
+        private final int[] batches;
+
+        /** The array that receives the insertion cost into each batch. */
+        private final double[] costs;
+
+        /** The first position of the range, inclusive. */
+        private final int from;
+
+        /** The last position of the range, exclusive. */
+        private final int to;
+
+        /**
+         * Constructs a task for a range of batches.
+         *
+         * @param solution The solution.
+         * @param order    The index of the order to insert.
+         * @param batches  The slots of the batches.
+         * @param costs    The array that receives the insertion cost into each batch.
+         * @param from     The first position of the range, inclusive.
+         * @param to       The last position of the range, exclusive.
+         */
+        private InsertionTask(CompactSolution solution, int order, int[] batches, double[] costs, int from, int to) {
+            this.solution = solution;
+            this.order = order;
+            this.batches = batches;
+            this.costs = costs;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Evaluates the range of batches, or splits it in two halves.
+         */
+        @Override
+        protected void compute() {
+            if (to - from <= BATCHES_PER_TASK) {
+                insertionCosts(solution, order, batches, costs, from, to);
+            } else {
+                int middle = (from + to) >>> 1;
+                invokeAll(new InsertionTask(solution, order, batches, costs, from, middle),
+                        new InsertionTask(solution, order, batches, costs, middle, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,651 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+
+/**
+ * Compact representation of a solution for the improvement algorithms.
+ * <p>
+ * The orders are identified by their index and the batches by a slot between 0 and the number
+ * of orders, so every solution of the same orders has the same arrays: the batch of each order
+ * ({@code -1} if it is not assigned), the orders of each batch as an intrusive doubly linked list
+ * in the order they were added,
+ * and the size, weight, pick profile and routing cost of each batch. A bitset marks the batches
+ * whose pick profile and cost must be calculated again. Copying a solution is therefore a few
+ * array copies of the number of orders, and moving an order is done in constant time; the
+ * routing cost of the changed batches is calculated when it is requested.
+ * <p>
+ * The orders, their weights and pick profiles and the routing algorithm are shared by all the
+ * copies of a solution. A solution can be converted from and to a list of batches to use
+ * {@code BatchOperations.validateSolution}, the objective functions or the graphics viewer.
+ * A solution must not be modified concurrently, and its pick profiles and costs must be
+ * up to date (see {@link #refresh()}) before it is read from several threads.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public final class CompactSolution {
+
+    /**
+     * Value of the batch of an order that is not assigned and of the end of a list.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * The data shared by all the copies of a solution.
+     *
+     * @param orders           The orders, by index.
+     * @param weights          The weight of each order.
+     * @param indices          The index of each order.
+     * @param workerCapacity   The maximum weight of a batch.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches.
+     */
+    private record Instance(Order[] orders, double[] weights, Map<Order, Integer> indices,
+                            double workerCapacity, RoutingAlgorithm routingAlgorithm) {
+    }
+
+    /**
+     * The data shared by all the copies of this solution.
+     */
+    private final Instance instance;
+
+    /**
+     * The batch of each order, or {@link #NONE} if it is not assigned.
+     */
+    private final int[] orderToBatch;
+
+    /**
+     * The next order of the batch of each order, or {@link #NONE}.
+     */
+    private final int[] next;
+
+    /**
+     * The previous order of the batch of each order, or {@link #NONE}.
+     */
+    private final int[] previous;
+
+    /**
+     * The first order of each batch, or {@link #NONE} if it is empty.
+     */
+    private final int[] first;
+
+    /**
+     * The last order of each batch, or {@link #NONE} if it is empty.
+     */
+    private final int[] last;
+
+    /**
+     * The number of orders of each batch.
+     */
+    private final int[] batchSize;
+
+    /**
+     * The weight of each batch.
+     */
+    private final double[] batchWeight;
+
+    /**
+     * The routing cost of each batch, valid if the batch is not dirty.
+     */
+    private final double[] batchCost;
+
+    /**
+     * The pick profile of each batch, valid if the batch is not dirty.
+     */
+    private final PickProfile[] batchProfile;
+
+    /**
+     * Bitset of the batches whose pick profile and cost must be calculated again.
+     */
+    private final long[] dirty;
+
+    /**
+     * The number of non-empty batches.
+     */
+    private int numberOfBatches;
+
+    /**
+     * No batch below this slot is empty.
+     */
+    private int emptyHint;
+
+    /**
+     * Constructs a compact solution from a list of batches.
+     *
+     * @param batchList        The batches of the solution.
+     * @param workerCapacity   The maximum weight of a batch.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches.
+     */
+    public CompactSolution(List<Batch> batchList, double workerCapacity, RoutingAlgorithm routingAlgorithm) {
+        List<Order> orderList = new ArrayList<>();
+        for (Batch batch : batchList) {
+            orderList.addAll(batch.getOrders());
+        }
+        Order[] orders = orderList.toArray(new Order[0]);
+        double[] weights = new double[orders.length];
+        Map<Order, Integer> indices = new IdentityHashMap<>(orders.length);
+        for (int i = 0; i < orders.length; i++) {
+            weights[i] = orders[i].getWeight();
+            indices.put(orders[i], i);
+        }
+        this.instance = new Instance(orders, weights, indices, workerCapacity, routingAlgorithm);
+
+        int n = orders.length;
+        this.orderToBatch = new int[n];
+        this.next = new int[n];
+        this.previous = new int[n];
+        this.first = new int[n];
+        this.last = new int[n];
+        this.batchSize = new int[n];
+        this.batchWeight = new double[n];
+        this.batchCost = new double[n];
+        this.batchProfile = new PickProfile[n];
+        this.dirty = new long[(n + 63) >>> 6];
+        load(batchList);
+    }
+
+    /**
+     * Constructs a copy of a compact solution.
+     *
+     * @param solution The solution to copy.
+     */
+    public CompactSolution(CompactSolution solution) {
+        this.instance = solution.instance;
+        int n = solution.orderToBatch.length;
+        this.orderToBatch = new int[n];
+        this.next = new int[n];
+        this.previous = new int[n];
+        this.first = new int[n];
+        this.last = new int[n];
+        this.batchSize = new int[n];
+        this.batchWeight = new double[n];
+        this.batchCost = new double[n];
+        this.batchProfile = new PickProfile[n];
+        this.dirty = new long[solution.dirty.length];
+        copyFrom(solution);
+    }
+
+    /**
+     * Copies another solution of the same orders into this one, in time linear in the number of orders.
+     *
+     * @param solution The solution to copy.
+     * @throws IllegalArgumentException If the solution does not share the orders of this one.
+     */
+    public void copyFrom(CompactSolution solution) {
+        if (solution.instance != instance) {
+            throw new IllegalArgumentException("The solutions do not share the same orders [CompactSolution.copyFrom]");
+        }
+        int n = orderToBatch.length;
+        System.arraycopy(solution.orderToBatch, 0, orderToBatch, 0, n);
+        System.arraycopy(solution.next, 0, next, 0, n);
+        System.arraycopy(solution.previous, 0, previous, 0, n);
+        System.arraycopy(solution.first, 0, first, 0, n);
+        System.arraycopy(solution.last, 0, last, 0, n);
+        System.arraycopy(solution.batchSize, 0, batchSize, 0, n);
+        System.arraycopy(solution.batchWeight, 0, batchWeight, 0, n);
+        System.arraycopy(solution.batchCost, 0, batchCost, 0, n);
+        System.arraycopy(solution.batchProfile, 0, batchProfile, 0, n);
+        System.arraycopy(solution.dirty, 0, dirty, 0, dirty.length);
+        numberOfBatches = solution.numberOfBatches;
+        emptyHint = solution.emptyHint;
+    }
+
+    /**
+     * Replaces this solution with a list of batches of the same orders. The service time of the
+     * batches is ignored, since it may have been set by another routing algorithm (usually the
+     * objective function of a constructive algorithm): every batch is routed again with the
+     * routing algorithm of this solution when its cost is requested.
+     *
+     * @param batchList The batches of the solution.
+     * @throws IllegalArgumentException If the batches do not hold exactly the orders of this solution.
+     */
+    public void load(List<Batch> batchList) {
+        Arrays.fill(orderToBatch, NONE);
+        Arrays.fill(first, NONE);
+        Arrays.fill(last, NONE);
+        Arrays.fill(batchSize, 0);
+        Arrays.fill(batchWeight, 0);
+        Arrays.fill(batchCost, 0);
+        Arrays.fill(batchProfile, PickProfile.EMPTY);
+        Arrays.fill(dirty, 0);
+        numberOfBatches = 0;
+        emptyHint = 0;
+
+        int batch = 0;
+        for (Batch source : batchList) {
+            if (source.getOrders().isEmpty()) {
+                continue;
+            }
+            for (Order order : source.getOrders()) {
+                Integer index = instance.indices().get(order);
+                if (index == null || orderToBatch[index] != NONE) {
+                    throw new IllegalArgumentException("The batches do not hold the orders of the solution [CompactSolution.load]");
+                }
+                move(index, batch);
+            }
+            batch++;
+        }
+        for (int order = 0; order < orderToBatch.length; order++) {
+            if (orderToBatch[order] == NONE) {
+                throw new IllegalArgumentException("The batches do not hold the orders of the solution [CompactSolution.load]");
+            }
+        }
+    }
+
+    /**
+     * Converts this solution to a list of batches, in the order of their slots. The service
+     * time of each batch is set to its routing cost.
+     *
+     * @return The non-empty batches of the solution.
+     * @throws Exception If a batch exceeds the worker capacity.
+     */
+    public List<Batch> toBatches() throws Exception {
+        List<Batch> batchList = new ArrayList<>(numberOfBatches);
+        for (int batch = 0; batch < first.length; batch++) {
+            if (batchSize[batch] == 0) {
+                continue;
+            }
+            Batch result = new Batch(instance.workerCapacity());
+            for (int order = first[batch]; order != NONE; order = next[order]) {
+                result.addOrder(instance.orders()[order]);
+            }
+            result.setServiceTime(getCost(batch));
+            batchList.add(result);
+        }
+        return batchList;
+    }
+
+    /**
+     * Gets the number of orders of the solution, which is also the number of batch slots.
+     *
+     * @return The number of orders.
+     */
+    public int getNumberOfOrders() {
+        return orderToBatch.length;
+    }
+
+    /**
+     * Gets the number of non-empty batches.
+     *
+     * @return The number of batches.
+     */
+    public int getNumberOfBatches() {
+        return numberOfBatches;
+    }
+
+    /**
+     * Gets an order by its index.
+     *
+     * @param order The index of the order.
+     * @return The order.
+     */
+    public Order getOrder(int order) {
+        return instance.orders()[order];
+    }
+
+    /**
+     * Gets the index of an order.
+     *
+     * @param order The order.
+     * @return The index of the order.
+     * @throws IllegalArgumentException If the order is not part of the solution.
+     */
+    public int indexOf(Order order) {
+        Integer index = instance.indices().get(order);
+        if (index == null) {
+            throw new IllegalArgumentException("The order is not part of the solution [CompactSolution.indexOf]");
+        }
+        return index;
+    }
+
+    /**
+     * Gets the weight of an order.
+     *
+     * @param order The index of the order.
+     * @return The weight of the order.
+     */
+    public double getOrderWeight(int order) {
+        return instance.weights()[order];
+    }
+
+    /**
+     * Gets the maximum weight of a batch.
+     *
+     * @return The worker capacity.
+     */
+    public double getWorkerCapacity() {
+        return instance.workerCapacity();
+    }
+
+    /**
+     * Gets the routing algorithm used to evaluate the batches.
+     *
+     * @return The routing algorithm.
+     */
+    public RoutingAlgorithm getRoutingAlgorithm() {
+        return instance.routingAlgorithm();
+    }
+
+    /**
+     * Gets the batch of an order.
+     *
+     * @param order The index of the order.
+     * @return The slot of the batch of the order, or {@link #NONE} if it is not assigned.
+     */
+    public int getBatch(int order) {
+        return orderToBatch[order];
+    }
+
+    /**
+     * Gets the number of orders of a batch.
+     *
+     * @param batch The slot of the batch.
+     * @return The number of orders of the batch.
+     */
+    public int getBatchSize(int batch) {
+        return batchSize[batch];
+    }
+
+    /**
+     * Gets the weight of a batch.
+     *
+     * @param batch The slot of the batch.
+     * @return The weight of the batch.
+     */
+    public double getBatchWeight(int batch) {
+        return batchWeight[batch];
+    }
+
+    /**
+     * Gets the first order of a batch. The next ones are given by {@link #getNextOrder(int)}.
+     *
+     * @param batch The slot of the batch.
+     * @return The index of the first order, or {@link #NONE} if the batch is empty.
+     */
+    public int getFirstOrder(int batch) {
+        return first[batch];
+    }
+
+    /**
+     * Gets the order that follows another one in its batch.
+     *
+     * @param order The index of the order.
+     * @return The index of the next order, or {@link #NONE} if it is the last one.
+     */
+    public int getNextOrder(int order) {
+        return next[order];
+    }
+
+    /**
+     * Gets the slot of an empty batch, the lowest one.
+     *
+     * @return The slot of an empty batch.
+     * @throws IllegalStateException If all the batches are used, which only happens if some order is not assigned.
+     */
+    public int getEmptyBatch() {
+        for (int batch = emptyHint; batch < batchSize.length; batch++) {
+            if (batchSize[batch] == 0) {
+                emptyHint = batch;
+                return batch;
+            }
+        }
+        throw new IllegalStateException("There is no empty batch [CompactSolution.getEmptyBatch]");
+    }
+
+    /**
+     * Checks if a batch must calculate its pick profile and routing cost again.
+     *
+     * @param batch The slot of the batch.
+     * @return {@code true} if the batch has changed since its cost was calculated.
+     */
+    public boolean isDirty(int batch) {
+        return (dirty[batch >>> 6] & (1L << batch)) != 0;
+    }
+
+    /**
+     * Checks if an order fits in a batch, in constant time.
+     *
+     * @param order The index of the order.
+     * @param batch The slot of the batch.
+     * @return {@code true} if the batch can hold the order.
+     */
+    public boolean canMove(int order, int batch) {
+        return batchWeight[batch] + instance.weights()[order] <= instance.workerCapacity();
+    }
+
+    /**
+     * Checks if two assigned orders can be exchanged, in constant time.
+     *
+     * @param order1 The index of the first order.
+     * @param order2 The index of the second order.
+     * @return {@code true} if both batches can hold the exchanged orders.
+     */
+    public boolean canSwap(int order1, int order2) {
+        double[] weights = instance.weights();
+        double capacity = instance.workerCapacity();
+        return batchWeight[orderToBatch[order1]] - weights[order1] + weights[order2] <= capacity
+                && batchWeight[orderToBatch[order2]] - weights[order2] + weights[order1] <= capacity;
+    }
+
+    /**
+     * Moves an order to a batch, in constant time. The capacity is not checked.
+     *
+     * @param order The index of the order.
+     * @param batch The slot of the batch, or {@link #NONE} to leave the order unassigned.
+     */
+    public void move(int order, int batch) {
+        unlink(order);
+        if (batch != NONE) {
+            link(order, batch);
+        }
+    }
+
+    /**
+     * Exchanges the batches of two assigned orders, in constant time. The capacity is not checked.
+     *
+     * @param order1 The index of the first order.
+     * @param order2 The index of the second order.
+     */
+    public void swap(int order1, int order2) {
+        int batch1 = orderToBatch[order1];
+        int batch2 = orderToBatch[order2];
+        unlink(order1);
+        unlink(order2);
+        link(order1, batch2);
+        link(order2, batch1);
+    }
+
+    /**
+     * Gets the pick profile of a batch, building it if the batch has changed.
+     *
+     * @param batch The slot of the batch.
+     * @return The pick profile of the batch.
+     */
+    public PickProfile getPickProfile(int batch) {
+        if (isDirty(batch)) {
+            update(batch);
+        }
+        return batchProfile[batch];
+    }
+
+    /**
+     * Gets the routing cost of a batch, routing it if the batch has changed.
+     *
+     * @param batch The slot of the batch.
+     * @return The routing cost of the batch (0 for an empty batch).
+     */
+    public double getCost(int batch) {
+        if (isDirty(batch)) {
+            update(batch);
+        }
+        return batchCost[batch];
+    }
+
+    /**
+     * Stores the pick profile and routing cost of a batch, calculated for its current orders
+     * when a move was evaluated, so that the batch is not routed again after the move is applied.
+     *
+     * @param batch   The slot of the batch.
+     * @param profile The pick profile of the orders of the batch.
+     * @param cost    The routing cost of the batch.
+     */
+    void setCost(int batch, PickProfile profile, double cost) {
+        batchProfile[batch] = batchSize[batch] == 0 ? PickProfile.EMPTY : profile;
+        batchCost[batch] = batchSize[batch] == 0 ? 0 : cost;
+        dirty[batch >>> 6] &= ~(1L << batch);
+    }
+
+    /**
+     * Gets the cost of the solution, the sum of the routing costs of its batches.
+     *
+     * @return The cost of the solution.
+     */
+    public double getCost() {
+        double cost = 0;
+        for (int batch = 0; batch < batchSize.length; batch++) {
+            if (batchSize[batch] > 0) {
+                cost += getCost(batch);
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Calculates the pick profiles and routing costs of all the batches that have changed,
+     * so that the solution can then be read from several threads.
+     */
+    public void refresh() {
+        for (int word = 0; word < dirty.length; word++) {
+            while (dirty[word] != 0) {
+                update((word << 6) + Long.numberOfTrailingZeros(dirty[word]));
+            }
+        }
+    }
+
+    /**
+     * Returns the routing cost that a batch would have if an order is added to it.
+     *
+     * @param order The index of the order.
+     * @param batch The slot of the batch.
+     * @return The routing cost of the batch with the order.
+     */
+    public double costIfAdded(int order, int batch) {
+        return instance.routingAlgorithm().run(getPickProfile(batch).merge(instance.orders()[order].getPickProfile()));
+    }
+
+    /**
+     * Returns the routing cost that the batch of an order would have without it.
+     *
+     * @param order The index of the order.
+     * @return The routing cost of the batch of the order without it.
+     */
+    public double costIfRemoved(int order) {
+        return instance.routingAlgorithm().run(getPickProfile(orderToBatch[order]).subtract(instance.orders()[order].getPickProfile()));
+    }
+
+    /**
+     * Returns the routing cost that the batch of an order would have if it is replaced by another order.
+     *
+     * @param removed The index of the order that leaves the batch.
+     * @param added   The index of the order that enters the batch.
+     * @return The routing cost of the batch with the exchanged order.
+     */
+    public double costIfSwapped(int removed, int added) {
+        return instance.routingAlgorithm().run(getPickProfile(orderToBatch[removed])
+                .subtract(instance.orders()[removed].getPickProfile()).merge(instance.orders()[added].getPickProfile()));
+    }
+
+    /**
+     * Removes an order from the list of its batch, if it is assigned.
+     *
+     * @param order The index of the order.
+     */
+    private void unlink(int order) {
+        int batch = orderToBatch[order];
+        if (batch == NONE) {
+            return;
+        }
+        if (previous[order] == NONE) {
+            first[batch] = next[order];
+        } else {
+            next[previous[order]] = next[order];
+        }
+        if (next[order] == NONE) {
+            last[batch] = previous[order];
+        } else {
+            previous[next[order]] = previous[order];
+        }
+        orderToBatch[order] = NONE;
+        batchWeight[batch] -= instance.weights()[order];
+        if (--batchSize[batch] == 0) {
+            batchWeight[batch] = 0;
+            numberOfBatches--;
+            emptyHint = Math.min(emptyHint, batch);
+        }
+        dirty[batch >>> 6] |= 1L << batch;
+    }
+
+    /**
+     * Adds an unassigned order at the end of the list of a batch.
+     *
+     * @param order The index of the order.
+     * @param batch The slot of the batch.
+     */
+    private void link(int order, int batch) {
+        previous[order] = last[batch];
+        next[order] = NONE;
+        if (last[batch] == NONE) {
+            first[batch] = order;
+        } else {
+            next[last[batch]] = order;
+        }
+        last[batch] = order;
+        orderToBatch[order] = batch;
+        batchWeight[batch] += instance.weights()[order];
+        if (batchSize[batch]++ == 0) {
+            numberOfBatches++;
+        }
+        dirty[batch >>> 6] |= 1L << batch;
+    }
+
+    /**
+     * Calculates the pick profile and routing cost of a batch and marks it as clean.
+     *
+     * @param batch The slot of the batch.
+     */
+    private void update(int batch) {
+        PickProfile profile = PickProfile.EMPTY;
+        for (int order = first[batch]; order != NONE; order = next[order]) {
+            profile = profile.merge(instance.orders()[order].getPickProfile());
+        }
+        batchProfile[batch] = profile;
+        batchCost[batch] = batchSize[batch] == 0 ? 0 : instance.routingAlgorithm().run(profile);
+        dirty[batch >>> 6] &= ~(1L << batch);
+    }
+}
@@ -0,0 +1,385 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.instancesobp.Configuration;
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+import com.instancesobp.utils.AisleIndex;
+
+/**
+ * Greedy randomized adaptive search procedure (GRASP).
+ * <p>
+ * Each iteration builds a solution one batch at a time and improves it with a {@link LocalSearch}.
+ * A batch is opened with an order chosen from the unassigned orders that visit the most aisles, and
+ * orders are added while any fits. The next order is chosen at random from a restricted candidate
+ * list: the orders whose estimated increase of the routing cost is at most the minimum increase plus
+ * {@code alpha} times the range of the increases. The increase is estimated without routing, with the
+ * aisles that the order adds to the batch and how much it widens the range of aisles of the batch;
+ * the aisles already covered by the batch are kept for every order with an inverted index from the
+ * aisles to their orders, so adding an order to a batch only visits the orders of its new aisles.
+ * The routing algorithm is only called by the local search.
+ * <p>
+ * The iterations are independent: in parallel mode they run on the common ForkJoin pool, each with its
+ * own {@link SplittableRandom} split in order from {@link Configuration#SEED}, and the best solution is
+ * chosen at the end, the first iteration in case of ties. The result is therefore the same in both modes.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class Grasp extends BatchingAlgorithm {
+
+    /**
+     * The orders and their aisles, shared by all the iterations.
+     *
+     * @param orders     The orders, by index.
+     * @param weights    The weight of each order.
+     * @param aisleIndex The inverted index from the aisles to their orders.
+     */
+    private record Candidates(Order[] orders, double[] weights, AisleIndex aisleIndex) {
+    }
+
+    /**
+     * The solution of an iteration.
+     *
+     * @param batches   The batches, with their service time set to their routing cost.
+     * @param cost      The cost of the solution.
+     * @param iteration The iteration that built it.
+     */
+    private record Result(List<Batch> batches, double cost, int iteration) {
+    }
+
+    /**
+     * The routing algorithm used by the local search.
+     */
+    private final RoutingAlgorithm routingAlgorithm;
+
+    /**
+     * Whether the iterations run in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Number of iterations.
+     */
+    private int iterations = 50;
+
+    /**
+     * Greediness of the restricted candidate lists, from 0 (greedy) to 1 (random).
+     */
+    private double alpha = 0.2;
+
+    /**
+     * Travel estimated for each new aisle of a batch.
+     */
+    private final double aisleTravel;
+
+    /**
+     * Travel estimated for each aisle that widens the range of aisles of a batch, back and forth.
+     */
+    private final double crossTravel;
+
+    /**
+     * Costs of the solutions of the last run, by iteration.
+     */
+    private double[] iterationCosts = new double[0];
+
+    /**
+     * Counters of the moves of the local searches of the last run.
+     */
+    private final MoveCounters counters = new MoveCounters();
+
+    /**
+     * Constructor for the Grasp class, running the iterations sequentially.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches.
+     */
+    public Grasp(Warehouse warehouse, RoutingAlgorithm routingAlgorithm) {
+        this(warehouse, routingAlgorithm, false);
+    }
+
+    /**
+     * Constructor for the Grasp class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches. In parallel mode it is
+     *                         called from several threads.
+     * @param parallel         Whether the iterations run in parallel.
+     */
+    public Grasp(Warehouse warehouse, RoutingAlgorithm routingAlgorithm, boolean parallel) {
+        super(warehouse);
+        this.routingAlgorithm = routingAlgorithm;
+        this.parallel = parallel;
+        this.aisleTravel = warehouse.getShelfLength();
+        this.crossTravel = 2 * (warehouse.getShelfWidth() + warehouse.getAisleWidth());
+    }
+
+    /**
+     * Sets the number of iterations.
+     *
+     * @param iterations The number of iterations.
+     * @throws IllegalArgumentException If the number of iterations is not positive.
+     */
+    public void setIterations(int iterations) {
+        if (iterations < 1) {
+            throw new IllegalArgumentException("The number of iterations must be positive [Grasp.setIterations]");
+        }
+        this.iterations = iterations;
+    }
+
+    /**
+     * Sets the greediness of the restricted candidate lists.
+     *
+     * @param alpha The greediness, from 0 (only the best candidates) to 1 (any candidate).
+     * @throws IllegalArgumentException If alpha is not between 0 and 1.
+     */
+    public void setAlpha(double alpha) {
+        if (alpha < 0 || alpha > 1) {
+            throw new IllegalArgumentException("Alpha must be between 0 and 1 [Grasp.setAlpha]");
+        }
+        this.alpha = alpha;
+    }
+
+    /**
+     * Gets the costs of the solutions of the last run.
+     *
+     * @return The cost of the solution of each iteration.
+     */
+    public double[] getIterationCosts() {
+        return iterationCosts.clone();
+    }
+
+    /**
+     * Gets the counters of the moves of the local searches, accumulated over all the runs.
+     *
+     * @return The move counters.
+     */
+    public MoveCounters getMoveCounters() {
+        return counters;
+    }
+
+    /**
+     * Runs the iterations and returns the best solution found.
+     *
+     * @param orderList The list of orders to be batched.
+     * @return The best list of batches, with their service time set to their routing cost.
+     * @throws Exception If an error occurs while building or improving the batches.
+     */
+    @Override
+    public List<Batch> run(List<Order> orderList) throws Exception {
+        long start = System.nanoTime();
+        Candidates candidates = candidates(orderList);
+        SplittableRandom root = new SplittableRandom(Configuration.SEED);
+        List<Callable<Result>> tasks = new ArrayList<>(iterations);
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            int index = iteration;
+            SplittableRandom random = root.split();
+            tasks.add(() -> iterate(candidates, random, index));
+        }
+
+        List<Result> results = new ArrayList<>(iterations);
+        if (parallel) {
+            try {
+                for (Future<Result> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                    results.add(future.get());
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            }
+        } else {
+            for (Callable<Result> task : tasks) {
+                results.add(task.call());
+            }
+        }
+
+        iterationCosts = new double[iterations];
+        Result best = results.get(0);
+        for (Result result : results) {
+            iterationCosts[result.iteration()] = result.cost();
+            if (result.cost() < best.cost() - ImprovementAlgorithm.EPSILON) {
+                best = result;
+            }
+        }
+        counters.addElapsedSince(start);
+        return best.batches();
+    }
+
+    /**
+     * Builds the weights of the orders and the inverted index from the aisles to their orders.
+     *
+     * @param orderList The list of orders.
+     * @return The candidates shared by all the iterations.
+     */
+    private static Candidates candidates(List<Order> orderList) {
+        Order[] orders = orderList.toArray(new Order[0]);
+        double[] weights = new double[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            weights[i] = orders[i].getWeight();
+        }
+        return new Candidates(orders, weights, new AisleIndex(orderList));
+    }
+
+    /**
+     * Runs one iteration: builds a randomized greedy solution and improves it with the local search.
+     *
+     * @param candidates The candidates shared by all the iterations.
+     * @param random     The random number generator of the iteration.
+     * @param iteration  The index of the iteration.
+     * @return The improved solution.
+     * @throws Exception If an error occurs while building or improving the batches.
+     */
+    private Result iterate(Candidates candidates, SplittableRandom random, int iteration) throws Exception {
+        LocalSearch localSearch = new LocalSearch(warehouse, this, routingAlgorithm);
+        localSearch.setSeed(random.nextLong());
+        List<Batch> batches = localSearch.improve(construct(candidates, random));
+        counters.addMoves(localSearch.getMoveCounters());
+        double cost = 0;
+        for (Batch batch : batches) {
+            cost += batch.getServiceTime();
+        }
+        return new Result(batches, cost, iteration);
+    }
+
+    /**
+     * Builds a solution one batch at a time with restricted candidate lists.
+     *
+     * @param candidates The candidates shared by all the iterations.
+     * @param random     The random number generator of the iteration.
+     * @return The batches of the solution.
+     * @throws Exception If an order exceeds the worker capacity.
+     */
+    private List<Batch> construct(Candidates candidates, SplittableRandom random) throws Exception {
+        int n = candidates.orders().length;
+        double capacity = warehouse.getWorkerCapacity();
+        boolean[] assigned = new boolean[n];
+        boolean[] covered = new boolean[candidates.aisleIndex().getNumberOfAisles()];
+        int[] coveredAisles = new int[n];
+        int[] list = new int[n];
+        double[] scores = new double[n];
+        List<Batch> batches = new ArrayList<>();
+
+        for (int remaining = n; remaining > 0; ) {
+            // The seed of the batch is one of the unassigned orders that visit the most aisles
+            int size = 0;
+            double min = Double.POSITIVE_INFINITY;
+            double max = Double.NEGATIVE_INFINITY;
+            for (int order = 0; order < n; order++) {
+                if (!assigned[order]) {
+                    list[size] = order;
+                    scores[size] = -candidates.aisleIndex().getAisles(order).length;
+                    min = Math.min(min, scores[size]);
+                    max = Math.max(max, scores[size]);
+                    size++;
+                }
+            }
+            int seed = choose(list, scores, size, min, max, random);
+
+            Batch batch = new Batch(capacity);
+            Arrays.fill(covered, false);
+            Arrays.fill(coveredAisles, 0);
+            double weight = 0;
+            int minAisle = Integer.MAX_VALUE;
+            int maxAisle = Integer.MIN_VALUE;
+            for (int order = seed; order >= 0; ) {
+                batch.addOrder(candidates.orders()[order]);
+                assigned[order] = true;
+                remaining--;
+                weight += candidates.weights()[order];
+                for (int aisle : candidates.aisleIndex().getAisles(order)) {
+                    if (!covered[aisle]) {
+                        covered[aisle] = true;
+                        for (int other : candidates.aisleIndex().getOrders(aisle)) {
+                            coveredAisles[other]++;
+                        }
+                        minAisle = Math.min(minAisle, aisle);
+                        maxAisle = Math.max(maxAisle, aisle);
+                    }
+                }
+
+                size = 0;
+                min = Double.POSITIVE_INFINITY;
+                max = Double.NEGATIVE_INFINITY;
+                for (int other = 0; other < n; other++) {
+                    if (!assigned[other] && weight + candidates.weights()[other] <= capacity) {
+                        list[size] = other;
+                        scores[size] = increase(candidates.aisleIndex().getAisles(other), coveredAisles[other], minAisle, maxAisle);
+                        min = Math.min(min, scores[size]);
+                        max = Math.max(max, scores[size]);
+                        size++;
+                    }
+                }
+                order = size == 0 ? -1 : choose(list, scores, size, min, max, random);
+            }
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * Estimates the increase of the routing cost of a batch if an order is added to it.
+     *
+     * @param aisles        The sorted aisles visited by the order.
+     * @param coveredAisles The number of those aisles already visited by the batch.
+     * @param minAisle      The lowest aisle visited by the batch.
+     * @param maxAisle      The highest aisle visited by the batch.
+     * @return The estimated increase of the travel.
+     */
+    private double increase(int[] aisles, int coveredAisles, int minAisle, int maxAisle) {
+        if (aisles.length == 0) {
+            return 0;
+        }
+        int widening = Math.max(0, minAisle - aisles[0]) + Math.max(0, aisles[aisles.length - 1] - maxAisle);
+        return (aisles.length - coveredAisles) * aisleTravel + widening * crossTravel;
+    }
+
+    /**
+     * Chooses at random one of the candidates whose score is at most the minimum score plus alpha times the range.
+     *
+     * @param list   The candidates.
+     * @param scores The score of each candidate, the lower the better.
+     * @param size   The number of candidates.
+     * @param min    The minimum score.
+     * @param max    The maximum score.
+     * @param random The random number generator.
+     * @return The chosen candidate.
+     */
+    private int choose(int[] list, double[] scores, int size, double min, double max, SplittableRandom random) {
+        double threshold = min + alpha * (max - min);
+        int restricted = 0;
+        for (int i = 0; i < size; i++) {
+            if (scores[i] <= threshold) {
+                list[restricted++] = list[i];
+            }
+        }
+        return list[random.nextInt(restricted)];
+    }
+}
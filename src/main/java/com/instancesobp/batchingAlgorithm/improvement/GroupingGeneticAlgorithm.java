@@ -0,0 +1,571 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import com.instancesobp.Configuration;
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+import com.instancesobp.routingAlgorithm.RoutingCostCache;
+
+/**
+ * Island-model grouping genetic algorithm.
+ * <p>
+ * The chromosome of an individual is the partition of the orders into batches, so the genetic
+ * operators work on whole batches. The crossover copies a random section of the batches of one
+ * parent into the other parent, drops the batches of the other parent that share orders with the
+ * section and reinserts their remaining orders. The mutation dissolves a few random batches and
+ * reinserts their orders. The reinsertion (the repair) puts the heaviest orders first into the
+ * feasible batch where they increase the routing cost the least, or into a new batch when none can
+ * hold them, so every individual respects the worker capacity. The individuals are
+ * {@link CompactSolution}s, so an offspring is built with a few array copies and the orders are
+ * moved in constant time.
+ * <p>
+ * The population is split into islands that evolve in separate threads. Each generation breeds
+ * as many offspring as individuals, builds and evaluates them in parallel over the common ForkJoin
+ * pool and keeps the best distinct individuals among parents and offspring. Every few generations
+ * each island sends copies of its best individuals to the next island of a ring and replaces its
+ * worst individuals with the ones received. The routing costs are kept in a {@link RoutingCostCache}
+ * shared by all the islands, so a pick profile is routed only once during the search.
+ * <p>
+ * The random numbers of each island are split from a generator seeded with {@link Configuration#SEED}.
+ * With one island the results are reproducible; with several islands they depend on when the
+ * migrants arrive.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class GroupingGeneticAlgorithm extends ImprovementAlgorithm {
+
+    /**
+     * Statistics of one generation of one island.
+     *
+     * @param island       The index of the island.
+     * @param generation   The generation, starting at 1.
+     * @param bestCost     The cost of the best individual of the island after the generation.
+     * @param evaluations  The number of offspring bred and evaluated.
+     * @param elapsedNanos The time spent on the generation, in nanoseconds.
+     */
+    public record GenerationStatistics(int island, int generation, double bestCost, int evaluations, long elapsedNanos) {
+
+        /**
+         * Gets the number of offspring evaluated per second in the generation.
+         *
+         * @return The evaluations per second.
+         */
+        public double getEvaluationsPerSecond() {
+            return elapsedNanos == 0 ? 0 : evaluations * 1e9 / elapsedNanos;
+        }
+    }
+
+    /**
+     * An individual of the population. Its solution is not modified once it has been evaluated,
+     * and its routing costs are up to date so that it can be read from several threads.
+     *
+     * @param solution The solution of the individual.
+     * @param batches  The slots of the batches of the solution, in the order of the chromosome.
+     * @param cost     The picking time of the individual.
+     */
+    private record Individual(CompactSolution solution, int[] batches, double cost) {
+    }
+
+    /**
+     * Number of islands.
+     */
+    private int islands = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Number of individuals of each island.
+     */
+    private int populationSize = 20;
+
+    /**
+     * Maximum number of generations of each island, or 0 for no generation limit.
+     */
+    private int maxGenerations = 100;
+
+    /**
+     * Maximum running time in milliseconds, or 0 for no time limit.
+     */
+    private long timeLimit = 0;
+
+    /**
+     * Number of generations between migrations.
+     */
+    private int migrationInterval = 10;
+
+    /**
+     * Number of individuals sent to the next island in each migration.
+     */
+    private int migrants = 1;
+
+    /**
+     * Probability of mutating an offspring.
+     */
+    private double mutationRate = 0.3;
+
+    /**
+     * Statistics of the generations of the last run.
+     */
+    private final ConcurrentLinkedQueue<GenerationStatistics> statistics = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Constructor for the GroupingGeneticAlgorithm class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param initialAlgorithm The algorithm that builds the initial batches.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches. It is decorated with a
+     *                         {@link RoutingCostCache} unless it already is one, and it is called from several threads.
+     */
+    public GroupingGeneticAlgorithm(Warehouse warehouse, BatchingAlgorithm initialAlgorithm, RoutingAlgorithm routingAlgorithm) {
+        super(warehouse, initialAlgorithm, routingAlgorithm instanceof RoutingCostCache ? routingAlgorithm : new RoutingCostCache(routingAlgorithm));
+    }
+
+    /**
+     * Sets the number of islands, each evolved in its own thread.
+     *
+     * @param islands The number of islands.
+     * @throws IllegalArgumentException If the number of islands is not positive.
+     */
+    public void setIslands(int islands) {
+        if (islands < 1) {
+            throw new IllegalArgumentException("The number of islands must be positive [GroupingGeneticAlgorithm.setIslands]");
+        }
+        this.islands = islands;
+    }
+
+    /**
+     * Sets the number of individuals of each island.
+     *
+     * @param populationSize The population size.
+     * @throws IllegalArgumentException If the population size is less than 2.
+     */
+    public void setPopulationSize(int populationSize) {
+        if (populationSize < 2) {
+            throw new IllegalArgumentException("The population size must be at least 2 [GroupingGeneticAlgorithm.setPopulationSize]");
+        }
+        this.populationSize = populationSize;
+    }
+
+    /**
+     * Sets the maximum number of generations of each island.
+     *
+     * @param maxGenerations The maximum number of generations, or 0 for no generation limit.
+     */
+    public void setMaxGenerations(int maxGenerations) {
+        this.maxGenerations = maxGenerations;
+    }
+
+    /**
+     * Sets the maximum running time. It is checked between generations.
+     *
+     * @param timeLimit The maximum running time in milliseconds, or 0 for no time limit.
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Sets how the islands exchange individuals.
+     *
+     * @param migrationInterval The number of generations between migrations.
+     * @param migrants          The number of individuals sent to the next island in each migration.
+     * @throws IllegalArgumentException If the interval is not positive or the number of migrants is negative.
+     */
+    public void setMigration(int migrationInterval, int migrants) {
+        if (migrationInterval < 1 || migrants < 0) {
+            throw new IllegalArgumentException("Invalid migration parameters [GroupingGeneticAlgorithm.setMigration]");
+        }
+        this.migrationInterval = migrationInterval;
+        this.migrants = migrants;
+    }
+
+    /**
+     * Sets the probability of mutating an offspring.
+     *
+     * @param mutationRate The mutation rate, between 0 and 1.
+     */
+    public void setMutationRate(double mutationRate) {
+        this.mutationRate = mutationRate;
+    }
+
+    /**
+     * Gets the routing cost cache shared by the islands.
+     *
+     * @return The routing cost cache.
+     */
+    public RoutingCostCache getRoutingCostCache() {
+        return (RoutingCostCache) routingAlgorithm;
+    }
+
+    /**
+     * Gets the statistics of the generations of the last run, sorted by island and generation.
+     *
+     * @return The statistics of each generation.
+     */
+    public List<GenerationStatistics> getGenerationStatistics() {
+        List<GenerationStatistics> list = new ArrayList<>(statistics);
+        list.sort(Comparator.comparingInt(GenerationStatistics::island).thenComparingInt(GenerationStatistics::generation));
+        return list;
+    }
+
+    /**
+     * Evolves the islands from the given batches and returns the best individual found.
+     *
+     * @param batchList The list of batches to improve. They are not modified.
+     * @return The best list of batches found.
+     * @throws Exception If an error occurs in any of the islands.
+     * @throws IllegalStateException If neither a time limit nor a generation limit is set.
+     */
+    @Override
+    public List<Batch> improve(List<Batch> batchList) throws Exception {
+        List<Batch> batches = copy(batchList);
+        removeEmptyBatches(batches);
+        CompactSolution solution = new CompactSolution(batches, warehouse.getWorkerCapacity(), routingAlgorithm);
+        improve(solution);
+        return solution.toBatches();
+    }
+
+    /**
+     * Evolves the islands from a compact solution and replaces it with the best individual found.
+     *
+     * @param solution The solution to improve. All its orders must be assigned.
+     * @throws Exception If an error occurs in any of the islands.
+     * @throws IllegalStateException If neither a time limit nor a generation limit is set.
+     */
+    @Override
+    public void improve(CompactSolution solution) throws Exception {
+        if (timeLimit <= 0 && maxGenerations <= 0) {
+            throw new IllegalStateException("A time limit or a generation limit is required [GroupingGeneticAlgorithm.improve]");
+        }
+        long start = System.nanoTime();
+        long deadline = timeLimit > 0 ? start + timeLimit * 1_000_000 : Long.MAX_VALUE;
+        statistics.clear();
+
+        List<Integer> initialBatches = new ArrayList<>(solution.getNumberOfBatches());
+        for (int batch = 0; initialBatches.size() < solution.getNumberOfBatches(); batch++) {
+            if (solution.getBatchSize(batch) > 0) {
+                initialBatches.add(batch);
+            }
+        }
+        Individual initial = evaluate(new CompactSolution(solution), initialBatches);
+
+        List<ConcurrentLinkedQueue<Individual>> inboxes = new ArrayList<>(islands);
+        for (int island = 0; island < islands; island++) {
+            inboxes.add(new ConcurrentLinkedQueue<>());
+        }
+        SplittableRandom seeds = new SplittableRandom(Configuration.SEED);
+        List<Callable<Individual>> evolutions = new ArrayList<>(islands);
+        for (int island = 0; island < islands; island++) {
+            int index = island;
+            SplittableRandom random = seeds.split();
+            evolutions.add(() -> evolve(index, initial, random, inboxes, deadline));
+        }
+
+        Individual best = initial;
+        ExecutorService executor = Executors.newFixedThreadPool(islands);
+        try {
+            for (Future<Individual> future : executor.invokeAll(evolutions)) {
+                Individual individual = future.get();
+                if (individual.cost() < best.cost()) {
+                    best = individual;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            executor.shutdownNow();
+        }
+
+        solution.copyFrom(best.solution());
+        moveCounters.addElapsedSince(start);
+    }
+
+    /**
+     * Evolves one island until the time limit or the generation limit is reached.
+     *
+     * @param island   The index of the island.
+     * @param initial  The initial individual.
+     * @param random   The random number generator of the island.
+     * @param inboxes  The individuals received by each island.
+     * @param deadline The instant to stop, as given by {@link System#nanoTime()}.
+     * @return The best individual of the island.
+     * @throws Exception If an error occurs while breeding the offspring.
+     */
+    private Individual evolve(int island, Individual initial, SplittableRandom random,
+                              List<ConcurrentLinkedQueue<Individual>> inboxes, long deadline) throws Exception {
+        List<Individual> population = new ArrayList<>(populationSize);
+        population.add(initial);
+        List<Callable<Individual>> mutants = new ArrayList<>(populationSize - 1);
+        for (int i = 1; i < populationSize; i++) {
+            SplittableRandom mutantRandom = random.split();
+            mutants.add(() -> mutate(initial, mutantRandom, 1 + initial.batches().length / 4));
+        }
+        population.addAll(evaluateAll(mutants));
+        population.sort(Comparator.comparingDouble(Individual::cost));
+
+        for (int generation = 1; System.nanoTime() < deadline && (maxGenerations <= 0 || generation <= maxGenerations); generation++) {
+            long start = System.nanoTime();
+            List<Callable<Individual>> offspring = new ArrayList<>(populationSize);
+            for (int i = 0; i < populationSize; i++) {
+                Individual parent1 = tournament(population, random);
+                Individual parent2 = tournament(population, random);
+                SplittableRandom childRandom = random.split();
+                offspring.add(() -> breed(parent1, parent2, childRandom));
+            }
+            List<Individual> children = evaluateAll(offspring);
+            population = survivors(population, children);
+
+            if (generation % migrationInterval == 0 && islands > 1) {
+                for (int i = 0; i < Math.min(migrants, population.size()); i++) {
+                    inboxes.get((island + 1) % islands).add(population.get(i));
+                }
+                List<Individual> immigrants = new ArrayList<>();
+                for (Individual immigrant = inboxes.get(island).poll(); immigrant != null; immigrant = inboxes.get(island).poll()) {
+                    immigrants.add(immigrant);
+                }
+                population = survivors(population, immigrants);
+            }
+
+            statistics.add(new GenerationStatistics(island, generation, population.get(0).cost(), children.size(), System.nanoTime() - start));
+        }
+        return population.get(0);
+    }
+
+    /**
+     * Builds and evaluates individuals in parallel over the common ForkJoin pool.
+     *
+     * @param tasks The tasks that build the individuals.
+     * @return The individuals built.
+     * @throws Exception If an error occurs in any of the tasks.
+     */
+    private static List<Individual> evaluateAll(List<Callable<Individual>> tasks) throws Exception {
+        List<Individual> individuals = new ArrayList<>(tasks.size());
+        try {
+            for (Future<Individual> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                individuals.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+        return individuals;
+    }
+
+    /**
+     * Selects the best of two random individuals.
+     *
+     * @param population The population, sorted by cost.
+     * @param random     The random number generator.
+     * @return The selected individual.
+     */
+    private static Individual tournament(List<Individual> population, SplittableRandom random) {
+        return population.get(Math.min(random.nextInt(population.size()), random.nextInt(population.size())));
+    }
+
+    /**
+     * Returns the best distinct individuals of a population and a list of candidates.
+     * Individuals with the same cost are considered duplicates.
+     *
+     * @param population The population, sorted by cost.
+     * @param candidates The candidate individuals.
+     * @return The new population, sorted by cost.
+     */
+    private List<Individual> survivors(List<Individual> population, List<Individual> candidates) {
+        List<Individual> all = new ArrayList<>(population.size() + candidates.size());
+        all.addAll(population);
+        all.addAll(candidates);
+        all.sort(Comparator.comparingDouble(Individual::cost));
+        List<Individual> survivors = new ArrayList<>(populationSize);
+        for (Individual individual : all) {
+            if (survivors.size() == populationSize) {
+                break;
+            }
+            if (survivors.isEmpty() || individual.cost() > survivors.get(survivors.size() - 1).cost() + EPSILON) {
+                survivors.add(individual);
+            }
+        }
+        return survivors;
+    }
+
+    /**
+     * Breeds an offspring with the batch crossover and, with the mutation rate, mutates it.
+     *
+     * @param parent1 The parent that receives the section.
+     * @param parent2 The parent that gives the section.
+     * @param random  The random number generator of the offspring.
+     * @return The evaluated offspring.
+     */
+    private Individual breed(Individual parent1, Individual parent2, SplittableRandom random) {
+        CompactSolution donor = parent2.solution();
+        int[] donorBatches = parent2.batches();
+        int length = 1 + random.nextInt(Math.max(1, donorBatches.length / 2));
+        int first = random.nextInt(donorBatches.length);
+        int[] section = new int[length];
+        boolean[] sectionOrders = new boolean[donor.getNumberOfOrders()];
+        for (int i = 0; i < length; i++) {
+            section[i] = donorBatches[(first + i) % donorBatches.length];
+            for (int order = donor.getFirstOrder(section[i]); order != CompactSolution.NONE; order = donor.getNextOrder(order)) {
+                sectionOrders[order] = true;
+            }
+        }
+
+        CompactSolution receiver = parent1.solution();
+        CompactSolution child = new CompactSolution(receiver);
+        List<Integer> batches = new ArrayList<>(parent1.batches().length + length);
+        List<Integer> freed = new ArrayList<>();
+        for (int batch : parent1.batches()) {
+            boolean kept = true;
+            for (int order = receiver.getFirstOrder(batch); order != CompactSolution.NONE && kept; order = receiver.getNextOrder(order)) {
+                kept = !sectionOrders[order];
+            }
+            if (kept) {
+                batches.add(batch);
+            } else {
+                for (int order = receiver.getFirstOrder(batch); order != CompactSolution.NONE; order = receiver.getNextOrder(order)) {
+                    if (!sectionOrders[order]) {
+                        freed.add(order);
+                    }
+                    child.move(order, CompactSolution.NONE);
+                }
+            }
+        }
+        for (int batch : section) {
+            int slot = child.getEmptyBatch();
+            for (int order = donor.getFirstOrder(batch); order != CompactSolution.NONE; order = donor.getNextOrder(order)) {
+                child.move(order, slot);
+            }
+            child.setCost(slot, donor.getPickProfile(batch), donor.getCost(batch));
+            batches.add(slot);
+        }
+        reinsert(child, batches, freed);
+
+        if (random.nextDouble() < mutationRate) {
+            dissolve(child, batches, 1 + random.nextInt(2), random);
+        }
+        return evaluate(child, batches);
+    }
+
+    /**
+     * Builds a mutant of an individual by dissolving some of its batches.
+     *
+     * @param individual The individual.
+     * @param random     The random number generator of the mutant.
+     * @param maxBatches The maximum number of batches to dissolve.
+     * @return The evaluated mutant.
+     */
+    private Individual mutate(Individual individual, SplittableRandom random, int maxBatches) {
+        CompactSolution mutant = new CompactSolution(individual.solution());
+        List<Integer> batches = new ArrayList<>(individual.batches().length);
+        for (int batch : individual.batches()) {
+            batches.add(batch);
+        }
+        dissolve(mutant, batches, 1 + random.nextInt(maxBatches), random);
+        return evaluate(mutant, batches);
+    }
+
+    /**
+     * Builds an individual from a solution, calculating the routing costs of all its batches.
+     *
+     * @param solution The solution. It must not be modified afterwards.
+     * @param batches  The slots of the batches of the solution, in the order of the chromosome.
+     * @return The evaluated individual.
+     */
+    private static Individual evaluate(CompactSolution solution, List<Integer> batches) {
+        solution.refresh();
+        int[] slots = new int[batches.size()];
+        double cost = 0;
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = batches.get(i);
+            cost += solution.getCost(slots[i]);
+        }
+        return new Individual(solution, slots, cost);
+    }
+
+    /**
+     * Removes random batches and reinserts their orders into the remaining batches.
+     *
+     * @param solution The solution of the individual.
+     * @param batches  The slots of the batches of the individual, in the order of the chromosome.
+     * @param count    The number of batches to dissolve.
+     * @param random   The random number generator.
+     */
+    private void dissolve(CompactSolution solution, List<Integer> batches, int count, SplittableRandom random) {
+        List<Integer> freed = new ArrayList<>();
+        for (int i = 0; i < Math.min(count, batches.size() - 1); i++) {
+            int batch = batches.remove(random.nextInt(batches.size()));
+            int size = freed.size();
+            for (int order = solution.getFirstOrder(batch); order != CompactSolution.NONE; order = solution.getNextOrder(order)) {
+                freed.add(order);
+            }
+            for (int k = size; k < freed.size(); k++) {
+                solution.move(freed.get(k), CompactSolution.NONE);
+            }
+        }
+        reinsert(solution, batches, freed);
+    }
+
+    /**
+     * Reinserts orders into the batches of an individual, the heaviest first, each into the feasible
+     * batch where it increases the routing cost the least or into a new batch if that is cheaper or
+     * no batch can hold it.
+     *
+     * @param solution The solution of the individual.
+     * @param batches  The slots of the batches of the individual. New batches are added at the end.
+     * @param orders   The unassigned orders to reinsert.
+     */
+    private void reinsert(CompactSolution solution, List<Integer> batches, List<Integer> orders) {
+        orders.sort(Collections.reverseOrder(Comparator.comparingDouble(solution::getOrderWeight)));
+        for (int order : orders) {
+            int newBatch = solution.getEmptyBatch();
+            int bestBatch = CompactSolution.NONE;
+            double bestDelta = solution.costIfAdded(order, newBatch);
+            for (int batch : batches) {
+                if (!solution.canMove(order, batch)) {
+                    moveCounters.addInfeasible();
+                    continue;
+                }
+                moveCounters.addEvaluated();
+                double delta = solution.costIfAdded(order, batch) - solution.getCost(batch);
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    bestBatch = batch;
+                }
+            }
+            if (bestBatch == CompactSolution.NONE) {
+                bestBatch = newBatch;
+                batches.add(bestBatch);
+            }
+            solution.move(order, bestBatch);
+        }
+    }
+}
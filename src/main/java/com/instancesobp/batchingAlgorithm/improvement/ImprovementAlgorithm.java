@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+
+/**
+ * Abstract base class for improvement batching algorithms.
+ * <p>
+ * An improvement algorithm starts from the batches built by another batching algorithm
+ * (usually a constructive one) and modifies them to reduce the picking time, the sum of
+ * the routing costs of the batches. The moves are evaluated on a {@link CompactSolution} with
+ * the routing algorithm of the improvement algorithm, and {@link MoveCounters} measure the
+ * work done by the algorithm.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public abstract class ImprovementAlgorithm extends BatchingAlgorithm {
+
+    /**
+     * Minimum decrease of the cost for a move to be considered an improvement.
+     */
+    protected static final double EPSILON = 1e-6;
+
+    /**
+     * The algorithm that builds the initial batches.
+     */
+    protected final BatchingAlgorithm initialAlgorithm;
+
+    /**
+     * The routing algorithm used to evaluate the batches.
+     */
+    protected final RoutingAlgorithm routingAlgorithm;
+
+    /**
+     * Counters of the evaluated and applied moves.
+     */
+    protected final MoveCounters moveCounters = new MoveCounters();
+
+    /**
+     * Constructor for the ImprovementAlgorithm class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param initialAlgorithm The algorithm that builds the initial batches.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches.
+     */
+    public ImprovementAlgorithm(Warehouse warehouse, BatchingAlgorithm initialAlgorithm, RoutingAlgorithm routingAlgorithm) {
+        super(warehouse);
+        this.initialAlgorithm = initialAlgorithm;
+        this.routingAlgorithm = routingAlgorithm;
+    }
+
+    /**
+     * Builds the initial batches of a list of orders and improves them.
+     *
+     * @param orderList The list of orders to be batched.
+     * @return The improved list of batches.
+     * @throws Exception If an error occurs during the batching process.
+     */
+    @Override
+    public List<Batch> run(List<Order> orderList) throws Exception {
+        return improve(initialAlgorithm.run(orderList));
+    }
+
+    /**
+     * Improves a list of batches. The batches of the list are not modified; the returned list
+     * holds new non-empty batches, with their service time set to their routing cost.
+     *
+     * @param batchList The list of batches to improve. They are not modified.
+     * @return The improved list of batches.
+     * @throws Exception If an error occurs during the improvement process.
+     */
+    public abstract List<Batch> improve(List<Batch> batchList) throws Exception;
+
+    /**
+     * Improves a compact solution in place. By default the solution is converted to a list of
+     * batches, improved with {@link #improve(List)} and loaded back, for the subclasses that only
+     * implement that method. The subclasses of this package (local search, iterated local search,
+     * ALNS, the grouping genetic algorithm, simulated annealing and tabu search) override it and
+     * work on the compact representation directly; {@link Grasp} is a constructive algorithm and
+     * does not extend this class.
+     *
+     * @param solution The solution to improve.
+     * @throws Exception If an error occurs during the improvement process.
+     */
+    public void improve(CompactSolution solution) throws Exception {
+        solution.load(improve(solution.toBatches()));
+    }
+
+    /**
+     * Gets the counters of the evaluated and applied moves.
+     *
+     * @return The move counters.
+     */
+    public MoveCounters getMoveCounters() {
+        return moveCounters;
+    }
+
+    /**
+     * Copies a list of batches, so that the copy can be modified without changing the original batches.
+     *
+     * @param batchList The list of batches.
+     * @return A list with a copy of each batch.
+     */
+    protected static List<Batch> copy(List<Batch> batchList) {
+        List<Batch> copy = new ArrayList<>(batchList.size());
+        for (Batch batch : batchList) {
+            copy.add(new Batch(batch));
+        }
+        return copy;
+    }
+
+    /**
+     * Removes the empty batches of a list.
+     *
+     * @param batchList The list of batches.
+     */
+    protected static void removeEmptyBatches(List<Batch> batchList) {
+        batchList.removeIf(batch -> batch.getOrders().isEmpty());
+    }
+}
@@ -0,0 +1,388 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.instancesobp.Configuration;
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+
+/**
+ * Multi-threaded iterated local search with variable neighbourhood shaking.
+ * <p>
+ * The initial batches are first improved with a {@link LocalSearch}. Then every search thread
+ * starts from that local optimum and iterates: it shakes a copy of its current solution with {@code k} random shift or swap
+ * moves, improves it with the local search and accepts it if it is better. The solutions are
+ * {@link CompactSolution}s, so each copy is a few array copies. As in variable
+ * neighbourhood search, {@code k} returns to 1 after an improvement and grows up to the
+ * maximum shake strength otherwise.
+ * <p>
+ * The threads share the best solution found through an {@link AtomicReference} updated with
+ * compare-and-set, so no lock is taken. In the cooperative mode a thread restarts from the
+ * shared best solution whenever it is better than its own; otherwise the threads are independent.
+ * Each thread draws its random numbers from its own stream, split from a generator seeded with
+ * {@link Configuration#SEED}. The search stops when the time limit is reached or when the
+ * iteration budget, shared by all the threads, is spent.
+ * <p>
+ * With one thread and no time limit the results are reproducible; with several threads they
+ * depend on how the threads interleave.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class IteratedLocalSearch extends ImprovementAlgorithm {
+
+    /**
+     * A solution shared between the threads. It is never modified and its routing costs are up to date.
+     *
+     * @param solution The solution.
+     * @param cost     The cost of the solution.
+     */
+    private record Solution(CompactSolution solution, double cost) {
+    }
+
+    /**
+     * Number of search threads.
+     */
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Maximum running time in milliseconds, or 0 for no time limit.
+     */
+    private long timeLimit = 0;
+
+    /**
+     * Maximum number of iterations of all the threads, or 0 for no iteration limit.
+     */
+    private int maxIterations = 1000;
+
+    /**
+     * Maximum number of random moves of a shake.
+     */
+    private int maxShakeStrength = 3;
+
+    /**
+     * Whether the threads restart from the shared best solution.
+     */
+    private boolean cooperative = true;
+
+    /**
+     * The strategy of the local search of each thread.
+     */
+    private LocalSearch.Strategy strategy = LocalSearch.Strategy.FIRST_IMPROVEMENT;
+
+    /**
+     * Constructor for the IteratedLocalSearch class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param initialAlgorithm The algorithm that builds the initial batches.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches. It is shared by all the threads.
+     */
+    public IteratedLocalSearch(Warehouse warehouse, BatchingAlgorithm initialAlgorithm, RoutingAlgorithm routingAlgorithm) {
+        super(warehouse, initialAlgorithm, routingAlgorithm);
+    }
+
+    /**
+     * Sets the number of search threads.
+     *
+     * @param threads The number of threads.
+     * @throws IllegalArgumentException If the number of threads is not positive.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("The number of threads must be positive [IteratedLocalSearch.setThreads]");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the maximum running time. It is checked between iterations, so the
+     * search can exceed it by the time of one local search.
+     *
+     * @param timeLimit The maximum running time in milliseconds, or 0 for no time limit.
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Sets the maximum number of iterations of all the threads.
+     *
+     * @param maxIterations The maximum number of iterations, or 0 for no iteration limit.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Sets the maximum number of random moves of a shake.
+     *
+     * @param maxShakeStrength The maximum shake strength.
+     * @throws IllegalArgumentException If the shake strength is not positive.
+     */
+    public void setMaxShakeStrength(int maxShakeStrength) {
+        if (maxShakeStrength < 1) {
+            throw new IllegalArgumentException("The shake strength must be positive [IteratedLocalSearch.setMaxShakeStrength]");
+        }
+        this.maxShakeStrength = maxShakeStrength;
+    }
+
+    /**
+     * Sets whether the threads restart from the shared best solution.
+     *
+     * @param cooperative {@code true} for cooperating threads, {@code false} for independent ones.
+     */
+    public void setCooperative(boolean cooperative) {
+        this.cooperative = cooperative;
+    }
+
+    /**
+     * Sets the strategy of the local search of each thread.
+     *
+     * @param strategy The strategy.
+     */
+    public void setStrategy(LocalSearch.Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Gets the number of search threads.
+     *
+     * @return The number of threads.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Improves a list of batches with all the search threads and returns the best solution found.
+     *
+     * @param batchList The list of batches to improve. They are not modified.
+     * @return The best list of batches found.
+     * @throws Exception If an error occurs in any of the search threads.
+     * @throws IllegalStateException If neither a time limit nor an iteration limit is set.
+     */
+    @Override
+    public List<Batch> improve(List<Batch> batchList) throws Exception {
+        List<Batch> batches = copy(batchList);
+        removeEmptyBatches(batches);
+        CompactSolution solution = new CompactSolution(batches, warehouse.getWorkerCapacity(), routingAlgorithm);
+        improve(solution);
+        return solution.toBatches();
+    }
+
+    /**
+     * Improves a compact solution in place with all the search threads, replacing it with the best solution found.
+     *
+     * @param solution The solution to improve. All its orders must be assigned.
+     * @throws Exception If an error occurs in any of the search threads.
+     * @throws IllegalStateException If neither a time limit nor an iteration limit is set.
+     */
+    @Override
+    public void improve(CompactSolution solution) throws Exception {
+        if (timeLimit <= 0 && maxIterations <= 0) {
+            throw new IllegalStateException("A time limit or an iteration limit is required [IteratedLocalSearch.improve]");
+        }
+        long start = System.nanoTime();
+        long deadline = timeLimit > 0 ? start + timeLimit * 1_000_000 : Long.MAX_VALUE;
+
+        LocalSearch localSearch = new LocalSearch(warehouse, initialAlgorithm, routingAlgorithm);
+        localSearch.setStrategy(strategy);
+        localSearch.improve(solution);
+        moveCounters.addMoves(localSearch.getMoveCounters());
+        Solution localOptimum = share(solution);
+        AtomicReference<Solution> best = new AtomicReference<>(localOptimum);
+        AtomicInteger iterations = new AtomicInteger();
+
+        SplittableRandom seeds = new SplittableRandom(Configuration.SEED);
+        List<Callable<MoveCounters>> searches = new ArrayList<>(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            SplittableRandom random = seeds.split();
+            searches.add(() -> search(localOptimum, random, best, iterations, deadline));
+        }
+
+        if (threads == 1) {
+            moveCounters.addMoves(searches.get(0).call());
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                for (Future<MoveCounters> future : executor.invokeAll(searches)) {
+                    moveCounters.addMoves(future.get());
+                }
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof Exception cause ? cause : e;
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        solution.copyFrom(best.get().solution());
+        moveCounters.addElapsedSince(start);
+    }
+
+    /**
+     * Runs one search thread until the time limit or the iteration budget is reached.
+     *
+     * @param initial    The initial local optimum.
+     * @param random     The random number generator of the thread.
+     * @param best       The best solution shared by all the threads.
+     * @param iterations The number of iterations done by all the threads.
+     * @param deadline   The instant to stop, as given by {@link System#nanoTime()}.
+     * @return The counters of the moves of the thread.
+     */
+    private MoveCounters search(Solution initial, SplittableRandom random, AtomicReference<Solution> best,
+                                AtomicInteger iterations, long deadline) {
+        LocalSearch localSearch = new LocalSearch(warehouse, initialAlgorithm, routingAlgorithm);
+        localSearch.setStrategy(strategy);
+        localSearch.setExplorationOrder(LocalSearch.ExplorationOrder.RANDOM);
+        localSearch.setSeed(random.nextLong());
+        MoveCounters counters = localSearch.getMoveCounters();
+
+        Solution current = initial;
+        CompactSolution candidate = new CompactSolution(initial.solution());
+
+        int strength = 1;
+        while (System.nanoTime() < deadline && (maxIterations <= 0 || iterations.getAndIncrement() < maxIterations)) {
+            if (cooperative) {
+                Solution shared = best.get();
+                if (shared.cost() < current.cost() - EPSILON) {
+                    current = shared;
+                    strength = 1;
+                }
+            }
+
+            candidate.copyFrom(current.solution());
+            shake(candidate, strength, random, counters);
+            localSearch.improve(candidate);
+            double cost = candidate.getCost();
+
+            if (cost < current.cost() - EPSILON) {
+                current = share(candidate);
+                strength = 1;
+                offer(best, current);
+            } else {
+                strength = strength % maxShakeStrength + 1;
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Applies a number of random feasible shift or swap moves to a solution.
+     * A move is skipped if no feasible move is found for the chosen order.
+     *
+     * @param solution The solution.
+     * @param strength The number of random moves.
+     * @param random   The random number generator.
+     * @param counters The counters of the moves.
+     */
+    private static void shake(CompactSolution solution, int strength, SplittableRandom random, MoveCounters counters) {
+        int[] batches = new int[solution.getNumberOfBatches()];
+        int size = 0;
+        for (int batch = 0; size < batches.length; batch++) {
+            if (solution.getBatchSize(batch) > 0) {
+                batches[size++] = batch;
+            }
+        }
+        if (batches.length < 2) {
+            return;
+        }
+        for (int move = 0; move < strength; move++) {
+            int from = batches[random.nextInt(batches.length)];
+            if (solution.getBatchSize(from) == 0) {
+                continue;
+            }
+            int order = orderAt(solution, from, random.nextInt(solution.getBatchSize(from)));
+            int to = batches[random.nextInt(batches.length)];
+            if (to == from) {
+                continue;
+            }
+            boolean shift = random.nextBoolean();
+            if (shift && !solution.canMove(order, to)) {
+                counters.addInfeasible();
+                shift = false;
+            }
+            if (shift) {
+                solution.move(order, to);
+                counters.addApplied();
+            } else if (solution.getBatchSize(to) > 0) {
+                int other = orderAt(solution, to, random.nextInt(solution.getBatchSize(to)));
+                if (solution.canSwap(order, other)) {
+                    solution.swap(order, other);
+                    counters.addApplied();
+                } else {
+                    counters.addInfeasible();
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the order at a position of a batch.
+     *
+     * @param solution The solution.
+     * @param batch    The slot of the batch.
+     * @param position The position of the order in the batch.
+     * @return The index of the order.
+     */
+    private static int orderAt(CompactSolution solution, int batch, int position) {
+        int order = solution.getFirstOrder(batch);
+        for (int i = 0; i < position; i++) {
+            order = solution.getNextOrder(order);
+        }
+        return order;
+    }
+
+    /**
+     * Copies a solution to share it between the threads, with its routing costs up to date.
+     *
+     * @param solution The solution.
+     * @return The shared copy and its cost.
+     */
+    private static Solution share(CompactSolution solution) {
+        CompactSolution copy = new CompactSolution(solution);
+        copy.refresh();
+        return new Solution(copy, copy.getCost());
+    }
+
+    /**
+     * Replaces the shared best solution if a solution is better, with compare-and-set.
+     *
+     * @param best      The best solution shared by all the threads.
+     * @param candidate The solution. It must not be modified afterwards.
+     */
+    private static void offer(AtomicReference<Solution> best, Solution candidate) {
+        Solution shared = best.get();
+        while (candidate.cost() < shared.cost() - EPSILON && !best.compareAndSet(shared, candidate)) {
+            shared = best.get();
+        }
+    }
+}
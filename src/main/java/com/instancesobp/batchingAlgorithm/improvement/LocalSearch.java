@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+import com.instancesobp.Configuration;
+
+/**
+ * Local search over the shift and swap neighbourhoods.
+ * <p>
+ * The shift neighbourhood moves one order to another batch and the swap neighbourhood
+ * exchanges two orders of different batches. The neighbourhoods are explored in the
+ * configured order: when one of them improves the solution the search starts again from
+ * the first one, and it stops when none of them improves it (a local optimum for all of them).
+ * With the first improvement strategy every improving move is applied as soon as it is found;
+ * with the best improvement strategy the best move of the neighbourhood is applied.
+ * <p>
+ * The search works on a {@link CompactSolution}. The moves are evaluated by the change of the
+ * routing cost of the two batches they modify, from their cached pick profiles, and the change
+ * caused by removing an order from its batch is computed once for all its shifts.
+ * The batches and orders can be visited sequentially or in a random order, seeded by default
+ * with {@link Configuration#SEED} so that the results are reproducible.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class LocalSearch extends ImprovementAlgorithm {
+
+    /**
+     * Strategies to select the move to apply.
+     */
+    public enum Strategy {
+        /**
+         * Apply each improving move as soon as it is found.
+         */
+        FIRST_IMPROVEMENT,
+        /**
+         * Apply the best move of the neighbourhood.
+         */
+        BEST_IMPROVEMENT
+    }
+
+    /**
+     * Neighbourhoods of a solution.
+     */
+    public enum Neighbourhood {
+        /**
+         * Move one order to another batch.
+         */
+        SHIFT,
+        /**
+         * Exchange two orders of different batches.
+         */
+        SWAP
+    }
+
+    /**
+     * Orders in which the batches and their orders are visited.
+     */
+    public enum ExplorationOrder {
+        /**
+         * Visit the batches and orders in the order of the solution.
+         */
+        SEQUENTIAL,
+        /**
+         * Visit the batches and orders in a random order.
+         */
+        RANDOM
+    }
+
+    /**
+     * The strategy to select the move to apply.
+     */
+    private Strategy strategy = Strategy.FIRST_IMPROVEMENT;
+
+    /**
+     * The neighbourhoods to explore, in order.
+     */
+    private List<Neighbourhood> neighbourhoods = List.of(Neighbourhood.SHIFT, Neighbourhood.SWAP);
+
+    /**
+     * The order in which the batches and their orders are visited.
+     */
+    private ExplorationOrder explorationOrder = ExplorationOrder.SEQUENTIAL;
+
+    /**
+     * Seed of the random exploration order.
+     */
+    private long seed = Configuration.SEED;
+
+    /**
+     * Random number generator for the random exploration order.
+     */
+    private Random random;
+
+    /**
+     * Constructor for the LocalSearch class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param initialAlgorithm The algorithm that builds the initial batches.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches.
+     */
+    public LocalSearch(Warehouse warehouse, BatchingAlgorithm initialAlgorithm, RoutingAlgorithm routingAlgorithm) {
+        super(warehouse, initialAlgorithm, routingAlgorithm);
+    }
+
+    /**
+     * Sets the strategy to select the move to apply.
+     *
+     * @param strategy The strategy.
+     */
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Sets the neighbourhoods to explore, in order.
+     *
+     * @param neighbourhoods The neighbourhoods.
+     * @throws IllegalArgumentException If no neighbourhood is given.
+     */
+    public void setNeighbourhoods(Neighbourhood... neighbourhoods) {
+        if (neighbourhoods.length == 0) {
+            throw new IllegalArgumentException("At least one neighbourhood is required [LocalSearch.setNeighbourhoods]");
+        }
+        this.neighbourhoods = List.of(neighbourhoods);
+    }
+
+    /**
+     * Sets the order in which the batches and their orders are visited.
+     *
+     * @param explorationOrder The exploration order.
+     */
+    public void setExplorationOrder(ExplorationOrder explorationOrder) {
+        this.explorationOrder = explorationOrder;
+    }
+
+    /**
+     * Sets the seed of the random exploration order.
+     *
+     * @param seed The seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Gets the strategy to select the move to apply.
+     *
+     * @return The strategy.
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Gets the neighbourhoods to explore, in order.
+     *
+     * @return The neighbourhoods.
+     */
+    public List<Neighbourhood> getNeighbourhoods() {
+        return neighbourhoods;
+    }
+
+    /**
+     * Gets the order in which the batches and their orders are visited.
+     *
+     * @return The exploration order.
+     */
+    public ExplorationOrder getExplorationOrder() {
+        return explorationOrder;
+    }
+
+    /**
+     * Improves a list of batches until no neighbourhood contains an improving move.
+     *
+     * @param batchList The list of batches to improve. They are not modified.
+     * @return The improved list of batches.
+     * @throws Exception If an error occurs while building the batches.
+     */
+    @Override
+    public List<Batch> improve(List<Batch> batchList) throws Exception {
+        List<Batch> batches = copy(batchList);
+        removeEmptyBatches(batches);
+        CompactSolution solution = new CompactSolution(batches, warehouse.getWorkerCapacity(), routingAlgorithm);
+        improve(solution);
+        return solution.toBatches();
+    }
+
+    /**
+     * Improves a compact solution in place until no neighbourhood contains an improving move.
+     * The orders are only moved between the batches of the solution, so no batch is created.
+     *
+     * @param solution The solution to improve. All its orders must be assigned.
+     */
+    @Override
+    public void improve(CompactSolution solution) {
+        long start = System.nanoTime();
+        random = new Random(seed);
+
+        int neighbourhood = 0;
+        while (neighbourhood < neighbourhoods.size()) {
+            boolean improved = switch (neighbourhoods.get(neighbourhood)) {
+                case SHIFT -> exploreShift(solution);
+                case SWAP -> exploreSwap(solution);
+            };
+            if (improved) {
+                neighbourhood = 0;
+            } else {
+                neighbourhood++;
+            }
+        }
+
+        moveCounters.addElapsedSince(start);
+    }
+
+    /**
+     * Explores the shift neighbourhood once.
+     *
+     * @param solution The solution.
+     * @return {@code true} if an improving move was applied.
+     */
+    private boolean exploreShift(CompactSolution solution) {
+        int[] batchOrder = visitOrder(solution);
+        boolean improved = false;
+        double bestDelta = -EPSILON;
+        int bestOrder = CompactSolution.NONE;
+        int bestTo = CompactSolution.NONE;
+
+        for (int from : batchOrder) {
+            for (int order : ordersOf(solution, from)) {
+                double removalDelta = solution.costIfRemoved(order) - solution.getCost(from);
+                for (int to : batchOrder) {
+                    if (from == to) {
+                        continue;
+                    }
+                    if (!solution.canMove(order, to)) {
+                        moveCounters.addInfeasible();
+                        continue;
+                    }
+                    moveCounters.addEvaluated();
+                    double delta = removalDelta + (solution.costIfAdded(order, to) - solution.getCost(to));
+                    if (delta < bestDelta) {
+                        if (strategy == Strategy.FIRST_IMPROVEMENT) {
+                            solution.move(order, to);
+                            moveCounters.addApplied();
+                            improved = true;
+                            break;
+                        }
+                        bestDelta = delta;
+                        bestOrder = order;
+                        bestTo = to;
+                    }
+                }
+            }
+        }
+
+        if (bestOrder != CompactSolution.NONE) {
+            solution.move(bestOrder, bestTo);
+            moveCounters.addApplied();
+            improved = true;
+        }
+        return improved;
+    }
+
+    /**
+     * Explores the swap neighbourhood once.
+     *
+     * @param solution The solution.
+     * @return {@code true} if an improving move was applied.
+     */
+    private boolean exploreSwap(CompactSolution solution) {
+        int[] batchOrder = visitOrder(solution);
+        boolean improved = false;
+        double bestDelta = -EPSILON;
+        int bestOrder1 = CompactSolution.NONE;
+        int bestOrder2 = CompactSolution.NONE;
+
+        for (int p = 0; p < batchOrder.length; p++) {
+            int batch1 = batchOrder[p];
+            for (int q = p + 1; q < batchOrder.length; q++) {
+                int batch2 = batchOrder[q];
+                for (int order1 : ordersOf(solution, batch1)) {
+                    for (int order2 : ordersOf(solution, batch2)) {
+                        if (!solution.canSwap(order1, order2)) {
+                            moveCounters.addInfeasible();
+                            continue;
+                        }
+                        moveCounters.addEvaluated();
+                        double delta = solution.costIfSwapped(order1, order2) - solution.getCost(batch1)
+                                + solution.costIfSwapped(order2, order1) - solution.getCost(batch2);
+                        if (delta < bestDelta) {
+                            if (strategy == Strategy.FIRST_IMPROVEMENT) {
+                                solution.swap(order1, order2);
+                                moveCounters.addApplied();
+                                improved = true;
+                                break;
+                            }
+                            bestDelta = delta;
+                            bestOrder1 = order1;
+                            bestOrder2 = order2;
+                        }
+                    }
+                }
+            }
+        }
+
+        if (bestOrder1 != CompactSolution.NONE) {
+            solution.swap(bestOrder1, bestOrder2);
+            moveCounters.addApplied();
+            improved = true;
+        }
+        return improved;
+    }
+
+    /**
+     * Returns the non-empty batches of a solution in the order they are visited.
+     *
+     * @param solution The solution.
+     * @return The slots of the batches in the order they are visited.
+     */
+    private int[] visitOrder(CompactSolution solution) {
+        int[] batches = new int[solution.getNumberOfBatches()];
+        int size = 0;
+        for (int batch = 0; size < batches.length; batch++) {
+            if (solution.getBatchSize(batch) > 0) {
+                batches[size++] = batch;
+            }
+        }
+        shuffle(batches);
+        return batches;
+    }
+
+    /**
+     * Returns a copy of the orders of a batch in the order they are visited.
+     * The copy allows the batch to be modified while its orders are visited.
+     *
+     * @param solution The solution.
+     * @param batch    The slot of the batch.
+     * @return The indices of the orders of the batch.
+     */
+    private int[] ordersOf(CompactSolution solution, int batch) {
+        int[] orders = new int[solution.getBatchSize(batch)];
+        int size = 0;
+        for (int order = solution.getFirstOrder(batch); order != CompactSolution.NONE; order = solution.getNextOrder(order)) {
+            orders[size++] = order;
+        }
+        shuffle(orders);
+        return orders;
+    }
+
+    /**
+     * Shuffles an array with the random exploration order, drawing the same random numbers as
+     * {@link java.util.Collections#shuffle(List, Random)}; with the sequential order it is not changed.
+     *
+     * @param values The array to shuffle.
+     */
+    private void shuffle(int[] values) {
+        if (explorationOrder == ExplorationOrder.RANDOM) {
+            for (int i = values.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = values[i];
+                values[i] = values[j];
+                values[j] = swap;
+            }
+        }
+    }
+}
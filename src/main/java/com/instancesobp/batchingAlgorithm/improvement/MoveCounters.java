@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the moves of an improvement algorithm.
+ * They measure the moves whose cost was evaluated, the moves rejected by the worker
+ * capacity before any evaluation, the moves applied to the solution and the time spent,
+ * so that the number of evaluated moves per second can be compared between algorithms.
+ * The counters can be updated concurrently.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class MoveCounters implements Serializable {
+
+    /**
+     * Number of moves whose cost was evaluated.
+     */
+    private final LongAdder evaluatedMoves = new LongAdder();
+
+    /**
+     * Number of moves rejected by the worker capacity.
+     */
+    private final LongAdder infeasibleMoves = new LongAdder();
+
+    /**
+     * Number of moves applied to the solution.
+     */
+    private final LongAdder appliedMoves = new LongAdder();
+
+    /**
+     * Time spent by the algorithm, in nanoseconds.
+     */
+    private final LongAdder elapsedNanos = new LongAdder();
+
+    /**
+     * Counts an evaluated move.
+     */
+    void addEvaluated() {
+        evaluatedMoves.increment();
+    }
+
+    /**
+     * Counts a move rejected by the worker capacity.
+     */
+    void addInfeasible() {
+        infeasibleMoves.increment();
+    }
+
+    /**
+     * Counts an applied move.
+     */
+    void addApplied() {
+        appliedMoves.increment();
+    }
+
+    /**
+     * Adds the time spent since a given instant.
+     *
+     * @param startNanos The instant, as given by {@link System#nanoTime()}.
+     */
+    void addElapsedSince(long startNanos) {
+        elapsedNanos.add(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Adds the moves counted by other counters, without their time.
+     *
+     * @param other The other counters.
+     */
+    void addMoves(MoveCounters other) {
+        evaluatedMoves.add(other.getEvaluatedMoves());
+        infeasibleMoves.add(other.getInfeasibleMoves());
+        appliedMoves.add(other.getAppliedMoves());
+    }
+
+    /**
+     * Resets all the counters to zero.
+     */
+    public void reset() {
+        evaluatedMoves.reset();
+        infeasibleMoves.reset();
+        appliedMoves.reset();
+        elapsedNanos.reset();
+    }
+
+    /**
+     * Gets the number of moves whose cost was evaluated.
+     *
+     * @return The number of evaluated moves.
+     */
+    public long getEvaluatedMoves() {
+        return evaluatedMoves.sum();
+    }
+
+    /**
+     * Gets the number of moves rejected by the worker capacity.
+     *
+     * @return The number of infeasible moves.
+     */
+    public long getInfeasibleMoves() {
+        return infeasibleMoves.sum();
+    }
+
+    /**
+     * Gets the number of moves applied to the solution.
+     *
+     * @return The number of applied moves.
+     */
+    public long getAppliedMoves() {
+        return appliedMoves.sum();
+    }
+
+    /**
+     * Gets the time spent by the algorithm.
+     *
+     * @return The elapsed time in milliseconds.
+     */
+    public double getElapsedMillis() {
+        return elapsedNanos.sum() / 1e6;
+    }
+
+    /**
+     * Gets the number of moves evaluated per second.
+     *
+     * @return The evaluated moves per second, or 0 if no time was measured.
+     */
+    public double getEvaluatedMovesPerSecond() {
+        long nanos = elapsedNanos.sum();
+        return nanos == 0 ? 0 : getEvaluatedMoves() * 1e9 / nanos;
+    }
+
+    /**
+     * Returns a string representation of the counters.
+     *
+     * @return A string with the values of the counters.
+     */
+    @Override
+    public String toString() {
+        return "Evaluated moves: " + getEvaluatedMoves() + ", infeasible moves: " + getInfeasibleMoves()
+                + ", applied moves: " + getAppliedMoves() + ", time (ms): " + getElapsedMillis()
+                + ", evaluated moves per second: " + Math.round(getEvaluatedMovesPerSecond());
+    }
+}
@@ -0,0 +1,562 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.util.List;
+import java.util.Random;
+
+import com.instancesobp.Configuration;
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+
+/**
+ * Simulated annealing over the batches of a solution.
+ * <p>
+ * Each iteration draws one random move: shifting an order to another batch (or to a new one),
+ * swapping two orders of different batches, or merging two batches and splitting their orders
+ * again in random order with first fit, which empties one of them when all the orders fit in one.
+ * The worker capacity is checked in constant time with the weights of the batches kept by the
+ * {@link CompactSolution}, and only the batches touched by the move are routed: their new pick
+ * profiles and costs are stored in the solution when the move is accepted, so the cost of every
+ * other batch comes from the cache.
+ * <p>
+ * A worsening move is accepted with probability {@code exp(-delta / temperature)}. The temperature
+ * goes from the start temperature to the end temperature following the cooling schedule over the
+ * iteration limit or the time limit, whichever is closer. Both temperatures are given as the
+ * worsening, relative to the average routing cost of a batch of the initial solution, that is
+ * accepted with probability 0.5. When reheating is enabled and the best solution has not improved
+ * for a number of iterations, the schedule restarts from a fraction of the start temperature over
+ * the remaining budget. The random numbers are seeded with {@link Configuration#SEED}, so a search
+ * stopped by its iteration limit is reproducible.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class SimulatedAnnealing extends ImprovementAlgorithm {
+
+    /**
+     * Cooling schedules, as functions of the fraction of the budget used.
+     */
+    public enum CoolingSchedule {
+        /**
+         * The temperature decreases by a constant factor.
+         */
+        GEOMETRIC,
+        /**
+         * The temperature decreases by a constant amount.
+         */
+        LINEAR,
+        /**
+         * The temperature is {@code start / (1 + beta * progress)}, which drops fast and then flattens.
+         */
+        LUNDY_MEES
+    }
+
+    /**
+     * Maximum number of iterations, or 0 for no iteration limit.
+     */
+    private long maxIterations = 200_000;
+
+    /**
+     * Maximum running time in milliseconds, or 0 for no time limit.
+     */
+    private long timeLimit = 0;
+
+    /**
+     * Cooling schedule of the temperature.
+     */
+    private CoolingSchedule coolingSchedule = CoolingSchedule.GEOMETRIC;
+
+    /**
+     * Relative worsening accepted with probability 0.5 at the start.
+     */
+    private double startTemperatureControl = 0.2;
+
+    /**
+     * Relative worsening accepted with probability 0.5 at the end.
+     */
+    private double endTemperatureControl = 0.001;
+
+    /**
+     * Number of iterations without a new best solution that trigger a reheating, or 0 to disable it.
+     */
+    private long reheatingIterations = 0;
+
+    /**
+     * Fraction of the start temperature from which the schedule restarts after a reheating.
+     */
+    private double reheatingRatio = 0.5;
+
+    /**
+     * Probability of drawing a shift move.
+     */
+    private double shiftProbability = 0.5;
+
+    /**
+     * Probability of drawing a swap move. The remaining probability draws a merge and split move.
+     */
+    private double swapProbability = 0.4;
+
+    /**
+     * Number of reheatings of the last run.
+     */
+    private int reheatings;
+
+    /**
+     * Random number generator of the search.
+     */
+    private Random random;
+
+    /**
+     * State of a run: the current solution, the best one and their costs.
+     */
+    private static final class State {
+
+        /** The current solution, modified in place. */
+        private final CompactSolution current;
+
+        /** The best solution, up to date only if the current solution is not the best one. */
+        private final CompactSolution best;
+
+        /** Cost of the current solution. */
+        private double currentCost;
+
+        /** Cost of the best solution. */
+        private double bestCost;
+
+        /** Whether the current solution is the best one, so the best copy is outdated. */
+        private boolean currentIsBest = true;
+
+        /** Number of iterations since the last new best solution. */
+        private long sinceBest;
+
+        /**
+         * Constructs the state of a run.
+         *
+         * @param solution The initial solution, which becomes the current one.
+         */
+        private State(CompactSolution solution) {
+            current = solution;
+            best = new CompactSolution(solution);
+            currentCost = solution.getCost();
+            bestCost = currentCost;
+        }
+    }
+
+    /**
+     * Constructor for the SimulatedAnnealing class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param initialAlgorithm The algorithm that builds the initial batches.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches.
+     */
+    public SimulatedAnnealing(Warehouse warehouse, BatchingAlgorithm initialAlgorithm, RoutingAlgorithm routingAlgorithm) {
+        super(warehouse, initialAlgorithm, routingAlgorithm);
+    }
+
+    /**
+     * Sets the maximum number of iterations.
+     *
+     * @param maxIterations The maximum number of iterations, or 0 for no iteration limit.
+     */
+    public void setMaxIterations(long maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Sets the maximum running time.
+     *
+     * @param timeLimit The maximum running time in milliseconds, or 0 for no time limit.
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Sets the cooling schedule.
+     *
+     * @param coolingSchedule The cooling schedule.
+     */
+    public void setCoolingSchedule(CoolingSchedule coolingSchedule) {
+        this.coolingSchedule = coolingSchedule;
+    }
+
+    /**
+     * Sets the start and end temperatures, as the worsening relative to the average routing cost of a
+     * batch of the initial solution that is accepted with probability 0.5.
+     *
+     * @param startTemperatureControl The relative worsening at the start.
+     * @param endTemperatureControl   The relative worsening at the end.
+     * @throws IllegalArgumentException If the values are not positive or the end one is greater than the start one.
+     */
+    public void setTemperatures(double startTemperatureControl, double endTemperatureControl) {
+        if (endTemperatureControl <= 0 || startTemperatureControl < endTemperatureControl) {
+            throw new IllegalArgumentException("Invalid temperatures [SimulatedAnnealing.setTemperatures]");
+        }
+        this.startTemperatureControl = startTemperatureControl;
+        this.endTemperatureControl = endTemperatureControl;
+    }
+
+    /**
+     * Sets the reheating policy.
+     *
+     * @param reheatingIterations The number of iterations without a new best solution that trigger a
+     *                            reheating, or 0 to disable it.
+     * @param reheatingRatio      The fraction of the start temperature from which the schedule restarts.
+     * @throws IllegalArgumentException If the ratio is not between 0 and 1.
+     */
+    public void setReheating(long reheatingIterations, double reheatingRatio) {
+        if (reheatingRatio <= 0 || reheatingRatio > 1) {
+            throw new IllegalArgumentException("The reheating ratio must be between 0 and 1 [SimulatedAnnealing.setReheating]");
+        }
+        this.reheatingIterations = reheatingIterations;
+        this.reheatingRatio = reheatingRatio;
+    }
+
+    /**
+     * Sets the probabilities of the moves. The remaining probability draws a merge and split move.
+     *
+     * @param shiftProbability The probability of a shift move.
+     * @param swapProbability  The probability of a swap move.
+     * @throws IllegalArgumentException If the probabilities are negative or add up to more than 1.
+     */
+    public void setMoveProbabilities(double shiftProbability, double swapProbability) {
+        if (shiftProbability < 0 || swapProbability < 0 || shiftProbability + swapProbability > 1) {
+            throw new IllegalArgumentException("Invalid move probabilities [SimulatedAnnealing.setMoveProbabilities]");
+        }
+        this.shiftProbability = shiftProbability;
+        this.swapProbability = swapProbability;
+    }
+
+    /**
+     * Gets the number of reheatings of the last run.
+     *
+     * @return The number of reheatings.
+     */
+    public int getReheatings() {
+        return reheatings;
+    }
+
+    /**
+     * Gets the number of moves accepted per second, over all the runs since the counters were reset.
+     *
+     * @return The accepted moves per second, or 0 if no time was measured.
+     */
+    public double getAcceptedMovesPerSecond() {
+        MoveCounters counters = getMoveCounters();
+        double millis = counters.getElapsedMillis();
+        return millis == 0 ? 0 : counters.getAppliedMoves() * 1000 / millis;
+    }
+
+    /**
+     * Gets the number of evaluated moves rejected per second, over all the runs since the counters were reset.
+     * The moves rejected by the worker capacity are not evaluated and are counted as infeasible moves.
+     *
+     * @return The rejected moves per second, or 0 if no time was measured.
+     */
+    public double getRejectedMovesPerSecond() {
+        MoveCounters counters = getMoveCounters();
+        double millis = counters.getElapsedMillis();
+        return millis == 0 ? 0 : (counters.getEvaluatedMoves() - counters.getAppliedMoves()) * 1000 / millis;
+    }
+
+    /**
+     * Improves a list of batches until the time limit or the iteration limit is reached.
+     *
+     * @param batchList The list of batches to improve. They are not modified.
+     * @return The best list of batches found.
+     * @throws Exception If an error occurs while building the batches.
+     * @throws IllegalStateException If neither a time limit nor an iteration limit is set.
+     */
+    @Override
+    public List<Batch> improve(List<Batch> batchList) throws Exception {
+        List<Batch> batches = copy(batchList);
+        removeEmptyBatches(batches);
+        CompactSolution solution = new CompactSolution(batches, warehouse.getWorkerCapacity(), routingAlgorithm);
+        improve(solution);
+        return solution.toBatches();
+    }
+
+    /**
+     * Improves a compact solution in place until the time limit or the iteration limit is reached.
+     *
+     * @param solution The solution to improve.
+     * @throws IllegalStateException If neither a time limit nor an iteration limit is set.
+     */
+    @Override
+    public void improve(CompactSolution solution) {
+        if (timeLimit <= 0 && maxIterations <= 0) {
+            throw new IllegalStateException("A time limit or an iteration limit is required [SimulatedAnnealing.improve]");
+        }
+        long start = System.nanoTime();
+        long deadline = timeLimit > 0 ? start + timeLimit * 1_000_000 : Long.MAX_VALUE;
+        random = new Random(Configuration.SEED);
+        reheatings = 0;
+        if (solution.getNumberOfBatches() == 0) {
+            return;
+        }
+
+        State state = new State(solution);
+        double averageBatchCost = state.currentCost / solution.getNumberOfBatches();
+        double startTemperature = Math.max(-startTemperatureControl * averageBatchCost / Math.log(0.5), EPSILON);
+        double endTemperature = Math.max(-endTemperatureControl * averageBatchCost / Math.log(0.5), EPSILON);
+        double phaseStart = 0;
+        double phaseTemperature = startTemperature;
+        int[] buffer = new int[solution.getNumberOfOrders()];
+
+        for (long iteration = 0; maxIterations <= 0 || iteration < maxIterations; iteration++) {
+            long now = System.nanoTime();
+            if (now >= deadline) {
+                break;
+            }
+            double progress = progress(iteration, now - start);
+            double phaseProgress = phaseStart >= 1 ? 1 : (progress - phaseStart) / (1 - phaseStart);
+            double temperature = temperature(phaseTemperature, Math.min(endTemperature, phaseTemperature), phaseProgress);
+
+            double move = random.nextDouble();
+            if (move < shiftProbability) {
+                shift(state, temperature);
+            } else if (move < shiftProbability + swapProbability) {
+                swap(state, temperature);
+            } else {
+                mergeAndSplit(state, temperature, buffer);
+            }
+
+            if (reheatingIterations > 0 && ++state.sinceBest >= reheatingIterations) {
+                phaseStart = progress;
+                phaseTemperature = Math.max(temperature, reheatingRatio * startTemperature);
+                state.sinceBest = 0;
+                reheatings++;
+            }
+        }
+
+        if (!state.currentIsBest) {
+            solution.copyFrom(state.best);
+        }
+        moveCounters.addElapsedSince(start);
+    }
+
+    /**
+     * Returns the fraction of the budget used: of the iteration limit or of the time limit, whichever is greater.
+     *
+     * @param iteration    The number of iterations done.
+     * @param elapsedNanos The time spent, in nanoseconds.
+     * @return The fraction of the budget used, between 0 and 1.
+     */
+    private double progress(long iteration, long elapsedNanos) {
+        double progress = 0;
+        if (maxIterations > 0) {
+            progress = (double) iteration / maxIterations;
+        }
+        if (timeLimit > 0) {
+            progress = Math.max(progress, elapsedNanos / (timeLimit * 1e6));
+        }
+        return Math.min(progress, 1);
+    }
+
+    /**
+     * Returns the temperature of the cooling schedule.
+     *
+     * @param from     The temperature at the start of the schedule.
+     * @param to       The temperature at the end of the schedule.
+     * @param progress The fraction of the schedule done, between 0 and 1.
+     * @return The temperature.
+     */
+    private double temperature(double from, double to, double progress) {
+        return switch (coolingSchedule) {
+            case GEOMETRIC -> from * Math.pow(to / from, progress);
+            case LINEAR -> from + (to - from) * progress;
+            case LUNDY_MEES -> from / (1 + (from / to - 1) * progress);
+        };
+    }
+
+    /**
+     * Decides whether an evaluated move is accepted and updates the state as if it were applied.
+     * Before the current solution leaves the best one, the best one is copied.
+     *
+     * @param state       The state of the run.
+     * @param delta       The change of the cost of the solution.
+     * @param temperature The current temperature.
+     * @return {@code true} if the move must be applied.
+     */
+    private boolean accept(State state, double delta, double temperature) {
+        moveCounters.addEvaluated();
+        if (delta > EPSILON && random.nextDouble() >= Math.exp(-delta / temperature)) {
+            return false;
+        }
+        moveCounters.addApplied();
+        state.currentCost += delta;
+        if (state.currentCost < state.bestCost - EPSILON) {
+            state.bestCost = state.currentCost;
+            state.currentIsBest = true;
+            state.sinceBest = 0;
+        } else if (state.currentIsBest) {
+            state.best.copyFrom(state.current);
+            state.currentIsBest = false;
+        }
+        return true;
+    }
+
+    /**
+     * Draws a move of a random order to the batch of another random order, or to a new batch
+     * if both are in the same batch, and applies it if it is accepted.
+     *
+     * @param state       The state of the run.
+     * @param temperature The current temperature.
+     */
+    private void shift(State state, double temperature) {
+        CompactSolution solution = state.current;
+        int n = solution.getNumberOfOrders();
+        int order = random.nextInt(n);
+        int from = solution.getBatch(order);
+        int to = solution.getBatch(random.nextInt(n));
+        if (to == from) {
+            if (solution.getBatchSize(from) == 1) {
+                return;
+            }
+            to = solution.getEmptyBatch();
+        }
+        if (!solution.canMove(order, to)) {
+            moveCounters.addInfeasible();
+            return;
+        }
+
+        PickProfile orderProfile = solution.getOrder(order).getPickProfile();
+        PickProfile fromProfile = solution.getPickProfile(from).subtract(orderProfile);
+        PickProfile toProfile = solution.getPickProfile(to).merge(orderProfile);
+        double fromCost = solution.getBatchSize(from) == 1 ? 0 : routingAlgorithm.run(fromProfile);
+        double toCost = routingAlgorithm.run(toProfile);
+        double delta = fromCost + toCost - solution.getCost(from) - solution.getCost(to);
+        if (accept(state, delta, temperature)) {
+            solution.move(order, to);
+            solution.setCost(from, fromProfile, fromCost);
+            solution.setCost(to, toProfile, toCost);
+        }
+    }
+
+    /**
+     * Draws an exchange of two random orders and applies it if it is accepted.
+     * Nothing is done if both orders are in the same batch.
+     *
+     * @param state       The state of the run.
+     * @param temperature The current temperature.
+     */
+    private void swap(State state, double temperature) {
+        CompactSolution solution = state.current;
+        int n = solution.getNumberOfOrders();
+        int order1 = random.nextInt(n);
+        int order2 = random.nextInt(n);
+        int batch1 = solution.getBatch(order1);
+        int batch2 = solution.getBatch(order2);
+        if (batch1 == batch2) {
+            return;
+        }
+        if (!solution.canSwap(order1, order2)) {
+            moveCounters.addInfeasible();
+            return;
+        }
+
+        PickProfile profile1 = solution.getOrder(order1).getPickProfile();
+        PickProfile profile2 = solution.getOrder(order2).getPickProfile();
+        PickProfile batchProfile1 = solution.getPickProfile(batch1).subtract(profile1).merge(profile2);
+        PickProfile batchProfile2 = solution.getPickProfile(batch2).subtract(profile2).merge(profile1);
+        double cost1 = routingAlgorithm.run(batchProfile1);
+        double cost2 = routingAlgorithm.run(batchProfile2);
+        double delta = cost1 + cost2 - solution.getCost(batch1) - solution.getCost(batch2);
+        if (accept(state, delta, temperature)) {
+            solution.swap(order1, order2);
+            solution.setCost(batch1, batchProfile1, cost1);
+            solution.setCost(batch2, batchProfile2, cost2);
+        }
+    }
+
+    /**
+     * Draws the batches of two random orders, shuffles their orders and splits them again with first fit,
+     * and applies the new split if it is accepted. If all the orders fit in the first batch, the batches
+     * are merged. Nothing is done if both orders are in the same batch.
+     *
+     * @param state       The state of the run.
+     * @param temperature The current temperature.
+     * @param buffer      An array with room for all the orders.
+     */
+    private void mergeAndSplit(State state, double temperature, int[] buffer) {
+        CompactSolution solution = state.current;
+        int n = solution.getNumberOfOrders();
+        int batch1 = solution.getBatch(random.nextInt(n));
+        int batch2 = solution.getBatch(random.nextInt(n));
+        if (batch1 == batch2) {
+            return;
+        }
+
+        int size = 0;
+        for (int order = solution.getFirstOrder(batch1); order != CompactSolution.NONE; order = solution.getNextOrder(order)) {
+            buffer[size++] = order;
+        }
+        for (int order = solution.getFirstOrder(batch2); order != CompactSolution.NONE; order = solution.getNextOrder(order)) {
+            buffer[size++] = order;
+        }
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = swap;
+        }
+
+        // The orders of the first batch are moved to the front of the buffer
+        double capacity = solution.getWorkerCapacity();
+        double weight1 = 0;
+        double weight2 = 0;
+        int size1 = 0;
+        PickProfile batchProfile1 = PickProfile.EMPTY;
+        PickProfile batchProfile2 = PickProfile.EMPTY;
+        for (int i = 0; i < size; i++) {
+            int order = buffer[i];
+            double weight = solution.getOrderWeight(order);
+            if (weight1 + weight <= capacity) {
+                weight1 += weight;
+                batchProfile1 = batchProfile1.merge(solution.getOrder(order).getPickProfile());
+                buffer[i] = buffer[size1];
+                buffer[size1++] = order;
+            } else if (weight2 + weight <= capacity) {
+                weight2 += weight;
+                batchProfile2 = batchProfile2.merge(solution.getOrder(order).getPickProfile());
+            } else {
+                moveCounters.addInfeasible();
+                return;
+            }
+        }
+
+        double cost1 = routingAlgorithm.run(batchProfile1);
+        double cost2 = size1 == size ? 0 : routingAlgorithm.run(batchProfile2);
+        double delta = cost1 + cost2 - solution.getCost(batch1) - solution.getCost(batch2);
+        if (accept(state, delta, temperature)) {
+            for (int i = 0; i < size; i++) {
+                int batch = i < size1 ? batch1 : batch2;
+                if (solution.getBatch(buffer[i]) != batch) {
+                    solution.move(buffer[i], batch);
+                }
+            }
+            solution.setCost(batch1, batchProfile1, cost1);
+            solution.setCost(batch2, batchProfile2, cost2);
+        }
+    }
+}
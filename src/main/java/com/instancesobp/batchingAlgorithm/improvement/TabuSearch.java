@@ -0,0 +1,633 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.batchingAlgorithm.improvement;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.instancesobp.Configuration;
+import com.instancesobp.batchingAlgorithm.BatchingAlgorithm;
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithm;
+import com.instancesobp.utils.LongDoubleHashMap;
+
+/**
+ * Tabu search over shift and swap moves.
+ * <p>
+ * Each iteration applies the best admissible move of the whole neighbourhood, even if it worsens the
+ * solution: shifting an order to another non-empty batch or swapping two orders of different batches.
+ * When an order leaves a batch, the attribute (order, batch) becomes tabu for a random tenure, so the
+ * order cannot return to that batch until it expires. The tabu attributes are kept in a
+ * {@link LongDoubleHashMap} keyed by the order index and the batch slot packed in a {@code long}, with
+ * the iteration at which they expire. A tabu move is admissible if it leads to a new best solution
+ * (aspiration by objective).
+ * <p>
+ * The routing costs of the moves are cached between iterations: the cost of the batch of each order
+ * without it, the cost of each batch with each order added and the cost of the batch of each order
+ * with it replaced by each other order. The costs are kept in one row per batch and one row per order,
+ * created when the batch or the order is first evaluated. A move only changes two batches, so only the
+ * rows of those batches and of their orders are cleared and evaluated again. The rows hold at most
+ * {@link #setMaxCachedCosts(long) a maximum number of costs}; the moves of the batches and orders without
+ * a row are evaluated without cache, so large instances take bounded memory and find the same moves. The moves are
+ * evaluated by target batch, in parallel over the common ForkJoin pool when the parallel mode is enabled
+ * and there are enough batches. Ties are broken by the indices of the orders, so the results are the same
+ * in both modes, and the tenures are drawn from {@link Configuration#SEED}.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class TabuSearch extends ImprovementAlgorithm {
+
+    /**
+     * Number of batches evaluated by each parallel task.
+     */
+    private static final int BATCHES_PER_TASK = 4;
+
+    /**
+     * Default maximum number of cached routing costs of a run (128 MB).
+     */
+    private static final long DEFAULT_MAX_CACHED_COSTS = 1L << 24;
+
+    /**
+     * Maximum number of iterations, or 0 for no iteration limit.
+     */
+    private int maxIterations = 1000;
+
+    /**
+     * Maximum running time in milliseconds, or 0 for no time limit.
+     */
+    private long timeLimit = 0;
+
+    /**
+     * Maximum number of iterations without a new best solution, or 0 for no limit.
+     */
+    private int maxIterationsWithoutImprovement = 200;
+
+    /**
+     * Minimum number of iterations that an attribute remains tabu.
+     */
+    private int minTenure = 5;
+
+    /**
+     * Maximum number of iterations that an attribute remains tabu.
+     */
+    private int maxTenure = 15;
+
+    /**
+     * Maximum number of routing costs cached during a run.
+     */
+    private long maxCachedCosts = DEFAULT_MAX_CACHED_COSTS;
+
+    /**
+     * Whether the moves are evaluated in parallel.
+     */
+    private final boolean parallel;
+
+    /**
+     * Number of iterations of the last run.
+     */
+    private int iterations;
+
+    /**
+     * Number of tabu moves applied by aspiration in the last run.
+     */
+    private int aspirations;
+
+    /**
+     * A move and the change of the cost of the solution it produces.
+     *
+     * @param swap       Whether it is a swap move; otherwise it is a shift move.
+     * @param order      The order that is moved.
+     * @param target     The slot of the target batch of a shift move, or the other order of a swap move.
+     * @param delta      The change of the cost of the solution.
+     * @param aspiration Whether the move is tabu and is admissible by aspiration.
+     */
+    private record Move(boolean swap, int order, int target, double delta, boolean aspiration) {
+
+        /**
+         * Checks if this move is better than another one. Ties are broken by the type and the indices.
+         *
+         * @param other The other move, or {@code null}.
+         * @return {@code true} if this move is better.
+         */
+        private boolean isBetterThan(Move other) {
+            if (other == null) {
+                return true;
+            }
+            int comparison = Double.compare(delta, other.delta);
+            if (comparison == 0) {
+                comparison = Boolean.compare(swap, other.swap);
+            }
+            if (comparison == 0) {
+                comparison = Integer.compare(order, other.order);
+            }
+            if (comparison == 0) {
+                comparison = Integer.compare(target, other.target);
+            }
+            return comparison < 0;
+        }
+    }
+
+    /**
+     * Constructor for the TabuSearch class, evaluating the moves sequentially.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param initialAlgorithm The algorithm that builds the initial batches.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches.
+     */
+    public TabuSearch(Warehouse warehouse, BatchingAlgorithm initialAlgorithm, RoutingAlgorithm routingAlgorithm) {
+        this(warehouse, initialAlgorithm, routingAlgorithm, false);
+    }
+
+    /**
+     * Constructor for the TabuSearch class.
+     *
+     * @param warehouse        The warehouse object containing layout and configuration details.
+     * @param initialAlgorithm The algorithm that builds the initial batches.
+     * @param routingAlgorithm The routing algorithm used to evaluate the batches. In parallel mode it is
+     *                         called from several threads.
+     * @param parallel         Whether the moves are evaluated in parallel.
+     */
+    public TabuSearch(Warehouse warehouse, BatchingAlgorithm initialAlgorithm, RoutingAlgorithm routingAlgorithm, boolean parallel) {
+        super(warehouse, initialAlgorithm, routingAlgorithm);
+        this.parallel = parallel;
+    }
+
+    /**
+     * Sets the maximum number of iterations.
+     *
+     * @param maxIterations The maximum number of iterations, or 0 for no iteration limit.
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Sets the maximum running time.
+     *
+     * @param timeLimit The maximum running time in milliseconds, or 0 for no time limit.
+     */
+    public void setTimeLimit(long timeLimit) {
+        this.timeLimit = timeLimit;
+    }
+
+    /**
+     * Sets the maximum number of iterations without a new best solution.
+     *
+     * @param maxIterationsWithoutImprovement The maximum number of iterations, or 0 for no limit.
+     */
+    public void setMaxIterationsWithoutImprovement(int maxIterationsWithoutImprovement) {
+        this.maxIterationsWithoutImprovement = maxIterationsWithoutImprovement;
+    }
+
+    /**
+     * Sets the range of the number of iterations that an attribute remains tabu.
+     *
+     * @param minTenure The minimum tenure.
+     * @param maxTenure The maximum tenure.
+     * @throws IllegalArgumentException If the minimum is not positive or is greater than the maximum.
+     */
+    public void setTenure(int minTenure, int maxTenure) {
+        if (minTenure < 1 || minTenure > maxTenure) {
+            throw new IllegalArgumentException("Invalid tabu tenure [TabuSearch.setTenure]");
+        }
+        this.minTenure = minTenure;
+        this.maxTenure = maxTenure;
+    }
+
+    /**
+     * Sets the maximum number of routing costs of the moves cached during a run, each taking 8 bytes.
+     * The caches take at most the number of orders times the number of batches plus orders; with a
+     * lower limit some moves are evaluated again in every iteration, but the search is the same.
+     *
+     * @param maxCachedCosts The maximum number of cached costs, or 0 to evaluate every move without cache.
+     * @throws IllegalArgumentException If the maximum is negative.
+     */
+    public void setMaxCachedCosts(long maxCachedCosts) {
+        if (maxCachedCosts < 0) {
+            throw new IllegalArgumentException("The maximum number of cached costs cannot be negative [TabuSearch.setMaxCachedCosts]");
+        }
+        this.maxCachedCosts = maxCachedCosts;
+    }
+
+    /**
+     * Gets the maximum number of routing costs of the moves cached during a run.
+     *
+     * @return The maximum number of cached costs.
+     */
+    public long getMaxCachedCosts() {
+        return maxCachedCosts;
+    }
+
+    /**
+     * Gets the number of iterations of the last run.
+     *
+     * @return The number of iterations.
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * Gets the number of tabu moves applied by aspiration in the last run.
+     *
+     * @return The number of aspirations.
+     */
+    public int getAspirations() {
+        return aspirations;
+    }
+
+    /**
+     * Improves a list of batches until a stopping criterion is met.
+     *
+     * @param batchList The list of batches to improve. They are not modified.
+     * @return The best list of batches found.
+     * @throws Exception If an error occurs while building the batches.
+     * @throws IllegalStateException If neither a time limit nor an iteration limit is set.
+     */
+    @Override
+    public List<Batch> improve(List<Batch> batchList) throws Exception {
+        List<Batch> batches = copy(batchList);
+        removeEmptyBatches(batches);
+        CompactSolution solution = new CompactSolution(batches, warehouse.getWorkerCapacity(), routingAlgorithm);
+        improve(solution);
+        return solution.toBatches();
+    }
+
+    /**
+     * Improves a compact solution in place until no move is admissible, the iteration limit, the time limit
+     * or the limit of iterations without improvement is reached.
+     *
+     * @param solution The solution to improve.
+     * @throws IllegalStateException If neither a time limit nor an iteration limit is set.
+     */
+    @Override
+    public void improve(CompactSolution solution) {
+        if (timeLimit <= 0 && maxIterations <= 0 && maxIterationsWithoutImprovement <= 0) {
+            throw new IllegalStateException("A time limit or an iteration limit is required [TabuSearch.improve]");
+        }
+        long start = System.nanoTime();
+        long deadline = timeLimit > 0 ? start + timeLimit * 1_000_000 : Long.MAX_VALUE;
+        Random random = new Random(Configuration.SEED);
+        iterations = 0;
+        aspirations = 0;
+
+        Search search = new Search(solution);
+        CompactSolution best = new CompactSolution(solution);
+        int lastImprovement = 0;
+        while ((maxIterations <= 0 || iterations < maxIterations)
+                && (maxIterationsWithoutImprovement <= 0 || iterations - lastImprovement < maxIterationsWithoutImprovement)
+                && System.nanoTime() < deadline) {
+            Move move = search.bestMove();
+            if (move == null) {
+                break;
+            }
+            iterations++;
+            search.apply(move, iterations + minTenure + random.nextInt(maxTenure - minTenure + 1));
+            if (move.aspiration()) {
+                aspirations++;
+            }
+            if (search.currentCost < search.bestCost - EPSILON) {
+                best.copyFrom(solution);
+                search.bestCost = search.currentCost;
+                lastImprovement = iterations;
+            }
+        }
+
+        solution.copyFrom(best);
+        moveCounters.addElapsedSince(start);
+    }
+
+    /**
+     * The state of a run: the current solution, the cached routing costs and the tabu attributes.
+     */
+    private final class Search {
+
+        /** The current solution. */
+        private final CompactSolution solution;
+
+        /** The number of orders. */
+        private final int n;
+
+        /** Cost of the batch of each order without it, or NaN if it must be evaluated. */
+        private final double[] removalCosts;
+
+        /** Cost of each batch with each order added, by batch slot and order, or NaN if it must be evaluated; null if not cached. */
+        private final double[][] insertionCosts;
+
+        /** Cost of the batch of each order with it replaced by each other order, or NaN if it must be evaluated; null if not cached. */
+        private final double[][] swapCosts;
+
+        /** Number of costs that can still be cached. */
+        private long freeCachedCosts;
+
+        /** Iteration at which each tabu attribute expires, keyed by {@link #attribute(int, int)}. */
+        private final LongDoubleHashMap tabu = new LongDoubleHashMap();
+
+        /** Slots of the non-empty batches in the current iteration. */
+        private final int[] batches;
+
+        /** Number of non-empty batches in the current iteration. */
+        private int numberOfBatches;
+
+        /** Cost of the current solution. */
+        private double currentCost;
+
+        /** Cost of the best solution. */
+        private double bestCost;
+
+        /**
+         * Constructs the state of a run.
+         *
+         * @param solution The initial solution, which becomes the current one.
+         */
+        private Search(CompactSolution solution) {
+            this.solution = solution;
+            this.n = solution.getNumberOfOrders();
+            this.removalCosts = new double[n];
+            this.insertionCosts = new double[n][];
+            this.swapCosts = new double[n][];
+            this.freeCachedCosts = maxCachedCosts;
+            this.batches = new int[n];
+            Arrays.fill(removalCosts, Double.NaN);
+            this.currentCost = solution.getCost();
+            this.bestCost = currentCost;
+        }
+
+        /**
+         * Finds the best admissible move of the neighbourhood.
+         *
+         * @return The best admissible move, or {@code null} if there is none.
+         */
+        private Move bestMove() {
+            solution.refresh();
+            numberOfBatches = 0;
+            for (int batch = 0; batch < n; batch++) {
+                if (solution.getBatchSize(batch) > 0) {
+                    batches[numberOfBatches++] = batch;
+                    // The rows are created here, so the parallel tasks only write entries of existing rows.
+                    if (insertionCosts[batch] == null) {
+                        insertionCosts[batch] = newRow();
+                    }
+                    for (int order = solution.getFirstOrder(batch); order != CompactSolution.NONE; order = solution.getNextOrder(order)) {
+                        if (swapCosts[order] == null) {
+                            swapCosts[order] = newRow();
+                        }
+                    }
+                }
+            }
+            for (int order = 0; order < n; order++) {
+                if (Double.isNaN(removalCosts[order])) {
+                    removalCosts[order] = solution.getBatchSize(solution.getBatch(order)) == 1 ? 0 : solution.costIfRemoved(order);
+                }
+            }
+            if (parallel && numberOfBatches > BATCHES_PER_TASK) {
+                return ForkJoinPool.commonPool().invoke(new EvaluationTask(this, 0, numberOfBatches));
+            }
+            return bestMove(0, numberOfBatches);
+        }
+
+        /**
+         * Finds the best admissible move into a range of the non-empty batches: the shifts of the orders
+         * into them and the swaps of their orders with the orders of the batches with lower slots.
+         *
+         * @param from The first position of the range, inclusive.
+         * @param to   The last position of the range, exclusive.
+         * @return The best admissible move, or {@code null} if there is none.
+         */
+        private Move bestMove(int from, int to) {
+            Move best = null;
+            for (int position = from; position < to; position++) {
+                int batch = batches[position];
+                double batchCost = solution.getCost(batch);
+                double[] batchInsertionCosts = insertionCosts[batch];
+                for (int order = 0; order < n; order++) {
+                    int source = solution.getBatch(order);
+                    if (source == batch) {
+                        continue;
+                    }
+                    if (!solution.canMove(order, batch)) {
+                        moveCounters.addInfeasible();
+                        continue;
+                    }
+                    moveCounters.addEvaluated();
+                    double insertionCost;
+                    if (batchInsertionCosts == null) {
+                        insertionCost = solution.costIfAdded(order, batch);
+                    } else {
+                        if (Double.isNaN(batchInsertionCosts[order])) {
+                            batchInsertionCosts[order] = solution.costIfAdded(order, batch);
+                        }
+                        insertionCost = batchInsertionCosts[order];
+                    }
+                    double delta = removalCosts[order] + insertionCost - solution.getCost(source) - batchCost;
+                    best = consider(best, false, order, batch, delta, isTabu(order, batch));
+                }
+
+                for (int order2 = solution.getFirstOrder(batch); order2 != CompactSolution.NONE; order2 = solution.getNextOrder(order2)) {
+                    for (int order1 = 0; order1 < n; order1++) {
+                        int source = solution.getBatch(order1);
+                        if (source >= batch) {
+                            continue;
+                        }
+                        if (!solution.canSwap(order1, order2)) {
+                            moveCounters.addInfeasible();
+                            continue;
+                        }
+                        moveCounters.addEvaluated();
+                        double delta = swapCost(order1, order2) + swapCost(order2, order1) - solution.getCost(source) - batchCost;
+                        best = consider(best, true, order1, order2, delta, isTabu(order1, batch) || isTabu(order2, source));
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Returns the cost of the batch of an order with it replaced by another order, from the cache if possible.
+         *
+         * @param removed The order that leaves the batch.
+         * @param added   The order that enters the batch.
+         * @return The cost of the batch with the exchanged order.
+         */
+        private double swapCost(int removed, int added) {
+            double[] row = swapCosts[removed];
+            if (row == null) {
+                return solution.costIfSwapped(removed, added);
+            }
+            if (Double.isNaN(row[added])) {
+                row[added] = solution.costIfSwapped(removed, added);
+            }
+            return row[added];
+        }
+
+        /**
+         * Creates a row of the caches if the maximum number of cached costs allows it.
+         *
+         * @return A row with a NaN entry for each order, or null if the caches are full.
+         */
+        private double[] newRow() {
+            if (freeCachedCosts < n) {
+                return null;
+            }
+            freeCachedCosts -= n;
+            double[] row = new double[n];
+            Arrays.fill(row, Double.NaN);
+            return row;
+        }
+
+        /**
+         * Returns the better of a move and the best move found so far, if the move is admissible.
+         *
+         * @param best   The best move found so far, or {@code null}.
+         * @param swap   Whether the move is a swap move.
+         * @param order  The order that is moved.
+         * @param target The target batch of a shift move, or the other order of a swap move.
+         * @param delta  The change of the cost of the solution.
+         * @param isTabu Whether the move is tabu.
+         * @return The better admissible move, or {@code null}.
+         */
+        private Move consider(Move best, boolean swap, int order, int target, double delta, boolean isTabu) {
+            boolean aspiration = isTabu && currentCost + delta < bestCost - EPSILON;
+            if (isTabu && !aspiration) {
+                return best;
+            }
+            if (best != null && delta > best.delta()) {
+                return best;
+            }
+            Move move = new Move(swap, order, target, delta, aspiration);
+            return move.isBetterThan(best) ? move : best;
+        }
+
+        /**
+         * Applies a move, makes the attributes it breaks tabu and discards the cached costs of the changed batches.
+         *
+         * @param move   The move.
+         * @param expiry The iteration at which the new tabu attributes expire.
+         */
+        private void apply(Move move, int expiry) {
+            int source = solution.getBatch(move.order());
+            int target;
+            if (move.swap()) {
+                target = solution.getBatch(move.target());
+                solution.swap(move.order(), move.target());
+                tabu.put(attribute(move.target(), target), expiry);
+            } else {
+                target = move.target();
+                solution.move(move.order(), target);
+            }
+            tabu.put(attribute(move.order(), source), expiry);
+            moveCounters.addApplied();
+            currentCost += move.delta();
+            discard(source);
+            discard(target);
+        }
+
+        /**
+         * Discards the cached costs that depend on a batch.
+         *
+         * @param batch The slot of the batch.
+         */
+        private void discard(int batch) {
+            if (insertionCosts[batch] != null) {
+                Arrays.fill(insertionCosts[batch], Double.NaN);
+            }
+            for (int order = solution.getFirstOrder(batch); order != CompactSolution.NONE; order = solution.getNextOrder(order)) {
+                removalCosts[order] = Double.NaN;
+                if (swapCosts[order] != null) {
+                    Arrays.fill(swapCosts[order], Double.NaN);
+                }
+            }
+        }
+
+        /**
+         * Checks if moving an order to a batch is tabu.
+         *
+         * @param order The order.
+         * @param batch The slot of the batch.
+         * @return {@code true} if the attribute (order, batch) has not expired.
+         */
+        private boolean isTabu(int order, int batch) {
+            return tabu.get(attribute(order, batch), 0) > iterations;
+        }
+    }
+
+    /**
+     * Packs an order and a batch slot into the key of a tabu attribute.
+     *
+     * @param order The order.
+     * @param batch The slot of the batch.
+     * @return The key of the attribute.
+     */
+    private static long attribute(int order, int batch) {
+        return ((long) order << 32) | batch;
+    }
+
+    /**
+     * Task that finds the best admissible move into a range of batches,
+     * splitting the range until it holds at most {@link #BATCHES_PER_TASK} batches.
+     * Each task writes only the cached costs of its own batches and of their orders, in rows that already exist.
+     */
+    private static final class EvaluationTask extends RecursiveTask<Move> {
+
+        /** The state of the run. */
+        private final Search search;
+
+        /** The first position of the range, inclusive. */
+        private final int from;
+
+        /** The last position of the range, exclusive. */
+        private final int to;
+
+        /**
+         * Constructs a task for a range of batches.
+         *
+         * @param search The state of the run.
+         * @param from   The first position of the range, inclusive.
+         * @param to     The last position of the range, exclusive.
+         */
+        private EvaluationTask(Search search, int from, int to) {
+            this.search = search;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Evaluates the range of batches, or splits it in two halves.
+         *
+         * @return The best admissible move of the range, or {@code null} if there is none.
+         */
+        @Override
+        protected Move compute() {
+            if (to - from <= BATCHES_PER_TASK) {
+                return search.bestMove(from, to);
+            }
+            int middle = (from + to) >>> 1;
+            EvaluationTask left = new EvaluationTask(search, from, middle);
+            left.fork();
+            Move right = new EvaluationTask(search, middle, to).compute();
+            Move best = left.join();
+            return right != null && right.isBetterThan(best) ? right : best;
+        }
+    }
+}
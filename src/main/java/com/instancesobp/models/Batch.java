@@ -63,6 +63,11 @@ public class Batch implements Cloneable {
      */
     private double completionTime = 0;
 
+    /**
+     * Pick profile of the orders of the batch, built on first use.
+     */
+    private PickProfile pickProfile;
+
     /**
      * Constructs a new {@code Batch} with the specified maximum weight.
      *
@@ -86,6 +91,7 @@ public class Batch implements Cloneable {
         this.earliestArrivalTime = batch.earliestArrivalTime;
         this.orders = new ArrayList<>(batch.orders);
         this.completionTime = batch.completionTime;
+        this.pickProfile = batch.pickProfile;
     }
 
     /**
@@ -144,6 +150,7 @@ public class Batch implements Cloneable {
         }
 
         this.serviceTime = 0;
+        this.pickProfile = null;
     }
 
     /**
@@ -162,6 +169,7 @@ public class Batch implements Cloneable {
             recalculateMinimumArrivalTime();
         }
         this.serviceTime = 0.0;
+        this.pickProfile = null;
     }
 
     /**
@@ -185,6 +193,7 @@ public class Batch implements Cloneable {
             }
         }
         this.serviceTime = 0.0;
+        this.pickProfile = null;
     }
 
     /**
@@ -321,6 +330,22 @@ public class Batch implements Cloneable {
         return orders;
     }
 
+    /**
+     * Returns the pick profile of the batch, that is, the union of the pick
+     * profiles of its orders. The profile is built on the first call and reused
+     * until an order is added or removed.
+     *
+     * @return The pick profile of the batch.
+     */
+    public PickProfile getPickProfile() {
+        PickProfile profile = pickProfile;
+        if (profile == null) {
+            profile = PickProfile.of(orders);
+            pickProfile = profile;
+        }
+        return profile;
+    }
+
     /**
      * Returns the service time required to process the batch.
      *
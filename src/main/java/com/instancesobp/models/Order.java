@@ -73,6 +73,11 @@ public class Order implements Cloneable, Serializable {
      */
     private double completionTime = 0;
 
+    /**
+     * Pick profile of the products of the order, built on first use.
+     */
+    private transient PickProfile pickProfile;
+
     /**
      * Constructs a new {@code Order} with the specified attributes.
      *
@@ -98,6 +103,7 @@ public class Order implements Cloneable, Serializable {
         this.dueDate = order.dueDate;
         this.numReferences = order.numReferences;
         this.products = new ArrayList<>(order.products);
+        this.pickProfile = order.pickProfile;
         this.weight = order.weight;
         this.arrivalTime = order.arrivalTime;
         this.serviceTime = 0.0;
@@ -115,6 +121,7 @@ public class Order implements Cloneable, Serializable {
         weight += product.getWeight();
         if (products.size() < numReferences) {
             products.add(product);
+            pickProfile = null;
         } else {
             throw new Exception("Limit exceeded. All products are already loaded.");
         }
@@ -322,4 +329,19 @@ public class Order implements Cloneable, Serializable {
     public List<Product> getProducts() {
         return products;
     }
+
+    /**
+     * Returns the pick profile of the products of the order.
+     * The profile is built on the first call and reused afterwards.
+     *
+     * @return The pick profile of the order.
+     */
+    public PickProfile getPickProfile() {
+        PickProfile profile = pickProfile;
+        if (profile == null) {
+            profile = PickProfile.of(this);
+            pickProfile = profile;
+        }
+        return profile;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,509 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.models;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Represents the pick locations of an order or a batch in a compact and immutable way.
+ * A pick profile stores the set of occupied aisles (as a bitset and as a sorted
+ * array) and, for each occupied aisle, the sorted distinct heights where items
+ * have to be picked together with the number of items at each height.
+ * This is all the information the routing algorithms need, so a batch can be
+ * routed from the union of the profiles of its orders without scanning every
+ * product again. The cost of merging two profiles depends on the number of
+ * occupied aisles and heights, not on the number of items.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public final class PickProfile implements Serializable {
+
+    /**
+     * Profile without pick locations.
+     */
+    public static final PickProfile EMPTY = new PickProfile(new long[0], new int[0], new int[]{0}, new double[0], new int[0], 0);
+
+    /**
+     * Bitset of the occupied aisles.
+     */
+    private final long[] aisleSet;
+
+    /**
+     * Occupied aisles sorted in ascending order.
+     */
+    private final int[] aisles;
+
+    /**
+     * First position in {@code heights} of each occupied aisle (one extra position as end marker).
+     */
+    private final int[] heightStart;
+
+    /**
+     * Sorted distinct heights of the pick locations, grouped by aisle.
+     */
+    private final double[] heights;
+
+    /**
+     * Number of items to pick at each pick location of {@code heights}.
+     */
+    private final int[] itemCount;
+
+    /**
+     * Total number of items to pick.
+     */
+    private final int numberOfItems;
+
+    /**
+     * Number of items to pick in each occupied aisle.
+     */
+    private final int[] aisleItemCount;
+
+    /**
+     * Largest distance between two consecutive heights of each occupied aisle
+     * (0 if the aisle has a single pick location).
+     */
+    private final double[] innerGap;
+
+    /**
+     * Constructs a new {@code PickProfile} from its internal arrays.
+     *
+     * @param aisleSet      Bitset of the occupied aisles.
+     * @param aisles        Occupied aisles sorted in ascending order.
+     * @param heightStart   First position of the heights of each aisle.
+     * @param heights       Sorted distinct heights grouped by aisle.
+     * @param itemCount     Number of items at each height.
+     * @param numberOfItems Total number of items.
+     */
+    private PickProfile(long[] aisleSet, int[] aisles, int[] heightStart, double[] heights, int[] itemCount, int numberOfItems) {
+        this.aisleSet = aisleSet;
+        this.aisles = aisles;
+        this.heightStart = heightStart;
+        this.heights = heights;
+        this.itemCount = itemCount;
+        this.numberOfItems = numberOfItems;
+        this.aisleItemCount = new int[aisles.length];
+        this.innerGap = new double[aisles.length];
+        for (int k = 0; k < aisles.length; k++) {
+            int count = itemCount[heightStart[k]];
+            double gap = 0;
+            for (int h = heightStart[k] + 1; h < heightStart[k + 1]; h++) {
+                count += itemCount[h];
+                gap = Math.max(gap, heights[h] - heights[h - 1]);
+            }
+            aisleItemCount[k] = count;
+            innerGap[k] = gap;
+        }
+    }
+
+    /**
+     * Builds the pick profile of the products of an order.
+     *
+     * @param order The order to process.
+     * @return The pick profile of the order.
+     */
+    public static PickProfile of(Order order) {
+        List<Product> products = order.getProducts();
+        if (products.isEmpty()) {
+            return EMPTY;
+        }
+        List<Product> sorted = new ArrayList<>(products);
+        sorted.sort(Comparator.comparingInt(Product::getAisle).thenComparingDouble(Product::getHeightPosition));
+
+        int size = sorted.size();
+        int[] aisles = new int[size];
+        int[] heightStart = new int[size + 1];
+        double[] heights = new double[size];
+        int[] itemCount = new int[size];
+        int numberOfAisles = 0;
+        int numberOfHeights = 0;
+        for (Product product : sorted) {
+            int aisle = product.getAisle();
+            double height = product.getHeightPosition();
+            if (numberOfAisles == 0 || aisles[numberOfAisles - 1] != aisle) {
+                aisles[numberOfAisles] = aisle;
+                heightStart[numberOfAisles] = numberOfHeights;
+                numberOfAisles++;
+            } else if (heights[numberOfHeights - 1] == height) {
+                itemCount[numberOfHeights - 1]++;
+                continue;
+            }
+            heights[numberOfHeights] = height;
+            itemCount[numberOfHeights] = 1;
+            numberOfHeights++;
+        }
+        heightStart[numberOfAisles] = numberOfHeights;
+
+        return new PickProfile(buildAisleSet(aisles, numberOfAisles), Arrays.copyOf(aisles, numberOfAisles),
+                Arrays.copyOf(heightStart, numberOfAisles + 1), Arrays.copyOf(heights, numberOfHeights),
+                Arrays.copyOf(itemCount, numberOfHeights), size);
+    }
+
+    /**
+     * Builds the pick profile of a list of orders as the union of the profiles of the orders.
+     *
+     * @param orders The orders to process.
+     * @return The pick profile of all the orders.
+     */
+    public static PickProfile of(List<Order> orders) {
+        PickProfile profile = EMPTY;
+        for (Order order : orders) {
+            profile = profile.merge(order.getPickProfile());
+        }
+        return profile;
+    }
+
+    /**
+     * Returns the union of this profile and another one. The number of items
+     * of the pick locations present in both profiles is added.
+     *
+     * @param other The profile to merge with.
+     * @return A new profile with the pick locations of both profiles.
+     */
+    public PickProfile merge(PickProfile other) {
+        if (other.isEmpty()) {
+            return this;
+        }
+        if (this.isEmpty()) {
+            return other;
+        }
+        int[] mergedAisles = new int[aisles.length + other.aisles.length];
+        int[] mergedStart = new int[mergedAisles.length + 1];
+        double[] mergedHeights = new double[heights.length + other.heights.length];
+        int[] mergedCount = new int[mergedHeights.length];
+        int numberOfAisles = 0;
+        int numberOfHeights = 0;
+
+        int i = 0;
+        int j = 0;
+        while (i < aisles.length || j < other.aisles.length) {
+            mergedStart[numberOfAisles] = numberOfHeights;
+            if (j == other.aisles.length || (i < aisles.length && aisles[i] < other.aisles[j])) {
+                mergedAisles[numberOfAisles++] = aisles[i];
+                numberOfHeights = copyHeights(this, i, mergedHeights, mergedCount, numberOfHeights);
+                i++;
+            } else if (i == aisles.length || other.aisles[j] < aisles[i]) {
+                mergedAisles[numberOfAisles++] = other.aisles[j];
+                numberOfHeights = copyHeights(other, j, mergedHeights, mergedCount, numberOfHeights);
+                j++;
+            } else {
+                mergedAisles[numberOfAisles++] = aisles[i];
+                int a = heightStart[i];
+                int b = other.heightStart[j];
+                while (a < heightStart[i + 1] || b < other.heightStart[j + 1]) {
+                    if (b == other.heightStart[j + 1] || (a < heightStart[i + 1] && heights[a] < other.heights[b])) {
+                        mergedHeights[numberOfHeights] = heights[a];
+                        mergedCount[numberOfHeights++] = itemCount[a++];
+                    } else if (a == heightStart[i + 1] || other.heights[b] < heights[a]) {
+                        mergedHeights[numberOfHeights] = other.heights[b];
+                        mergedCount[numberOfHeights++] = other.itemCount[b++];
+                    } else {
+                        mergedHeights[numberOfHeights] = heights[a];
+                        mergedCount[numberOfHeights++] = itemCount[a++] + other.itemCount[b++];
+                    }
+                }
+                i++;
+                j++;
+            }
+        }
+        mergedStart[numberOfAisles] = numberOfHeights;
+
+        long[] mergedSet = Arrays.copyOf(aisleSet, Math.max(aisleSet.length, other.aisleSet.length));
+        for (int w = 0; w < other.aisleSet.length; w++) {
+            mergedSet[w] |= other.aisleSet[w];
+        }
+
+        return new PickProfile(mergedSet, Arrays.copyOf(mergedAisles, numberOfAisles),
+                Arrays.copyOf(mergedStart, numberOfAisles + 1), Arrays.copyOf(mergedHeights, numberOfHeights),
+                Arrays.copyOf(mergedCount, numberOfHeights), numberOfItems + other.numberOfItems);
+    }
+
+    /**
+     * Returns the difference between this profile and another one. The number of
+     * items of the other profile is removed from each pick location, and the pick
+     * locations and aisles left without items are dropped. This is the inverse of
+     * {@link #merge(PickProfile)} when the other profile is part of this one.
+     *
+     * @param other The profile to remove.
+     * @return A new profile with the remaining pick locations.
+     */
+    public PickProfile subtract(PickProfile other) {
+        if (other.isEmpty() || this.isEmpty()) {
+            return this;
+        }
+        int[] remainingAisles = new int[aisles.length];
+        int[] remainingStart = new int[aisles.length + 1];
+        double[] remainingHeights = new double[heights.length];
+        int[] remainingCount = new int[heights.length];
+        int numberOfAisles = 0;
+        int numberOfHeights = 0;
+        int remainingItems = 0;
+
+        int j = 0;
+        for (int i = 0; i < aisles.length; i++) {
+            while (j < other.aisles.length && other.aisles[j] < aisles[i]) {
+                j++;
+            }
+            int firstHeight = numberOfHeights;
+            int b = (j < other.aisles.length && other.aisles[j] == aisles[i]) ? other.heightStart[j] : -1;
+            int bEnd = b == -1 ? -1 : other.heightStart[j + 1];
+            for (int a = heightStart[i]; a < heightStart[i + 1]; a++) {
+                int count = itemCount[a];
+                while (b != -1 && b < bEnd && other.heights[b] < heights[a]) {
+                    b++;
+                }
+                if (b != -1 && b < bEnd && other.heights[b] == heights[a]) {
+                    count -= other.itemCount[b];
+                }
+                if (count > 0) {
+                    remainingHeights[numberOfHeights] = heights[a];
+                    remainingCount[numberOfHeights++] = count;
+                    remainingItems += count;
+                }
+            }
+            if (numberOfHeights > firstHeight) {
+                remainingStart[numberOfAisles] = firstHeight;
+                remainingAisles[numberOfAisles++] = aisles[i];
+            }
+        }
+        remainingStart[numberOfAisles] = numberOfHeights;
+        if (numberOfAisles == 0) {
+            return EMPTY;
+        }
+
+        return new PickProfile(buildAisleSet(remainingAisles, numberOfAisles), Arrays.copyOf(remainingAisles, numberOfAisles),
+                Arrays.copyOf(remainingStart, numberOfAisles + 1), Arrays.copyOf(remainingHeights, numberOfHeights),
+                Arrays.copyOf(remainingCount, numberOfHeights), remainingItems);
+    }
+
+    /**
+     * Copies the heights of an aisle of a profile into the merge buffers.
+     *
+     * @param profile         The profile to copy from.
+     * @param index           The index of the aisle in the profile.
+     * @param heights         The buffer of merged heights.
+     * @param itemCount       The buffer of merged item counts.
+     * @param numberOfHeights The number of heights already in the buffers.
+     * @return The number of heights in the buffers after the copy.
+     */
+    private static int copyHeights(PickProfile profile, int index, double[] heights, int[] itemCount, int numberOfHeights) {
+        int from = profile.heightStart[index];
+        int length = profile.heightStart[index + 1] - from;
+        System.arraycopy(profile.heights, from, heights, numberOfHeights, length);
+        System.arraycopy(profile.itemCount, from, itemCount, numberOfHeights, length);
+        return numberOfHeights + length;
+    }
+
+    /**
+     * Builds the bitset of a list of aisles.
+     *
+     * @param aisles         The aisles sorted in ascending order.
+     * @param numberOfAisles The number of valid positions of {@code aisles}.
+     * @return The bitset of the aisles.
+     */
+    private static long[] buildAisleSet(int[] aisles, int numberOfAisles) {
+        if (numberOfAisles == 0) {
+            return new long[0];
+        }
+        long[] aisleSet = new long[(aisles[numberOfAisles - 1] >> 6) + 1];
+        for (int k = 0; k < numberOfAisles; k++) {
+            aisleSet[aisles[k] >> 6] |= 1L << aisles[k];
+        }
+        return aisleSet;
+    }
+
+    /**
+     * Checks if the profile has no pick locations.
+     *
+     * @return {@code true} if there are no items to pick, {@code false} otherwise.
+     */
+    public boolean isEmpty() {
+        return aisles.length == 0;
+    }
+
+    /**
+     * Checks if there are items to pick in an aisle.
+     *
+     * @param aisle The aisle to check.
+     * @return {@code true} if the aisle is occupied, {@code false} otherwise.
+     */
+    public boolean isOccupied(int aisle) {
+        int word = aisle >> 6;
+        return aisle >= 0 && word < aisleSet.length && (aisleSet[word] & (1L << aisle)) != 0;
+    }
+
+    /**
+     * Returns the total number of items to pick.
+     *
+     * @return The number of items.
+     */
+    public int getNumberOfItems() {
+        return numberOfItems;
+    }
+
+    /**
+     * Returns the number of occupied aisles.
+     *
+     * @return The number of aisles with items to pick.
+     */
+    public int getNumberOfOccupiedAisles() {
+        return aisles.length;
+    }
+
+    /**
+     * Returns the occupied aisle at a given index. Aisles are sorted in ascending order.
+     *
+     * @param index The index of the occupied aisle, between 0 and {@link #getNumberOfOccupiedAisles()} - 1.
+     * @return The aisle number.
+     */
+    public int getAisle(int index) {
+        return aisles[index];
+    }
+
+    /**
+     * Returns the lowest occupied aisle. The profile must not be empty.
+     *
+     * @return The lowest aisle number with items to pick.
+     */
+    public int getMinAisle() {
+        return aisles[0];
+    }
+
+    /**
+     * Returns the highest occupied aisle. The profile must not be empty.
+     *
+     * @return The highest aisle number with items to pick.
+     */
+    public int getMaxAisle() {
+        return aisles[aisles.length - 1];
+    }
+
+    /**
+     * Returns the index of an aisle among the occupied aisles.
+     *
+     * @param aisle The aisle number.
+     * @return The index of the aisle, or a negative value if the aisle is not occupied.
+     */
+    public int indexOfAisle(int aisle) {
+        return Arrays.binarySearch(aisles, aisle);
+    }
+
+    /**
+     * Returns the first position of the heights of an occupied aisle.
+     *
+     * @param index The index of the occupied aisle.
+     * @return The position of its lowest height, to be used with {@link #getHeight(int)}.
+     */
+    public int getHeightStart(int index) {
+        return heightStart[index];
+    }
+
+    /**
+     * Returns the position following the last height of an occupied aisle.
+     *
+     * @param index The index of the occupied aisle.
+     * @return The end position (exclusive) of its heights.
+     */
+    public int getHeightEnd(int index) {
+        return heightStart[index + 1];
+    }
+
+    /**
+     * Returns the height of a pick location.
+     *
+     * @param position The position of the pick location, between {@link #getHeightStart(int)}
+     *                 and {@link #getHeightEnd(int)} of its aisle.
+     * @return The height of the pick location.
+     */
+    public double getHeight(int position) {
+        return heights[position];
+    }
+
+    /**
+     * Returns the number of items to pick at a pick location.
+     *
+     * @param position The position of the pick location.
+     * @return The number of items at that location.
+     */
+    public int getItemCount(int position) {
+        return itemCount[position];
+    }
+
+    /**
+     * Returns the number of items to pick in an occupied aisle.
+     *
+     * @param index The index of the occupied aisle.
+     * @return The number of items of the aisle.
+     */
+    public int getAisleItemCount(int index) {
+        return aisleItemCount[index];
+    }
+
+    /**
+     * Returns the largest distance between two consecutive pick locations of an occupied aisle.
+     * The distances from the floor to the lowest location and from the highest location
+     * to the end of the shelf are not included.
+     *
+     * @param index The index of the occupied aisle.
+     * @return The largest inner gap of the aisle, or 0 if it has a single pick location.
+     */
+    public double getInnerGap(int index) {
+        return innerGap[index];
+    }
+
+    /**
+     * Returns the lowest height of an occupied aisle.
+     *
+     * @param index The index of the occupied aisle.
+     * @return The lowest height with items to pick.
+     */
+    public double getMinHeight(int index) {
+        return heights[heightStart[index]];
+    }
+
+    /**
+     * Returns the highest height of an occupied aisle.
+     *
+     * @param index The index of the occupied aisle.
+     * @return The highest height with items to pick.
+     */
+    public double getMaxHeight(int index) {
+        return heights[heightStart[index + 1] - 1];
+    }
+
+    /**
+     * Returns a string representation of the profile.
+     *
+     * @return A string representation of the profile.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Number of items: ").append(numberOfItems).append("\n");
+        for (int k = 0; k < aisles.length; k++) {
+            sb.append("Aisle ").append(aisles[k]).append(": ");
+            sb.append(Arrays.toString(Arrays.copyOfRange(heights, heightStart[k], heightStart[k + 1]))).append("\n");
+        }
+        return sb.toString();
+    }
+}
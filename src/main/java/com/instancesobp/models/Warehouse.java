@@ -135,6 +135,13 @@ public class Warehouse implements Serializable {
      */
     private int operationalHours = 4;
 
+    /**
+     * Number of blocks of the aisles. The shelves are split into blocks of equal
+     * length separated by middle cross aisles of width {@code aisleWidth}. Only the
+     * multi-block routing algorithms use it; the default layout has a single block.
+     */
+    private int numberOfBlocks = 1;
+
     /**
      * Default constructor for the Warehouse class.
      * Initializes empty lists for aisles and orders.
@@ -263,6 +270,7 @@ public class Warehouse implements Serializable {
         sb.append("Outside turn time: ").append(this.outsideTurnTime).append("\n");
         sb.append("Inside turn time: ").append(this.insideTurnTime).append("\n");
         sb.append("Depot time: ").append(this.depotTime).append("\n");
+        sb.append("Number of blocks: ").append(this.numberOfBlocks).append("\n");
         sb.append("** Aisle definitions: ").append("\n");
         for (Aisles aisle : aisles) {
             sb.append(aisle.toString()).append(" ******* \n");
@@ -543,4 +551,45 @@ public class Warehouse implements Serializable {
     public void setOperationalHours(int operationalHours) {
         this.operationalHours = operationalHours;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the number of blocks of the aisles.
+     *
+     * @return The number of blocks.
+     */
+    public int getNumberOfBlocks() {
+        return numberOfBlocks;
+    }
+
+    /**
+     * Sets the number of blocks of the aisles.
+     *
+     * @param numberOfBlocks The number of blocks to set (at least 1).
+     */
+    public void setNumberOfBlocks(int numberOfBlocks) {
+        if (numberOfBlocks < 1) {
+            throw new IllegalArgumentException("The number of blocks must be at least 1. [Warehouse.setNumberOfBlocks]");
+        }
+        this.numberOfBlocks = numberOfBlocks;
+    }
+
+    /**
+     * Gets the length of the shelves of each block.
+     *
+     * @return The shelf length of a block.
+     */
+    public double getBlockLength() {
+        return shelfLength / numberOfBlocks;
+    }
+
+    /**
+     * Gets the block of a height position of an aisle.
+     *
+     * @param heightPosition The height position in the aisle.
+     * @return The index of the block, from 0 (front block) to {@code numberOfBlocks - 1}.
+     */
+    public int getBlock(double heightPosition) {
+        int block = (int) (heightPosition / getBlockLength());
+        return Math.max(0, Math.min(numberOfBlocks - 1, block));
+    }
+}
@@ -62,6 +62,7 @@ public class MaxThroughoutTime extends ObjectiveFunction {
     @Override
     public double run(List<Batch> batchList) throws Exception {
         now = System.currentTimeMillis(); // Capture the current system time.
+        updateServiceTimes(batchList); // Calculate the pending service times in one step.
         double maxThroughputTime = 0; // Variable to store the maximum throughput time.
         double serviceTimeAccumulate = 0; // Accumulator for the total service time.
 
@@ -19,6 +19,7 @@
 package com.instancesobp.objectiveFunction;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 import com.instancesobp.models.Batch;
@@ -99,4 +100,28 @@ public abstract class ObjectiveFunction implements Serializable {
      */
     public abstract double run(Batch batch) throws Exception;
 
-}
\ No newline at end of file
+    /**
+     * Calculates the service time of all the batches of a list whose service time
+     * has not been calculated yet. The pending batches are routed in one step with
+     * {@link RoutingAlgorithm#runAll(List)}, so they are routed in parallel when the
+     * routing algorithm is configured to do so.
+     *
+     * @param batchList The list of batches to be processed.
+     */
+    protected void updateServiceTimes(List<Batch> batchList) {
+        List<Batch> pendingBatches = new ArrayList<>();
+        for (Batch batch : batchList) {
+            if (batch.getServiceTime() == 0) {
+                pendingBatches.add(batch);
+            }
+        }
+        if (pendingBatches.isEmpty()) {
+            return;
+        }
+        double[] serviceTimes = routingAlgorithm.runAll(pendingBatches);
+        for (int i = 0; i < serviceTimes.length; i++) {
+            pendingBatches.get(i).setServiceTime(serviceTimes[i]);
+        }
+    }
+
+}
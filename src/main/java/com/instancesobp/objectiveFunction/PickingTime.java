@@ -57,6 +57,7 @@ public class PickingTime extends ObjectiveFunction {
      */
     @Override
     public double run(List<Batch> batchList) throws Exception {
+        updateServiceTimes(batchList); // Calculate the pending service times in one step.
         double pickingTime = 0; // Accumulator for the total picking time.
         for (Batch batch : batchList) {
             pickingTime += this.run(batch); // Calculate and add the picking time for each batch.
@@ -60,6 +60,7 @@ public class PickingTimeByWeight extends ObjectiveFunction {
      */
     @Override
     public double run(List<Batch> batchList) throws Exception {
+        updateServiceTimes(batchList); // Calculate the pending service times in one step.
         // Accumulator for the total picking time by the weight of the batch.
         double totalPickingTime = 0;
         double totalWeight = 0;
@@ -46,6 +46,7 @@ public class SumAbsoluteDiffBatchTimes extends ObjectiveFunction {
      */
     @Override
     public double run(List<Batch> batchList) throws Exception {
+        updateServiceTimes(batchList); // Calculate the pending service times in one step.
         double totalPickingTime = 0; // Accumulator for the total picking time.
 
         // Calculate the total picking time for all batches.
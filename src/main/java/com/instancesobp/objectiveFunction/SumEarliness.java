@@ -66,6 +66,7 @@ public class SumEarliness extends ObjectiveFunction {
     @Override
     public double run(List<Batch> batchList) throws Exception {
         now = System.currentTimeMillis(); // Capture the current system time.
+        updateServiceTimes(batchList); // Calculate the pending service times in one step.
         double serviceTimeAccumulate = 0; // Accumulator for the total service time.
         double totalEarliness = 0; // Variable to store the total earliness.
 
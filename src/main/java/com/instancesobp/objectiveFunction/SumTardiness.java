@@ -66,6 +66,7 @@ public class SumTardiness extends ObjectiveFunction {
     @Override
     public double run(List<Batch> batchList) throws Exception {
         now = System.currentTimeMillis(); // Capture the current system time.
+        updateServiceTimes(batchList); // Calculate the pending service times in one step.
         double serviceTimeAccumulate = 0; // Accumulator for the total service time.
         double totalTardiness = 0; // Variable to store the total tardiness.
 
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+
+import static com.instancesobp.utils.Constants.DEPOT_CORNER;
+
+/**
+ * Splits the pick locations of a pick profile into the blocks of a multi-block warehouse.
+ * Each occupied aisle is divided into one sub-aisle per block. For every sub-aisle the
+ * summary keeps the number of pick locations, the lowest and highest heights and the
+ * largest gap between consecutive heights, all measured from the front of the block.
+ * This is all the information the multi-block routing algorithms need.
+ * <p>
+ * The geometry follows the single-block algorithms: the centres of two consecutive
+ * aisles are {@code shelfWidth + aisleWidth} apart, and traversing a sub-aisle from the
+ * centre of one cross aisle to the centre of the next one costs {@code blockLength + aisleWidth}.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+final class BlockSegments {
+
+    /** Number of blocks of the warehouse. */
+    final int numberOfBlocks;
+
+    /** Length of the shelves of a block. */
+    final double blockLength;
+
+    /** Occupied aisles sorted in ascending order. */
+    final int[] aisles;
+
+    /** Number of pick locations of each sub-aisle, indexed by {@code aisleIndex * numberOfBlocks + block}. */
+    final int[] count;
+
+    /** Lowest height of each sub-aisle, from the front of the block. */
+    final double[] minHeight;
+
+    /** Highest height of each sub-aisle, from the front of the block. */
+    final double[] maxHeight;
+
+    /** Largest gap between consecutive heights of each sub-aisle. */
+    final double[] innerGap;
+
+    /** Highest block with pick locations. */
+    final int farthestBlock;
+
+    /**
+     * Constructs the summary of a pick profile. The profile must not be empty.
+     *
+     * @param profile   The pick profile to split.
+     * @param warehouse The warehouse with the block structure.
+     */
+    BlockSegments(PickProfile profile, Warehouse warehouse) {
+        numberOfBlocks = warehouse.getNumberOfBlocks();
+        blockLength = warehouse.getBlockLength();
+        int numberOfAisles = profile.getNumberOfOccupiedAisles();
+        aisles = new int[numberOfAisles];
+        count = new int[numberOfAisles * numberOfBlocks];
+        minHeight = new double[count.length];
+        maxHeight = new double[count.length];
+        innerGap = new double[count.length];
+
+        int farthest = 0;
+        for (int i = 0; i < numberOfAisles; i++) {
+            aisles[i] = profile.getAisle(i);
+            for (int position = profile.getHeightStart(i); position < profile.getHeightEnd(i); position++) {
+                int block = warehouse.getBlock(profile.getHeight(position));
+                double height = profile.getHeight(position) - (block * blockLength);
+                int segment = (i * numberOfBlocks) + block;
+                if (count[segment] == 0) {
+                    minHeight[segment] = height;
+                } else {
+                    innerGap[segment] = Math.max(innerGap[segment], height - maxHeight[segment]);
+                }
+                maxHeight[segment] = height;
+                count[segment]++;
+                farthest = Math.max(farthest, block);
+            }
+        }
+        farthestBlock = farthest;
+    }
+
+    /**
+     * Returns the index of a sub-aisle.
+     *
+     * @param aisleIndex The index of the aisle among the occupied aisles.
+     * @param block      The block.
+     * @return The index of the sub-aisle in the summary arrays.
+     */
+    int segment(int aisleIndex, int block) {
+        return (aisleIndex * numberOfBlocks) + block;
+    }
+
+    /**
+     * Returns the horizontal position of the depot, in aisle units.
+     * The depot lies on the front cross aisle, at the first aisle or at the centre of the warehouse.
+     *
+     * @param warehouse The warehouse.
+     * @return The position of the depot; it is halfway between two aisles in a central
+     * depot with an even number of aisles.
+     */
+    static double depotPosition(Warehouse warehouse) {
+        if (warehouse.getDepotPlacement() == DEPOT_CORNER) {
+            return 0;
+        }
+        if (warehouse.getNumberOfAisles() % 2 != 0) {
+            return ((warehouse.getNumberOfAisles() + 1) / 2) - 1;
+        }
+        return (warehouse.getNumberOfAisles() / 2) - 0.5;
+    }
+}
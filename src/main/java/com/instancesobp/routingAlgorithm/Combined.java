@@ -18,15 +18,9 @@
  */
 package com.instancesobp.routingAlgorithm;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-
 import com.instancesobp.models.Batch;
 import com.instancesobp.models.Order;
-import com.instancesobp.models.Product;
+import com.instancesobp.models.PickProfile;
 import com.instancesobp.models.Warehouse;
 import com.instancesobp.utils.Constants;
 
@@ -60,211 +54,180 @@ public class Combined extends RoutingAlgorithm {
     }
 
     /**
-     * Executes the Combined routing algorithm for a given batch of orders.
+     * Executes the Combined routing algorithm for the pick locations of a pick profile.
      * This method calculates the total distance traveled by the picker to collect
-     * all items in the batch. It considers the warehouse layout, aisle gaps, and
+     * all items of the profile. It considers the warehouse layout, aisle gaps, and
      * item locations, as well as turn times and depot placement.
      *
-     * @param batch The batch of orders to be processed.
-     * @return The total distance traveled by the picker to collect all items in the batch.
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total distance traveled by the picker to collect all items of the profile.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        return route(ProfileSweep.of(profile));
+    }
+
+    /**
+     * Calculates the Combined distance if an order is added to a batch, without
+     * copying the batch. Only the aisles shared by the batch and the order scan their heights.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to add.
+     * @return The total distance traveled by the picker to collect all items of the batch and the order.
+     */
+    @Override
+    public double costIfAdded(Batch batch, Order order) {
+        return route(ProfileSweep.union(batch.getPickProfile(), order.getPickProfile()));
+    }
+
+    /**
+     * Calculates the Combined distance if an order is removed from a batch, without
+     * copying the batch. Only the aisles shared by the batch and the order scan their heights.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to remove.
+     * @return The total distance traveled by the picker to collect the remaining items of the batch.
+     */
+    @Override
+    public double costIfRemoved(Batch batch, Order order) {
+        return route(ProfileSweep.difference(batch.getPickProfile(), order.getPickProfile()));
+    }
+
+    /**
+     * Calculates the Combined distance if two batches are merged, without copying them.
+     * Only the aisles shared by both batches scan their heights.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return The total distance traveled by the picker to collect all items of both batches.
      */
     @Override
-    public double run(Batch batch) {
-        if (batch.getOrders().isEmpty()) {
+    public double costIfMerged(Batch batch1, Batch batch2) {
+        return route(ProfileSweep.union(batch1.getPickProfile(), batch2.getPickProfile()));
+    }
+
+    /**
+     * Calculates the Combined distance of the pick locations given by a profile sweep.
+     * The aisles are visited in ascending order, since the decision taken in
+     * each aisle depends on the side of the aisles where the picker is.
+     *
+     * @param sweep The sweep of the pick locations to collect.
+     * @return The total distance traveled by the picker to collect all items.
+     */
+    private double route(ProfileSweep sweep) {
+        if (sweep.isEmpty()) {
             return 0;
         }
         double distancia = 0;
-        int max_pasillo = 0;
-        int min_pasillo = Integer.MAX_VALUE;
+        int max_pasillo = sweep.getMaxAisle();
+        int min_pasillo = sweep.getMinAisle();
         double tiempo_giros = 0.0;
-        int num_items = 0;
-
-        // HashMaps to store aisle information and maximum distances
-        HashMap<Integer, List<Double>> Pasillos_max_dis = new HashMap<>();
-        HashMap<Integer, Double> Pasillos_max_dis_com = new HashMap<>();
-
-        //Precálculo de distancias en hashtable
-        for (Order order : batch.getOrders()) {
-            for (Product p : order.getProducts()) {
-                num_items++;
-                if (Pasillos_max_dis.containsKey(p.getAisle())) {
-                    List<Double> lista_alturas = Pasillos_max_dis.get(p.getAisle());
-                    if (!lista_alturas.contains(p.getHeightPosition())) {
-                        lista_alturas.add(p.getHeightPosition());
-                        Pasillos_max_dis.replace(p.getAisle(), lista_alturas);
-                    }
-                    if (Pasillos_max_dis_com.get(p.getAisle()) < p.getHeightPosition()) {
-                        Pasillos_max_dis_com.replace(p.getAisle(), p.getHeightPosition());
-                    }
-                } else {
-                    List<Double> lista_alturas;
-                    lista_alturas = new ArrayList<>();
-                    lista_alturas.add(p.getHeightPosition());
-                    lista_alturas.add(0.0);
-                    lista_alturas.add(wh.getShelfLength());
-                    Pasillos_max_dis.put(p.getAisle(), lista_alturas);
-                    Pasillos_max_dis_com.put(p.getAisle(), p.getHeightPosition());
-                    if (max_pasillo < p.getAisle()) {
-                        max_pasillo = p.getAisle();
-                    }
-                    if (min_pasillo > p.getAisle()) {
-                        min_pasillo = p.getAisle();
-                    }
-
-                }
-            }
-        }
-
-        HashMap<Integer, Integer> Pasillos_gap_locate = new HashMap<>();
+        int num_items = sweep.getNumberOfItems();
+        int num_pasillos = sweep.getNumberOfOccupiedAisles();
+        int num_gaps = 0;
+        int num_gap_medio = 0;
 
         //Cálculo de distancia en los pasillos principales
-        if (Pasillos_max_dis.size() > 2) {
-            int aislePosition = 1;
-            distancia = (wh.getAisleWidth() + wh.getShelfLength());
-            ArrayList<Integer> aisleList = new ArrayList<>(Pasillos_max_dis.keySet());
-            Collections.sort(aisleList);
-            Iterator<Integer> aisleIterator = aisleList.iterator();
-            while (aisleIterator.hasNext()) {
-                int pasillo = aisleIterator.next();
-                if (pasillo != min_pasillo) {
-                    List<Double> lista_alturas = Pasillos_max_dis.get(pasillo);
-                    Collections.sort(lista_alturas);
-
-                    double max_gap = 0;
-                    for (int i = 1; i < lista_alturas.size(); i++) {
-                        double dd = lista_alturas.get(i) - lista_alturas.get(i - 1);
-                        if (max_gap < dd) {
-                            if (i == 1) {
-                                Pasillos_gap_locate.put(pasillo, GAP_BEGINNING);
-                            } else if (i == lista_alturas.size() - 1) {
-                                Pasillos_gap_locate.put(pasillo, GAP_END);
-                            } else {
-                                Pasillos_gap_locate.put(pasillo, GAP_MIDDLE);
-                            }
-                            max_gap = dd;
-                        }
-                    }
-                    double pasillo_extra_gag_medio = 0;
-                    if (Pasillos_gap_locate.get(pasillo) == GAP_MIDDLE) {
-                        pasillo_extra_gag_medio = wh.getAisleWidth();
-                    }
-
-                    if (!aisleIterator.hasNext() && aislePosition % 2 == 0) {
-                        distancia += wh.getAisleWidth() + (Pasillos_max_dis_com.get(max_pasillo) * 2);
-                    } else if (!aisleIterator.hasNext()) {
-                        distancia += (wh.getAisleWidth() + wh.getShelfLength());
-                        Pasillos_gap_locate.put(pasillo, WITHOUT_GAP);
-
-                    } else if ((aislePosition % 2 == 0 && Pasillos_gap_locate.get(pasillo) == GAP_END && (wh.getShelfLength() > (wh.getShelfLength() - max_gap) * 2))
-                            || (aislePosition % 2 == 1 && (wh.getShelfLength() > ((wh.getShelfLength() - max_gap) * 2) + pasillo_extra_gag_medio))) {
-
-                        distancia += wh.getAisleWidth() + ((wh.getShelfLength() - max_gap) * 2);
-                        if (Pasillos_gap_locate.get(pasillo) == GAP_MIDDLE) {
-                            distancia += wh.getAisleWidth();
-                        }
-                    } else {
-                        distancia += (wh.getAisleWidth() + wh.getShelfLength());
-                        Pasillos_gap_locate.put(pasillo, WITHOUT_GAP);
-
-                        aislePosition++;
-                    }
+        if (num_pasillos > 2) {
+            AisleWalk walk = new AisleWalk();
+            while (sweep.next()) {
+                if (sweep.getAisle() == min_pasillo) {
+                    continue;
                 }
-
+                walk.visit(sweep.getMinHeight(), sweep.getMaxHeight(), sweep.getInnerGap(), sweep.getAisle() == max_pasillo);
             }
-        } else if (Pasillos_max_dis.size() > 1) {
+            distancia = walk.getDistance();
+            num_gaps = walk.getGaps();
+            num_gap_medio = walk.getMiddleGaps();
+        } else if (num_pasillos > 1) {
             distancia = ((wh.getAisleWidth() + wh.getShelfLength()) * 2);
         } else {
-            for (List<Double> lista_alturas : Pasillos_max_dis.values()) {
-                Collections.sort(lista_alturas);
-                distancia = wh.getAisleWidth() + (Pasillos_max_dis_com.get(max_pasillo) * 2);
-            }
+            sweep.load(min_pasillo);
+            distancia = wh.getAisleWidth() + (sweep.getMaxHeight() * 2);
         }
 
         //cálculo de distancia en pasillos transversales
+        distancia = addTransversalAisles(distancia, min_pasillo, max_pasillo);
+
+        //tiempo_giros = calculateTurnTime(num_pasillos, min_pasillo, num_gaps, num_gap_medio, max_pasillo);
+
+        return (distancia * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * num_items) + tiempo_giros;
+
+    }
+
+    /**
+     * Adds the distance travelled in the transversal aisles, from the depot to the
+     * first and the last occupied aisles and back.
+     *
+     * @param totalDistance The distance travelled in the main aisles.
+     * @param minAisle      The lowest occupied aisle.
+     * @param maxAisle      The highest occupied aisle.
+     * @return The total distance travelled.
+     */
+    double addTransversalAisles(double totalDistance, int minAisle, int maxAisle) {
         if (wh.getDepotPlacement() == DEPOT_CORNER) {
-            distancia += ((wh.getAisleWidth() + wh.getShelfWidth()) * (max_pasillo) * 2);
+            totalDistance += ((wh.getAisleWidth() + wh.getShelfWidth()) * (maxAisle) * 2);
         } else if (wh.getNumberOfAisles() % 2 == 0) {
             int a = wh.getNumberOfAisles() / 2;
-            distancia += ((wh.getAisleWidth() + wh.getShelfWidth()) * (max_pasillo - min_pasillo) * 2);
-            if (a <= min_pasillo) {
-                distancia += (((wh.getAisleWidth() + wh.getShelfWidth()) / 2) + ((wh.getAisleWidth() + wh.getShelfWidth()) * (min_pasillo - a))) * 2;
-            } else if (a > max_pasillo) {
-                distancia += (((wh.getAisleWidth() + wh.getShelfWidth()) / 2) + ((wh.getAisleWidth() + wh.getShelfWidth()) * (a - max_pasillo))) * 2;
+            totalDistance += ((wh.getAisleWidth() + wh.getShelfWidth()) * (maxAisle - minAisle) * 2);
+            if (a <= minAisle) {
+                totalDistance += (((wh.getAisleWidth() + wh.getShelfWidth()) / 2) + ((wh.getAisleWidth() + wh.getShelfWidth()) * (minAisle - a))) * 2;
+            } else if (a > maxAisle) {
+                totalDistance += (((wh.getAisleWidth() + wh.getShelfWidth()) / 2) + ((wh.getAisleWidth() + wh.getShelfWidth()) * (a - maxAisle))) * 2;
             }
         } else {
             int a = wh.getNumberOfAisles() / 2;
-            distancia += ((wh.getAisleWidth() + wh.getShelfWidth()) * (max_pasillo - min_pasillo) * 2);
-            if (a <= min_pasillo) {
-                distancia += ((wh.getAisleWidth() + wh.getShelfWidth()) * (min_pasillo - a)) * 2;
-            } else if (a > max_pasillo) {
-                distancia += ((wh.getAisleWidth() + wh.getShelfWidth()) * (a - max_pasillo)) * 2;
+            totalDistance += ((wh.getAisleWidth() + wh.getShelfWidth()) * (maxAisle - minAisle) * 2);
+            if (a <= minAisle) {
+                totalDistance += ((wh.getAisleWidth() + wh.getShelfWidth()) * (minAisle - a)) * 2;
+            } else if (a > maxAisle) {
+                totalDistance += ((wh.getAisleWidth() + wh.getShelfWidth()) * (a - maxAisle)) * 2;
             }
         }
-
-        //tiempo_giros = calculateTurnTime(Pasillos_max_dis, min_pasillo, Pasillos_gap_locate, max_pasillo);
-
-        return (distancia * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * num_items) + tiempo_giros;
-
+        return totalDistance;
     }
 
     /**
      * Calculates the total turn time based on the aisle configuration and gap locations.
      *
-     * @param Pasillos_max_dis    A map of aisle numbers to their respective heights.
-     * @param min_pasillo         The minimum aisle number.
-     * @param Pasillos_gap_locate A map of aisle numbers to their gap locations.
-     * @param max_pasillo         The maximum aisle number.
+     * @param num_pasillos  The number of aisles with items.
+     * @param min_pasillo   The minimum aisle number.
+     * @param num_gaps      The number of aisles traversed by their largest gap.
+     * @param num_gap_medio The number of aisles with the largest gap in the middle.
+     * @param max_pasillo   The maximum aisle number.
      * @return The total turn time.
      */
-    private double calculateTurnTime(HashMap<Integer, List<Double>> Pasillos_max_dis, int min_pasillo, HashMap<Integer, Integer> Pasillos_gap_locate, int max_pasillo) {
+    private double calculateTurnTime(int num_pasillos, int min_pasillo, int num_gaps, int num_gap_medio, int max_pasillo) {
         double tiempo_giros;
-        int num_shape_path = 0;
-        for (int aisleType : Pasillos_gap_locate.values()) {
-            if (aisleType == WITHOUT_GAP) {
-                num_shape_path++;
-            }
-        }
 
         //cálculo el número de giros
         if (wh.getDepotPlacement() == Constants.DEPOT_CORNER) {
             // Depot en una esquina
 
-            if (Pasillos_max_dis.size() == 1) {
+            if (num_pasillos == 1) {
                 tiempo_giros = wh.getInsideTurnTime();
                 if (min_pasillo != 0) {
                     tiempo_giros += (2 * wh.getOutsideTurnTime());
                 }
             } else {
-                tiempo_giros = (Pasillos_max_dis.size() * 2 * wh.getOutsideTurnTime());
-                tiempo_giros += ((Pasillos_gap_locate.size() - num_shape_path) * 2 * wh.getInsideTurnTime());
+                tiempo_giros = (num_pasillos * 2 * wh.getOutsideTurnTime());
+                tiempo_giros += (num_gaps * 2 * wh.getInsideTurnTime());
                 if (min_pasillo == 0) {
                     tiempo_giros -= wh.getOutsideTurnTime();
                 }
-                int num_gap_medio = 0;
-                for (Integer gap_location : Pasillos_gap_locate.values()) {
-                    if (gap_location == 1) {
-                        num_gap_medio++;
-                    }
-                }
                 tiempo_giros += (num_gap_medio * 2 * wh.getOutsideTurnTime());
                 tiempo_giros += (num_gap_medio * wh.getInsideTurnTime());
             }
         } else {
             //Depot central
-            if ((min_pasillo == (Pasillos_max_dis.size() / 2) + 1) && (max_pasillo == (Pasillos_max_dis.size() / 2) + 1)) {
+            if ((min_pasillo == (num_pasillos / 2) + 1) && (max_pasillo == (num_pasillos / 2) + 1)) {
                 tiempo_giros = wh.getInsideTurnTime();
             } else {
-                tiempo_giros = (Pasillos_max_dis.size() * 2 * wh.getOutsideTurnTime());
-                tiempo_giros += ((Pasillos_gap_locate.size() - num_shape_path) * 2 * wh.getInsideTurnTime());
-                if ((min_pasillo == (Pasillos_max_dis.size() / 2) + 1) || (max_pasillo == (Pasillos_max_dis.size() / 2) + 1)) {
+                tiempo_giros = (num_pasillos * 2 * wh.getOutsideTurnTime());
+                tiempo_giros += (num_gaps * 2 * wh.getInsideTurnTime());
+                if ((min_pasillo == (num_pasillos / 2) + 1) || (max_pasillo == (num_pasillos / 2) + 1)) {
                     tiempo_giros -= wh.getOutsideTurnTime();
                 }
-                int num_gap_medio = 0;
-                for (Integer gap_location : Pasillos_gap_locate.values()) {
-                    if (gap_location == 1) {
-                        num_gap_medio++;
-                    }
-                }
                 tiempo_giros += (num_gap_medio * 2 * wh.getOutsideTurnTime());
                 tiempo_giros += (num_gap_medio * wh.getInsideTurnTime());
 
@@ -273,4 +236,103 @@ public class Combined extends RoutingAlgorithm {
         return tiempo_giros;
     }
 
+    /**
+     * Walk through the occupied aisles after the first one, in ascending order.
+     * The decision taken in each aisle depends on the side of the aisles where the
+     * picker is, so the aisles must be visited in order.
+     */
+    final class AisleWalk {
+
+        /** Distance travelled in the main aisles, starting with the traversal of the first aisle. */
+        private double distancia = wh.getAisleWidth() + wh.getShelfLength();
+
+        /** Number of aisles traversed completely so far, plus one. */
+        private int aislePosition = 1;
+
+        /** Number of aisles traversed by their largest gap. */
+        private int num_gaps;
+
+        /** Number of aisles with the largest gap in the middle. */
+        private int num_gap_medio;
+
+        /**
+         * Visits the next occupied aisle.
+         *
+         * @param minHeight The lowest height of the aisle.
+         * @param maxHeight The highest height of the aisle.
+         * @param innerGap  The largest gap between consecutive heights of the aisle.
+         * @param lastAisle Indicates whether the aisle is the last occupied one.
+         */
+        void visit(double minHeight, double maxHeight, double innerGap, boolean lastAisle) {
+            // El mayor hueco es el del suelo, uno interior o el del final de la estantería.
+            double max_gap = minHeight;
+            int gap_locate = GAP_BEGINNING;
+            if (max_gap < innerGap) {
+                max_gap = innerGap;
+                gap_locate = GAP_MIDDLE;
+            }
+            if (max_gap < wh.getShelfLength() - maxHeight) {
+                max_gap = wh.getShelfLength() - maxHeight;
+                gap_locate = GAP_END;
+            }
+            double pasillo_extra_gag_medio = 0;
+            if (gap_locate == GAP_MIDDLE) {
+                pasillo_extra_gag_medio = wh.getAisleWidth();
+            }
+
+            if (lastAisle && aislePosition % 2 == 0) {
+                distancia += wh.getAisleWidth() + (maxHeight * 2);
+            } else if (lastAisle) {
+                distancia += (wh.getAisleWidth() + wh.getShelfLength());
+                gap_locate = WITHOUT_GAP;
+
+            } else if ((aislePosition % 2 == 0 && gap_locate == GAP_END && (wh.getShelfLength() > (wh.getShelfLength() - max_gap) * 2))
+                    || (aislePosition % 2 == 1 && (wh.getShelfLength() > ((wh.getShelfLength() - max_gap) * 2) + pasillo_extra_gag_medio))) {
+
+                distancia += wh.getAisleWidth() + ((wh.getShelfLength() - max_gap) * 2);
+                if (gap_locate == GAP_MIDDLE) {
+                    distancia += wh.getAisleWidth();
+                }
+            } else {
+                distancia += (wh.getAisleWidth() + wh.getShelfLength());
+                gap_locate = WITHOUT_GAP;
+
+                aislePosition++;
+            }
+
+            if (gap_locate != WITHOUT_GAP) {
+                num_gaps++;
+            }
+            if (gap_locate == GAP_MIDDLE) {
+                num_gap_medio++;
+            }
+        }
+
+        /**
+         * Returns the distance travelled in the main aisles visited so far.
+         *
+         * @return The distance of the walk.
+         */
+        double getDistance() {
+            return distancia;
+        }
+
+        /**
+         * Returns the number of aisles traversed by their largest gap.
+         *
+         * @return The number of gaps.
+         */
+        int getGaps() {
+            return num_gaps;
+        }
+
+        /**
+         * Returns the number of aisles with the largest gap in the middle.
+         *
+         * @return The number of middle gaps.
+         */
+        int getMiddleGaps() {
+            return num_gap_medio;
+        }
+    }
 }
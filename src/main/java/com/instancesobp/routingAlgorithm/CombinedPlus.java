@@ -18,13 +18,7 @@
  */
 package com.instancesobp.routingAlgorithm;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
-
-import com.instancesobp.models.Batch;
-import com.instancesobp.models.Order;
-import com.instancesobp.models.Product;
+import com.instancesobp.models.PickProfile;
 import com.instancesobp.models.Warehouse;
 import com.instancesobp.utils.Constants;
 
@@ -35,6 +29,8 @@ import com.instancesobp.utils.Constants;
  * and routing strategies.
  * The algorithm uses a combination of strategies to minimize the total travel time
  * and optimize the picking process.
+ * The route selected for each aisle is kept in local arrays of the call, so one
+ * instance can be shared by several threads.
  * TODO: Add timeTurn to the algorithm.
  *
  * @author Sergio Gil Borrás
@@ -52,23 +48,19 @@ public class CombinedPlus extends RoutingAlgorithm {
     }
 
     /**
-     * Executes the CombinedPlus routing algorithm for a given batch of orders.
-     * This method calculates the total time required to pick all items in the batch.
+     * Executes the CombinedPlus routing algorithm for the pick locations of a pick profile.
+     * This method calculates the total time required to pick all items of the profile.
      *
-     * @param batch The batch of orders to be processed.
-     * @return The total time required to pick all items in the batch.
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total time required to pick all items of the profile.
      */
     @Override
-    public double run(Batch batch) {
-        if (batch.getOrders().isEmpty()) {
-            return 0;// If the batch is empty, no time is consumed.
-        }
-        ArrayList<Product> LP = new ArrayList<>();
-        for (Order pedido : batch.getOrders()) {
-            LP.addAll(pedido.getProducts());
+    public double run(PickProfile profile) {
+        if (profile.isEmpty()) {
+            return 0;// If the profile is empty, no time is consumed.
         }
 
-        return timeForTheseItems(LP);
+        return timeForTheseItems(profile);
     }
 
     /**
@@ -81,35 +73,40 @@ public class CombinedPlus extends RoutingAlgorithm {
     private final double totalShelvesLong = wh.getShelfLength() + extraToShelf;
 
     /**
-     * Calculates the total time required to pick a list of items.
+     * Calculates the total time required to pick the items of a pick profile.
      *
-     * @param allItems The list of items to be picked.
+     * @param profile The pick profile with the items to be picked.
      * @return The total time required to pick the items.
      */
-    protected double timeForTheseItems(List<Product> allItems) {
-        double timeConsumed = 0.0;
-
-        boolean[] arrayOfAisles = new boolean[wh.getNumberOfAisles()];
-
-        int firstAisle = Integer.MAX_VALUE;
-        int lastAisle = Integer.MIN_VALUE;
-        int numberOfAislesOccupied = 0;
-
-        // Determine the range of aisles occupied by the items.
-        for (Product it : allItems) {
-            int aisle = it.getAisle();
-            if (aisle < firstAisle) {
-                firstAisle = aisle;
-            }
-            if (aisle > lastAisle) {
-                lastAisle = aisle;
-            }
-
-            if (!arrayOfAisles[aisle]) {
-                numberOfAislesOccupied++;
-                arrayOfAisles[aisle] = true;
-            }
+    protected double timeForTheseItems(PickProfile profile) {
+        int numberOfAislesOccupied = profile.getNumberOfOccupiedAisles();
+        double[] largestGaps = new double[numberOfAislesOccupied];
+        Route[] routePerAisle = new Route[numberOfAislesOccupied];
+        for (int aisle = 1; aisle < numberOfAislesOccupied - 1; aisle++) {
+            largestGaps[aisle] = getLargestGap(profile.getMinHeight(aisle), profile.getMaxHeight(aisle), profile.getInnerGap(aisle),
+                    aisle, routePerAisle);
         }
+        return timeForTheseItems(profile.getMinAisle(), profile.getMaxAisle(), numberOfAislesOccupied, profile.getNumberOfItems(),
+                profile.getMaxHeight(0), largestGaps, routePerAisle);
+    }
+
+    /**
+     * Calculates the total time required to pick a set of items from the statistics
+     * of their occupied aisles.
+     *
+     * @param firstAisle             The lowest occupied aisle.
+     * @param lastAisle              The highest occupied aisle.
+     * @param numberOfAislesOccupied The number of occupied aisles.
+     * @param numberOfItems          The number of items to pick.
+     * @param firstMaxHeight         The highest height of the lowest occupied aisle.
+     * @param largestGaps            The largest gap of each occupied aisle (only used between the first and the last one).
+     * @param routePerAisle          The route selected by the largest gap of each occupied aisle
+     *                               (only used between the first and the last one); it is modified.
+     * @return The total time required to pick the items.
+     */
+    double timeForTheseItems(int firstAisle, int lastAisle, int numberOfAislesOccupied, int numberOfItems,
+                             double firstMaxHeight, double[] largestGaps, Route[] routePerAisle) {
+        double timeConsumed = 0.0;
 
         // Calculate the distance in transversal aisles based on depot placement.
         if (wh.getDepotPlacement() == Constants.DEPOT_CORNER) {
@@ -136,10 +133,8 @@ public class CombinedPlus extends RoutingAlgorithm {
         switch (numberOfAislesOccupied) {
             case 1:
                 double farestDistance = Float.MIN_VALUE;
-                for (Product it : allItems) {
-                    if (it.getHeightPosition() > farestDistance) {
-                        farestDistance = it.getHeightPosition();
-                    }
+                if (firstMaxHeight > farestDistance) {
+                    farestDistance = firstMaxHeight;
                 }
                 timeConsumed += (2 * farestDistance) + extraToShelf;
                 break;
@@ -148,12 +143,12 @@ public class CombinedPlus extends RoutingAlgorithm {
                 break;
             default:
                 // Logic for multiple aisles occupied.
-                timeConsumed += calculateMultiAisleTime(allItems, numberOfAislesOccupied, arrayOfAisles);
+                timeConsumed += calculateMultiAisleTime(largestGaps, routePerAisle, numberOfAislesOccupied);
                 break;
         }
 
         timeConsumed *= wh.getTravelSpeed();
-        timeConsumed += allItems.size() * wh.getPickingTime();//*2
+        timeConsumed += numberOfItems * wh.getPickingTime();//*2
         timeConsumed += wh.getDepotTime();
 
         return timeConsumed;
@@ -162,21 +157,13 @@ public class CombinedPlus extends RoutingAlgorithm {
     /**
      * Calculates the time required for multiple aisles occupied.
      *
-     * @param allItems               The list of items to be picked.
-     * @param arrayOfAisles          Array indicating which aisles are occupied.
+     * @param largestGaps            The largest gap of each occupied aisle.
+     * @param routePerAisle          The route selected by the largest gap of each occupied aisle; it is modified.
      * @param numberOfAislesOccupied The total number of aisles occupied.
      * @return The time required for multiple aisles.
      */
-    private double calculateMultiAisleTime(List<Product> allItems, int numberOfAislesOccupied, boolean[] arrayOfAisles) {
+    private double calculateMultiAisleTime(double[] largestGaps, Route[] routePerAisle, int numberOfAislesOccupied) {
         double timeConsumed = 0.0;
-        int[] aislesOccupied = new int[numberOfAislesOccupied];
-        int index = 0;
-        for (int aoa = 0; aoa < arrayOfAisles.length; aoa++) {
-            if (arrayOfAisles[aoa]) {
-                aislesOccupied[index] = aoa;
-                index++;
-            }
-        }
         double[] lgPerAisle = new double[numberOfAislesOccupied];
         lgPerAisle[0] = totalShelvesLong;
         lgPerAisle[numberOfAislesOccupied - 1] = totalShelvesLong;
@@ -186,15 +173,11 @@ public class CombinedPlus extends RoutingAlgorithm {
         boolean[] moreThanSS = new boolean[numberOfAislesOccupied];
         moreThanSS[0] = false;
         moreThanSS[numberOfAislesOccupied - 1] = false;
-        Route[] routePerAisle = new Route[numberOfAislesOccupied];
-        Arrays.fill(routePerAisle, Route.NONE);
         routePerAisle[0] = Route.SS;
         routePerAisle[numberOfAislesOccupied - 1] = Route.SS;
         for (int aisle = 1; aisle < numberOfAislesOccupied - 1; aisle++) {
-            election = Route.NONE;
-            ArrayList<Product> itemsAtI = (ArrayList<Product>) organizeItemsAt(aislesOccupied[aisle], allItems);
-
-            double theLargestGap = getLargestGap(itemsAtI);
+            double theLargestGap = largestGaps[aisle];
+            Route election = routePerAisle[aisle];
 
 
             // election = LGB -> solo entramos por abajo
@@ -282,69 +265,45 @@ public class CombinedPlus extends RoutingAlgorithm {
     }
 
     /**
-     * Organizes the items in a specific aisle by their height in descending order.
-     *
-     * @param aisle    The aisle to organize items for.
-     * @param allItems The list of all items.
-     * @return A list of items organized by height in descending order.
-     */
-    protected List<Product> organizeItemsAt(int aisle, List<Product> allItems) {
-        ArrayList<Product> organized = new ArrayList<>();
-        for (Product it : allItems) {
-            if (it.getAisle() == aisle) {
-                organized.add(it);
-            }
-        }
-
-        organized.sort((Product a, Product b) -> Double.compare(b.getHeightPosition(), a.getHeightPosition()));
-
-        return organized;
-    }
-
-    /**
-     * Calculates the largest gap between items in a list.
+     * Calculates the largest gap of an occupied aisle, looking at the heights from the
+     * top of the shelf to the floor: the gap from the highest item to the end of the
+     * shelf, then the inner gaps and finally the gap from the floor to the lowest item.
+     * A gap replaces the previous one only if it is strictly larger. The route selected
+     * by the position of the gap is stored in the route of the aisle.
      *
-     * @param organizedItems The list of items organized by height.
+     * @param minHeight     The lowest height of the aisle.
+     * @param maxHeight     The highest height of the aisle.
+     * @param innerGap      The largest gap between consecutive heights of the aisle (0 if it has a single height).
+     * @param index         The index of the occupied aisle.
+     * @param routePerAisle The routes of the occupied aisles of the current call.
      * @return The largest gap between items.
      */
-    protected double getLargestGap(List<Product> organizedItems) {
+    double getLargestGap(double minHeight, double maxHeight, double innerGap, int index, Route[] routePerAisle) {
+        Route election = Route.NONE;
         double theLargestGap = -1;
-        Product lastReference = null;
-        double lastPoint = wh.getShelfLength();
-
-        int numReferencesAisle = 0;
-
-        for (Product it : organizedItems) {
-            lastReference = it;
-
-            numReferencesAisle++;
-
-            double distance = lastPoint - it.getHeightPosition();
-            lastPoint = it.getHeightPosition();
-
-            if (distance > theLargestGap) {
-                theLargestGap = distance;
-                if (numReferencesAisle == 1) {
-                    election = Route.LGB;
-                } else {
-                    election = Route.LGAB;
-                }
-            }
 
+        double distance = wh.getShelfLength() - maxHeight;
+        if (distance > theLargestGap) {
+            theLargestGap = distance;
+            election = Route.LGB;
         }
-
-        if (lastReference != null && lastReference.getHeightPosition() > theLargestGap) {
-            theLargestGap = lastReference.getHeightPosition();
+        if (innerGap > 0 && innerGap > theLargestGap) {
+            theLargestGap = innerGap;
+            election = Route.LGAB;
+        }
+        if (minHeight > theLargestGap) {
+            theLargestGap = minHeight;
             election = Route.LGA;
         }
 
+        routePerAisle[index] = election;
         return theLargestGap;
     }
 
     /**
      * Enum representing different routing strategies.
      */
-    private enum Route {
+    enum Route {
         NONE, // No specific route.
         LGA, // Largest Gap Above.
         LGB, // Largest Gap Below.
@@ -353,9 +312,4 @@ public class CombinedPlus extends RoutingAlgorithm {
         SS, // S-Shape strategy.
     }
 
-    /**
-     * The selected routing strategy for the current aisle.
-     */
-    private Route election;
-
 }
@@ -0,0 +1,416 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import com.instancesobp.models.Product;
+import com.instancesobp.models.Warehouse;
+
+/**
+ * Distance oracle between the pick locations of a warehouse.
+ * A location is a slot of one side of an aisle; each side of an aisle has
+ * {@code numberOfSlots / numberOfAisles / 2} slots of equal length along the shelf, and
+ * the location of a slot is its centre. Location 0 is the depot.
+ * <p>
+ * The distances follow the geometry of the routing algorithms: the centres of two
+ * consecutive aisles are {@code shelfWidth + aisleWidth} apart, the centre lines of the
+ * cross aisles are {@code aisleWidth / 2} away from the shelves, and two locations in
+ * different aisles are joined through the cross aisle that gives the shortest path
+ * (front, back or a middle cross aisle in a multi-block warehouse). Both sides of an aisle
+ * are reached from the same point, so they only differ in the index of the location.
+ * <p>
+ * The matrix is symmetric, so only its lower triangle is stored as {@code float} values.
+ * It is built on the first query, either on the heap or in a memory-mapped file, and can
+ * be shared by all the threads. For example, a warehouse with 2000 slots needs about 8 MB.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public final class DistanceMatrix {
+
+    /**
+     * Index of the depot.
+     */
+    public static final int DEPOT = 0;
+
+    /**
+     * Matrices shared by the callers of {@link #of(Warehouse)}, one per warehouse.
+     */
+    private static final Map<Warehouse, DistanceMatrix> SHARED = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Number of aisles of the warehouse.
+     */
+    private final int numberOfAisles;
+
+    /**
+     * Number of slots of each side of an aisle.
+     */
+    private final int slotsPerShelf;
+
+    /**
+     * Length of a slot.
+     */
+    private final double slotLength;
+
+    /**
+     * Length of the shelves.
+     */
+    private final double shelfLength;
+
+    /**
+     * Width of the aisles.
+     */
+    private final double aisleWidth;
+
+    /**
+     * Distance between the centres of two consecutive aisles.
+     */
+    private final double distancesBetweenAisles;
+
+    /**
+     * Horizontal position of the depot, in aisle units.
+     */
+    private final double depotPosition;
+
+    /**
+     * Number of blocks of the warehouse.
+     */
+    private final int numberOfBlocks;
+
+    /**
+     * Length of the shelves of a block.
+     */
+    private final double blockLength;
+
+    /**
+     * Number of locations, including the depot.
+     */
+    private final int size;
+
+    /**
+     * File of the memory-mapped matrix, or {@code null} to keep the matrix on the heap.
+     */
+    private final Path file;
+
+    /**
+     * Lower triangle of the matrix, built on the first query.
+     */
+    private volatile FloatBuffer matrix;
+
+    /**
+     * Constructs a distance matrix kept on the heap.
+     *
+     * @param warehouse The warehouse with the layout.
+     */
+    public DistanceMatrix(Warehouse warehouse) {
+        this(warehouse, null);
+    }
+
+    /**
+     * Constructs a distance matrix kept in a memory-mapped file. The file is created
+     * or overwritten when the matrix is built.
+     *
+     * @param warehouse The warehouse with the layout.
+     * @param file      The file of the matrix, or {@code null} to keep the matrix on the heap.
+     * @throws IllegalArgumentException If the warehouse has too many slots for a matrix.
+     */
+    public DistanceMatrix(Warehouse warehouse, Path file) {
+        this.numberOfAisles = warehouse.getNumberOfAisles();
+        this.slotsPerShelf = Math.max(1, warehouse.getNumberOfSlots() / warehouse.getNumberOfAisles() / 2);
+        this.shelfLength = warehouse.getShelfLength();
+        this.slotLength = shelfLength / slotsPerShelf;
+        this.aisleWidth = warehouse.getAisleWidth();
+        this.distancesBetweenAisles = warehouse.getShelfWidth() + warehouse.getAisleWidth();
+        this.depotPosition = BlockSegments.depotPosition(warehouse);
+        this.numberOfBlocks = warehouse.getNumberOfBlocks();
+        this.blockLength = warehouse.getBlockLength();
+        this.size = 1 + (numberOfAisles * 2 * slotsPerShelf);
+        this.file = file;
+        if (triangleSize(size) * Float.BYTES > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too many slots for a distance matrix: " + size + ". [DistanceMatrix]");
+        }
+    }
+
+    /**
+     * Returns the distance matrix shared by all the callers for a warehouse, kept on the heap.
+     * The matrix is rebuilt if the layout of the warehouse has changed since the last call.
+     *
+     * @param warehouse The warehouse with the layout.
+     * @return The shared distance matrix of the warehouse.
+     */
+    public static DistanceMatrix of(Warehouse warehouse) {
+        synchronized (SHARED) {
+            DistanceMatrix distanceMatrix = SHARED.get(warehouse);
+            if (distanceMatrix == null || !distanceMatrix.matches(warehouse)) {
+                distanceMatrix = new DistanceMatrix(warehouse);
+                SHARED.put(warehouse, distanceMatrix);
+            }
+            return distanceMatrix;
+        }
+    }
+
+    /**
+     * Returns the number of locations, including the depot.
+     *
+     * @return The number of locations.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots of each side of an aisle.
+     *
+     * @return The number of slots per shelf.
+     */
+    public int getSlotsPerShelf() {
+        return slotsPerShelf;
+    }
+
+    /**
+     * Returns the slot of a height position, clamped to the slots of the shelf.
+     *
+     * @param heightPosition The height position in the aisle.
+     * @return The slot, from 0 (front) to {@code slotsPerShelf - 1}.
+     */
+    public int slotOf(double heightPosition) {
+        int slot = (int) (heightPosition / slotLength);
+        return Math.max(0, Math.min(slotsPerShelf - 1, slot));
+    }
+
+    /**
+     * Returns the index of a location.
+     *
+     * @param aisle The aisle.
+     * @param side  The side of the aisle ({@code LEFT_SIDE_AISLE} or {@code RIGHT_SIDE_AISLE}).
+     * @param slot  The slot of the side.
+     * @return The index of the location.
+     */
+    public int locationIndex(int aisle, int side, int slot) {
+        return 1 + (((aisle * 2) + side) * slotsPerShelf) + slot;
+    }
+
+    /**
+     * Returns the index of the location of a product.
+     *
+     * @param product The product.
+     * @return The index of its location.
+     */
+    public int locationIndex(Product product) {
+        return locationIndex(product.getAisle(), product.getSide(), slotOf(product.getHeightPosition()));
+    }
+
+    /**
+     * Returns the distance between two locations.
+     *
+     * @param from The index of the first location.
+     * @param to   The index of the second location.
+     * @return The length of the shortest path between both locations.
+     */
+    public float distance(int from, int to) {
+        FloatBuffer m = matrix();
+        return from >= to ? m.get(triangleIndex(from, to)) : m.get(triangleIndex(to, from));
+    }
+
+    /**
+     * Calculates the length of the shortest path between two points of the aisles,
+     * without using the matrix.
+     *
+     * @param aisle1  The aisle of the first point.
+     * @param height1 The height position of the first point.
+     * @param aisle2  The aisle of the second point.
+     * @param height2 The height position of the second point.
+     * @return The length of the shortest path between both points.
+     */
+    public double distance(int aisle1, double height1, int aisle2, double height2) {
+        double y1 = stretched(height1);
+        double y2 = stretched(height2);
+        if (aisle1 == aisle2) {
+            return Math.abs(y1 - y2);
+        }
+        double vertical = Double.POSITIVE_INFINITY;
+        for (int crossAisle = 0; crossAisle <= numberOfBlocks; crossAisle++) {
+            double y = crossAislePosition(crossAisle);
+            vertical = Math.min(vertical, Math.abs(y1 - y) + Math.abs(y2 - y));
+        }
+        return vertical + (Math.abs(aisle1 - aisle2) * distancesBetweenAisles);
+    }
+
+    /**
+     * Calculates the length of the shortest path between the depot and a point of the aisles,
+     * without using the matrix.
+     *
+     * @param aisle  The aisle of the point.
+     * @param height The height position of the point.
+     * @return The length of the shortest path between the depot and the point.
+     */
+    public double depotDistance(int aisle, double height) {
+        return (Math.abs(aisle - depotPosition) * distancesBetweenAisles) + (stretched(height) - crossAislePosition(0));
+    }
+
+    /**
+     * Returns an estimate of the memory used by the matrix, in bytes.
+     * The matrix uses no memory until its first query.
+     *
+     * @return The memory footprint of the matrix.
+     */
+    public long getMemoryFootprint() {
+        return triangleSize(size) * Float.BYTES;
+    }
+
+    /**
+     * Returns the matrix, building it on the first call.
+     *
+     * @return The lower triangle of the matrix.
+     */
+    private FloatBuffer matrix() {
+        FloatBuffer m = matrix;
+        if (m == null) {
+            synchronized (this) {
+                m = matrix;
+                if (m == null) {
+                    m = build();
+                    matrix = m;
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Computes all the distances between locations.
+     *
+     * @return The lower triangle of the matrix.
+     */
+    private FloatBuffer build() {
+        int entries = (int) triangleSize(size);
+        FloatBuffer m;
+        if (file == null) {
+            m = FloatBuffer.allocate(entries);
+        } else {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                m = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) entries * Float.BYTES)
+                        .order(ByteOrder.nativeOrder()).asFloatBuffer();
+            } catch (IOException e) {
+                throw new UncheckedIOException("The distance matrix file cannot be mapped: " + file + ". [DistanceMatrix.build]", e);
+            }
+        }
+
+        for (int from = 1; from < size; from++) {
+            int aisle1 = aisleOf(from);
+            double height1 = heightOf(from);
+            m.put(triangleIndex(from, DEPOT), (float) depotDistance(aisle1, height1));
+            for (int to = 1; to <= from; to++) {
+                m.put(triangleIndex(from, to), (float) distance(aisle1, height1, aisleOf(to), heightOf(to)));
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Checks if the matrix was built for the current layout of a warehouse.
+     *
+     * @param warehouse The warehouse.
+     * @return {@code true} if the layout has not changed.
+     */
+    private boolean matches(Warehouse warehouse) {
+        return numberOfAisles == warehouse.getNumberOfAisles()
+                && slotsPerShelf == Math.max(1, warehouse.getNumberOfSlots() / warehouse.getNumberOfAisles() / 2)
+                && shelfLength == warehouse.getShelfLength()
+                && aisleWidth == warehouse.getAisleWidth()
+                && distancesBetweenAisles == warehouse.getShelfWidth() + warehouse.getAisleWidth()
+                && depotPosition == BlockSegments.depotPosition(warehouse)
+                && numberOfBlocks == warehouse.getNumberOfBlocks();
+    }
+
+    /**
+     * Returns the aisle of a location (not the depot).
+     *
+     * @param location The index of the location.
+     * @return The aisle of the location.
+     */
+    private int aisleOf(int location) {
+        return (location - 1) / (2 * slotsPerShelf);
+    }
+
+    /**
+     * Returns the height position of the centre of a location (not the depot).
+     *
+     * @param location The index of the location.
+     * @return The height position of the location.
+     */
+    private double heightOf(int location) {
+        return (((location - 1) % slotsPerShelf) + 0.5) * slotLength;
+    }
+
+    /**
+     * Converts a height position into a position along the aisle that includes the
+     * width of the middle cross aisles below it.
+     *
+     * @param height The height position in the aisle.
+     * @return The position along the aisle.
+     */
+    private double stretched(double height) {
+        int block = Math.max(0, Math.min(numberOfBlocks - 1, (int) (height / blockLength)));
+        return height + (block * aisleWidth);
+    }
+
+    /**
+     * Returns the position along the aisles of the centre line of a cross aisle.
+     *
+     * @param crossAisle The cross aisle, from 0 (front) to {@code numberOfBlocks} (back).
+     * @return The position of its centre line.
+     */
+    private double crossAislePosition(int crossAisle) {
+        return (crossAisle * (blockLength + aisleWidth)) - (aisleWidth / 2);
+    }
+
+    /**
+     * Returns the position of an entry of the lower triangle.
+     *
+     * @param row    The row, not lower than the column.
+     * @param column The column.
+     * @return The position of the entry.
+     */
+    private static int triangleIndex(int row, int column) {
+        return (int) ((((long) row * (row + 1)) / 2) + column);
+    }
+
+    /**
+     * Returns the number of entries of the lower triangle of a square matrix.
+     *
+     * @param size The number of rows of the matrix.
+     * @return The number of entries of its lower triangle.
+     */
+    private static long triangleSize(int size) {
+        return ((long) size * (size + 1)) / 2;
+    }
+}
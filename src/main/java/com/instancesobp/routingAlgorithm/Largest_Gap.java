@@ -18,14 +18,9 @@
  */
 package com.instancesobp.routingAlgorithm;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Collections;
-import java.util.HashMap;
-
 import com.instancesobp.models.Batch;
 import com.instancesobp.models.Order;
-import com.instancesobp.models.Product;
+import com.instancesobp.models.PickProfile;
 import com.instancesobp.models.Warehouse;
 
 import static com.instancesobp.utils.Constants.DEPOT_CORNER;
@@ -57,93 +52,161 @@ public class Largest_Gap extends RoutingAlgorithm {
     }
 
     /**
-     * Executes the Largest Gap routing algorithm for a given batch of orders.
+     * Executes the Largest Gap routing algorithm for the pick locations of a pick profile.
      * This method calculates the total distance traveled by the picker to collect
-     * all items in the batch, considering the largest gaps in each aisle and the
+     * all items of the profile, considering the largest gaps in each aisle and the
      * warehouse layout.
      *
-     * @param batch The batch of orders to be processed.
-     * @return The total distance traveled by the picker to collect all items in the batch.
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total distance traveled by the picker to collect all items of the profile.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        return route(ProfileSweep.of(profile));
+    }
+
+    /**
+     * Calculates the Largest Gap distance if an order is added to a batch, without
+     * copying the batch. Only the aisles shared by the batch and the order scan their heights.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to add.
+     * @return The total distance traveled by the picker to collect all items of the batch and the order.
+     */
+    @Override
+    public double costIfAdded(Batch batch, Order order) {
+        return route(ProfileSweep.union(batch.getPickProfile(), order.getPickProfile()));
+    }
+
+    /**
+     * Calculates the Largest Gap distance if an order is removed from a batch, without
+     * copying the batch. Only the aisles shared by the batch and the order scan their heights.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to remove.
+     * @return The total distance traveled by the picker to collect the remaining items of the batch.
+     */
+    @Override
+    public double costIfRemoved(Batch batch, Order order) {
+        return route(ProfileSweep.difference(batch.getPickProfile(), order.getPickProfile()));
+    }
+
+    /**
+     * Calculates the Largest Gap distance if two batches are merged, without copying them.
+     * Only the aisles shared by both batches scan their heights.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return The total distance traveled by the picker to collect all items of both batches.
      */
     @Override
-    public double run(Batch batch) {
-        if (batch.getOrders().isEmpty()) {
-            return 0; // If the batch is empty, no distance is traveled.
+    public double costIfMerged(Batch batch1, Batch batch2) {
+        return route(ProfileSweep.union(batch1.getPickProfile(), batch2.getPickProfile()));
+    }
+
+    /**
+     * Calculates the Largest Gap distance of the pick locations given by a profile sweep.
+     * The largest gap of each aisle is the largest of the gap from the
+     * floor to the lowest item, the inner gaps between items and the gap from the
+     * highest item to the end of the shelf.
+     *
+     * @param sweep The sweep of the pick locations to collect.
+     * @return The total distance traveled by the picker to collect all items.
+     */
+    private double route(ProfileSweep sweep) {
+        if (sweep.isEmpty()) {
+            return 0; // If the profile is empty, no distance is traveled.
         }
 
         double totalDistance = 0;
-        int maxAisle = 0;
-        int minAisle = Integer.MAX_VALUE;
+        int maxAisle = sweep.getMaxAisle();
+        int minAisle = sweep.getMinAisle();
         double turnTime = 0.0;
-        HashMap<Integer, List<Double>> aisleHeightsMap = new HashMap<>();
-        int totalItems = 0;
-
-        // Pre-calculate distances and populate the aisle heights map.
-        for (Order order : batch.getOrders()) {
-            for (Product product : order.getProducts()) {
-                totalItems++;
-                if (aisleHeightsMap.containsKey(product.getAisle())) {
-                    List<Double> heights = aisleHeightsMap.get(product.getAisle());
-                    if (!heights.contains(product.getHeightPosition())) {
-                        heights.add(product.getHeightPosition());
-                        aisleHeightsMap.replace(product.getAisle(), heights);
-                    }
-                } else {
-                    List<Double> heights = new ArrayList<>();
-                    heights.add(product.getHeightPosition());
-                    heights.add(0.0); // Add the floor level.
-                    heights.add(wh.getShelfLength()); // Add the top shelf level.
-
-                    aisleHeightsMap.put(product.getAisle(), heights);
-                    if (maxAisle < product.getAisle()) {
-                        maxAisle = product.getAisle();
-                    }
-                    if (minAisle > product.getAisle()) {
-                        minAisle = product.getAisle();
-                    }
-                }
-            }
-        }
-
-        HashMap<Integer, Integer> aisleGapLocations = new HashMap<>();
+        int totalItems = sweep.getNumberOfItems();
+        int aisleCount = sweep.getNumberOfOccupiedAisles();
+        int gapCount = 0;
+        int middleGapCount = 0;
 
         // Calculate distances for main aisles.
-        if (aisleHeightsMap.size() > 2) {
+        if (aisleCount > 2) {
             totalDistance = ((wh.getAisleWidth() + wh.getShelfLength()) * 2);
-            for (HashMap.Entry<Integer, List<Double>> entry : aisleHeightsMap.entrySet()) {
-                if (!entry.getKey().equals(minAisle) && !entry.getKey().equals(maxAisle)) {
-                    List<Double> heights = entry.getValue();
-                    Collections.sort(heights);
-                    double maxGap = 0.0;
-                    for (int i = 1; i < heights.size(); i++) {
-                        double gap = heights.get(i) - heights.get(i - 1);
-                        if (maxGap < gap) {
-                            if (i == 1) {
-                                aisleGapLocations.put(entry.getKey(), GAP_BEGINNING);
-                            } else if (i == heights.size() - 1) {
-                                aisleGapLocations.put(entry.getKey(), GAP_END);
-                            } else {
-                                aisleGapLocations.put(entry.getKey(), GAP_MIDDLE);
-                            }
-                            maxGap = gap;
-                        }
-                    }
-                    totalDistance += wh.getAisleWidth() + ((wh.getShelfLength() - maxGap) * 2);
-                    if (aisleGapLocations.get(entry.getKey()) == GAP_MIDDLE) {
-                        totalDistance += wh.getAisleWidth();
-                    }
+            while (sweep.next()) {
+                if (sweep.getAisle() == minAisle || sweep.getAisle() == maxAisle) {
+                    continue;
                 }
+                gapCount++;
+                if (isMiddleGap(sweep.getMinHeight(), sweep.getMaxHeight(), sweep.getInnerGap())) {
+                    middleGapCount++;
+                }
+                totalDistance = addGapAisle(totalDistance, sweep.getMinHeight(), sweep.getMaxHeight(), sweep.getInnerGap());
             }
-        } else if (aisleHeightsMap.size() > 1) {
+        } else if (aisleCount > 1) {
             totalDistance = ((wh.getAisleWidth() + wh.getShelfLength()) * 2);
         } else {
-            for (List<Double> heights : aisleHeightsMap.values()) {
-                Collections.sort(heights);
-                totalDistance = wh.getAisleWidth() + ((heights.get(heights.size() - 2)) * 2);
-            }
+            sweep.load(minAisle);
+            totalDistance = wh.getAisleWidth() + (sweep.getMaxHeight() * 2);
         }
 
         // Calculate distances for transversal aisles.
+        totalDistance = addTransversalAisles(totalDistance, minAisle, maxAisle);
+
+        //turnTime = calculateTurnTime(aisleCount, minAisle, gapCount, middleGapCount, maxAisle);
+
+        return (totalDistance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * totalItems) + turnTime;
+    }
+
+    /**
+     * Adds the distance of an aisle between the first and the last occupied aisles,
+     * which the picker enters from both sides skipping its largest gap.
+     * The largest gap is the largest of the gap from the floor to the lowest item,
+     * the inner gaps between items and the gap from the highest item to the end of the shelf.
+     *
+     * @param totalDistance The distance travelled before the aisle.
+     * @param minHeight     The lowest height of the aisle.
+     * @param maxHeight     The highest height of the aisle.
+     * @param innerGap      The largest gap between consecutive heights of the aisle.
+     * @return The distance travelled after the aisle.
+     */
+    double addGapAisle(double totalDistance, double minHeight, double maxHeight, double innerGap) {
+        double maxGap = minHeight;
+        int gapLocation = GAP_BEGINNING;
+        if (maxGap < innerGap) {
+            maxGap = innerGap;
+            gapLocation = GAP_MIDDLE;
+        }
+        if (maxGap < wh.getShelfLength() - maxHeight) {
+            maxGap = wh.getShelfLength() - maxHeight;
+            gapLocation = GAP_END;
+        }
+        totalDistance += wh.getAisleWidth() + ((wh.getShelfLength() - maxGap) * 2);
+        if (gapLocation == GAP_MIDDLE) {
+            totalDistance += wh.getAisleWidth();
+        }
+        return totalDistance;
+    }
+
+    /**
+     * Checks if the largest gap of an aisle lies between two items.
+     *
+     * @param minHeight The lowest height of the aisle.
+     * @param maxHeight The highest height of the aisle.
+     * @param innerGap  The largest gap between consecutive heights of the aisle.
+     * @return {@code true} if the largest gap is an inner gap, {@code false} otherwise.
+     */
+    private boolean isMiddleGap(double minHeight, double maxHeight, double innerGap) {
+        return minHeight < innerGap && innerGap >= wh.getShelfLength() - maxHeight;
+    }
+
+    /**
+     * Adds the distance travelled in the transversal aisles, from the depot to the
+     * first and the last occupied aisles and back.
+     *
+     * @param totalDistance The distance travelled in the main aisles.
+     * @param minAisle      The lowest occupied aisle.
+     * @param maxAisle      The highest occupied aisle.
+     * @return The total distance travelled.
+     */
+    double addTransversalAisles(double totalDistance, int minAisle, int maxAisle) {
         if (wh.getDepotPlacement() == DEPOT_CORNER) {
             totalDistance += ((wh.getAisleWidth() + wh.getShelfWidth()) * (maxAisle) * 2);
         } else if (wh.getNumberOfAisles() % 2 == 0) {
@@ -163,60 +226,46 @@ public class Largest_Gap extends RoutingAlgorithm {
                 totalDistance += ((wh.getAisleWidth() + wh.getShelfWidth()) * (centralAisle - maxAisle)) * 2;
             }
         }
-
-        //turnTime = calculateTurnTime(aisleHeightsMap, minAisle, aisleGapLocations, maxAisle);
-
-        return (totalDistance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * totalItems) + turnTime;
+        return totalDistance;
     }
 
     /**
      * Calculates the time spent turning in the warehouse based on the depot location
      * and the largest gaps in the aisles.
      *
-     * @param aisleHeightsMap   A map of aisle numbers to their respective item heights.
-     * @param minAisle          The minimum aisle number.
-     * @param aisleGapLocations A map of aisle numbers to the location of their largest gap.
-     * @param maxAisle          The maximum aisle number.
+     * @param aisleCount     The number of aisles with items.
+     * @param minAisle       The minimum aisle number.
+     * @param gapCount       The number of aisles traversed by their largest gap.
+     * @param middleGapCount The number of aisles with the largest gap in the middle.
+     * @param maxAisle       The maximum aisle number.
      * @return The total time spent turning in the warehouse.
      */
-    private double calculateTurnTime(HashMap<Integer, List<Double>> aisleHeightsMap, int minAisle, HashMap<Integer, Integer> aisleGapLocations, int maxAisle) {
+    private double calculateTurnTime(int aisleCount, int minAisle, int gapCount, int middleGapCount, int maxAisle) {
         double turnTime;
         if (wh.getDepotPlacement() == DEPOT_CORNER) {
-            if (aisleHeightsMap.size() == 1) {
+            if (aisleCount == 1) {
                 turnTime = wh.getInsideTurnTime();
                 if (minAisle != 0) {
                     turnTime += (2 * wh.getOutsideTurnTime());
                 }
             } else {
-                turnTime = (aisleHeightsMap.size() * 2 * wh.getOutsideTurnTime());
-                turnTime += (aisleGapLocations.size() * 2 * wh.getInsideTurnTime());
+                turnTime = (aisleCount * 2 * wh.getOutsideTurnTime());
+                turnTime += (gapCount * 2 * wh.getInsideTurnTime());
                 if (minAisle == 0) {
                     turnTime -= wh.getOutsideTurnTime();
                 }
-                int middleGapCount = 0;
-                for (Integer gapLocation : aisleGapLocations.values()) {
-                    if (gapLocation == GAP_MIDDLE) {
-                        middleGapCount++;
-                    }
-                }
                 turnTime += (middleGapCount * 2 * wh.getOutsideTurnTime());
                 turnTime += (middleGapCount * wh.getInsideTurnTime());
             }
         } else {
-            if ((minAisle == (aisleHeightsMap.size() / 2) + 1) && (maxAisle == (aisleHeightsMap.size() / 2) + 1)) {
+            if ((minAisle == (aisleCount / 2) + 1) && (maxAisle == (aisleCount / 2) + 1)) {
                 turnTime = wh.getInsideTurnTime();
             } else {
-                turnTime = (aisleHeightsMap.size() * 2 * wh.getOutsideTurnTime());
-                turnTime += (aisleGapLocations.size() * 2 * wh.getInsideTurnTime());
-                if ((minAisle == (aisleHeightsMap.size() / 2) + 1) || (maxAisle == (aisleHeightsMap.size() / 2) + 1)) {
+                turnTime = (aisleCount * 2 * wh.getOutsideTurnTime());
+                turnTime += (gapCount * 2 * wh.getInsideTurnTime());
+                if ((minAisle == (aisleCount / 2) + 1) || (maxAisle == (aisleCount / 2) + 1)) {
                     turnTime -= wh.getOutsideTurnTime();
                 }
-                int middleGapCount = 0;
-                for (Integer gapLocation : aisleGapLocations.values()) {
-                    if (gapLocation == GAP_MIDDLE) {
-                        middleGapCount++;
-                    }
-                }
                 turnTime += (middleGapCount * 2 * wh.getOutsideTurnTime());
                 turnTime += (middleGapCount * wh.getInsideTurnTime());
             }
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+
+/**
+ * Implements the largest gap routing heuristic for multi-block warehouses (Roodbergen and de Koster).
+ * The picker goes from the depot to the leftmost aisle with items and traverses it up to the
+ * back of the farthest block with items. Then the blocks are visited from the farthest one
+ * to the front one. In each block the picker walks along the back cross aisle from the end
+ * closest to its current position to the other end, entering the sub-aisles with items from
+ * the back, traverses the sub-aisle at the other end and walks back along the front cross aisle,
+ * entering the sub-aisles from the front. Each sub-aisle is left unvisited at its largest gap:
+ * the gap from the front of the block to the lowest item, the inner gaps between items or the
+ * gap from the highest item to the back of the block. Blocks without items are crossed through
+ * the current aisle, and blocks with a single sub-aisle with items just traverse it. Finally
+ * the picker returns to the depot along the front cross aisle.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class Largest_Gap_MultiBlock extends RoutingAlgorithm {
+
+    /**
+     * Constructor for the Largest_Gap_MultiBlock class.
+     *
+     * @param warehouse The warehouse object containing the layout and configuration details.
+     */
+    public Largest_Gap_MultiBlock(Warehouse warehouse) {
+        super(warehouse);
+    }
+
+    /**
+     * Executes the multi-block largest gap routing heuristic for the pick locations of a pick profile.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total time of the route that collects all items of the profile.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        if (profile.isEmpty()) {
+            return 0; // If the profile is empty, no distance is traveled.
+        }
+
+        double totalDistance = tourLength(new BlockSegments(profile, wh));
+
+        return (totalDistance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * profile.getNumberOfItems());
+    }
+
+    /**
+     * Calculates the length of the route for the pick locations split by block.
+     * The exact algorithm uses it as an upper bound.
+     *
+     * @param segments The pick locations split by block.
+     * @return The length of the route.
+     */
+    double tourLength(BlockSegments segments) {
+        int[] aisles = segments.aisles;
+        double blockLength = segments.blockLength;
+        double distancesBetweenAisles = wh.getShelfWidth() + wh.getAisleWidth();
+        double subAisleLength = blockLength + wh.getAisleWidth();
+        double depotPosition = BlockSegments.depotPosition(wh);
+
+        // From the depot to the leftmost aisle, traversed up to the back of the farthest block.
+        double totalDistance = Math.abs(aisles[0] - depotPosition) * distancesBetweenAisles;
+        totalDistance += (segments.farthestBlock + 1) * subAisleLength;
+        double position = aisles[0];
+
+        for (int block = segments.farthestBlock; block >= 0; block--) {
+            int first = -1;
+            int last = -1;
+            for (int i = 1; i < aisles.length; i++) {
+                if (segments.count[segments.segment(i, block)] > 0) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    last = i;
+                }
+            }
+            if (first < 0) {
+                totalDistance += subAisleLength;
+                continue;
+            }
+            if (first == last) {
+                totalDistance += (Math.abs(aisles[first] - position) * distancesBetweenAisles) + subAisleLength;
+                position = aisles[first];
+                continue;
+            }
+
+            boolean fromLeft = Math.abs(aisles[first] - position) <= Math.abs(aisles[last] - position);
+            int start = fromLeft ? first : last;
+            int end = fromLeft ? last : first;
+            totalDistance += (Math.abs(aisles[start] - position) + (aisles[last] - aisles[first])) * distancesBetweenAisles;
+            totalDistance += subAisleLength;
+
+            // The picker returns along the front cross aisle up to the farthest sub-aisle entered from the front.
+            int returnTo = end;
+            for (int i = first; i <= last; i++) {
+                int segment = segments.segment(i, block);
+                if (i == end || segments.count[segment] == 0) {
+                    continue;
+                }
+                double maxGap = segments.minHeight[segment];
+                boolean fromFront = false;
+                boolean middleGap = false;
+                if (maxGap < segments.innerGap[segment]) {
+                    maxGap = segments.innerGap[segment];
+                    middleGap = true;
+                }
+                if (maxGap < blockLength - segments.maxHeight[segment]) {
+                    maxGap = blockLength - segments.maxHeight[segment];
+                    fromFront = true;
+                    middleGap = false;
+                }
+                totalDistance += wh.getAisleWidth() + ((blockLength - maxGap) * 2);
+                if (middleGap) {
+                    totalDistance += wh.getAisleWidth();
+                }
+                if ((fromFront || middleGap) && Math.abs(aisles[i] - aisles[end]) > Math.abs(aisles[returnTo] - aisles[end])) {
+                    returnTo = i;
+                }
+            }
+            totalDistance += Math.abs(aisles[end] - aisles[returnTo]) * distancesBetweenAisles;
+            position = aisles[returnTo];
+        }
+
+        totalDistance += Math.abs(position - depotPosition) * distancesBetweenAisles;
+        return totalDistance;
+    }
+}
@@ -0,0 +1,455 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import com.instancesobp.models.PickProfile;
+
+/**
+ * Walks the occupied aisles of a pick profile, or of the union or difference of
+ * two pick profiles, without building the resulting profile.
+ * The summary of the result (number of items, number of occupied aisles and
+ * lowest and highest occupied aisles) is computed when the sweep is created,
+ * looking only at the aisles of the second profile. The aisles are then visited
+ * in ascending order with {@link #next()}, or a single aisle is loaded with
+ * {@link #load(int)}. For each aisle the sweep gives the lowest and highest
+ * heights and the largest gap between consecutive heights. The aisles of only
+ * one of the profiles take these values from the cached values of that profile,
+ * so only the aisles shared by both profiles scan their heights.
+ * This lets the heuristic routing algorithms evaluate the cost of adding or
+ * removing orders from a batch without copying it.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+final class ProfileSweep {
+
+    /** The profile the other one is added to or removed from. */
+    private final PickProfile base;
+
+    /** The profile added to or removed from the base profile. */
+    private final PickProfile other;
+
+    /** Whether the other profile is removed from the base profile. */
+    private final boolean difference;
+
+    /** Number of items of the result. */
+    private int numberOfItems;
+
+    /** Number of occupied aisles of the result. */
+    private int numberOfAisles;
+
+    /** Lowest occupied aisle of the result. */
+    private int minAisle;
+
+    /** Highest occupied aisle of the result. */
+    private int maxAisle;
+
+    /** Next aisle index of the base profile to visit. */
+    private int baseIndex;
+
+    /** Next aisle index of the other profile to visit. */
+    private int otherIndex;
+
+    /** Current aisle. */
+    private int aisle;
+
+    /** Lowest height of the current aisle. */
+    private double minHeight;
+
+    /** Highest height of the current aisle. */
+    private double maxHeight;
+
+    /** Largest gap between consecutive heights of the current aisle. */
+    private double innerGap;
+
+    /**
+     * Creates a sweep of a pick profile.
+     *
+     * @param profile The profile to walk.
+     * @return The sweep of the profile.
+     */
+    static ProfileSweep of(PickProfile profile) {
+        return new ProfileSweep(profile, PickProfile.EMPTY, false);
+    }
+
+    /**
+     * Creates a sweep of the union of two pick profiles.
+     *
+     * @param base  The base profile.
+     * @param other The profile added to the base profile.
+     * @return The sweep of the union.
+     */
+    static ProfileSweep union(PickProfile base, PickProfile other) {
+        return new ProfileSweep(base, other, false);
+    }
+
+    /**
+     * Creates a sweep of the difference of two pick profiles.
+     *
+     * @param base  The base profile.
+     * @param other The profile removed from the base profile.
+     * @return The sweep of the difference.
+     */
+    static ProfileSweep difference(PickProfile base, PickProfile other) {
+        return new ProfileSweep(base, other, true);
+    }
+
+    /**
+     * Constructs a new sweep and computes the summary of the result.
+     *
+     * @param base       The base profile.
+     * @param other      The profile added to or removed from the base profile.
+     * @param difference Whether the other profile is removed.
+     */
+    private ProfileSweep(PickProfile base, PickProfile other, boolean difference) {
+        this.base = base;
+        this.other = other;
+        this.difference = difference;
+        if (difference) {
+            summarizeDifference();
+        } else {
+            summarizeUnion();
+        }
+    }
+
+    /**
+     * Computes the summary of the union of the profiles.
+     */
+    private void summarizeUnion() {
+        numberOfItems = base.getNumberOfItems() + other.getNumberOfItems();
+        numberOfAisles = base.getNumberOfOccupiedAisles();
+        for (int j = 0; j < other.getNumberOfOccupiedAisles(); j++) {
+            if (!base.isOccupied(other.getAisle(j))) {
+                numberOfAisles++;
+            }
+        }
+        if (base.isEmpty()) {
+            if (!other.isEmpty()) {
+                minAisle = other.getMinAisle();
+                maxAisle = other.getMaxAisle();
+            }
+        } else if (other.isEmpty()) {
+            minAisle = base.getMinAisle();
+            maxAisle = base.getMaxAisle();
+        } else {
+            minAisle = Math.min(base.getMinAisle(), other.getMinAisle());
+            maxAisle = Math.max(base.getMaxAisle(), other.getMaxAisle());
+        }
+    }
+
+    /**
+     * Computes the summary of the difference of the profiles.
+     */
+    private void summarizeDifference() {
+        numberOfItems = base.getNumberOfItems();
+        numberOfAisles = base.getNumberOfOccupiedAisles();
+        for (int j = 0; j < other.getNumberOfOccupiedAisles(); j++) {
+            int i = base.indexOfAisle(other.getAisle(j));
+            if (i >= 0) {
+                int removed = removedItems(i, j);
+                numberOfItems -= removed;
+                if (removed == base.getAisleItemCount(i)) {
+                    numberOfAisles--;
+                }
+            }
+        }
+        if (numberOfAisles == 0) {
+            return;
+        }
+        int first = 0;
+        while (isEmptied(first)) {
+            first++;
+        }
+        int last = base.getNumberOfOccupiedAisles() - 1;
+        while (isEmptied(last)) {
+            last--;
+        }
+        minAisle = base.getAisle(first);
+        maxAisle = base.getAisle(last);
+    }
+
+    /**
+     * Checks if an aisle of the base profile has no items left in the difference.
+     *
+     * @param i The index of the aisle in the base profile.
+     * @return {@code true} if all the items of the aisle are removed.
+     */
+    private boolean isEmptied(int i) {
+        int j = other.indexOfAisle(base.getAisle(i));
+        return j >= 0 && removedItems(i, j) == base.getAisleItemCount(i);
+    }
+
+    /**
+     * Counts the items of an aisle of the base profile removed by the other profile.
+     *
+     * @param i The index of the aisle in the base profile.
+     * @param j The index of the same aisle in the other profile.
+     * @return The number of removed items.
+     */
+    private int removedItems(int i, int j) {
+        int removed = 0;
+        int b = other.getHeightStart(j);
+        int bEnd = other.getHeightEnd(j);
+        for (int a = base.getHeightStart(i); a < base.getHeightEnd(i) && b < bEnd; a++) {
+            while (b < bEnd && other.getHeight(b) < base.getHeight(a)) {
+                b++;
+            }
+            if (b < bEnd && other.getHeight(b) == base.getHeight(a)) {
+                removed += Math.min(base.getItemCount(a), other.getItemCount(b));
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Checks if the result has no pick locations.
+     *
+     * @return {@code true} if there are no items to pick.
+     */
+    boolean isEmpty() {
+        return numberOfAisles == 0;
+    }
+
+    /**
+     * Returns the number of items of the result.
+     *
+     * @return The number of items.
+     */
+    int getNumberOfItems() {
+        return numberOfItems;
+    }
+
+    /**
+     * Returns the number of occupied aisles of the result.
+     *
+     * @return The number of occupied aisles.
+     */
+    int getNumberOfOccupiedAisles() {
+        return numberOfAisles;
+    }
+
+    /**
+     * Returns the lowest occupied aisle of the result. The result must not be empty.
+     *
+     * @return The lowest occupied aisle.
+     */
+    int getMinAisle() {
+        return minAisle;
+    }
+
+    /**
+     * Returns the highest occupied aisle of the result. The result must not be empty.
+     *
+     * @return The highest occupied aisle.
+     */
+    int getMaxAisle() {
+        return maxAisle;
+    }
+
+    /**
+     * Moves to the next occupied aisle of the result, in ascending order.
+     *
+     * @return {@code true} if there is a next aisle, {@code false} when all aisles have been visited.
+     */
+    boolean next() {
+        int baseAisles = base.getNumberOfOccupiedAisles();
+        int otherAisles = other.getNumberOfOccupiedAisles();
+        if (difference) {
+            while (baseIndex < baseAisles) {
+                int i = baseIndex++;
+                int current = base.getAisle(i);
+                while (otherIndex < otherAisles && other.getAisle(otherIndex) < current) {
+                    otherIndex++;
+                }
+                if (otherIndex < otherAisles && other.getAisle(otherIndex) == current) {
+                    if (!loadDifference(i, otherIndex)) {
+                        continue;
+                    }
+                } else {
+                    loadSingle(base, i);
+                }
+                aisle = current;
+                return true;
+            }
+            return false;
+        }
+        if (baseIndex < baseAisles && otherIndex < otherAisles && base.getAisle(baseIndex) == other.getAisle(otherIndex)) {
+            aisle = base.getAisle(baseIndex);
+            loadUnion(baseIndex++, otherIndex++);
+        } else if (baseIndex < baseAisles && (otherIndex == otherAisles || base.getAisle(baseIndex) < other.getAisle(otherIndex))) {
+            aisle = base.getAisle(baseIndex);
+            loadSingle(base, baseIndex++);
+        } else if (otherIndex < otherAisles) {
+            aisle = other.getAisle(otherIndex);
+            loadSingle(other, otherIndex++);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Loads a given aisle of the result as the current aisle, without moving the sweep.
+     *
+     * @param aisle The aisle to load.
+     * @return {@code true} if the aisle is occupied in the result, {@code false} otherwise.
+     */
+    boolean load(int aisle) {
+        int i = base.indexOfAisle(aisle);
+        int j = other.indexOfAisle(aisle);
+        boolean occupied;
+        if (difference) {
+            if (i < 0) {
+                occupied = false;
+            } else if (j < 0) {
+                loadSingle(base, i);
+                occupied = true;
+            } else {
+                occupied = loadDifference(i, j);
+            }
+        } else if (i >= 0 && j >= 0) {
+            loadUnion(i, j);
+            occupied = true;
+        } else if (i >= 0) {
+            loadSingle(base, i);
+            occupied = true;
+        } else if (j >= 0) {
+            loadSingle(other, j);
+            occupied = true;
+        } else {
+            occupied = false;
+        }
+        if (occupied) {
+            this.aisle = aisle;
+        }
+        return occupied;
+    }
+
+    /**
+     * Returns the current aisle.
+     *
+     * @return The aisle number.
+     */
+    int getAisle() {
+        return aisle;
+    }
+
+    /**
+     * Returns the lowest height of the current aisle.
+     *
+     * @return The lowest height.
+     */
+    double getMinHeight() {
+        return minHeight;
+    }
+
+    /**
+     * Returns the highest height of the current aisle.
+     *
+     * @return The highest height.
+     */
+    double getMaxHeight() {
+        return maxHeight;
+    }
+
+    /**
+     * Returns the largest gap between consecutive heights of the current aisle.
+     *
+     * @return The largest inner gap, or 0 if the aisle has a single pick location.
+     */
+    double getInnerGap() {
+        return innerGap;
+    }
+
+    /**
+     * Loads the cached values of an aisle present in only one of the profiles.
+     *
+     * @param profile The profile with the aisle.
+     * @param index   The index of the aisle in the profile.
+     */
+    private void loadSingle(PickProfile profile, int index) {
+        minHeight = profile.getMinHeight(index);
+        maxHeight = profile.getMaxHeight(index);
+        innerGap = profile.getInnerGap(index);
+    }
+
+    /**
+     * Loads the values of an aisle present in both profiles, merging their heights.
+     *
+     * @param i The index of the aisle in the base profile.
+     * @param j The index of the aisle in the other profile.
+     */
+    private void loadUnion(int i, int j) {
+        int a = base.getHeightStart(i);
+        int aEnd = base.getHeightEnd(i);
+        int b = other.getHeightStart(j);
+        int bEnd = other.getHeightEnd(j);
+        minHeight = Math.min(base.getHeight(a), other.getHeight(b));
+        maxHeight = Math.max(base.getHeight(aEnd - 1), other.getHeight(bEnd - 1));
+        innerGap = 0;
+        double previousHeight = minHeight;
+        while (a < aEnd || b < bEnd) {
+            double height;
+            if (b == bEnd || (a < aEnd && base.getHeight(a) < other.getHeight(b))) {
+                height = base.getHeight(a++);
+            } else if (a == aEnd || other.getHeight(b) < base.getHeight(a)) {
+                height = other.getHeight(b++);
+            } else {
+                height = base.getHeight(a++);
+                b++;
+            }
+            innerGap = Math.max(innerGap, height - previousHeight);
+            previousHeight = height;
+        }
+    }
+
+    /**
+     * Loads the values of an aisle of the base profile once the items of the other profile are removed.
+     *
+     * @param i The index of the aisle in the base profile.
+     * @param j The index of the aisle in the other profile.
+     * @return {@code true} if the aisle keeps some items, {@code false} otherwise.
+     */
+    private boolean loadDifference(int i, int j) {
+        int b = other.getHeightStart(j);
+        int bEnd = other.getHeightEnd(j);
+        boolean found = false;
+        innerGap = 0;
+        for (int a = base.getHeightStart(i); a < base.getHeightEnd(i); a++) {
+            double height = base.getHeight(a);
+            int count = base.getItemCount(a);
+            while (b < bEnd && other.getHeight(b) < height) {
+                b++;
+            }
+            if (b < bEnd && other.getHeight(b) == height) {
+                count -= other.getItemCount(b);
+            }
+            if (count > 0) {
+                if (found) {
+                    innerGap = Math.max(innerGap, height - maxHeight);
+                } else {
+                    minHeight = height;
+                    found = true;
+                }
+                maxHeight = height;
+            }
+        }
+        return found;
+    }
+}
@@ -18,12 +18,12 @@
  */
 package com.instancesobp.routingAlgorithm;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.List;
 
 import com.instancesobp.models.Batch;
 import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
 import com.instancesobp.models.Product;
 import com.instancesobp.models.Warehouse;
 
@@ -36,6 +36,12 @@ import static com.instancesobp.utils.Constants.DEPOT_CORNER;
  * in a batch, considering the warehouse layout and item locations.
  * The algorithm uses a dynamic programming approach to determine the optimal path
  * through the aisles, minimizing the total travel distance.
+ * <p>
+ * The dynamic programming table is kept as two rolling rows of primitive
+ * {@code double} values, with {@link Double#POSITIVE_INFINITY} marking the
+ * unreachable states. All the working buffers are reused per thread, so the
+ * algorithm does not allocate memory per call once the buffers have grown to
+ * the size of the largest batch.
  * TODO: Add timeTurn to the algorithm.
  *
  * @author Sergio Gil Borrás
@@ -43,6 +49,26 @@ import static com.instancesobp.utils.Constants.DEPOT_CORNER;
  */
 public class RatliffRosenthal extends RoutingAlgorithm {
 
+    /**
+     * Number of states of each row of the dynamic programming table.
+     */
+    private static final int NUM_STATES = 7;
+
+    /**
+     * Number of path alternatives considered for each aisle.
+     */
+    private static final int NUM_PATHS = 6;
+
+    /**
+     * Value used to mark an unreachable state of the dynamic programming table.
+     */
+    private static final double UNREACHABLE = Double.POSITIVE_INFINITY;
+
+    /**
+     * Working buffers reused by the calls executed in the same thread.
+     */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
     /**
      * Constructor for the RatliffRosenthal class.
      *
@@ -68,532 +94,433 @@ public class RatliffRosenthal extends RoutingAlgorithm {
             return 0;
         }
 
-        int num_items = 0;
+        Scratch scratch = SCRATCH.get();
+        int numItems = loadHeights(batch, scratch);
+        double distance = shortestTour(scratch);
 
-        HashMap<Integer, ArrayList<Double>> listHeightsByAisle = new HashMap<>();
+        return (distance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * numItems);
+    }
 
-        if (wh.getDepotPlacement() == DEPOT_CORNER) {
-            ArrayList<Double> listHeight = new ArrayList<>();
-            listHeight.add(0.0);
-            listHeightsByAisle.put(0, listHeight);
+    /**
+     * Executes the Ratliff and Rosenthal routing algorithm for the pick locations of a pick profile.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total distance traveled by the picker to collect all items of the profile.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        if (profile.isEmpty()) {
+            return 0;
         }
 
-        for (Order order : batch.getOrders()) {
-            for (Product product : order.getProducts()) {
-                num_items++;
+        Scratch scratch = SCRATCH.get();
+        loadHeights(profile, scratch);
+        double distance = shortestTour(scratch);
 
-                if (listHeightsByAisle.containsKey(product.getAisle())) {
-                    ArrayList<Double> listHeight = listHeightsByAisle.get(product.getAisle());
-                    if (!listHeight.contains(product.getHeightPosition())) {
-                        listHeight.add(product.getHeightPosition());
-                    }
-                } else {
-                    ArrayList<Double> listHeight = new ArrayList<>();
-                    listHeight.add(product.getHeightPosition());
-                    listHeightsByAisle.put(product.getAisle(), listHeight);
+        return (distance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * profile.getNumberOfItems());
+    }
+
+    /**
+     * Returns the aisle that receives an extra pick location at height 0 to
+     * force the route to pass through the depot, or -1 if there is none.
+     *
+     * @return The aisle index of the depot, or -1 if no aisle is forced.
+     */
+    private int getDepotAisle() {
+        if (wh.getDepotPlacement() == DEPOT_CORNER) {
+            return 0;
+        }
+        if (wh.getDepotPlacement() == DEPOT_CENTER && wh.getNumberOfAisles() % 2 != 0) {
+            return ((wh.getNumberOfAisles() + 1) / 2) - 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Groups the heights of the items of the batch by aisle into the scratch buffers.
+     * The heights of each aisle are stored sorted in a contiguous segment of
+     * {@code scratch.heights}, delimited by {@code scratch.aisleStart}.
+     *
+     * @param batch   The batch of orders to be processed.
+     * @param scratch The working buffers of the current thread.
+     * @return The number of items of the batch.
+     */
+    private int loadHeights(Batch batch, Scratch scratch) {
+        int numberOfAisles = wh.getNumberOfAisles();
+        int depotAisle = getDepotAisle();
+        List<Order> orders = batch.getOrders();
+
+        scratch.ensureAisles(numberOfAisles);
+        int[] aisleItems = scratch.aisleItems;
+        int[] aisleStart = scratch.aisleStart;
+        Arrays.fill(aisleItems, 0, numberOfAisles, 0);
+
+        int numItems = 0;
+        for (int o = 0; o < orders.size(); o++) {
+            List<Product> products = orders.get(o).getProducts();
+            for (int p = 0; p < products.size(); p++) {
+                int aisle = products.get(p).getAisle();
+                numItems++;
+                if (aisle >= 0 && aisle < numberOfAisles) {
+                    aisleItems[aisle]++;
                 }
             }
         }
 
-        double distancesBetweenAisles = wh.getShelfWidth() + wh.getAisleWidth();
-        int num_pasos = (wh.getNumberOfAisles() * 2) - 1;
-
-        int pasillo_extra_depot = 0;
-        boolean extra_pasillo = false;
-        if (wh.getDepotPlacement() == DEPOT_CENTER) {
-            if (wh.getNumberOfAisles() % 2 == 0) {
-                num_pasos += 2;
-                pasillo_extra_depot = (wh.getNumberOfAisles() / 2) - 1;
-                extra_pasillo = true;
-            } else {
-                pasillo_extra_depot = (wh.getNumberOfAisles() + 1) / 2;
+        int offset = 0;
+        for (int i = 0; i < numberOfAisles; i++) {
+            aisleStart[i] = offset;
+            offset += aisleItems[i];
+            if (i == depotAisle) {
+                offset++;
             }
         }
+        aisleStart[numberOfAisles] = offset;
+
+        scratch.ensureHeights(offset);
+        double[] heights = scratch.heights;
+        int[] aisleFill = scratch.aisleFill;
+        System.arraycopy(aisleStart, 0, aisleFill, 0, numberOfAisles);
+        if (depotAisle != -1) {
+            heights[aisleFill[depotAisle]++] = 0.0;
+        }
+        for (int o = 0; o < orders.size(); o++) {
+            List<Product> products = orders.get(o).getProducts();
+            for (int p = 0; p < products.size(); p++) {
+                Product product = products.get(p);
+                int aisle = product.getAisle();
+                if (aisle >= 0 && aisle < numberOfAisles) {
+                    heights[aisleFill[aisle]++] = product.getHeightPosition();
+                }
+            }
+        }
+        for (int i = 0; i < numberOfAisles; i++) {
+            if (aisleStart[i + 1] - aisleStart[i] > 1) {
+                Arrays.sort(heights, aisleStart[i], aisleStart[i + 1]);
+            }
+        }
+        return numItems;
+    }
 
-        Double[][] tabla_result = new Double[num_pasos][7];
-
+    /**
+     * Copies the heights of a pick profile by aisle into the scratch buffers, with
+     * the same layout used by {@link #loadHeights(Batch, Scratch)}.
+     *
+     * @param profile The pick profile to be processed.
+     * @param scratch The working buffers of the current thread.
+     */
+    private void loadHeights(PickProfile profile, Scratch scratch) {
+        int numberOfAisles = wh.getNumberOfAisles();
+        int depotAisle = getDepotAisle();
+
+        scratch.ensureAisles(numberOfAisles);
+        int[] aisleStart = scratch.aisleStart;
+        int offset = 0;
+        for (int i = 0; i < numberOfAisles; i++) {
+            aisleStart[i] = offset;
+            int index = profile.isOccupied(i) ? profile.indexOfAisle(i) : -1;
+            if (index >= 0) {
+                offset += profile.getHeightEnd(index) - profile.getHeightStart(index);
+            }
+            if (i == depotAisle) {
+                offset++;
+            }
+        }
+        aisleStart[numberOfAisles] = offset;
+
+        scratch.ensureHeights(offset);
+        double[] heights = scratch.heights;
+        for (int i = 0; i < numberOfAisles; i++) {
+            int position = aisleStart[i];
+            if (i == depotAisle) {
+                heights[position++] = 0.0;
+            }
+            int index = profile.isOccupied(i) ? profile.indexOfAisle(i) : -1;
+            if (index >= 0) {
+                for (int h = profile.getHeightStart(index); h < profile.getHeightEnd(index); h++) {
+                    heights[position++] = profile.getHeight(h);
+                }
+            }
+            if (i == depotAisle && aisleStart[i + 1] - aisleStart[i] > 1) {
+                Arrays.sort(heights, aisleStart[i], aisleStart[i + 1]);
+            }
+        }
+    }
 
-        boolean medio_pasillo = false;
+    /**
+     * Solves the dynamic programming recurrence over the aisles of the warehouse.
+     *
+     * @param scratch The working buffers of the current thread, already loaded with the heights.
+     * @return The length of the shortest route that visits all the pick locations.
+     */
+    private double shortestTour(Scratch scratch) {
+        int numberOfAisles = wh.getNumberOfAisles();
+        double shelfLength = wh.getShelfLength();
+        double aisleWidth = wh.getAisleWidth();
+        double distancesBetweenAisles = wh.getShelfWidth() + aisleWidth;
+
+        int extraDepotAisle = -1;
+        if (wh.getDepotPlacement() == DEPOT_CENTER && numberOfAisles % 2 == 0) {
+            extraDepotAisle = (numberOfAisles / 2) - 1;
+        }
+        int centerDepotAisle = -1;
+        if (wh.getDepotPlacement() == DEPOT_CENTER && numberOfAisles % 2 != 0) {
+            centerDepotAisle = getDepotAisle();
+        }
 
-        int step = 0;
-        for (int i = 0; i < wh.getNumberOfAisles(); i++) {
-            //Calculo las distancias de cada pasillo paralelo
-            double max_alt = -1;
-            double min_alt = 0;
-            double max_gap = 0;
-            double min_alt_gap = 0;
-            boolean has_pasillos = false;
-            if (listHeightsByAisle.containsKey(i)) {
-                has_pasillos = true;
-                ArrayList<Double> listHeights = listHeightsByAisle.get(i);
-                if (!extra_pasillo && i + 1 == pasillo_extra_depot && wh.getDepotPlacement() == DEPOT_CENTER) {
-                    listHeights.add(0.0);
-                }
-                Collections.sort(listHeights);
-                max_alt = listHeights.get(listHeights.size() - 1);
-                min_alt = listHeights.get(0);
-                max_gap = 0;
-                double alt_p = -1;
-                for (double height : listHeights) {
-                    double gap = height - alt_p;
-                    if (alt_p > -1 && gap > max_gap) {
-                        max_gap = gap;
-                        min_alt_gap = alt_p;
+        double[] heights = scratch.heights;
+        int[] aisleStart = scratch.aisleStart;
+        double[] path = scratch.path;
+        double[] pathV = scratch.pathV;
+        double[] previous = scratch.rowA;
+        double[] current = scratch.rowB;
+
+        boolean halfAisle = false;
+
+        for (int i = 0; i < numberOfAisles; i++) {
+            int from = aisleStart[i];
+            int to = aisleStart[i + 1];
+
+            // Distances of each parallel aisle.
+            double maxHeight = -1;
+            double minHeight = 0;
+            double maxGap = 0;
+            double minHeightGap = 0;
+            boolean hasItems = from < to;
+            if (hasItems && (i != centerDepotAisle || to - from > 1)) {
+                maxHeight = heights[to - 1];
+                minHeight = heights[from];
+                double previousHeight = -1;
+                for (int h = from; h < to; h++) {
+                    double gap = heights[h] - previousHeight;
+                    if (previousHeight > -1 && gap > maxGap) {
+                        maxGap = gap;
+                        minHeightGap = previousHeight;
                     }
-                    alt_p = height;
+                    previousHeight = heights[h];
                 }
-            } else if (!extra_pasillo && i + 1 == pasillo_extra_depot && wh.getDepotPlacement() == DEPOT_CENTER) {
-                ArrayList<Double> lista_alturas = new ArrayList<>();
-                lista_alturas.add(0.0);
-                listHeightsByAisle.put(i, lista_alturas);
-                has_pasillos = true;
             }
 
-            Double[] path = new Double[6];
-            path[0] = wh.getShelfLength() + wh.getAisleWidth();
-            path[1] = ((wh.getShelfLength() - min_alt) * 2) + wh.getAisleWidth();
-            if (max_alt == 0) {
+            path[0] = shelfLength + aisleWidth;
+            path[1] = ((shelfLength - minHeight) * 2) + aisleWidth;
+            if (maxHeight == 0) {
                 path[2] = 0.0;
             } else {
-                path[2] = (max_alt * 2) + wh.getAisleWidth();
+                path[2] = (maxHeight * 2) + aisleWidth;
             }
-            if (min_alt_gap == 0) {
-                path[3] = ((wh.getShelfLength() - max_gap) * 2) + wh.getAisleWidth();
+            if (minHeightGap == 0) {
+                path[3] = ((shelfLength - maxGap) * 2) + aisleWidth;
             } else {
-                path[3] = ((wh.getShelfLength() - max_gap + wh.getAisleWidth()) * 2);
+                path[3] = ((shelfLength - maxGap + aisleWidth) * 2);
             }
-            path[4] = (wh.getShelfLength() + wh.getAisleWidth()) * 2;
+            path[4] = (shelfLength + aisleWidth) * 2;
             path[5] = 0.0;
 
-            Double[] path_V = new Double[6];
-            if (!medio_pasillo) {
-                path_V[0] = (distancesBetweenAisles * 2);
-                path_V[1] = (distancesBetweenAisles * 2);
-                path_V[2] = (distancesBetweenAisles * 2);
-                path_V[3] = (distancesBetweenAisles * 4);
-                path_V[4] = 0.0;
-                path_V[5] = 0.0;
+            if (!halfAisle) {
+                fillCrossPath(pathV, distancesBetweenAisles * 2);
             } else {
-                path_V[0] = distancesBetweenAisles;
-                path_V[1] = distancesBetweenAisles;
-                path_V[2] = distancesBetweenAisles;
-                path_V[3] = (distancesBetweenAisles * 2);
-                path_V[4] = 0.0;
-                path_V[5] = 0.0;
-                medio_pasillo = false;
+                fillCrossPath(pathV, distancesBetweenAisles);
+                halfAisle = false;
             }
 
-            if (step == 0) {
-                //distancias pasillos paralelos
-                tabla_result[step][0] = path[0];
-
-
-                tabla_result[step][1] = path[1];
-
-                tabla_result[step][2] = path[2];
-
-                tabla_result[step][3] = path[4];
-
-                tabla_result[step][4] = path[3];
-
-                if (has_pasillos) {
-                    tabla_result[step][5] = -1.0;
-                } else {
-                    tabla_result[step][5] = path[5];
-                }
-
-                tabla_result[step][6] = -1.0;
-
+            if (i == 0) {
+                previous[0] = path[0];
+                previous[1] = path[1];
+                previous[2] = path[2];
+                previous[3] = path[4];
+                previous[4] = path[3];
+                previous[5] = hasItems ? UNREACHABLE : path[5];
+                previous[6] = UNREACHABLE;
             } else {
-                //distancias pasillos transversales
-                tabla_result[step][0] = tabla_result[step - 1][0] + path_V[0];
-
-                tabla_result[step][1] = tabla_result[step - 1][1] + path_V[1];
-
-                tabla_result[step][4] = tabla_result[step - 1][1] + path_V[3];
-
-                if (tabla_result[step - 1][1] != null && tabla_result[step - 1][1] != -1) {
-                    tabla_result[step][6] = tabla_result[step - 1][1] + path_V[4];
-                }
-
-                tabla_result[step][2] = tabla_result[step - 1][2] + path_V[2];
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][2] + path_V[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][2] + path_V[3];
-                }
-
-                if (tabla_result[step - 1][2] != null && tabla_result[step - 1][2] != -1) {
-                    if (tabla_result[step][6] == null || tabla_result[step][6] > tabla_result[step - 1][2] + path_V[4]) {
-                        tabla_result[step][6] = tabla_result[step - 1][2] + path_V[4];
-                    }
-                }
-
-                if (tabla_result[step][1] == null || tabla_result[step][1] > tabla_result[step - 1][3] + path_V[1]) {
-                    tabla_result[step][1] = tabla_result[step - 1][3] + path_V[1];
-                }
-
-                if (tabla_result[step][2] == null || tabla_result[step][2] > tabla_result[step - 1][3] + path_V[2]) {
-                    tabla_result[step][2] = tabla_result[step - 1][3] + path_V[2];
-                }
-                tabla_result[step][3] = tabla_result[step - 1][3] + path_V[3];
-
-                if (tabla_result[step - 1][3] != null && tabla_result[step - 1][3] != -1) {
-                    if (tabla_result[step][6] == null || tabla_result[step][6] > tabla_result[step - 1][3] + path_V[4]) {
-                        tabla_result[step][6] = tabla_result[step - 1][3] + path_V[4];
-                    }
-                }
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][4] + path_V[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][4] + path_V[3];
-                }
-
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1) {
-                    tabla_result[step][5] = tabla_result[step - 1][5] + path_V[4];
-                }
-
-                if (tabla_result[step - 1][6] != null && tabla_result[step - 1][6] != -1 && tabla_result[step][6] > tabla_result[step - 1][6] + path_V[4]) {
-                    tabla_result[step][6] = tabla_result[step - 1][6] + path_V[4];
-                }
-
-                double select_value = Double.MAX_VALUE;
-
-                int max_path = path.length;
-                if (has_pasillos) {
-                    max_path--;
-                }
-
-                for (int j = 1; j < max_path; j++) {
-                    if (path[j] < select_value) {
-                        select_value = path[j];
-                    }
-                }
-
-                step++;
-                //distancias pasillos paralelos
-                tabla_result[step][3] = tabla_result[step - 1][0] + path[0];
-
-                tabla_result[step][0] = tabla_result[step - 1][0] + select_value;
-
-                if (!has_pasillos) {
-                    if (tabla_result[step][0] > tabla_result[step - 1][0] + path[5]) {
-                        tabla_result[step][0] = tabla_result[step - 1][0] + path[5];
-                    }
-                }
-
-                if (tabla_result[step][0] == null || tabla_result[step][0] > tabla_result[step - 1][1] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][1] + path[0];
-                }
-
-                tabla_result[step][1] = tabla_result[step - 1][1] + path[1];
-
-                tabla_result[step][4] = tabla_result[step - 1][1] + path[2];
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][1] + path[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][1] + path[3];
-                }
-
-                if (tabla_result[step][3] == null || tabla_result[step][3] > tabla_result[step - 1][1] + path[4]) {
-                    tabla_result[step][3] = tabla_result[step - 1][1] + path[4];
-                }
-
-                if (!has_pasillos) {
-                    if (tabla_result[step][1] == null || tabla_result[step][1] > tabla_result[step - 1][1] + path[5]) {
-                        tabla_result[step][1] = tabla_result[step - 1][1] + path[5];
-                    }
-                }
-
-                if (tabla_result[step][0] == null || tabla_result[step][0] > tabla_result[step - 1][2] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][2] + path[0];
-                }
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][2] + path[1]) {
-                    tabla_result[step][4] = tabla_result[step - 1][2] + path[1];
-                }
-
-                tabla_result[step][2] = tabla_result[step - 1][2] + path[2];
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][2] + path[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][2] + path[3];
-                }
-
-                if (tabla_result[step][3] == null || tabla_result[step][3] > tabla_result[step - 1][2] + path[4]) {
-                    tabla_result[step][3] = tabla_result[step - 1][2] + path[4];
-                }
-
-                if (!has_pasillos) {
-                    if (tabla_result[step][2] == null || tabla_result[step][2] > tabla_result[step - 1][2] + path[5]) {
-                        tabla_result[step][2] = tabla_result[step - 1][2] + path[5];
-                    }
-                }
-
-                if (tabla_result[step][0] == null || tabla_result[step][0] > tabla_result[step - 1][3] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][3] + path[0];
-                }
-
-                if (tabla_result[step][3] == null || tabla_result[step][3] > tabla_result[step - 1][3] + select_value) {
-                    tabla_result[step][3] = tabla_result[step - 1][3] + select_value;
-                }
-
-                if (!has_pasillos) {
-                    if (tabla_result[step][3] == null || tabla_result[step][3] > tabla_result[step - 1][3] + path[5]) {
-                        tabla_result[step][3] = tabla_result[step - 1][3] + path[5];
-                    }
-                }
-
-                if (tabla_result[step][0] == null || tabla_result[step][0] > tabla_result[step - 1][4] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][4] + path[0];
-                }
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][4] + path[1]) {
-                    tabla_result[step][4] = tabla_result[step - 1][4] + path[1];
-                }
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][4] + path[2]) {
-                    tabla_result[step][4] = tabla_result[step - 1][4] + path[2];
-                }
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][4] + path[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][4] + path[3];
-                }
-
-                if (tabla_result[step][3] == null || tabla_result[step][3] > tabla_result[step - 1][4] + path[4]) {
-                    tabla_result[step][3] = tabla_result[step - 1][4] + path[4];
-                }
-
-                if (!has_pasillos) {
-                    if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][4]) {
-                        tabla_result[step][4] = tabla_result[step - 1][4];
-                    }
-                }
-
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][0] > tabla_result[step - 1][5] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][5] + path[0];
-                }
-
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][1] > tabla_result[step - 1][5] + path[1]) {
-                    tabla_result[step][1] = tabla_result[step - 1][5] + path[1];
-                }
-
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][2] > tabla_result[step - 1][5] + path[2]) {
-                    tabla_result[step][2] = tabla_result[step - 1][5] + path[2];
-                }
-
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][4] > tabla_result[step - 1][5] + path[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][5] + path[3];
-                }
-
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][3] > tabla_result[step - 1][5] + path[4]) {
-                    tabla_result[step][3] = tabla_result[step - 1][5] + path[4];
-                }
-
-                if (!has_pasillos) {
-                    if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][5] == null) {
-                        tabla_result[step][5] = tabla_result[step - 1][5] + path[5];
-                    } else if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][5] > tabla_result[step - 1][5] + path[5]) {
-                        tabla_result[step][5] = tabla_result[step - 1][5] + path[5];
-                    }
-                }
-
-                if (!has_pasillos) {
-                    if (tabla_result[step - 1][6] != null && tabla_result[step - 1][6] != -1 && tabla_result[step][6] == null) {
-                        tabla_result[step][6] = tabla_result[step - 1][6] + path[5];
-                    } else if (tabla_result[step - 1][6] != null && tabla_result[step - 1][6] != -1 && tabla_result[step][6] > tabla_result[step - 1][6] + path[5]) {
-                        tabla_result[step][6] = tabla_result[step - 1][6] + path[5];
-                    }
-                }
-
+                crossAisleStep(previous, current, pathV);
+                aisleStep(current, previous, path, hasItems);
             }
-            step++;
-
-            if (extra_pasillo && pasillo_extra_depot == i) {
 
-                medio_pasillo = true;
+            if (i == extraDepotAisle) {
+                halfAisle = true;
 
-                path = new Double[6];
-                path[0] = wh.getShelfLength() + wh.getAisleWidth();
-                path[1] = (wh.getShelfLength() * 2) + wh.getAisleWidth();
+                path[0] = shelfLength + aisleWidth;
+                path[1] = (shelfLength * 2) + aisleWidth;
                 path[2] = 0.0;
-                path[3] = (wh.getShelfLength() + wh.getAisleWidth()) * 2;
-                path[4] = (wh.getShelfLength() + wh.getAisleWidth()) * 2;
+                path[3] = (shelfLength + aisleWidth) * 2;
+                path[4] = (shelfLength + aisleWidth) * 2;
                 path[5] = 0.0;
+                fillCrossPath(pathV, distancesBetweenAisles);
 
-                path_V = new Double[6];
-                path_V[0] = distancesBetweenAisles;
-                path_V[1] = distancesBetweenAisles;
-                path_V[2] = distancesBetweenAisles;
-                path_V[3] = (distancesBetweenAisles * 2);
-                path_V[4] = 0.0;
-                path_V[5] = 0.0;
-
-                //distancias pasillos transversales
-                tabla_result[step][0] = tabla_result[step - 1][0] + path_V[0];
-
-                tabla_result[step][1] = tabla_result[step - 1][1] + path_V[1];
-
-                tabla_result[step][4] = tabla_result[step - 1][1] + path_V[3];
-
-                if (tabla_result[step - 1][1] != null && tabla_result[step - 1][1] != -1) {
-                    tabla_result[step][6] = tabla_result[step - 1][1] + path_V[4];
-                }
-
-                tabla_result[step][2] = tabla_result[step - 1][2] + path_V[2];
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][2] + path_V[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][2] + path_V[3];
-                }
-
-                if (tabla_result[step - 1][2] != null && tabla_result[step - 1][2] != -1) {
-                    if (tabla_result[step][6] == null || tabla_result[step][6] > tabla_result[step - 1][2] + path_V[4]) {
-                        tabla_result[step][6] = tabla_result[step - 1][2] + path_V[4];
-                    }
-                }
-
-                if (tabla_result[step][1] == null || tabla_result[step][1] > tabla_result[step - 1][3] + path_V[1]) {
-                    tabla_result[step][1] = tabla_result[step - 1][3] + path_V[1];
-                }
-
-                if (tabla_result[step][2] == null || tabla_result[step][2] > tabla_result[step - 1][3] + path_V[2]) {
-                    tabla_result[step][2] = tabla_result[step - 1][3] + path_V[2];
-                }
-                tabla_result[step][3] = tabla_result[step - 1][3] + path_V[3];
-
-                if (tabla_result[step - 1][3] != null && tabla_result[step - 1][3] != -1) {
-                    if (tabla_result[step][6] == null || tabla_result[step][6] > tabla_result[step - 1][3] + path_V[4]) {
-                        tabla_result[step][6] = tabla_result[step - 1][3] + path_V[4];
-                    }
-                }
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][4] + path_V[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][4] + path_V[3];
-                }
-
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1) {
-                    tabla_result[step][5] = tabla_result[step - 1][5] + path_V[4];
-                }
-
-                if (tabla_result[step - 1][6] != null && tabla_result[step - 1][6] != -1 && tabla_result[step][6] > tabla_result[step - 1][6] + path_V[4]) {
-                    tabla_result[step][6] = tabla_result[step - 1][6] + path_V[4];
-                }
-
-                double select_value = Double.MAX_VALUE;
-
-                int max_path = path.length;
-                max_path--;
-
-                for (int j = 1; j < max_path; j++) {
-                    if (path[j] < select_value) {
-                        select_value = path[j];
-                    }
-                }
-
-                step++;
-
-                tabla_result[step][3] = tabla_result[step - 1][0] + path[0];
-
-                tabla_result[step][0] = tabla_result[step - 1][0] + select_value;
-
-                if (tabla_result[step][0] == null || tabla_result[step][0] > tabla_result[step - 1][1] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][1] + path[0];
-                }
-
-                tabla_result[step][1] = tabla_result[step - 1][1] + path[1];
-
-                tabla_result[step][4] = tabla_result[step - 1][1] + path[2];
-
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][1] + path[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][1] + path[3];
-                }
-
-                if (tabla_result[step][3] == null || tabla_result[step][3] > tabla_result[step - 1][1] + path[4]) {
-                    tabla_result[step][3] = tabla_result[step - 1][1] + path[4];
-                }
-
-                if (tabla_result[step][0] == null || tabla_result[step][0] > tabla_result[step - 1][2] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][2] + path[0];
-                }
+                crossAisleStep(previous, current, pathV);
+                aisleStep(current, previous, path, true);
+            }
+        }
 
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][2] + path[1]) {
-                    tabla_result[step][4] = tabla_result[step - 1][2] + path[1];
-                }
+        double min = Double.MAX_VALUE;
+        for (int j = 0; j < NUM_STATES; j++) {
+            double value = previous[j];
+            if (value > 0 && min > value && j != 0 && j != 4 && j != 5) {
+                min = value;
+            }
+        }
+        return min;
+    }
 
-                tabla_result[step][2] = tabla_result[step - 1][2] + path[2];
+    /**
+     * Fills the distances of the cross aisle between two consecutive aisles.
+     *
+     * @param pathV    The array to fill.
+     * @param distance The distance between the two aisles.
+     */
+    private static void fillCrossPath(double[] pathV, double distance) {
+        pathV[0] = distance;
+        pathV[1] = distance;
+        pathV[2] = distance;
+        pathV[3] = distance * 2;
+        pathV[4] = 0.0;
+        pathV[5] = 0.0;
+    }
 
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][2] + path[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][2] + path[3];
-                }
+    /**
+     * Computes the states reached after traversing the cross aisles towards the next aisle.
+     *
+     * @param previous The states before the cross aisles.
+     * @param current  The array that receives the states after the cross aisles.
+     * @param pathV    The distances of the cross aisles.
+     */
+    private static void crossAisleStep(double[] previous, double[] current, double[] pathV) {
+        current[0] = previous[0] + pathV[0];
+        current[1] = Math.min(previous[1] + pathV[1], previous[3] + pathV[1]);
+        current[2] = Math.min(previous[2] + pathV[2], previous[3] + pathV[2]);
+        current[3] = previous[3] + pathV[3];
+        current[4] = min(previous[1] + pathV[3], previous[2] + pathV[3], previous[4] + pathV[3]);
+        current[5] = previous[5] + pathV[4];
+        current[6] = Math.min(min(previous[1] + pathV[4], previous[2] + pathV[4], previous[3] + pathV[4]),
+                previous[6] + pathV[4]);
+    }
 
-                if (tabla_result[step][3] == null || tabla_result[step][3] > tabla_result[step - 1][2] + path[4]) {
-                    tabla_result[step][3] = tabla_result[step - 1][2] + path[4];
-                }
+    /**
+     * Computes the states reached after traversing an aisle.
+     *
+     * @param previous The states before the aisle.
+     * @param current  The array that receives the states after the aisle.
+     * @param path     The distances of each alternative to traverse the aisle.
+     * @param hasItems Indicates whether the aisle has items to pick (it cannot be skipped).
+     */
+    private static void aisleStep(double[] previous, double[] current, double[] path, boolean hasItems) {
+        double selectValue = Double.MAX_VALUE;
+        int maxPath = hasItems ? NUM_PATHS - 1 : NUM_PATHS;
+        for (int j = 1; j < maxPath; j++) {
+            if (path[j] < selectValue) {
+                selectValue = path[j];
+            }
+        }
 
-                if (tabla_result[step][0] == null || tabla_result[step][0] > tabla_result[step - 1][3] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][3] + path[0];
-                }
+        double p0 = previous[0];
+        double p1 = previous[1];
+        double p2 = previous[2];
+        double p3 = previous[3];
+        double p4 = previous[4];
+        double p5 = previous[5];
+
+        double c0 = min(p0 + selectValue, p1 + path[0], p2 + path[0]);
+        c0 = min(c0, p3 + path[0], p4 + path[0]);
+        double c1 = p1 + path[1];
+        double c2 = p2 + path[2];
+        double c3 = min(p0 + path[0], p1 + path[4], p2 + path[4]);
+        c3 = min(c3, p3 + selectValue, p4 + path[4]);
+        double c4 = min(p1 + path[2], p1 + path[3], p2 + path[1]);
+        c4 = min(c4, p2 + path[3], p4 + path[1]);
+        c4 = min(c4, p4 + path[2], p4 + path[3]);
+
+        if (!hasItems) {
+            c0 = Math.min(c0, p0 + path[5]);
+            c1 = Math.min(c1, p1 + path[5]);
+            c2 = Math.min(c2, p2 + path[5]);
+            c3 = Math.min(c3, p3 + path[5]);
+            c4 = Math.min(c4, p4);
+        }
 
-                if (tabla_result[step][3] == null || tabla_result[step][3] > tabla_result[step - 1][3] + select_value) {
-                    tabla_result[step][3] = tabla_result[step - 1][3] + select_value;
-                }
+        c0 = Math.min(c0, p5 + path[0]);
+        c1 = Math.min(c1, p5 + path[1]);
+        c2 = Math.min(c2, p5 + path[2]);
+        c4 = Math.min(c4, p5 + path[3]);
+        c3 = Math.min(c3, p5 + path[4]);
+
+        current[0] = c0;
+        current[1] = c1;
+        current[2] = c2;
+        current[3] = c3;
+        current[4] = c4;
+        if (hasItems) {
+            current[5] = UNREACHABLE;
+            current[6] = UNREACHABLE;
+        } else {
+            current[5] = p5 + path[5];
+            current[6] = previous[6] + path[5];
+        }
+    }
 
-                if (tabla_result[step][0] == null || tabla_result[step][0] > tabla_result[step - 1][4] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][4] + path[0];
-                }
+    /**
+     * Returns the minimum of three values.
+     *
+     * @param a The first value.
+     * @param b The second value.
+     * @param c The third value.
+     * @return The minimum of the three values.
+     */
+    private static double min(double a, double b, double c) {
+        return Math.min(Math.min(a, b), c);
+    }
 
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][4] + path[1]) {
-                    tabla_result[step][4] = tabla_result[step - 1][4] + path[1];
-                }
+    /**
+     * Working buffers of the algorithm. Each thread keeps its own instance,
+     * which grows on demand and is reused by all the following calls.
+     */
+    private static final class Scratch {
 
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][4] + path[2]) {
-                    tabla_result[step][4] = tabla_result[step - 1][4] + path[2];
-                }
+        /** Number of items of each aisle. */
+        private int[] aisleItems = new int[0];
 
-                if (tabla_result[step][4] == null || tabla_result[step][4] > tabla_result[step - 1][4] + path[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][4] + path[3];
-                }
+        /** First position of the heights of each aisle (one extra position as end marker). */
+        private int[] aisleStart = new int[1];
 
-                if (tabla_result[step][3] == null || tabla_result[step][3] > tabla_result[step - 1][4] + path[4]) {
-                    tabla_result[step][3] = tabla_result[step - 1][4] + path[4];
-                }
+        /** Next free position of the heights of each aisle while loading. */
+        private int[] aisleFill = new int[0];
 
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][0] > tabla_result[step - 1][5] + path[0]) {
-                    tabla_result[step][0] = tabla_result[step - 1][5] + path[0];
-                }
+        /** Heights of the items grouped by aisle. */
+        private double[] heights = new double[16];
 
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][1] > tabla_result[step - 1][5] + path[1]) {
-                    tabla_result[step][1] = tabla_result[step - 1][5] + path[1];
-                }
+        /** Distances of each alternative to traverse an aisle. */
+        private final double[] path = new double[NUM_PATHS];
 
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][2] > tabla_result[step - 1][5] + path[2]) {
-                    tabla_result[step][2] = tabla_result[step - 1][5] + path[2];
-                }
+        /** Distances of each alternative to traverse a cross aisle. */
+        private final double[] pathV = new double[NUM_PATHS];
 
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][4] > tabla_result[step - 1][5] + path[3]) {
-                    tabla_result[step][4] = tabla_result[step - 1][5] + path[3];
-                }
+        /** First rolling row of the dynamic programming table. */
+        private final double[] rowA = new double[NUM_STATES];
 
-                if (tabla_result[step - 1][5] != null && tabla_result[step - 1][5] != -1 && tabla_result[step][3] > tabla_result[step - 1][5] + path[4]) {
-                    tabla_result[step][3] = tabla_result[step - 1][5] + path[4];
-                }
+        /** Second rolling row of the dynamic programming table. */
+        private final double[] rowB = new double[NUM_STATES];
 
-                step++;
+        /**
+         * Ensures the aisle buffers can hold the given number of aisles.
+         *
+         * @param numberOfAisles The number of aisles of the warehouse.
+         */
+        private void ensureAisles(int numberOfAisles) {
+            if (aisleItems.length < numberOfAisles) {
+                aisleItems = new int[numberOfAisles];
+                aisleFill = new int[numberOfAisles];
+                aisleStart = new int[numberOfAisles + 1];
             }
-
         }
 
-        step--;
-
-        double min = Double.MAX_VALUE;
-        for (int j = 0; j < tabla_result[step].length; j++) {
-            Double pa = tabla_result[step][j];
-            if (pa != null) {
-                if (pa > 0 && min > pa && j != 0 && j != 4 && j != 5) {
-                    min = pa;
-                }
+        /**
+         * Ensures the heights buffer can hold the given number of heights.
+         *
+         * @param size The number of heights to store.
+         */
+        private void ensureHeights(int size) {
+            if (heights.length < size) {
+                heights = new double[Math.max(size, heights.length * 2)];
             }
         }
-        double distancia = min;
-
-
-        return (distancia * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * num_items);
     }
-
 }
@@ -0,0 +1,650 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import java.util.Arrays;
+
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+
+/**
+ * Implements an exact routing algorithm for multi-block warehouses in the style of
+ * Roodbergen and de Koster, which generalizes the dynamic programming of Ratliff and
+ * Rosenthal to warehouses with middle cross aisles.
+ * <p>
+ * The warehouse is seen as a grid graph: one vertex per aisle and cross aisle, joined
+ * by the sub-aisles of each block and by the cross aisle sections between consecutive
+ * aisles. A picking tour is a connected multigraph on this grid in which every vertex
+ * has even degree, every pick location is covered and the depot is visited. The
+ * algorithm sweeps the aisles from left to right. For each aisle it decides how every
+ * sub-aisle is covered (not at all, traversed once or twice, entered and left from the
+ * front, from the back or from both sides skipping the largest gap) and how many times
+ * each cross aisle section to the next aisle is used. The state of the sweep is, for each
+ * cross aisle vertex of the current aisle, the parity of its degree and the connected
+ * component it belongs to.
+ * <p>
+ * States are packed in an {@code int} (4 bits per cross aisle) and the costs are kept in
+ * primitive open-addressing tables reused per thread. The time is linear in the number of
+ * aisles, but each aisle costs the number of states times the moves tried per state, and
+ * both grow exponentially with the number of blocks. With {@code k} blocks a state labels
+ * each of the {@code k + 1} cross aisle vertices with a parity and a component, so there
+ * are up to 13, 71, 457 and 3355 states with one to four blocks. Each state is expanded
+ * once per sub-aisle and once per subset of its visited vertices with even degree at
+ * the cross aisle step. In practice the same batches take about 15 to 60 times longer
+ * to route with four blocks than with one.
+ * The states are pruned with the length of the multi-block S-shape and largest gap routes
+ * as upper bound, plus the cross aisle travel still needed to reach the rightmost aisle
+ * with items and come back.
+ * Up to {@value #MAX_BLOCKS} blocks are supported. With a single block the algorithm
+ * returns the same values as {@link RatliffRosenthal} for a depot in the corner.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class RoodbergenDeKoster extends RoutingAlgorithm {
+
+    /**
+     * Maximum number of blocks supported by the state encoding.
+     */
+    public static final int MAX_BLOCKS = 6;
+
+    /**
+     * State of a completed tour.
+     */
+    private static final int CLOSED = -1;
+
+    /**
+     * Number of bits of each cross aisle vertex in a state.
+     */
+    private static final int VERTEX_BITS = 4;
+
+    /**
+     * Mask of the component label of a vertex (0 if the vertex is not visited).
+     */
+    private static final int LABEL_MASK = 7;
+
+    /**
+     * Bit of the degree parity of a vertex.
+     */
+    private static final int PARITY_BIT = 8;
+
+    /**
+     * Enter the sub-aisle from the front cross aisle and go back.
+     */
+    private static final int FROM_FRONT = 0;
+
+    /**
+     * Enter the sub-aisle from the back cross aisle and go back.
+     */
+    private static final int FROM_BACK = 1;
+
+    /**
+     * Enter the sub-aisle from both cross aisles, skipping the largest gap.
+     */
+    private static final int FROM_BOTH = 2;
+
+    /**
+     * Traverse the sub-aisle once.
+     */
+    private static final int TRAVERSE = 3;
+
+    /**
+     * Traverse the sub-aisle twice.
+     */
+    private static final int TRAVERSE_TWICE = 4;
+
+    /**
+     * Tolerance added to the upper bound so that the optimal tour is never pruned by rounding errors.
+     */
+    private static final double EPSILON = 1e-6;
+
+    /**
+     * Working buffers reused by the calls executed in the same thread.
+     */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Multi-block S-shape heuristic, used as upper bound.
+     */
+    private final S_Shape_MultiBlock sShape;
+
+    /**
+     * Multi-block largest gap heuristic, used as upper bound.
+     */
+    private final Largest_Gap_MultiBlock largestGap;
+
+    /**
+     * Constructor for the RoodbergenDeKoster class.
+     *
+     * @param warehouse The warehouse object containing the layout and configuration details.
+     */
+    public RoodbergenDeKoster(Warehouse warehouse) {
+        super(warehouse);
+        this.sShape = new S_Shape_MultiBlock(warehouse);
+        this.largestGap = new Largest_Gap_MultiBlock(warehouse);
+    }
+
+    /**
+     * Executes the exact multi-block routing algorithm for the pick locations of a pick profile.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total time of the shortest route that collects all items of the profile.
+     * @throws IllegalStateException If the warehouse has more than {@value #MAX_BLOCKS} blocks.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        if (profile.isEmpty()) {
+            return 0;
+        }
+        if (wh.getNumberOfBlocks() > MAX_BLOCKS) {
+            throw new IllegalStateException("The exact multi-block routing supports up to " + MAX_BLOCKS + " blocks. [RoodbergenDeKoster.run]");
+        }
+
+        BlockSegments segments = new BlockSegments(profile, wh);
+        double distance = shortestTour(segments, SCRATCH.get());
+
+        return (distance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * profile.getNumberOfItems());
+    }
+
+    /**
+     * Sweeps the aisles between the depot and the extreme occupied aisles and returns
+     * the length of the shortest tour.
+     *
+     * @param segments The pick locations split by block.
+     * @param scratch  The working buffers of the current thread.
+     * @return The length of the shortest tour.
+     */
+    private double shortestTour(BlockSegments segments, Scratch scratch) {
+        int numberOfBlocks = segments.numberOfBlocks;
+        int numberOfVertices = numberOfBlocks + 1;
+        double distancesBetweenAisles = wh.getShelfWidth() + wh.getAisleWidth();
+        double depotPosition = BlockSegments.depotPosition(wh);
+        int[] aisles = segments.aisles;
+
+        int firstAisle = Math.min(aisles[0], (int) Math.floor(depotPosition));
+        int lastAisle = Math.max(aisles[aisles.length - 1], (int) Math.ceil(depotPosition));
+        boolean depotBetweenAisles = depotPosition != Math.floor(depotPosition);
+
+        double rightmost = Math.max(aisles[aisles.length - 1], depotPosition);
+        double upperBound = Math.min(sShape.tourLength(segments), largestGap.tourLength(segments)) + EPSILON;
+
+        StateTable current = scratch.current;
+        current.clear();
+        current.relax(0, 0.0);
+        double previousPosition = Double.NaN;
+        int aisleIndex = 0;
+
+        for (int aisle = firstAisle; aisle <= lastAisle; aisle++) {
+            if (depotBetweenAisles && depotPosition < aisle && depotPosition > aisle - 1) {
+                // Column of the depot, without sub-aisles.
+                double limit = upperBound - ((rightmost - depotPosition) * distancesBetweenAisles * 2);
+                current = crossAisleStep(scratch, current, (depotPosition - previousPosition) * distancesBetweenAisles, numberOfVertices, limit);
+                current = visitDepot(scratch, current, numberOfVertices);
+                previousPosition = depotPosition;
+            }
+
+            double limit = upperBound - (Math.max(0, rightmost - aisle) * distancesBetweenAisles * 2);
+            if (!Double.isNaN(previousPosition)) {
+                current = crossAisleStep(scratch, current, (aisle - previousPosition) * distancesBetweenAisles, numberOfVertices, limit);
+            }
+            if (!depotBetweenAisles && aisle == depotPosition) {
+                current = visitDepot(scratch, current, numberOfVertices);
+            }
+
+            boolean occupied = aisleIndex < aisles.length && aisles[aisleIndex] == aisle;
+            for (int block = 0; block < numberOfBlocks; block++) {
+                int segment = occupied ? segments.segment(aisleIndex, block) : -1;
+                current = subAisleStep(scratch, current, segments, segment, block, numberOfVertices, limit);
+            }
+            if (occupied) {
+                aisleIndex++;
+            }
+            previousPosition = aisle;
+        }
+
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < current.size(); i++) {
+            int state = current.keyAt(i);
+            if (state == CLOSED || isComplete(state, numberOfVertices)) {
+                min = Math.min(min, current.valueAt(i));
+            }
+        }
+        return min;
+    }
+
+    /**
+     * Applies the decisions on one sub-aisle of the current aisle to all the states.
+     *
+     * @param scratch          The working buffers of the current thread.
+     * @param current          The states before the sub-aisle.
+     * @param segments         The pick locations split by block.
+     * @param segment          The index of the sub-aisle in the summary, or -1 if it has no pick locations.
+     * @param block            The block of the sub-aisle.
+     * @param numberOfVertices The number of cross aisles.
+     * @param limit            The maximum cost of the states worth keeping.
+     * @return The states after the sub-aisle.
+     */
+    private StateTable subAisleStep(Scratch scratch, StateTable current, BlockSegments segments, int segment,
+                                    int block, int numberOfVertices, double limit) {
+        StateTable next = scratch.other(current);
+        next.clear();
+
+        double blockLength = segments.blockLength;
+        double aisleWidth = wh.getAisleWidth();
+        boolean hasItems = segment >= 0 && segments.count[segment] > 0;
+
+        double[] cost = scratch.cost;
+        cost[TRAVERSE] = blockLength + aisleWidth;
+        cost[TRAVERSE_TWICE] = (blockLength + aisleWidth) * 2;
+        if (hasItems) {
+            cost[FROM_FRONT] = (segments.maxHeight[segment] * 2) + aisleWidth;
+            cost[FROM_BACK] = ((blockLength - segments.minHeight[segment]) * 2) + aisleWidth;
+            cost[FROM_BOTH] = ((blockLength - segments.innerGap[segment]) * 2) + (aisleWidth * 2);
+        }
+        int firstMove = hasItems ? FROM_FRONT : TRAVERSE;
+        boolean gapMove = hasItems && segments.count[segment] > 1;
+
+        for (int i = 0; i < current.size(); i++) {
+            int state = current.keyAt(i);
+            double value = current.valueAt(i);
+            if (state == CLOSED) {
+                if (!hasItems) {
+                    next.relax(CLOSED, value);
+                }
+                continue;
+            }
+            if (!hasItems) {
+                next.relax(state, value);
+            }
+            for (int move = firstMove; move <= TRAVERSE_TWICE; move++) {
+                if ((move == FROM_BOTH && !gapMove) || value + cost[move] > limit) {
+                    continue;
+                }
+                next.relax(applyMove(state, block, move, numberOfVertices), value + cost[move]);
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Applies the use of the cross aisle sections between the current aisle and the next
+     * one to all the states. Every visited vertex must leave with even degree, and every
+     * component must continue to the next aisle unless it is the only one, which closes the tour.
+     *
+     * @param scratch          The working buffers of the current thread.
+     * @param current          The states of the current aisle.
+     * @param distance         The distance between the current aisle and the next one.
+     * @param numberOfVertices The number of cross aisles.
+     * @param limit            The maximum cost of the states worth keeping.
+     * @return The states of the next aisle.
+     */
+    private StateTable crossAisleStep(Scratch scratch, StateTable current, double distance, int numberOfVertices,
+                                      double limit) {
+        StateTable next = scratch.other(current);
+        next.clear();
+
+        for (int i = 0; i < current.size(); i++) {
+            int state = current.keyAt(i);
+            double value = current.valueAt(i);
+            if (state == CLOSED || state == 0) {
+                next.relax(state, value);
+                continue;
+            }
+
+            int forced = 0;
+            int free = 0;
+            int labels = 0;
+            for (int v = 0; v < numberOfVertices; v++) {
+                int label = label(state, v);
+                if (label != 0) {
+                    labels |= 1 << label;
+                    if (parity(state, v) != 0) {
+                        forced |= 1 << v;
+                    } else {
+                        free |= 1 << v;
+                    }
+                }
+            }
+
+            // Enumerate the subsets of free vertices that continue with two edges.
+            int subset = free;
+            while (true) {
+                int continuing = 0;
+                int nextState = 0;
+                int edges = 0;
+                for (int v = 0; v < numberOfVertices; v++) {
+                    int bit = 1 << v;
+                    if ((forced & bit) != 0) {
+                        nextState |= (label(state, v) | PARITY_BIT) << (v * VERTEX_BITS);
+                        continuing |= 1 << label(state, v);
+                        edges++;
+                    } else if ((subset & bit) != 0) {
+                        nextState |= label(state, v) << (v * VERTEX_BITS);
+                        continuing |= 1 << label(state, v);
+                        edges += 2;
+                    }
+                }
+                if (continuing == labels) {
+                    if (value + (edges * distance) <= limit) {
+                        next.relax(canonical(nextState, numberOfVertices), value + (edges * distance));
+                    }
+                } else if (continuing == 0 && Integer.bitCount(labels) == 1) {
+                    next.relax(CLOSED, value);
+                }
+                if (subset == 0) {
+                    break;
+                }
+                subset = (subset - 1) & free;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Marks the depot vertex (front cross aisle of the current column) as visited in all
+     * the states. States whose tour is already closed are discarded.
+     *
+     * @param scratch          The working buffers of the current thread.
+     * @param current          The states of the current column.
+     * @param numberOfVertices The number of cross aisles.
+     * @return The states with the depot visited.
+     */
+    private StateTable visitDepot(Scratch scratch, StateTable current, int numberOfVertices) {
+        StateTable next = scratch.other(current);
+        next.clear();
+        for (int i = 0; i < current.size(); i++) {
+            int state = current.keyAt(i);
+            if (state != CLOSED) {
+                next.relax(canonical(touch(state, 0, numberOfVertices), numberOfVertices), current.valueAt(i));
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Applies a decision on a sub-aisle to a state.
+     *
+     * @param state            The state before the sub-aisle.
+     * @param block            The block of the sub-aisle, between cross aisles {@code block} and {@code block + 1}.
+     * @param move             The way the sub-aisle is covered.
+     * @param numberOfVertices The number of cross aisles.
+     * @return The canonical state after the sub-aisle.
+     */
+    private static int applyMove(int state, int block, int move, int numberOfVertices) {
+        int front = block;
+        int back = block + 1;
+        if (move != FROM_BACK) {
+            state = touch(state, front, numberOfVertices);
+        }
+        if (move != FROM_FRONT) {
+            state = touch(state, back, numberOfVertices);
+        }
+        if (move == TRAVERSE) {
+            state ^= (PARITY_BIT << (front * VERTEX_BITS)) | (PARITY_BIT << (back * VERTEX_BITS));
+        }
+        if (move == TRAVERSE || move == TRAVERSE_TWICE) {
+            int keep = label(state, front);
+            int replace = label(state, back);
+            if (keep != replace) {
+                for (int v = 0; v < numberOfVertices; v++) {
+                    if (label(state, v) == replace) {
+                        state = (state & ~(LABEL_MASK << (v * VERTEX_BITS))) | (keep << (v * VERTEX_BITS));
+                    }
+                }
+            }
+        }
+        return canonical(state, numberOfVertices);
+    }
+
+    /**
+     * Marks a vertex as visited, giving it a new component if it was not visited.
+     *
+     * @param state            The state.
+     * @param vertex           The vertex to visit.
+     * @param numberOfVertices The number of cross aisles.
+     * @return The state with the vertex visited.
+     */
+    private static int touch(int state, int vertex, int numberOfVertices) {
+        if (label(state, vertex) != 0) {
+            return state;
+        }
+        int maxLabel = 0;
+        for (int v = 0; v < numberOfVertices; v++) {
+            maxLabel = Math.max(maxLabel, label(state, v));
+        }
+        return state | ((maxLabel + 1) << (vertex * VERTEX_BITS));
+    }
+
+    /**
+     * Renumbers the components of a state in order of first appearance, so that equivalent
+     * states have the same encoding.
+     *
+     * @param state            The state.
+     * @param numberOfVertices The number of cross aisles.
+     * @return The canonical state.
+     */
+    private static int canonical(int state, int numberOfVertices) {
+        int mapping = 0;
+        int nextLabel = 1;
+        int result = 0;
+        for (int v = 0; v < numberOfVertices; v++) {
+            int shift = v * VERTEX_BITS;
+            int label = label(state, v);
+            if (label != 0) {
+                int mapped = (mapping >>> (label * VERTEX_BITS)) & 15;
+                if (mapped == 0) {
+                    mapped = nextLabel++;
+                    mapping |= mapped << (label * VERTEX_BITS);
+                }
+                result |= mapped << shift;
+            }
+            result |= state & (PARITY_BIT << shift);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if a state is a complete tour: a single component where every vertex has even degree.
+     *
+     * @param state            The state.
+     * @param numberOfVertices The number of cross aisles.
+     * @return {@code true} if the state is a complete tour.
+     */
+    private static boolean isComplete(int state, int numberOfVertices) {
+        if (state == 0) {
+            return false;
+        }
+        for (int v = 0; v < numberOfVertices; v++) {
+            if (label(state, v) > 1 || parity(state, v) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the component label of a vertex of a state.
+     *
+     * @param state  The state.
+     * @param vertex The vertex.
+     * @return The label, or 0 if the vertex is not visited.
+     */
+    private static int label(int state, int vertex) {
+        return (state >>> (vertex * VERTEX_BITS)) & LABEL_MASK;
+    }
+
+    /**
+     * Returns the degree parity of a vertex of a state.
+     *
+     * @param state  The state.
+     * @param vertex The vertex.
+     * @return 1 if the degree is odd, 0 otherwise.
+     */
+    private static int parity(int state, int vertex) {
+        return (state >>> (vertex * VERTEX_BITS)) & PARITY_BIT;
+    }
+
+    /**
+     * Open-addressing table from states to the cost of the shortest partial tour.
+     */
+    private static final class StateTable {
+
+        /** Marker of an empty slot. */
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        /** States of the slots. */
+        private int[] keys = new int[64];
+
+        /** Costs of the slots. */
+        private double[] values = new double[64];
+
+        /** Used slots, in insertion order. */
+        private int[] slots = new int[64];
+
+        /** Number of states in the table. */
+        private int size;
+
+        /**
+         * Constructs an empty table.
+         */
+        private StateTable() {
+            Arrays.fill(keys, EMPTY);
+        }
+
+        /**
+         * Removes all the states.
+         */
+        private void clear() {
+            for (int i = 0; i < size; i++) {
+                keys[slots[i]] = EMPTY;
+            }
+            size = 0;
+        }
+
+        /**
+         * Stores the cost of a state if it is lower than the stored one.
+         *
+         * @param key   The state.
+         * @param value The cost of the state.
+         */
+        private void relax(int key, double value) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    if (value < values[slot]) {
+                        values[slot] = value;
+                    }
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            slots[size++] = slot;
+            if (size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        /**
+         * Doubles the capacity of the table.
+         */
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldValues = values;
+            int[] oldSlots = slots;
+            int oldSize = size;
+            keys = new int[oldKeys.length * 2];
+            values = new double[oldKeys.length * 2];
+            slots = new int[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+            for (int i = 0; i < oldSize; i++) {
+                relax(oldKeys[oldSlots[i]], oldValues[oldSlots[i]]);
+            }
+        }
+
+        /**
+         * Returns the number of states.
+         *
+         * @return The number of states.
+         */
+        private int size() {
+            return size;
+        }
+
+        /**
+         * Returns the state at a position of the insertion order.
+         *
+         * @param index The position.
+         * @return The state.
+         */
+        private int keyAt(int index) {
+            return keys[slots[index]];
+        }
+
+        /**
+         * Returns the cost at a position of the insertion order.
+         *
+         * @param index The position.
+         * @return The cost.
+         */
+        private double valueAt(int index) {
+            return values[slots[index]];
+        }
+
+        /**
+         * Hashes a state.
+         *
+         * @param key The state.
+         * @return The hash of the state.
+         */
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+
+    /**
+     * Working buffers of the algorithm. Each thread keeps its own instance,
+     * which is reused by all the following calls.
+     */
+    private static final class Scratch {
+
+        /** First state table. */
+        private final StateTable current = new StateTable();
+
+        /** Second state table. */
+        private final StateTable next = new StateTable();
+
+        /** Cost of each way of covering a sub-aisle. */
+        private final double[] cost = new double[TRAVERSE_TWICE + 1];
+
+        /**
+         * Returns the table that is not the given one.
+         *
+         * @param table One of the two tables.
+         * @return The other table.
+         */
+        private StateTable other(StateTable table) {
+            return table == current ? next : current;
+        }
+    }
+}
@@ -19,7 +19,17 @@
 package com.instancesobp.routingAlgorithm;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.IntStream;
+
 import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
 import com.instancesobp.models.Warehouse;
 
 /**
@@ -27,14 +37,41 @@ import com.instancesobp.models.Warehouse;
  * This class provides a common structure for all routing algorithms, which
  * calculate the total distance traveled by a picker to collect items in a batch.
  * Subclasses must implement the {@code run} method to define the specific routing logic.
+ * The routing logic works on the {@link PickProfile} of a batch, so a batch can
+ * also be routed directly from the union of the profiles of its orders.
+ * The {@code costIf*} methods evaluate the cost of a batch after adding or removing
+ * orders without modifying or copying the batch. By default they route the merged or
+ * subtracted profile from scratch; the heuristic algorithms override them to look
+ * only at the aisles touched by the change when possible.
+ * <p>
+ * Routing algorithms must be re-entrant: an instance does not keep the state of a
+ * call in its fields, which only hold the warehouse, values derived from it or
+ * synchronized shared data. The state of each call is kept in local variables or
+ * in per-thread scratch buffers. One instance can therefore be shared by several
+ * threads that route different batches at the same time, and every thread obtains
+ * the same result as a single-threaded run. Batches must not be modified while they
+ * are being routed.
+ * <p>
+ * The {@code runAll} methods route a whole list of batches, sequentially or in
+ * parallel depending on the {@link ExecutionMode} of the algorithm. Lists shorter
+ * than the parallel threshold are always routed sequentially.
  *
  * @author Sergio Gil Borrás
  * @version 1.0
  */
 public abstract class RoutingAlgorithm implements Serializable {
 
+    /** Default minimum number of batches routed in parallel by {@code runAll}. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 16;
+
     /** The warehouse object containing layout and configuration details. */
-    protected Warehouse wh;
+    protected final Warehouse wh;
+
+    /** Execution mode used by {@code runAll}. */
+    private ExecutionMode executionMode = ExecutionMode.SEQUENTIAL;
+
+    /** Minimum number of batches routed in parallel by {@code runAll}. */
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
 
     /**
      * Constructor for the RoutingAlgorithm class.
@@ -47,12 +84,190 @@ public abstract class RoutingAlgorithm implements Serializable {
 
     /**
      * Executes the routing algorithm for a given batch of orders.
-     * This method must be implemented by subclasses to define the specific routing logic.
      * It calculates the total distance traveled by the picker to collect all items in the batch.
+     * By default, the batch is routed from its pick profile.
      *
      * @param batch The batch of orders to be processed.
      * @return The total distance traveled by the picker to collect all items in the batch.
      */
-    public abstract double run(Batch batch);
+    public double run(Batch batch) {
+        return run(batch.getPickProfile());
+    }
+
+    /**
+     * Executes the routing algorithm for the pick locations of a pick profile.
+     * This method must be implemented by subclasses to define the specific routing logic.
+     * It calculates the total distance traveled by the picker to collect all items of the profile.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total distance traveled by the picker to collect all items of the profile.
+     */
+    public abstract double run(PickProfile profile);
+
+    /**
+     * Calculates the total distance traveled by the picker if an order is added to a batch.
+     * The batch is not modified.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to add.
+     * @return The total distance traveled by the picker to collect all items of the batch and the order.
+     */
+    public double costIfAdded(Batch batch, Order order) {
+        return run(batch.getPickProfile().merge(order.getPickProfile()));
+    }
+
+    /**
+     * Calculates the total distance traveled by the picker if an order is removed from a batch.
+     * The batch is not modified and the order is expected to belong to it.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to remove.
+     * @return The total distance traveled by the picker to collect the remaining items of the batch.
+     */
+    public double costIfRemoved(Batch batch, Order order) {
+        return run(batch.getPickProfile().subtract(order.getPickProfile()));
+    }
+
+    /**
+     * Calculates the total distance traveled by the picker if two batches are merged into one.
+     * The batches are not modified.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return The total distance traveled by the picker to collect all items of both batches.
+     */
+    public double costIfMerged(Batch batch1, Batch batch2) {
+        return run(batch1.getPickProfile().merge(batch2.getPickProfile()));
+    }
+
+    /**
+     * Calculates the total distance traveled by the picker if an order of a batch is replaced
+     * by another order. The batch is not modified and the removed order is expected to belong to it.
+     *
+     * @param batch   The batch of orders.
+     * @param removed The order to remove.
+     * @param added   The order to add.
+     * @return The total distance traveled by the picker to collect the items of the resulting batch.
+     */
+    public double costIfSwapped(Batch batch, Order removed, Order added) {
+        return run(batch.getPickProfile().subtract(removed.getPickProfile()).merge(added.getPickProfile()));
+    }
+
+    /**
+     * Executes the routing algorithm for a list of batches with the execution mode of the algorithm.
+     *
+     * @param batches The batches to be processed.
+     * @return The total distance traveled by the picker for each batch, in the order of the list.
+     */
+    public double[] runAll(List<Batch> batches) {
+        return runAll(batches, executionMode);
+    }
+
+    /**
+     * Executes the routing algorithm for a list of batches with a given execution mode.
+     * Lists with fewer batches than the parallel threshold are routed sequentially.
+     *
+     * @param batches The batches to be processed.
+     * @param mode    The execution mode used to route the batches.
+     * @return The total distance traveled by the picker for each batch, in the order of the list.
+     */
+    public double[] runAll(List<Batch> batches, ExecutionMode mode) {
+        double[] costs = new double[batches.size()];
+        if (batches.size() < parallelThreshold) {
+            mode = ExecutionMode.SEQUENTIAL;
+        }
+        switch (mode) {
+            case SEQUENTIAL:
+                for (int i = 0; i < costs.length; i++) {
+                    costs[i] = run(batches.get(i));
+                }
+                break;
+            case FORK_JOIN:
+                IntStream.range(0, costs.length).parallel().forEach(i -> costs[i] = run(batches.get(i)));
+                break;
+            case VIRTUAL_THREADS:
+                runOnVirtualThreads(batches, costs);
+                break;
+        }
+        return costs;
+    }
+
+    /**
+     * Routes each batch of a list in its own virtual thread and waits for all of them.
+     *
+     * @param batches The batches to be processed.
+     * @param costs   The array where the cost of each batch is stored.
+     */
+    private void runOnVirtualThreads(List<Batch> batches, double[] costs) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> tasks = new ArrayList<>(costs.length);
+            for (int i = 0; i < costs.length; i++) {
+                int index = i;
+                tasks.add(executor.submit(() -> costs[index] = run(batches.get(index))));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Routing interrupted. [RoutingAlgorithm.runAll]", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error routing a batch. [RoutingAlgorithm.runAll]", e.getCause());
+        }
+    }
+
+    /**
+     * Returns the execution mode used by {@code runAll}.
+     *
+     * @return The execution mode of the algorithm.
+     */
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+
+    /**
+     * Sets the execution mode used by {@code runAll}.
+     *
+     * @param executionMode The execution mode of the algorithm.
+     */
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    /**
+     * Returns the minimum number of batches routed in parallel by {@code runAll}.
+     *
+     * @return The parallel threshold.
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /**
+     * Sets the minimum number of batches routed in parallel by {@code runAll}.
+     *
+     * @param parallelThreshold The parallel threshold.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Enum representing the ways of routing a list of batches.
+     */
+    public enum ExecutionMode {
+        /**
+         * Routes the batches one after the other in the calling thread.
+         */
+        SEQUENTIAL,
+        /**
+         * Routes the batches in parallel in the common ForkJoin pool.
+         */
+        FORK_JOIN,
+        /**
+         * Routes each batch in its own virtual thread.
+         */
+        VIRTUAL_THREADS
+    }
 
 }
@@ -29,6 +29,11 @@ public class RoutingAlgorithmSelector {
             case S_SHAPE -> new S_Shape(warehouse);
             case COMBINED_PLUS -> new CombinedPlus(warehouse);
             case COMBINED -> new Combined(warehouse);
+            case PORTFOLIO -> new RoutingPortfolio(warehouse);
+            case MULTI_BLOCK_EXACT -> new RoodbergenDeKoster(warehouse);
+            case S_SHAPE_MULTI_BLOCK -> new S_Shape_MultiBlock(warehouse);
+            case LARGEST_GAP_MULTI_BLOCK -> new Largest_Gap_MultiBlock(warehouse);
+            case TSP_LOCAL_SEARCH -> new TspLocalSearch(warehouse);
         };
     }
 
@@ -55,6 +60,26 @@ public class RoutingAlgorithmSelector {
         /**
          * Combined routing algorithm.
          */
-        COMBINED
+        COMBINED,
+        /**
+         * Best heuristic per batch (S-shape, largest gap, combined and combined plus).
+         */
+        PORTFOLIO,
+        /**
+         * Exact routing algorithm for multi-block warehouses (Roodbergen and de Koster).
+         */
+        MULTI_BLOCK_EXACT,
+        /**
+         * S-shape routing algorithm for multi-block warehouses.
+         */
+        S_SHAPE_MULTI_BLOCK,
+        /**
+         * Largest gap routing algorithm for multi-block warehouses.
+         */
+        LARGEST_GAP_MULTI_BLOCK,
+        /**
+         * Travelling salesman tour improved with 2-opt and Or-opt moves.
+         */
+        TSP_LOCAL_SEARCH
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+
+/**
+ * Interface for estimators of a lower bound of the picking time of a batch.
+ * A routing bound never exceeds the length of the optimal route of the same pick locations,
+ * as returned by the exact routing algorithms ({@link RoodbergenDeKoster} and, in a
+ * single-block warehouse, {@link RatliffRosenthal}), so batching heuristics can discard a
+ * candidate batch whose bound is already worse than the best known value without routing it.
+ * Implementations must be cheaper than routing and re-entrant, like the routing algorithms.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public interface RoutingBound {
+
+    /**
+     * Calculates a lower bound of the picking time of the pick locations of a pick profile.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return A lower bound of the time of the optimal route that collects all items of the profile.
+     */
+    double lowerBound(PickProfile profile);
+
+    /**
+     * Calculates a lower bound of the picking time of a batch.
+     *
+     * @param batch The batch of orders to be processed.
+     * @return A lower bound of the time of the optimal route that collects all items of the batch.
+     */
+    default double lowerBound(Batch batch) {
+        return lowerBound(batch.getPickProfile());
+    }
+
+    /**
+     * Calculates a lower bound of the picking time of a batch if an order is added to it.
+     * The batch is not modified.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to add.
+     * @return A lower bound of the time of the optimal route that collects all items of the batch and the order.
+     */
+    default double lowerBoundIfAdded(Batch batch, Order order) {
+        return lowerBound(batch.getPickProfile().merge(order.getPickProfile()));
+    }
+
+    /**
+     * Calculates a lower bound of the picking time of two batches merged into one.
+     * The batches are not modified.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return A lower bound of the time of the optimal route that collects all items of both batches.
+     */
+    default double lowerBoundIfMerged(Batch batch1, Batch batch2) {
+        return lowerBound(batch1.getPickProfile().merge(batch2.getPickProfile()));
+    }
+}
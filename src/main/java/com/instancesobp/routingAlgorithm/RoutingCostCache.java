@@ -0,0 +1,665 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+
+/**
+ * Decorates a routing algorithm with a bounded cache of routing costs shared by
+ * all the callers of the algorithm.
+ * The cost of a batch only depends on the set of its orders, so the cache is keyed
+ * by a 128-bit fingerprint of the sorted identifiers of the orders. Identical order
+ * sets are routed once, even if they belong to different (copied or cloned) batches.
+ * The {@code costIf*} methods are keyed by the resulting order set, so a candidate
+ * merge evaluated several times is also routed once.
+ * <p>
+ * Pick profiles do not carry order identifiers, so {@link #run(PickProfile)} is keyed by
+ * a fingerprint of the content of the profile instead: its occupied aisles, heights and
+ * item counts. This is all the routing algorithms read from a profile, so two profiles
+ * with the same fingerprint have the same cost. Profile keys use different seeds than
+ * order set keys, and the same order set routed once from a batch and once from its
+ * profile is cached twice. The algorithms working on compact solutions, which only route
+ * profiles, therefore also benefit from the cache, and their lookups are counted in the
+ * same hit and miss counters.
+ * <p>
+ * The cache is split into independently locked segments selected by the fingerprint,
+ * so it can be used concurrently. Each segment follows a segmented LRU policy: new
+ * entries enter a probation area and are promoted to a protected area on their first
+ * hit. The least recently used protected entries are demoted back to probation, and
+ * the least recently used probation entries are evicted. The routing is executed
+ * outside the locks, so concurrent callers may occasionally route the same order set
+ * twice, but they always obtain the same value.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class RoutingCostCache extends RoutingAlgorithm {
+
+    /**
+     * Default maximum number of cached costs.
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 20;
+
+    /**
+     * Number of independently locked segments (power of two).
+     */
+    private static final int NUM_SEGMENTS = 16;
+
+    /**
+     * Fraction of the capacity of a segment reserved for protected entries.
+     */
+    private static final double PROTECTED_RATIO = 0.8;
+
+    /**
+     * Estimated size in bytes of a cached entry: the map entry with its access order
+     * links (40), the fingerprint key (32), the boxed cost (16) and the table slot (8).
+     */
+    private static final long BYTES_PER_ENTRY = 96;
+
+    /**
+     * Estimated fixed size in bytes of a segment: the segment, its lock and its two maps.
+     */
+    private static final long BYTES_PER_SEGMENT = 256;
+
+    /**
+     * Order identifier buffers reused by the calls executed in the same thread.
+     */
+    private static final ThreadLocal<int[][]> IDS = ThreadLocal.withInitial(() -> new int[][]{new int[16]});
+
+    /**
+     * The decorated routing algorithm.
+     */
+    private final RoutingAlgorithm routingAlgorithm;
+
+    /**
+     * Maximum number of cached costs.
+     */
+    private final int capacity;
+
+    /**
+     * Segments of the cache.
+     */
+    private final Segment[] segments;
+
+    /**
+     * Number of costs found in the cache.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Number of costs not found in the cache and routed by the decorated algorithm.
+     */
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Number of costs evicted from the cache.
+     */
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a routing cost cache with the default capacity.
+     *
+     * @param routingAlgorithm The routing algorithm whose costs are cached.
+     */
+    public RoutingCostCache(RoutingAlgorithm routingAlgorithm) {
+        this(routingAlgorithm, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a routing cost cache.
+     *
+     * @param routingAlgorithm The routing algorithm whose costs are cached.
+     * @param capacity         The maximum number of cached costs.
+     */
+    public RoutingCostCache(RoutingAlgorithm routingAlgorithm, int capacity) {
+        super(routingAlgorithm.wh);
+        if (capacity < NUM_SEGMENTS) {
+            throw new IllegalArgumentException("The capacity must be at least " + NUM_SEGMENTS + ". [RoutingCostCache]");
+        }
+        this.routingAlgorithm = routingAlgorithm;
+        this.capacity = capacity;
+        this.segments = new Segment[NUM_SEGMENTS];
+        int segmentCapacity = (capacity + NUM_SEGMENTS - 1) / NUM_SEGMENTS;
+        for (int i = 0; i < NUM_SEGMENTS; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Returns the routing cost of a batch, routing it only if its order set is not cached.
+     *
+     * @param batch The batch of orders to be processed.
+     * @return The total distance traveled by the picker to collect all items in the batch.
+     */
+    @Override
+    public double run(Batch batch) {
+        int[] ids = buffer(batch.getOrders().size());
+        int size = copyIds(batch.getOrders(), ids, 0);
+        return lookup(fingerprint(ids, size), batch, null, null, null, Operation.RUN);
+    }
+
+    /**
+     * Returns the routing cost of a pick profile, routing it only if a profile with the
+     * same content is not cached.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total distance traveled by the picker to collect all items of the profile.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        Fingerprint key = fingerprint(profile);
+        Segment segment = segmentOf(key);
+        Double cached = get(segment, key);
+        if (cached != null) {
+            return cached;
+        }
+        double cost = routingAlgorithm.run(profile);
+        put(segment, key, cost);
+        return cost;
+    }
+
+    /**
+     * Returns the routing cost of a batch plus an order, routing it only if the
+     * resulting order set is not cached.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to add.
+     * @return The total distance traveled by the picker to collect all items of the batch and the order.
+     */
+    @Override
+    public double costIfAdded(Batch batch, Order order) {
+        int[] ids = buffer(batch.getOrders().size() + 1);
+        int size = copyIds(batch.getOrders(), ids, 0);
+        ids[size++] = order.getId();
+        return lookup(fingerprint(ids, size), batch, order, null, null, Operation.ADD);
+    }
+
+    /**
+     * Returns the routing cost of a batch minus an order, routing it only if the
+     * resulting order set is not cached.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to remove.
+     * @return The total distance traveled by the picker to collect the remaining items of the batch.
+     */
+    @Override
+    public double costIfRemoved(Batch batch, Order order) {
+        int[] ids = buffer(batch.getOrders().size());
+        int size = 0;
+        for (Order batchOrder : batch.getOrders()) {
+            if (batchOrder.getId() != order.getId()) {
+                ids[size++] = batchOrder.getId();
+            }
+        }
+        return lookup(fingerprint(ids, size), batch, order, null, null, Operation.REMOVE);
+    }
+
+    /**
+     * Returns the routing cost of two merged batches, routing it only if the
+     * resulting order set is not cached.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return The total distance traveled by the picker to collect all items of both batches.
+     */
+    @Override
+    public double costIfMerged(Batch batch1, Batch batch2) {
+        int[] ids = buffer(batch1.getOrders().size() + batch2.getOrders().size());
+        int size = copyIds(batch1.getOrders(), ids, 0);
+        size = copyIds(batch2.getOrders(), ids, size);
+        return lookup(fingerprint(ids, size), batch1, null, null, batch2, Operation.MERGE);
+    }
+
+    /**
+     * Returns the routing cost of a batch where an order is replaced by another one,
+     * routing it only if the resulting order set is not cached.
+     *
+     * @param batch   The batch of orders.
+     * @param removed The order to remove.
+     * @param added   The order to add.
+     * @return The total distance traveled by the picker to collect the items of the resulting batch.
+     */
+    @Override
+    public double costIfSwapped(Batch batch, Order removed, Order added) {
+        int[] ids = buffer(batch.getOrders().size() + 1);
+        int size = 0;
+        for (Order batchOrder : batch.getOrders()) {
+            if (batchOrder.getId() != removed.getId()) {
+                ids[size++] = batchOrder.getId();
+            }
+        }
+        ids[size++] = added.getId();
+        return lookup(fingerprint(ids, size), batch, removed, added, null, Operation.SWAP);
+    }
+
+    /**
+     * Returns the decorated routing algorithm.
+     *
+     * @return The routing algorithm whose costs are cached.
+     */
+    public RoutingAlgorithm getRoutingAlgorithm() {
+        return routingAlgorithm;
+    }
+
+    /**
+     * Returns the maximum number of cached costs.
+     *
+     * @return The capacity of the cache.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of cached costs.
+     *
+     * @return The number of entries of the cache.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.probation.size() + segment.protectedEntries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns the number of costs found in the cache.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Returns the number of costs not found in the cache.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Returns the number of costs evicted from the cache.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Returns the fraction of lookups found in the cache.
+     *
+     * @return The hit ratio, or 0 if there were no lookups.
+     */
+    public double getHitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * Returns an estimate of the memory used by the cached entries, in bytes.
+     *
+     * @return The estimated memory footprint of the cache.
+     */
+    public long getMemoryFootprint() {
+        return NUM_SEGMENTS * BYTES_PER_SEGMENT + size() * BYTES_PER_ENTRY;
+    }
+
+    /**
+     * Returns an estimate of the memory used by a full cache of a given capacity, in bytes.
+     * For example, a cache for all the pairs of a 10000-order instance (about 5e7 entries)
+     * needs about 4.8 GB, while the default capacity needs about 100 MB.
+     *
+     * @param capacity The maximum number of cached costs.
+     * @return The estimated memory footprint of a full cache.
+     */
+    public static long estimateMemoryFootprint(int capacity) {
+        return NUM_SEGMENTS * BYTES_PER_SEGMENT + (long) capacity * BYTES_PER_ENTRY;
+    }
+
+    /**
+     * Removes all cached costs. The counters are not reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.probation.clear();
+                segment.protectedEntries.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns a string with the counters and the size of the cache.
+     *
+     * @return A string representation of the cache.
+     */
+    @Override
+    public String toString() {
+        return "RoutingCostCache{size=" + size() + ", capacity=" + capacity
+                + ", hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions()
+                + ", memory=" + getMemoryFootprint() + " bytes}";
+    }
+
+    /**
+     * Returns the cached cost of a fingerprint, routing it with the decorated algorithm
+     * and caching it if it is not found.
+     *
+     * @param key       The fingerprint of the order set.
+     * @param batch     The (first) batch of the operation.
+     * @param order     The (first) order of the operation, if any.
+     * @param order2    The second order of the operation, if any.
+     * @param batch2    The second batch of the operation, if any.
+     * @param operation The operation to route on a miss.
+     * @return The routing cost of the order set.
+     */
+    private double lookup(Fingerprint key, Batch batch, Order order, Order order2, Batch batch2, Operation operation) {
+        Segment segment = segmentOf(key);
+        Double cached = get(segment, key);
+        if (cached != null) {
+            return cached;
+        }
+
+        double cost = switch (operation) {
+            case RUN -> routingAlgorithm.run(batch);
+            case ADD -> routingAlgorithm.costIfAdded(batch, order);
+            case REMOVE -> routingAlgorithm.costIfRemoved(batch, order);
+            case MERGE -> routingAlgorithm.costIfMerged(batch, batch2);
+            case SWAP -> routingAlgorithm.costIfSwapped(batch, order, order2);
+        };
+        put(segment, key, cost);
+        return cost;
+    }
+
+    /**
+     * Returns the segment of a fingerprint.
+     *
+     * @param key The fingerprint.
+     * @return The segment where the fingerprint is cached.
+     */
+    private Segment segmentOf(Fingerprint key) {
+        return segments[(int) key.low & (NUM_SEGMENTS - 1)];
+    }
+
+    /**
+     * Returns the cached cost of a fingerprint and counts the hit or the miss.
+     *
+     * @param segment The segment of the fingerprint.
+     * @param key     The fingerprint to look up.
+     * @return The cached cost, or null if it is not cached.
+     */
+    private Double get(Segment segment, Fingerprint key) {
+        Double cached;
+        synchronized (segment) {
+            cached = segment.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return cached;
+    }
+
+    /**
+     * Caches the cost of a fingerprint and counts the evicted entries.
+     *
+     * @param segment The segment of the fingerprint.
+     * @param key     The fingerprint.
+     * @param cost    The routing cost to cache.
+     */
+    private void put(Segment segment, Fingerprint key, double cost) {
+        int evicted;
+        synchronized (segment) {
+            evicted = segment.put(key, cost);
+        }
+        if (evicted > 0) {
+            evictions.add(evicted);
+        }
+    }
+
+    /**
+     * Returns the identifier buffer of the current thread with at least the given size.
+     *
+     * @param size The number of identifiers to store.
+     * @return The identifier buffer.
+     */
+    private static int[] buffer(int size) {
+        int[][] holder = IDS.get();
+        if (holder[0].length < size) {
+            holder[0] = new int[Math.max(size, holder[0].length * 2)];
+        }
+        return holder[0];
+    }
+
+    /**
+     * Copies the identifiers of a list of orders into a buffer.
+     *
+     * @param orders The orders to copy.
+     * @param ids    The identifier buffer.
+     * @param start  The first position to write.
+     * @return The position following the last identifier written.
+     */
+    private static int copyIds(List<Order> orders, int[] ids, int start) {
+        int size = start;
+        for (Order order : orders) {
+            ids[size++] = order.getId();
+        }
+        return size;
+    }
+
+    /**
+     * Computes the canonical fingerprint of a set of order identifiers.
+     * The identifiers are sorted in place, so the fingerprint does not depend on the
+     * order of the orders in the batch.
+     *
+     * @param ids  The identifier buffer.
+     * @param size The number of identifiers.
+     * @return The 128-bit fingerprint of the identifiers.
+     */
+    static Fingerprint fingerprint(int[] ids, int size) {
+        Arrays.sort(ids, 0, size);
+        long high = 0x9E3779B97F4A7C15L ^ size;
+        long low = 0xC2B2AE3D27D4EB4FL + size;
+        for (int i = 0; i < size; i++) {
+            high = mix(high + ids[i] * 0xBF58476D1CE4E5B9L);
+            low = mix(low ^ (ids[i] + 0x94D049BB133111EBL * (i + 1)));
+        }
+        return new Fingerprint(high, low);
+    }
+
+    /**
+     * Computes the fingerprint of the content of a pick profile: the occupied aisles and,
+     * for each one, its heights and item counts. The seeds differ from the ones of
+     * {@link #fingerprint(int[], int)}, so profile keys do not collide with order set keys.
+     *
+     * @param profile The pick profile.
+     * @return The 128-bit fingerprint of the profile.
+     */
+    static Fingerprint fingerprint(PickProfile profile) {
+        int numberOfAisles = profile.getNumberOfOccupiedAisles();
+        long high = 0xD6E8FEB86659FD93L ^ numberOfAisles;
+        long low = 0xA0761D6478BD642FL + profile.getNumberOfItems();
+        for (int k = 0; k < numberOfAisles; k++) {
+            high = mix(high + profile.getAisle(k) * 0xBF58476D1CE4E5B9L);
+            low = mix(low ^ (profile.getAisle(k) + 0x94D049BB133111EBL * (k + 1)));
+            for (int h = profile.getHeightStart(k); h < profile.getHeightEnd(k); h++) {
+                long height = Double.doubleToLongBits(profile.getHeight(h));
+                high = mix(high + height * 0xBF58476D1CE4E5B9L + profile.getItemCount(h));
+                low = mix(low ^ (height + 0x94D049BB133111EBL * (h + 1) + profile.getItemCount(h)));
+            }
+        }
+        return new Fingerprint(high, low);
+    }
+
+    /**
+     * Applies the SplitMix64 finalizer to a value.
+     *
+     * @param value The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Routing operation to execute on a cache miss.
+     */
+    private enum Operation {
+        /** Route a batch. */
+        RUN,
+        /** Route a batch plus an order. */
+        ADD,
+        /** Route a batch minus an order. */
+        REMOVE,
+        /** Route two merged batches. */
+        MERGE,
+        /** Route a batch where an order is replaced by another one. */
+        SWAP
+    }
+
+    /**
+     * 128-bit fingerprint of a set of order identifiers.
+     */
+    static final class Fingerprint {
+
+        /** High 64 bits of the fingerprint. */
+        private final long high;
+
+        /** Low 64 bits of the fingerprint. */
+        private final long low;
+
+        /**
+         * Constructs a fingerprint.
+         *
+         * @param high The high 64 bits.
+         * @param low  The low 64 bits.
+         */
+        Fingerprint(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Fingerprint other)) {
+                return false;
+            }
+            return high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (high ^ (high >>> 32));
+        }
+    }
+
+    /**
+     * Segment of the cache with a segmented LRU eviction policy.
+     * Access to a segment must be synchronized on the segment.
+     */
+    private static final class Segment {
+
+        /** Maximum number of entries of the segment. */
+        private final int capacity;
+
+        /** Maximum number of protected entries of the segment. */
+        private final int protectedCapacity;
+
+        /** Entries accessed once, in access order. */
+        private final LinkedHashMap<Fingerprint, Double> probation = new LinkedHashMap<>(16, 0.75f, true);
+
+        /** Entries accessed more than once, in access order. */
+        private final LinkedHashMap<Fingerprint, Double> protectedEntries = new LinkedHashMap<>(16, 0.75f, true);
+
+        /**
+         * Constructs a segment.
+         *
+         * @param capacity The maximum number of entries of the segment.
+         */
+        private Segment(int capacity) {
+            this.capacity = capacity;
+            this.protectedCapacity = Math.max(1, (int) (capacity * PROTECTED_RATIO));
+        }
+
+        /**
+         * Returns the cost of a fingerprint, promoting it to the protected area on a probation hit.
+         *
+         * @param key The fingerprint to look up.
+         * @return The cached cost, or null if it is not cached.
+         */
+        private Double get(Fingerprint key) {
+            Double cost = protectedEntries.get(key);
+            if (cost != null) {
+                return cost;
+            }
+            cost = probation.remove(key);
+            if (cost != null) {
+                protectedEntries.put(key, cost);
+                if (protectedEntries.size() > protectedCapacity) {
+                    Iterator<Map.Entry<Fingerprint, Double>> eldest = protectedEntries.entrySet().iterator();
+                    Map.Entry<Fingerprint, Double> demoted = eldest.next();
+                    eldest.remove();
+                    probation.put(demoted.getKey(), demoted.getValue());
+                }
+            }
+            return cost;
+        }
+
+        /**
+         * Adds the cost of a fingerprint to the probation area, evicting the least recently
+         * used probation entries if the segment is full.
+         *
+         * @param key  The fingerprint of the order set.
+         * @param cost The routing cost of the order set.
+         * @return The number of evicted entries.
+         */
+        private int put(Fingerprint key, double cost) {
+            if (protectedEntries.containsKey(key) || probation.putIfAbsent(key, cost) != null) {
+                return 0;
+            }
+            int evicted = 0;
+            Iterator<Fingerprint> eldest = probation.keySet().iterator();
+            while (probation.size() + protectedEntries.size() > capacity && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evicted++;
+            }
+            return evicted;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+import com.instancesobp.routingAlgorithm.RoutingAlgorithmSelector.RoutingAlgorithmType;
+
+/**
+ * Implements a portfolio of the heuristic routing algorithms that selects the best
+ * one for each batch.
+ * The costs of S-Shape, Largest Gap, Combined and Combined Plus are fused in a single
+ * sweep over the occupied aisles. The sweep reads the lowest and highest heights and the
+ * largest inner gap of each aisle once and feeds all four heuristics with them. It
+ * accumulates the largest gap distance of each inner aisle, the aisle-by-aisle walk of
+ * Combined and the largest gap and route of each aisle for Combined Plus, and it keeps
+ * the highest height of the last aisle for S-Shape. The transversal aisle distances
+ * only depend on the extreme aisles. The rules of each aisle are the package-private
+ * helpers of the heuristics, so the costs are the same as those of the heuristics run
+ * one after the other. The delta evaluations sweep the union or the difference of the
+ * profiles once in the same way, without building the resulting profile.
+ * The cost of the portfolio is the lowest of the four costs, so it can drive any
+ * objective function as the "best heuristic per batch" policy. The exact cost of
+ * Ratliff and Rosenthal can optionally be reported next to the heuristic costs.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class RoutingPortfolio extends RoutingAlgorithm {
+
+    /**
+     * Heuristic policies of the portfolio, in the order used to break ties.
+     */
+    private static final RoutingAlgorithmType[] POLICIES = {
+            RoutingAlgorithmType.S_SHAPE,
+            RoutingAlgorithmType.LARGEST_GAP,
+            RoutingAlgorithmType.COMBINED,
+            RoutingAlgorithmType.COMBINED_PLUS
+    };
+
+    /**
+     * Position of S-Shape in the costs.
+     */
+    private static final int S_SHAPE = 0;
+
+    /**
+     * Position of Largest Gap in the costs.
+     */
+    private static final int LARGEST_GAP = 1;
+
+    /**
+     * Position of Combined in the costs.
+     */
+    private static final int COMBINED = 2;
+
+    /**
+     * Position of Combined Plus in the costs.
+     */
+    private static final int COMBINED_PLUS = 3;
+
+    /**
+     * S-Shape heuristic, whose per-aisle rules are used by the sweep.
+     */
+    private final S_Shape sShape;
+
+    /**
+     * Largest Gap heuristic, whose per-aisle rules are used by the sweep.
+     */
+    private final Largest_Gap largestGap;
+
+    /**
+     * Combined heuristic, whose per-aisle rules are used by the sweep.
+     */
+    private final Combined combined;
+
+    /**
+     * Combined Plus heuristic, whose per-aisle rules are used by the sweep.
+     */
+    private final CombinedPlus combinedPlus;
+
+    /**
+     * Exact routing algorithm, or null if the exact cost is not reported.
+     */
+    private final RatliffRosenthal exact;
+
+    /**
+     * Constructor for the RoutingPortfolio class. The exact cost is not reported.
+     *
+     * @param warehouse The warehouse object containing the layout and configuration details.
+     */
+    public RoutingPortfolio(Warehouse warehouse) {
+        this(warehouse, false);
+    }
+
+    /**
+     * Constructor for the RoutingPortfolio class.
+     *
+     * @param warehouse    The warehouse object containing the layout and configuration details.
+     * @param includeExact Indicates whether the exact cost is computed by {@code evaluate}.
+     */
+    public RoutingPortfolio(Warehouse warehouse, boolean includeExact) {
+        super(warehouse);
+        this.sShape = new S_Shape(warehouse);
+        this.largestGap = new Largest_Gap(warehouse);
+        this.combined = new Combined(warehouse);
+        this.combinedPlus = new CombinedPlus(warehouse);
+        this.exact = includeExact ? new RatliffRosenthal(warehouse) : null;
+    }
+
+    /**
+     * Executes the portfolio for the pick locations of a pick profile and returns the
+     * cost of the best heuristic.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return The lowest total time among the heuristic routing algorithms.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        return best(costs(ProfileSweep.of(profile)));
+    }
+
+    /**
+     * Calculates the cost of the best heuristic if an order is added to a batch,
+     * sweeping the union of their profiles once.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to add.
+     * @return The lowest total time among the heuristic routing algorithms.
+     */
+    @Override
+    public double costIfAdded(Batch batch, Order order) {
+        return best(costs(ProfileSweep.union(batch.getPickProfile(), order.getPickProfile())));
+    }
+
+    /**
+     * Calculates the cost of the best heuristic if an order is removed from a batch,
+     * sweeping the difference of their profiles once.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to remove.
+     * @return The lowest total time among the heuristic routing algorithms.
+     */
+    @Override
+    public double costIfRemoved(Batch batch, Order order) {
+        return best(costs(ProfileSweep.difference(batch.getPickProfile(), order.getPickProfile())));
+    }
+
+    /**
+     * Calculates the cost of the best heuristic if two batches are merged, sweeping
+     * the union of their profiles once.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return The lowest total time among the heuristic routing algorithms.
+     */
+    @Override
+    public double costIfMerged(Batch batch1, Batch batch2) {
+        return best(costs(ProfileSweep.union(batch1.getPickProfile(), batch2.getPickProfile())));
+    }
+
+    /**
+     * Evaluates all the heuristics of the portfolio for a batch.
+     *
+     * @param batch The batch of orders to be processed.
+     * @return The costs of the heuristics, the best policy and, if enabled, the exact cost.
+     */
+    public Result evaluate(Batch batch) {
+        return evaluate(batch.getPickProfile());
+    }
+
+    /**
+     * Evaluates all the heuristics of the portfolio for the pick locations of a pick profile.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return The costs of the heuristics, the best policy and, if enabled, the exact cost.
+     */
+    public Result evaluate(PickProfile profile) {
+        double[] costs = costs(ProfileSweep.of(profile));
+        int best = 0;
+        for (int i = 1; i < costs.length; i++) {
+            if (costs[i] < costs[best]) {
+                best = i;
+            }
+        }
+        double exactCost = exact != null ? exact.run(profile) : Double.NaN;
+        return new Result(costs, POLICIES[best], exactCost);
+    }
+
+    /**
+     * Returns the lowest of the costs of the heuristics.
+     *
+     * @param costs The costs of the heuristics.
+     * @return The lowest cost.
+     */
+    private static double best(double[] costs) {
+        double best = Double.POSITIVE_INFINITY;
+        for (double cost : costs) {
+            best = Math.min(best, cost);
+        }
+        return best;
+    }
+
+    /**
+     * Calculates the costs of the four heuristics in a single sweep over the occupied aisles.
+     *
+     * @param sweep The sweep of the pick locations to collect.
+     * @return The costs of the heuristics, in the order of {@code POLICIES}.
+     */
+    private double[] costs(ProfileSweep sweep) {
+        double[] costs = new double[POLICIES.length];
+        if (sweep.isEmpty()) {
+            return costs;
+        }
+        int minAisle = sweep.getMinAisle();
+        int maxAisle = sweep.getMaxAisle();
+        int numberOfItems = sweep.getNumberOfItems();
+        int aisleCount = sweep.getNumberOfOccupiedAisles();
+        double shelfTraversal = wh.getAisleWidth() + wh.getShelfLength();
+
+        // Single sweep: statistics of each aisle, shared by the four heuristics.
+        double largestGapDistance = shelfTraversal * 2;
+        Combined.AisleWalk walk = combined.new AisleWalk();
+        double[] largestGaps = new double[aisleCount];
+        CombinedPlus.Route[] routePerAisle = new CombinedPlus.Route[aisleCount];
+        double firstMaxHeight = 0;
+        double lastMaxHeight = 0;
+        for (int index = 0; sweep.next(); index++) {
+            int aisle = sweep.getAisle();
+            double minHeight = sweep.getMinHeight();
+            double maxHeight = sweep.getMaxHeight();
+            double innerGap = sweep.getInnerGap();
+            if (index == 0) {
+                firstMaxHeight = maxHeight;
+            }
+            lastMaxHeight = maxHeight;
+            if (aisleCount > 2 && aisle != minAisle) {
+                walk.visit(minHeight, maxHeight, innerGap, aisle == maxAisle);
+                if (aisle != maxAisle) {
+                    largestGapDistance = largestGap.addGapAisle(largestGapDistance, minHeight, maxHeight, innerGap);
+                    largestGaps[index] = combinedPlus.getLargestGap(minHeight, maxHeight, innerGap, index, routePerAisle);
+                }
+            }
+        }
+
+        // Main aisles of S-Shape, Largest Gap and Combined.
+        double sShapeDistance = sShape.mainAislesDistance(aisleCount, lastMaxHeight);
+        double combinedDistance;
+        if (aisleCount > 2) {
+            combinedDistance = walk.getDistance();
+        } else if (aisleCount > 1) {
+            largestGapDistance = shelfTraversal * 2;
+            combinedDistance = shelfTraversal * 2;
+        } else {
+            largestGapDistance = wh.getAisleWidth() + (lastMaxHeight * 2);
+            combinedDistance = wh.getAisleWidth() + (lastMaxHeight * 2);
+        }
+
+        // Transversal aisles, which only depend on the extreme aisles.
+        sShapeDistance = sShape.addTransversalAisles(sShapeDistance, minAisle, maxAisle);
+        largestGapDistance = largestGap.addTransversalAisles(largestGapDistance, minAisle, maxAisle);
+        combinedDistance = combined.addTransversalAisles(combinedDistance, minAisle, maxAisle);
+
+        costs[S_SHAPE] = time(sShapeDistance, numberOfItems);
+        costs[LARGEST_GAP] = time(largestGapDistance, numberOfItems);
+        costs[COMBINED] = time(combinedDistance, numberOfItems);
+        costs[COMBINED_PLUS] = combinedPlus.timeForTheseItems(minAisle, maxAisle, aisleCount, numberOfItems,
+                firstMaxHeight, largestGaps, routePerAisle);
+        return costs;
+    }
+
+    /**
+     * Converts the distance of a route into its total time, as S-Shape, Largest Gap and Combined do.
+     *
+     * @param distance      The distance travelled by the picker.
+     * @param numberOfItems The number of items to pick.
+     * @return The total time of the route.
+     */
+    private double time(double distance, int numberOfItems) {
+        return (distance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * numberOfItems);
+    }
+
+    /**
+     * Costs of a batch under each heuristic of the portfolio.
+     */
+    public static final class Result {
+
+        /**
+         * Costs of the heuristics, in the order of {@code POLICIES}.
+         */
+        private final double[] costs;
+
+        /**
+         * Heuristic with the lowest cost.
+         */
+        private final RoutingAlgorithmType bestPolicy;
+
+        /**
+         * Exact cost, or NaN if it was not computed.
+         */
+        private final double exactCost;
+
+        /**
+         * Constructs a new result.
+         *
+         * @param costs      The costs of the heuristics.
+         * @param bestPolicy The heuristic with the lowest cost.
+         * @param exactCost  The exact cost, or NaN if it was not computed.
+         */
+        private Result(double[] costs, RoutingAlgorithmType bestPolicy, double exactCost) {
+            this.costs = costs;
+            this.bestPolicy = bestPolicy;
+            this.exactCost = exactCost;
+        }
+
+        /**
+         * Returns the cost of a heuristic of the portfolio.
+         *
+         * @param policy The heuristic (S_SHAPE, LARGEST_GAP, COMBINED or COMBINED_PLUS).
+         * @return The cost of the batch under the heuristic.
+         * @throws IllegalArgumentException If the policy is not a heuristic of the portfolio.
+         */
+        public double getCost(RoutingAlgorithmType policy) {
+            for (int i = 0; i < POLICIES.length; i++) {
+                if (POLICIES[i] == policy) {
+                    return costs[i];
+                }
+            }
+            throw new IllegalArgumentException("The policy " + policy + " is not part of the portfolio. [RoutingPortfolio.Result]");
+        }
+
+        /**
+         * Returns the heuristic with the lowest cost. Ties are broken in the order
+         * S-Shape, Largest Gap, Combined and Combined Plus.
+         *
+         * @return The best heuristic for the batch.
+         */
+        public RoutingAlgorithmType getBestPolicy() {
+            return bestPolicy;
+        }
+
+        /**
+         * Returns the cost of the best heuristic.
+         *
+         * @return The lowest cost among the heuristics.
+         */
+        public double getBestCost() {
+            return getCost(bestPolicy);
+        }
+
+        /**
+         * Returns the exact cost of the batch.
+         *
+         * @return The exact cost, or NaN if the portfolio does not compute it.
+         */
+        public double getExactCost() {
+            return exactCost;
+        }
+
+        /**
+         * Returns a string representation of the result.
+         *
+         * @return A string with the cost of each heuristic and the best one.
+         */
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("RoutingPortfolio.Result{");
+            for (int i = 0; i < POLICIES.length; i++) {
+                sb.append(POLICIES[i]).append('=').append(costs[i]).append(", ");
+            }
+            sb.append("best=").append(bestPolicy);
+            if (!Double.isNaN(exactCost)) {
+                sb.append(", exact=").append(exactCost);
+            }
+            return sb.append('}').toString();
+        }
+    }
+}
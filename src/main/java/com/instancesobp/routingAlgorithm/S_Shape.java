@@ -18,11 +18,9 @@
  */
 package com.instancesobp.routingAlgorithm;
 
-import java.util.HashMap;
-
 import com.instancesobp.models.Batch;
 import com.instancesobp.models.Order;
-import com.instancesobp.models.Product;
+import com.instancesobp.models.PickProfile;
 import com.instancesobp.models.Warehouse;
 
 import static com.instancesobp.utils.Constants.DEPOT_CORNER;
@@ -34,6 +32,9 @@ import static com.instancesobp.utils.Constants.DEPOT_CORNER;
  * The S-Shape algorithm traverses each aisle completely, turning at the end of
  * the aisle to move to the next one, and returns to the depot after completing
  * all aisles.
+ * The cost only depends on the number of occupied aisles, the lowest and highest
+ * occupied aisles and the highest item of the last aisle, so the cost of adding
+ * or removing an order is computed looking only at the aisles of the order.
  *
  * @author Sergio Gil Borrás
  * @version 1.0
@@ -51,48 +52,125 @@ public class S_Shape extends RoutingAlgorithm {
     }
 
     /**
-     * Executes the S-Shape routing algorithm for a given batch of orders.
+     * Executes the S-Shape routing algorithm for the pick locations of a pick profile.
      * This method calculates the total distance traveled by the picker to collect
-     * all items in the batch. It considers the warehouse layout, including aisle
+     * all items of the profile. It considers the warehouse layout, including aisle
      * dimensions, shelf dimensions, and the location of the depot.
      *
-     * @param batch The batch of orders to be processed.
-     * @return The total distance traveled by the picker to collect all items in the batch.
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total distance traveled by the picker to collect all items of the profile.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        return route(ProfileSweep.of(profile));
+    }
+
+    /**
+     * Calculates the S-Shape distance if an order is added to a batch, looking only
+     * at the aisles of the order.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to add.
+     * @return The total distance traveled by the picker to collect all items of the batch and the order.
      */
     @Override
-    public double run(Batch batch) {
-        if (batch.getOrders().isEmpty()) {
-            return 0; // If the batch is empty, no distance is traveled.
+    public double costIfAdded(Batch batch, Order order) {
+        return route(ProfileSweep.union(batch.getPickProfile(), order.getPickProfile()));
+    }
+
+    /**
+     * Calculates the S-Shape distance if an order is removed from a batch, looking only
+     * at the aisles of the order.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to remove.
+     * @return The total distance traveled by the picker to collect the remaining items of the batch.
+     */
+    @Override
+    public double costIfRemoved(Batch batch, Order order) {
+        return route(ProfileSweep.difference(batch.getPickProfile(), order.getPickProfile()));
+    }
+
+    /**
+     * Calculates the S-Shape distance if two batches are merged, looking only at the
+     * aisles of the second batch.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return The total distance traveled by the picker to collect all items of both batches.
+     */
+    @Override
+    public double costIfMerged(Batch batch1, Batch batch2) {
+        return route(ProfileSweep.union(batch1.getPickProfile(), batch2.getPickProfile()));
+    }
+
+    /**
+     * Calculates the S-Shape distance of the pick locations given by a profile sweep.
+     *
+     * @param sweep The sweep of the pick locations to collect.
+     * @return The total distance traveled by the picker to collect all items.
+     */
+    private double route(ProfileSweep sweep) {
+        if (sweep.isEmpty()) {
+            return 0; // If the profile is empty, no distance is traveled.
         }
 
         double turnTime = 0.0; // Time taken for turns (not used in this implementation).
         double totalDistance; // Total distance traveled.
-        int maxAisle = 0; // Maximum aisle number with items.
-        int minAisle = Integer.MAX_VALUE; // Minimum aisle number with items.
-        HashMap<Integer, Double> aisleMaxHeights = new HashMap<>(); // Stores the maximum height of items in each aisle.
-        int totalItems = 0; // Total number of items in the batch.
-
-        // Precompute distances and item locations in a hash table.
-        for (Order order : batch.getOrders()) {
-            for (Product product : order.getProducts()) {
-                totalItems++;
-                aisleMaxHeights.merge(product.getAisle(), product.getHeightPosition(), Math::max);
-                maxAisle = Math.max(maxAisle, product.getAisle());
-                minAisle = Math.min(minAisle, product.getAisle());
-            }
-        }
+        int maxAisle = sweep.getMaxAisle(); // Maximum aisle number with items.
+        int minAisle = sweep.getMinAisle(); // Minimum aisle number with items.
+        int totalItems = sweep.getNumberOfItems(); // Total number of items in the batch.
 
         // Calculate the distance in the main aisles.
-        int aisleCount = aisleMaxHeights.size();
+        int aisleCount = sweep.getNumberOfOccupiedAisles();
         if (aisleCount % 2 == 0) {
-            totalDistance = (wh.getAisleWidth() + wh.getShelfLength()) * aisleCount;
+            totalDistance = mainAislesDistance(aisleCount, 0);
         } else {
-            totalDistance = (wh.getAisleWidth() + wh.getShelfLength()) * (aisleCount - 1)
-                    + wh.getAisleWidth()
-                    + (aisleMaxHeights.get(maxAisle) * 2);
+            sweep.load(maxAisle);
+            totalDistance = mainAislesDistance(aisleCount, sweep.getMaxHeight());
         }
 
         // Calculate the distance in the transversal aisles.
+        totalDistance = addTransversalAisles(totalDistance, minAisle, maxAisle);
+
+        // Calculate turn time.
+        //turnTime = calculateTurnTime(aisleCount, minAisle, maxAisle);
+
+        // Return the total distance, including travel speed, depot time, and picking time.
+        return (totalDistance * wh.getTravelSpeed())
+                + wh.getDepotTime()
+                + (wh.getPickingTime() * totalItems)
+                + turnTime;
+    }
+
+    /**
+     * Calculates the distance travelled in the main aisles. Every occupied aisle is
+     * traversed completely, except the last one when their number is odd, which the
+     * picker enters and leaves from the front.
+     *
+     * @param aisleCount    The number of occupied aisles.
+     * @param lastMaxHeight The highest height of the last occupied aisle (only used if the number of aisles is odd).
+     * @return The distance travelled in the main aisles.
+     */
+    double mainAislesDistance(int aisleCount, double lastMaxHeight) {
+        if (aisleCount % 2 == 0) {
+            return (wh.getAisleWidth() + wh.getShelfLength()) * aisleCount;
+        }
+        return (wh.getAisleWidth() + wh.getShelfLength()) * (aisleCount - 1)
+                + wh.getAisleWidth()
+                + (lastMaxHeight * 2);
+    }
+
+    /**
+     * Adds the distance travelled in the transversal aisles, from the depot to the
+     * first and the last occupied aisles and back.
+     *
+     * @param totalDistance The distance travelled in the main aisles.
+     * @param minAisle      The lowest occupied aisle.
+     * @param maxAisle      The highest occupied aisle.
+     * @return The total distance travelled.
+     */
+    double addTransversalAisles(double totalDistance, int minAisle, int maxAisle) {
         if (wh.getDepotPlacement() == DEPOT_CORNER) {
             totalDistance += (wh.getAisleWidth() + wh.getShelfWidth()) * maxAisle * 2;
         } else {
@@ -105,15 +183,7 @@ public class S_Shape extends RoutingAlgorithm {
                 totalDistance += (2 * (wh.getAisleWidth() + wh.getShelfWidth())) * (maxAisle - minAisle);
             }
         }
-
-        // Calculate turn time.
-        //turnTime = calculateTurnTime(aisleMaxHeights, minAisle, maxAisle);
-
-        // Return the total distance, including travel speed, depot time, and picking time.
-        return (totalDistance * wh.getTravelSpeed())
-                + wh.getDepotTime()
-                + (wh.getPickingTime() * totalItems)
-                + turnTime;
+        return totalDistance;
     }
 
     /**
@@ -121,14 +191,13 @@ public class S_Shape extends RoutingAlgorithm {
      * The calculation depends on the depot location (corner or central) and the number
      * of aisles with products.
      *
-     * @param aisleMaxHeights A HashMap containing the aisles and the maximum height of products in each aisle.
-     * @param minAisle        The closest aisle to the depot with products.
-     * @param maxAisle        The farthest aisle from the depot with products.
+     * @param aisleCount The number of aisles that contain products.
+     * @param minAisle   The closest aisle to the depot with products.
+     * @param maxAisle   The farthest aisle from the depot with products.
      * @return The total turn time required for navigating the aisles.
      */
-    private double calculateTurnTime(HashMap<Integer, Double> aisleMaxHeights, int minAisle, int maxAisle) {
+    private double calculateTurnTime(int aisleCount, int minAisle, int maxAisle) {
         double turnTime;
-        int aisleCount = aisleMaxHeights.size();
 
         if (wh.getDepotPlacement() == DEPOT_CORNER) {
             // Depot in a corner
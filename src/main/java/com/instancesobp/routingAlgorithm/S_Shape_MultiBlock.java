@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+
+/**
+ * Implements the S-shape routing heuristic for multi-block warehouses (Roodbergen and de Koster).
+ * The picker goes from the depot to the leftmost aisle with items and traverses it up to the
+ * back of the farthest block with items. Then the blocks are visited from the farthest one
+ * to the front one. In each block the picker starts at the end (left or right) closest to
+ * its current position and traverses entirely every sub-aisle with items, alternating the
+ * direction. If the number of sub-aisles is even, the first one is entered and left from
+ * the back so that the picker ends at the front of the block. Blocks without items are
+ * crossed through the current aisle. Finally the picker returns to the depot along the
+ * front cross aisle.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class S_Shape_MultiBlock extends RoutingAlgorithm {
+
+    /**
+     * Constructor for the S_Shape_MultiBlock class.
+     *
+     * @param warehouse The warehouse object containing the layout and configuration details.
+     */
+    public S_Shape_MultiBlock(Warehouse warehouse) {
+        super(warehouse);
+    }
+
+    /**
+     * Executes the multi-block S-shape routing heuristic for the pick locations of a pick profile.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total time of the route that collects all items of the profile.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        if (profile.isEmpty()) {
+            return 0; // If the profile is empty, no distance is traveled.
+        }
+
+        double totalDistance = tourLength(new BlockSegments(profile, wh));
+
+        return (totalDistance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * profile.getNumberOfItems());
+    }
+
+    /**
+     * Calculates the length of the route for the pick locations split by block.
+     * The exact algorithm uses it as an upper bound.
+     *
+     * @param segments The pick locations split by block.
+     * @return The length of the route.
+     */
+    double tourLength(BlockSegments segments) {
+        int[] aisles = segments.aisles;
+        double distancesBetweenAisles = wh.getShelfWidth() + wh.getAisleWidth();
+        double subAisleLength = segments.blockLength + wh.getAisleWidth();
+        double depotPosition = BlockSegments.depotPosition(wh);
+
+        // From the depot to the leftmost aisle, traversed up to the back of the farthest block.
+        double totalDistance = Math.abs(aisles[0] - depotPosition) * distancesBetweenAisles;
+        totalDistance += (segments.farthestBlock + 1) * subAisleLength;
+        double position = aisles[0];
+
+        for (int block = segments.farthestBlock; block >= 0; block--) {
+            int first = -1;
+            int last = -1;
+            int subAisles = 0;
+            for (int i = 1; i < aisles.length; i++) {
+                if (segments.count[segments.segment(i, block)] > 0) {
+                    if (first < 0) {
+                        first = i;
+                    }
+                    last = i;
+                    subAisles++;
+                }
+            }
+            if (subAisles == 0) {
+                totalDistance += subAisleLength;
+                continue;
+            }
+
+            double toFirst = Math.abs(aisles[first] - position);
+            double toLast = Math.abs(aisles[last] - position);
+            int start = toFirst <= toLast ? first : last;
+            int end = start == first ? last : first;
+            totalDistance += (Math.min(toFirst, toLast) + (aisles[last] - aisles[first])) * distancesBetweenAisles;
+
+            if (subAisles % 2 == 0) {
+                // The first sub-aisle is entered and left from the back.
+                totalDistance += ((segments.blockLength - segments.minHeight[segments.segment(start, block)]) * 2) + wh.getAisleWidth();
+                totalDistance += (subAisles - 1) * subAisleLength;
+            } else {
+                totalDistance += subAisles * subAisleLength;
+            }
+            position = aisles[end];
+        }
+
+        totalDistance += Math.abs(position - depotPosition) * distancesBetweenAisles;
+        return totalDistance;
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import java.io.Serializable;
+
+import com.instancesobp.models.Batch;
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+
+import static com.instancesobp.utils.Constants.DEPOT_CORNER;
+
+/**
+ * Admissible lower bound of the picking time of a batch in a single-block warehouse.
+ * The bound uses the geometry of {@link RoodbergenDeKoster}: the depot is a point of the
+ * front cross aisle, the centres of two consecutive aisles are {@code shelfWidth + aisleWidth}
+ * apart and traversing an aisle from the centre of one cross aisle to the other costs
+ * {@code shelfLength + aisleWidth}. It adds two terms:
+ * <ul>
+ *     <li>The cross aisle distance of the span of aisles that the route has to cover,
+ *     from the depot to the extreme occupied aisles. Every step between two
+ *     consecutive aisles of the span is travelled at least twice.</li>
+ *     <li>For each occupied aisle, the cheapest of the ways of traversing it: crossing
+ *     it completely, entering from the front or the back and returning, or entering
+ *     from both sides and skipping the largest gap.</li>
+ * </ul>
+ * Cross aisle and aisle travel do not overlap, so the sum never exceeds the length of the
+ * optimal tour. The depot aisle gets no extra term: {@link RatliffRosenthal} models the
+ * depot as a pick location at height 0 of that aisle, which over-estimates the optimal
+ * tour with a central depot and an odd number of aisles, and a bound following that model
+ * could exceed the optimum. The bound therefore never exceeds either exact algorithm,
+ * {@link RoodbergenDeKoster} or {@link RatliffRosenthal}, which {@code TestRoutingBound}
+ * checks on the legacy instances.
+ * <p>
+ * Only the lowest and highest heights and the largest gap of each occupied aisle are
+ * needed, which the pick profiles keep cached, so the bound costs O(occupied aisles).
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class TravelLowerBound implements RoutingBound, Serializable {
+
+    /**
+     * The warehouse object containing layout and configuration details.
+     */
+    private final Warehouse wh;
+
+    /**
+     * Constructor for the TravelLowerBound class.
+     *
+     * @param warehouse The warehouse object containing the layout and configuration details.
+     */
+    public TravelLowerBound(Warehouse warehouse) {
+        this.wh = warehouse;
+    }
+
+    /**
+     * Calculates a lower bound of the picking time of the pick locations of a pick profile.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return A lower bound of the time of the optimal route that collects all items of the profile.
+     */
+    @Override
+    public double lowerBound(PickProfile profile) {
+        return bound(ProfileSweep.of(profile));
+    }
+
+    /**
+     * Calculates a lower bound of the picking time of a batch if an order is added to it,
+     * without building the merged profile.
+     *
+     * @param batch The batch of orders.
+     * @param order The order to add.
+     * @return A lower bound of the time of the optimal route that collects all items of the batch and the order.
+     */
+    @Override
+    public double lowerBoundIfAdded(Batch batch, Order order) {
+        return bound(ProfileSweep.union(batch.getPickProfile(), order.getPickProfile()));
+    }
+
+    /**
+     * Calculates a lower bound of the picking time of two batches merged into one,
+     * without building the merged profile.
+     *
+     * @param batch1 The first batch.
+     * @param batch2 The second batch.
+     * @return A lower bound of the time of the optimal route that collects all items of both batches.
+     */
+    @Override
+    public double lowerBoundIfMerged(Batch batch1, Batch batch2) {
+        return bound(ProfileSweep.union(batch1.getPickProfile(), batch2.getPickProfile()));
+    }
+
+    /**
+     * Calculates the lower bound of the pick locations given by a profile sweep.
+     *
+     * @param sweep The sweep of the pick locations to collect.
+     * @return A lower bound of the time of the optimal route that collects all items.
+     */
+    private double bound(ProfileSweep sweep) {
+        if (sweep.isEmpty()) {
+            return 0;
+        }
+
+        int numberOfAisles = wh.getNumberOfAisles();
+        double distancesBetweenAisles = wh.getShelfWidth() + wh.getAisleWidth();
+        int minAisle = sweep.getMinAisle();
+        int maxAisle = sweep.getMaxAisle();
+
+        // Aisle in front of the depot, or -1 if the depot lies between the two central aisles.
+        int depotAisle = -1;
+        if (wh.getDepotPlacement() == DEPOT_CORNER) {
+            depotAisle = 0;
+        } else if (numberOfAisles % 2 != 0) {
+            depotAisle = ((numberOfAisles + 1) / 2) - 1;
+        }
+
+        // Cross aisle distance of the span of aisles covered by the route.
+        double distance;
+        if (depotAisle != -1) {
+            distance = distancesBetweenAisles * 2 * (Math.max(maxAisle, depotAisle) - Math.min(minAisle, depotAisle));
+        } else {
+            // The depot lies halfway between the two central aisles.
+            int leftAisle = (numberOfAisles / 2) - 1;
+            if (maxAisle <= leftAisle) {
+                distance = distancesBetweenAisles * (2 * (leftAisle - minAisle) + 1);
+            } else if (minAisle > leftAisle) {
+                distance = distancesBetweenAisles * (2 * (maxAisle - leftAisle - 1) + 1);
+            } else {
+                distance = distancesBetweenAisles * 2 * (maxAisle - minAisle);
+            }
+        }
+
+        // Cheapest traversal of each occupied aisle.
+        while (sweep.next()) {
+            distance += aisleBound(sweep.getMinHeight(), sweep.getMaxHeight(), sweep.getInnerGap());
+        }
+
+        return (distance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * sweep.getNumberOfItems());
+    }
+
+    /**
+     * Returns the length of the cheapest way of traversing an aisle with items.
+     *
+     * @param minHeight  The lowest height of the aisle.
+     * @param maxHeight  The highest height of the aisle.
+     * @param largestGap The largest gap between consecutive heights of the aisle.
+     * @return The minimum distance travelled in the aisle.
+     */
+    private double aisleBound(double minHeight, double maxHeight, double largestGap) {
+        double shelfLength = wh.getShelfLength();
+        double aisleWidth = wh.getAisleWidth();
+
+        double traversal = shelfLength + aisleWidth;
+        double fromBack = ((shelfLength - minHeight) * 2) + aisleWidth;
+        // Ratliff and Rosenthal pick the items at height 0 from the cross aisle, without entering the aisle.
+        double fromFront = maxHeight == 0 ? 0.0 : (maxHeight * 2) + aisleWidth;
+        double skipGap = ((shelfLength - largestGap) * 2) + aisleWidth;
+        return Math.min(Math.min(traversal, fromBack), Math.min(fromFront, skipGap));
+    }
+}
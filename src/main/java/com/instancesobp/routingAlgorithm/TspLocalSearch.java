@@ -0,0 +1,363 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.routingAlgorithm;
+
+import com.instancesobp.models.PickProfile;
+import com.instancesobp.models.Warehouse;
+
+/**
+ * Implements a general routing algorithm that solves the picking tour as a travelling
+ * salesman problem over the pick locations, with a 2-opt and Or-opt local search.
+ * <p>
+ * The tour starts with the S-shape order (aisles from left to right, alternating the
+ * direction inside each aisle) and is improved until no 2-opt move (reversal of a section
+ * of the tour) or Or-opt move (relocation of a chain of up to {@value #MAX_CHAIN} locations,
+ * in any direction) shortens it. The local search only reads the {@link DistanceMatrix} of the
+ * warehouse, copied once per call into a small local matrix, so it does not recompute any
+ * geometry. The final tour is measured with the exact height positions of the items, which
+ * may differ from the centres of their slots.
+ * <p>
+ * Unlike the routing policies, the tour is not restricted to any pattern, so it is usually
+ * close to the optimal tour and never shorter than the one of {@link RatliffRosenthal}.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public class TspLocalSearch extends RoutingAlgorithm {
+
+    /**
+     * Maximum number of consecutive locations relocated by an Or-opt move.
+     */
+    private static final int MAX_CHAIN = 3;
+
+    /**
+     * Minimum improvement of a move, to avoid cycling because of rounding errors.
+     */
+    private static final float EPSILON = 1e-4f;
+
+    /**
+     * Working buffers reused by the calls executed in the same thread.
+     */
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Distances between the locations of the warehouse.
+     */
+    private final DistanceMatrix distanceMatrix;
+
+    /**
+     * Constructor for the TspLocalSearch class, using the shared distance matrix of the warehouse.
+     *
+     * @param warehouse The warehouse object containing the layout and configuration details.
+     */
+    public TspLocalSearch(Warehouse warehouse) {
+        this(warehouse, DistanceMatrix.of(warehouse));
+    }
+
+    /**
+     * Constructor for the TspLocalSearch class.
+     *
+     * @param warehouse      The warehouse object containing the layout and configuration details.
+     * @param distanceMatrix The distance matrix of the warehouse (for example, a memory-mapped one).
+     */
+    public TspLocalSearch(Warehouse warehouse, DistanceMatrix distanceMatrix) {
+        super(warehouse);
+        this.distanceMatrix = distanceMatrix;
+    }
+
+    /**
+     * Executes the local search for the pick locations of a pick profile.
+     *
+     * @param profile The pick profile of the orders to be processed.
+     * @return The total time of the route that collects all items of the profile.
+     */
+    @Override
+    public double run(PickProfile profile) {
+        if (profile.isEmpty()) {
+            return 0; // If the profile is empty, no distance is traveled.
+        }
+
+        Scratch scratch = SCRATCH.get();
+        int size = loadLocations(profile, scratch);
+        loadDistances(scratch, size);
+
+        int[] tour = scratch.tour;
+        for (int i = 0; i < size; i++) {
+            tour[i] = i;
+        }
+        boolean improved = true;
+        while (improved) {
+            improved = twoOpt(scratch, size);
+            improved |= orOpt(scratch, size);
+        }
+
+        double totalDistance = 0;
+        for (int i = 0; i < size; i++) {
+            totalDistance += exactDistance(scratch, tour[i], tour[(i + 1) % size]);
+        }
+
+        return (totalDistance * wh.getTravelSpeed()) + wh.getDepotTime() + (wh.getPickingTime() * profile.getNumberOfItems());
+    }
+
+    /**
+     * Loads the depot and the distinct pick locations of a profile in S-shape order.
+     *
+     * @param profile The pick profile.
+     * @param scratch The working buffers of the current thread.
+     * @return The number of nodes of the tour, including the depot.
+     */
+    private int loadLocations(PickProfile profile, Scratch scratch) {
+        scratch.ensureCapacity(profile.getNumberOfItems() + 1);
+        int size = 1;
+        scratch.location[0] = DistanceMatrix.DEPOT;
+        for (int i = 0; i < profile.getNumberOfOccupiedAisles(); i++) {
+            int aisle = profile.getAisle(i);
+            boolean upwards = i % 2 == 0;
+            int start = profile.getHeightStart(i);
+            int end = profile.getHeightEnd(i);
+            for (int k = 0; k < end - start; k++) {
+                double height = profile.getHeight(upwards ? start + k : end - 1 - k);
+                if (size > 1 && scratch.aisle[size - 1] == aisle && scratch.height[size - 1] == height) {
+                    continue;
+                }
+                scratch.aisle[size] = aisle;
+                scratch.height[size] = height;
+                scratch.location[size] = distanceMatrix.locationIndex(aisle, 0, distanceMatrix.slotOf(height));
+                size++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Copies the distances between the nodes of the tour into the local matrix.
+     *
+     * @param scratch The working buffers of the current thread.
+     * @param size    The number of nodes.
+     */
+    private void loadDistances(Scratch scratch, int size) {
+        float[] distances = scratch.distances;
+        int[] location = scratch.location;
+        for (int i = 0; i < size; i++) {
+            distances[(i * size) + i] = 0;
+            for (int j = 0; j < i; j++) {
+                float distance = distanceMatrix.distance(location[i], location[j]);
+                distances[(i * size) + j] = distance;
+                distances[(j * size) + i] = distance;
+            }
+        }
+    }
+
+    /**
+     * Applies improving 2-opt moves until none is left.
+     *
+     * @param scratch The working buffers of the current thread.
+     * @param size    The number of nodes.
+     * @return {@code true} if the tour was improved.
+     */
+    private static boolean twoOpt(Scratch scratch, int size) {
+        int[] tour = scratch.tour;
+        float[] d = scratch.distances;
+        boolean improvedAny = false;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < size - 2; i++) {
+                int a = tour[i];
+                int b = tour[i + 1];
+                float ab = d[(a * size) + b];
+                for (int j = i + 2; j < size; j++) {
+                    if (i == 0 && j == size - 1) {
+                        continue;
+                    }
+                    int c = tour[j];
+                    int e = tour[(j + 1) % size];
+                    float delta = d[(a * size) + c] + d[(b * size) + e] - ab - d[(c * size) + e];
+                    if (delta < -EPSILON) {
+                        reverse(tour, i + 1, j);
+                        b = tour[i + 1];
+                        ab = d[(a * size) + b];
+                        improved = true;
+                        improvedAny = true;
+                    }
+                }
+            }
+        }
+        return improvedAny;
+    }
+
+    /**
+     * Applies improving Or-opt moves until none is left. The depot stays at the first position.
+     *
+     * @param scratch The working buffers of the current thread.
+     * @param size    The number of nodes.
+     * @return {@code true} if the tour was improved.
+     */
+    private static boolean orOpt(Scratch scratch, int size) {
+        int[] tour = scratch.tour;
+        float[] d = scratch.distances;
+        boolean improvedAny = false;
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int chain = 1; chain <= MAX_CHAIN && chain < size - 1; chain++) {
+                for (int start = 1; start + chain <= size; start++) {
+                    int end = start + chain - 1;
+                    int first = tour[start];
+                    int last = tour[end];
+                    int previous = tour[start - 1];
+                    int next = tour[(end + 1) % size];
+                    float removeGain = d[(previous * size) + first] + d[(last * size) + next] - d[(previous * size) + next];
+
+                    int bestPosition = -1;
+                    boolean bestReversed = false;
+                    float bestDelta = -EPSILON;
+                    for (int k = 0; k < size; k++) {
+                        if (k >= start - 1 && k <= end) {
+                            continue;
+                        }
+                        int a = tour[k];
+                        int b = tour[(k + 1) % size];
+                        float ab = d[(a * size) + b];
+                        float forward = d[(a * size) + first] + d[(last * size) + b] - ab - removeGain;
+                        float backward = d[(a * size) + last] + d[(first * size) + b] - ab - removeGain;
+                        if (forward < bestDelta) {
+                            bestDelta = forward;
+                            bestPosition = k;
+                            bestReversed = false;
+                        }
+                        if (backward < bestDelta) {
+                            bestDelta = backward;
+                            bestPosition = k;
+                            bestReversed = true;
+                        }
+                    }
+                    if (bestPosition >= 0) {
+                        moveChain(scratch, size, start, end, bestPosition, bestReversed);
+                        improved = true;
+                        improvedAny = true;
+                    }
+                }
+            }
+        }
+        return improvedAny;
+    }
+
+    /**
+     * Moves the chain of positions {@code [start, end]} after the position {@code position}.
+     *
+     * @param scratch  The working buffers of the current thread.
+     * @param size     The number of nodes.
+     * @param start    The first position of the chain.
+     * @param end      The last position of the chain.
+     * @param position The position after which the chain is inserted (outside the chain).
+     * @param reversed Whether the chain is inserted in reverse order.
+     */
+    private static void moveChain(Scratch scratch, int size, int start, int end, int position, boolean reversed) {
+        int[] tour = scratch.tour;
+        int[] buffer = scratch.buffer;
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (i >= start && i <= end) {
+                continue;
+            }
+            buffer[count++] = tour[i];
+            if (i == position) {
+                for (int k = 0; k <= end - start; k++) {
+                    buffer[count++] = tour[reversed ? end - k : start + k];
+                }
+            }
+        }
+        System.arraycopy(buffer, 0, tour, 0, size);
+    }
+
+    /**
+     * Reverses the positions {@code [from, to]} of a tour.
+     *
+     * @param tour The tour.
+     * @param from The first position.
+     * @param to   The last position.
+     */
+    private static void reverse(int[] tour, int from, int to) {
+        while (from < to) {
+            int swap = tour[from];
+            tour[from++] = tour[to];
+            tour[to--] = swap;
+        }
+    }
+
+    /**
+     * Calculates the exact distance between two nodes of the tour.
+     *
+     * @param scratch The working buffers of the current thread.
+     * @param from    The first node.
+     * @param to      The second node.
+     * @return The length of the shortest path between both nodes.
+     */
+    private double exactDistance(Scratch scratch, int from, int to) {
+        if (from == 0) {
+            return distanceMatrix.depotDistance(scratch.aisle[to], scratch.height[to]);
+        }
+        if (to == 0) {
+            return distanceMatrix.depotDistance(scratch.aisle[from], scratch.height[from]);
+        }
+        return distanceMatrix.distance(scratch.aisle[from], scratch.height[from], scratch.aisle[to], scratch.height[to]);
+    }
+
+    /**
+     * Working buffers of the algorithm. Each thread keeps its own instance,
+     * which grows with the largest profile routed.
+     */
+    private static final class Scratch {
+
+        /** Location index of each node. */
+        private int[] location = new int[0];
+
+        /** Aisle of each node. */
+        private int[] aisle = new int[0];
+
+        /** Height position of each node. */
+        private double[] height = new double[0];
+
+        /** Current tour, as a sequence of nodes starting at the depot. */
+        private int[] tour = new int[0];
+
+        /** Buffer used to rebuild the tour. */
+        private int[] buffer = new int[0];
+
+        /** Distances between the nodes, row by row. */
+        private float[] distances = new float[0];
+
+        /**
+         * Makes sure the buffers can hold a number of nodes.
+         *
+         * @param nodes The number of nodes.
+         */
+        private void ensureCapacity(int nodes) {
+            if (location.length < nodes) {
+                location = new int[nodes];
+                aisle = new int[nodes];
+                height = new double[nodes];
+                tour = new int[nodes];
+                buffer = new int[nodes];
+                distances = new float[nodes * nodes];
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.utils;
+
+import java.util.List;
+
+import com.instancesobp.models.Order;
+import com.instancesobp.models.PickProfile;
+
+/**
+ * Inverted index from the aisles of a warehouse to the orders that have items in them.
+ * <p>
+ * The orders are identified by their position in the list used to build the index. For each order
+ * the index keeps its sorted aisles, and for each aisle the orders that visit it, so the orders that
+ * share an aisle with a batch can be found in time proportional to their number instead of scanning
+ * all the orders. The arrays returned by the index are shared and must not be modified.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public final class AisleIndex {
+
+    /**
+     * The sorted aisles visited by each order.
+     */
+    private final int[][] aisles;
+
+    /**
+     * The orders that visit each aisle, in increasing order.
+     */
+    private final int[][] ordersByAisle;
+
+    /**
+     * Builds the index of a list of orders.
+     *
+     * @param orderList The list of orders.
+     */
+    public AisleIndex(List<Order> orderList) {
+        int n = orderList.size();
+        aisles = new int[n][];
+        int numberOfAisles = 0;
+        for (int order = 0; order < n; order++) {
+            PickProfile profile = orderList.get(order).getPickProfile();
+            aisles[order] = new int[profile.getNumberOfOccupiedAisles()];
+            for (int i = 0; i < aisles[order].length; i++) {
+                aisles[order][i] = profile.getAisle(i);
+                numberOfAisles = Math.max(numberOfAisles, aisles[order][i] + 1);
+            }
+        }
+
+        int[] sizes = new int[numberOfAisles];
+        for (int[] orderAisles : aisles) {
+            for (int aisle : orderAisles) {
+                sizes[aisle]++;
+            }
+        }
+        ordersByAisle = new int[numberOfAisles][];
+        for (int aisle = 0; aisle < numberOfAisles; aisle++) {
+            ordersByAisle[aisle] = new int[sizes[aisle]];
+            sizes[aisle] = 0;
+        }
+        for (int order = 0; order < n; order++) {
+            for (int aisle : aisles[order]) {
+                ordersByAisle[aisle][sizes[aisle]++] = order;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of orders of the index.
+     *
+     * @return The number of orders.
+     */
+    public int getNumberOfOrders() {
+        return aisles.length;
+    }
+
+    /**
+     * Gets the number of aisles of the index, one more than the highest aisle visited by any order.
+     *
+     * @return The number of aisles.
+     */
+    public int getNumberOfAisles() {
+        return ordersByAisle.length;
+    }
+
+    /**
+     * Gets the aisles visited by an order.
+     *
+     * @param order The position of the order.
+     * @return The sorted aisles of the order.
+     */
+    public int[] getAisles(int order) {
+        return aisles[order];
+    }
+
+    /**
+     * Gets the orders that visit an aisle.
+     *
+     * @param aisle The aisle.
+     * @return The positions of the orders, in increasing order.
+     */
+    public int[] getOrders(int aisle) {
+        return ordersByAisle[aisle];
+    }
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2025 Sergio Gil Borrás
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to use
+ * the Software for non-commercial research purposes only, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.instancesobp.utils;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from primitive {@code long} keys to primitive {@code double} values.
+ * <p>
+ * It uses open addressing with linear probing over two parallel arrays, so an entry takes
+ * 16 bytes of the table instead of the boxed key, boxed value and node of a
+ * {@code HashMap<Long, Double>}. The key 0 marks a free slot, so it is stored apart.
+ * The table doubles when it is three quarters full. Entries cannot be removed.
+ * The map is not thread-safe.
+ *
+ * @author Sergio Gil Borrás
+ * @version 1.0
+ */
+public final class LongDoubleHashMap {
+
+    /**
+     * Maximum fraction of used slots before the table grows.
+     */
+    private static final double LOAD_FACTOR = 0.75;
+
+    /**
+     * Keys of the slots; 0 marks a free slot.
+     */
+    private long[] keys;
+
+    /**
+     * Values of the slots.
+     */
+    private double[] values;
+
+    /**
+     * Mask of the slot index, the table length minus one.
+     */
+    private int mask;
+
+    /**
+     * Number of entries with a non-zero key.
+     */
+    private int size;
+
+    /**
+     * Whether the key 0 has a value.
+     */
+    private boolean hasZeroKey;
+
+    /**
+     * Value of the key 0.
+     */
+    private double zeroValue;
+
+    /**
+     * Constructs a map with room for a number of entries without growing.
+     *
+     * @param expectedSize The expected number of entries.
+     * @throws IllegalArgumentException If the expected size is negative or too large.
+     */
+    public LongDoubleHashMap(int expectedSize) {
+        if (expectedSize < 0 || expectedSize > (1 << 29)) {
+            throw new IllegalArgumentException("Invalid expected size: " + expectedSize + " [LongDoubleHashMap]");
+        }
+        int capacity = Integer.highestOneBit(Math.max(16, (int) Math.ceil(expectedSize / LOAD_FACTOR)) * 2 - 1);
+        allocate(capacity);
+    }
+
+    /**
+     * Constructs an empty map with a small initial table.
+     */
+    public LongDoubleHashMap() {
+        this(16);
+    }
+
+    /**
+     * Returns the value of a key.
+     *
+     * @param key          The key.
+     * @param defaultValue The value returned if the key is not in the map.
+     * @return The value of the key, or the default value.
+     */
+    public double get(long key, double defaultValue) {
+        if (key == 0) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return values[slot];
+            }
+            if (current == 0) {
+                return defaultValue;
+            }
+        }
+    }
+
+    /**
+     * Checks if a key is in the map.
+     *
+     * @param key The key.
+     * @return {@code true} if the key has a value.
+     */
+    public boolean containsKey(long key) {
+        if (key == 0) {
+            return hasZeroKey;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                return true;
+            }
+            if (current == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key   The key.
+     * @param value The value.
+     */
+    public void put(long key, double value) {
+        if (key == 0) {
+            hasZeroKey = true;
+            zeroValue = value;
+            return;
+        }
+        for (int slot = slot(key); ; slot = (slot + 1) & mask) {
+            long current = keys[slot];
+            if (current == key) {
+                values[slot] = value;
+                return;
+            }
+            if (current == 0) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size > LOAD_FACTOR * keys.length) {
+                    grow();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries of the map.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size + (hasZeroKey ? 1 : 0);
+    }
+
+    /**
+     * Removes all the entries of the map, keeping its table.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        hasZeroKey = false;
+    }
+
+    /**
+     * Gets the size in bytes of the table of the map.
+     *
+     * @return The memory used by the keys and values.
+     */
+    public long getMemoryFootprint() {
+        return 16L * keys.length;
+    }
+
+    /**
+     * Returns the first slot of a key.
+     *
+     * @param key The key.
+     * @return The slot where the search of the key starts.
+     */
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Allocates an empty table.
+     *
+     * @param capacity The number of slots, a power of two.
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Doubles the table and inserts the entries again.
+     *
+     * @throws IllegalStateException If the table cannot grow further.
+     */
+    private void grow() {
+        if (keys.length >= (1 << 30)) {
+            throw new IllegalStateException("The map cannot grow beyond " + keys.length + " slots [LongDoubleHashMap.grow]");
+        }
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(keys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != 0) {
+                int slot = slot(key);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}